@@ -1,6 +1,6 @@
 from collections import Counter
 from konlpy.tag import Okt
-from typing import List, Dict, Union
+from typing import List, Dict, Optional, Union
 
 class KeywordExtractor:
     def __init__(self):
@@ -10,14 +10,15 @@ class KeywordExtractor:
         self.stopwords = {'것', '수', '저', '제', '좀', '중'}
         print("키워드 추출기 초기화 완료.")
 
-    def extract(self, texts: List[str]) -> List[Dict[str, Union[str, int]]]:
+    def extract(self, texts: List[str], weights: Optional[List[int]] = None) -> List[Dict[str, Union[str, int]]]:
         # 키워드 추출 개수
         top_n = 20
         print(f"{len(texts)}개의 텍스트에서 키워드 추출 시작...")
-        all_nouns = []
+        counter = Counter()
 
-        # 모든 댓글을 순회하며 명사 추출
-        for text in texts:
+        # 모든 댓글을 순회하며 명사 추출 (weights가 있으면 댓글별 가중치만큼 셈)
+        for i, text in enumerate(texts):
+            weight = weights[i] if weights is not None else 1
             # 형태소 분석기를 사용해 명사만 추출
             nouns = self.okt.nouns(text)
             
@@ -26,14 +27,13 @@ class KeywordExtractor:
                 noun for noun in nouns 
                 if len(noun) > 1 and noun not in self.stopwords
             ]
-            all_nouns.extend(filtered_nouns)
+            for noun in filtered_nouns:
+                counter[noun] += weight
 
         # 모든 명사의 빈도수 계산
-        if not all_nouns:
+        if not counter:
             return [] # 추출된 명사가 없으면 빈 리스트 반환
 
-        counter = Counter(all_nouns)
-
         # 가장 많이 등장한 상위 N개 키워드를 튜플 리스트로 가져옴
         top_keyword_tuples = counter.most_common(top_n)
         
@@ -46,3 +46,23 @@ class KeywordExtractor:
         print(f"상위 {len(result)}개 키워드 추출 완료.")
         return result
 
+    def extract_grouped(self, texts: List[str], groups: List[Dict[str, int]]) -> Dict[str, List[Dict[str, Union[str, int]]]]:
+        # 그룹(요청 조각/영상)별 키워드: 댓글마다 명사 추출은 한 번만 하고 그룹별 가중치로 따로 셈
+        # groups[i] = 댓글 i가 속한 그룹 → 그 그룹에서 대신하는 댓글 수
+        top_n = 20
+        counters: Dict[str, Counter] = {}
+        for i, text in enumerate(texts):
+            nouns = [
+                noun for noun in self.okt.nouns(text)
+                if len(noun) > 1 and noun not in self.stopwords
+            ]
+            for group, weight in groups[i].items():
+                counter = counters.setdefault(group, Counter())
+                for noun in nouns:
+                    counter[noun] += max(1, weight)
+
+        return {
+            group: [{"keyword": keyword, "count": count} for keyword, count in counter.most_common(top_n)]
+            for group, counter in counters.items()
+        }
+
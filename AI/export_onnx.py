@@ -0,0 +1,56 @@
+import argparse
+import os
+
+import torch
+from transformers import AutoTokenizer, AutoModelForSequenceClassification
+
+# 감정 모델을 ONNX로 내보내기 (Spring 서버의 ai.backend=onnx 용)
+# 입력: input_ids / attention_mask / token_type_ids (batch, seq 가변), 출력: logits (batch, 3)
+# 내보낸 뒤 같은 문장으로 PyTorch 결과와 라벨이 같은지 확인
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--model", default="./model/sentiment_model")
+    parser.add_argument("--out", default="./model/sentiment_model/model.onnx")
+    parser.add_argument("--opset", type=int, default=17)
+    args = parser.parse_args()
+
+    if not os.path.exists(args.model):
+        raise FileNotFoundError(f"오류: '{os.path.abspath(args.model)}' 경로를 찾을 수 없습니다.")
+
+    tokenizer = AutoTokenizer.from_pretrained(args.model)
+    model = AutoModelForSequenceClassification.from_pretrained(args.model)
+    model.eval()
+
+    samples = ["이 영상 진짜 최고예요!!", "별로네요", "그냥 그래요 ㅋㅋ"]
+    inputs = tokenizer(samples, padding=True, truncation=True, return_tensors="pt")
+    names = ["input_ids", "attention_mask", "token_type_ids"]
+    axes = {n: {0: "batch", 1: "seq"} for n in names}
+    axes["logits"] = {0: "batch"}
+
+    with torch.no_grad():
+        torch.onnx.export(
+            model,
+            tuple(inputs[n] for n in names),
+            args.out,
+            input_names=names,
+            output_names=["logits"],
+            dynamic_axes=axes,
+            opset_version=args.opset,
+        )
+        expected = model(**inputs).logits.argmax(dim=-1).tolist()
+    print(f"ONNX 저장: {os.path.abspath(args.out)}")
+
+    try:
+        import onnxruntime as ort
+    except ImportError:
+        print("onnxruntime 미설치: 라벨 비교는 건너뜀")
+        return
+    session = ort.InferenceSession(args.out, providers=["CPUExecutionProvider"])
+    logits = session.run(["logits"], {n: inputs[n].numpy() for n in names})[0]
+    actual = logits.argmax(axis=-1).tolist()
+    print(f"PyTorch={expected} ONNX={actual} 일치={expected == actual}")
+
+
+if __name__ == "__main__":
+    main()
@@ -1,6 +1,6 @@
 import asyncio
 import time
-from typing import List, Dict, Any, Tuple, Union
+from typing import List, Dict, Any, Optional, Tuple, Union
 from contextlib import asynccontextmanager
 import uvicorn
 
@@ -19,6 +19,8 @@ class Comment(BaseModel):
     likeCount: int
     publishedAt: str
     prediction: int
+    weight: int = 1 # 같은 내용으로 묶인 댓글 수 (대표 댓글만 전송됨)
+    groups: Optional[Dict[str, int]] = None # 그룹(요청/영상)별로 이 댓글이 대신하는 댓글 수, 있으면 그룹별 키워드도 반환
 
 class Trace(BaseModel):
     requestId: str
@@ -171,8 +173,10 @@ class AnalysisBatchProcessor:
                 comment_global_index += num_comments_in_request # 다음 요청 시작 인덱스로 이동
 
                 # 키워드 추출 (각 요청별 인간 댓글 대상)
+                # 중복으로 묶여 대표만 온 댓글은 묶인 수만큼 빈도에 반영
                 human_texts = [c.text for c in human_objects]
-                top_keywords = keyword_extractor.extract(human_texts) if keyword_extractor and human_texts else []
+                human_weights = [max(1, c.weight) for c in human_objects]
+                top_keywords = keyword_extractor.extract(human_texts, human_weights) if keyword_extractor and human_texts else []
 
                 # 최종 응답 구성
                 final_response = {
@@ -181,6 +185,12 @@ class AnalysisBatchProcessor:
                     "detectedBotCount": detected_bot_count,
                     "topKeyword": top_keywords
                 }
+
+                # 여러 요청/영상을 합친 배치면 그룹별로 따로 센 키워드 (한 그룹의 키워드가 다른 그룹으로 새지 않게)
+                if any(c.groups for c in request_obj.comments):
+                    grouped = [c for c in human_objects if c.groups]
+                    final_response["topKeywordByGroup"] = keyword_extractor.extract_grouped(
+                        [c.text for c in grouped], [c.groups for c in grouped]) if keyword_extractor and grouped else {}
                 if not future.done(): # Future가 완료되지 않았을 때만 결과 설정
                     future.set_result(final_response)
 
@@ -1,27 +1,38 @@
 package com.example.youtube_comment_analysis;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+import io.lettuce.core.ReadFrom;
 
+//연결 설정은 spring.data.redis.* (단일 노드 / cluster.nodes / sentinel, lettuce.pool.*)
+//클러스터·센티넬이면 app.redis.read-from에 따라 캐시 조회를 레플리카에서 읽음 (락 SETNX/DEL 같은 쓰기는 항상 마스터)
 @Configuration
 public class RedisConfig {
-	
-	//영상 redis L2캐쉬(영상 메타데이터터 + 댓글)
+
+	//upstream(마스터만) / upstreamPreferred / replicaPreferred / replica / nearest / any
+	@Bean
+	public LettuceClientConfigurationBuilderCustomizer readFromCustomizer(
+			@Value("${app.redis.read-from:upstream}") String readFrom) {
+		ReadFrom rf = ReadFrom.valueOf(readFrom);
+		return builder -> builder.readFrom(rf);
+	}
+
+	//바이트 값 템플릿: 영상 redis L2캐쉬(스키마 봉투 JSON, VideoCacheCodec) + 직렬화된 응답 본문(JSON/gzip) 캐시
+	//reactive 클라이언트: 동시 요청의 명령이 공유 연결 하나에 자동으로 파이프라인됨
 	@Bean
-    public RedisTemplate<String, VideoAnalysisResponse> videoRedisTemplate(RedisConnectionFactory connectionFactory) {
-		RedisTemplate<String, VideoAnalysisResponse> tpl = new RedisTemplate<>();
-	    tpl.setConnectionFactory(connectionFactory);
-	    var serializer = new GenericJackson2JsonRedisSerializer(); 
-	    tpl.setKeySerializer(new StringRedisSerializer());
-	    tpl.setValueSerializer(serializer);
-	    tpl.setDefaultSerializer(serializer);
-	    tpl.afterPropertiesSet();
-	    return tpl;
-    }
+	public ReactiveRedisTemplate<String, byte[]> bodyRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+		RedisSerializationContext<String, byte[]> ctx = RedisSerializationContext
+				.<String, byte[]>newSerializationContext(new StringRedisSerializer())
+				.value(RedisSerializer.byteArray())
+				.build();
+		return new ReactiveRedisTemplate<>(connectionFactory, ctx);
+	}
 }
@@ -26,7 +26,7 @@ public class WebClientConfig {
     }
 	
 	@Bean(name = "youtubeHttpClient")
-    public HttpClient youtubeHttpClient(reactor.netty.resources.ConnectionProvider youtubePool) {
+    public HttpClient youtubeHttpClient(@org.springframework.beans.factory.annotation.Qualifier("youtubePool") reactor.netty.resources.ConnectionProvider youtubePool) {
         return HttpClient.create(youtubePool)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
                 .responseTimeout(Duration.ofSeconds(5))
@@ -45,13 +45,26 @@ public class WebClientConfig {
                 .build();
     }
 	
+	//FastAPI 전용 커넥션 풀: 유튜브 풀(yt-pool)과 분리, ai 격벽 크기에 맞춤
+	@Bean
+	public reactor.netty.resources.ConnectionProvider fastApiPool(
+			@Value("${app.load.ai.max-concurrent:4}") int aiMaxConcurrent) {
+		return reactor.netty.resources.ConnectionProvider.builder("fastapi-pool")
+				.maxConnections(Math.max(1, aiMaxConcurrent))
+				.pendingAcquireMaxCount(256)
+				.pendingAcquireTimeout(Duration.ofSeconds(5))
+				.maxIdleTime(Duration.ofSeconds(30))
+				.build();
+	}
+	
 	@Bean(name = "fastApiWebClient")
 	public WebClient fastApiWebClient(
+			@org.springframework.beans.factory.annotation.Qualifier("fastApiPool") reactor.netty.resources.ConnectionProvider fastApiPool,
 	        @Value("${fastapi.base-url}") String baseUrl,
 	        @Value("${fastapi.connect-timeout-ms:5000}") int connectTimeoutMs,
 	        @Value("${fastapi.response-timeout-ms:35000}") long responseTimeoutMs) {
 
-	    HttpClient httpClient = HttpClient.create()
+	    HttpClient httpClient = HttpClient.create(fastApiPool)
 	        .option(io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
 	        .responseTimeout(java.time.Duration.ofMillis(responseTimeoutMs))
 	        .doOnConnected(conn -> conn
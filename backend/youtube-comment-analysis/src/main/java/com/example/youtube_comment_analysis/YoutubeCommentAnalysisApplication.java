@@ -1,13 +1,24 @@
 package com.example.youtube_comment_analysis;
 
+import java.util.Arrays;
+
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class YoutubeCommentAnalysisApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(YoutubeCommentAnalysisApplication.class, args);
+		SpringApplication app = new SpringApplication(YoutubeCommentAnalysisApplication.class);
+		//일괄 분석 모드(--app.batch-runner.input=파일): 웹 서버 없이 BatchAnalysisRunner만 실행하고 종료
+		if (Arrays.stream(args).anyMatch(a -> a.startsWith("--app.batch-runner.input="))) {
+			app.setWebApplicationType(WebApplicationType.NONE);
+			System.exit(SpringApplication.exit(app.run(args)));
+		}
+		app.run(args);
 	}
 
 }
@@ -0,0 +1,491 @@
+package com.example.youtube_comment_analysis.ai;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.example.youtube_comment_analysis.video.CommentDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//JVM 전역 마이크로 배칭: 여러 요청의 댓글을 공용 큐에 모아 max-batch가 차거나 linger가 지나면 추론 백엔드로 한 번에 전송
+//응답은 댓글 id 기준으로 요청별 future에 다시 나눠 돌려줌
+//키워드는 조각(요청)별 그룹 키를 붙여 보내 서버가 그룹마다 따로 셈 → 다른 요청 댓글의 키워드가 섞이지 않음
+//백엔드: ai.backend=fastapi(기본, HTTP) | onnx(JVM 안 추론), 비교 샘플링 시 일부 배치를 다른 쪽에도 보내 라벨 일치율/속도 기록
+@Component
+@Slf4j
+public class AiBatchDispatcher {
+
+	private final FastApiBackend fastApiBackend;
+	private final OnnxSentimentBackend onnxBackend;
+	private final Bulkheads bulkheads;
+
+	@Value("${ai.backend:fastapi}")
+	private String backendName;
+
+	// 이 비율의 배치는 다른 백엔드로도 추론해 비교 (결과에는 반영 안 함)
+	@Value("${ai.compare.sample-rate:0}")
+	private double compareSampleRate;
+
+	private InferenceBackend primary;
+	private InferenceBackend shadow;
+
+	@Value("${fastapi.max-batch:500}")
+	private int maxBatch;
+
+	// 첫 댓글이 큐에 들어온 뒤 배치를 더 채우려고 기다리는 최대 시간 (0이면 큐에 있는 것만 바로 전송)
+	@Value("${fastapi.linger-ms:20}")
+	private long lingerMs;
+
+	private final LinkedBlockingDeque<Part> queue = new LinkedBlockingDeque<>();
+	private final AtomicInteger queuedComments = new AtomicInteger();
+	private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "ai-batch-send");
+		t.setDaemon(true);
+		return t;
+	});
+	private Thread flusher;
+	private volatile boolean running;
+
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong fullBatches = new AtomicLong();
+	private final AtomicLong lingerFlushes = new AtomicLong();
+	private final AtomicLong sentComments = new AtomicLong();
+	private final AtomicLong submissions = new AtomicLong();
+	private final AtomicLong lingerNsTotal = new AtomicLong();
+	private final AtomicLong lingerNsMax = new AtomicLong();
+	private final AtomicLong primaryComments = new AtomicLong();
+	private final AtomicLong primaryNs = new AtomicLong();
+	private final AtomicLong shadowComments = new AtomicLong();
+	private final AtomicLong shadowNs = new AtomicLong();
+	private final AtomicLong shadowFailures = new AtomicLong();
+	private final AtomicLong comparedComments = new AtomicLong();
+	private final AtomicLong agreedComments = new AtomicLong();
+	private final AtomicBoolean warnedNoGroupKeywords = new AtomicBoolean();
+
+	public AiBatchDispatcher(FastApiBackend fastApiBackend, OnnxSentimentBackend onnxBackend, Bulkheads bulkheads) {
+		this.fastApiBackend = fastApiBackend;
+		this.onnxBackend = onnxBackend;
+		this.bulkheads = bulkheads;
+	}
+
+	//요청 1건이 보낸 댓글 묶음의 결과: 봇이 아니라고 돌아온 id, 감정 예측, 그룹별 키워드, 실패 수
+	//keywords: 제출 때 준 그룹 → 키워드 → 빈도 (그룹을 안 줬으면 "" 하나)
+	//실패한 댓글 id: 5xx/네트워크(retryableIds)는 재시도 대상, 4xx(rejectedIds)는 다시 보내도 같은 결과라 제외
+	public record BatchReply(
+			Set<String> keptIds,
+			Map<String, Integer> predictions,
+			Map<String, Map<String, Integer>> keywords,
+			int failed4xx,
+			int failedOther,
+			Set<String> retryableIds,
+			Set<String> rejectedIds) {}
+
+	public record BatchingStats(
+			long batches,
+			long fullBatches,
+			long lingerFlushes,
+			long submissions,
+			double avgFillRatio,
+			double avgLingerMs,
+			double maxLingerMs,
+			int queuedComments,
+			long lingerMs,
+			int maxBatch,
+			String backend,
+			BackendComparison comparison) {}
+
+	//백엔드별 처리 속도(댓글당 ms) + 비교 샘플에서 두 백엔드 라벨이 같은 비율 (둘 다 예측을 낸 댓글 기준)
+	public record BackendComparison(
+			String primary,
+			String shadow,
+			double sampleRate,
+			long primaryComments,
+			double primaryMsPerComment,
+			long shadowComments,
+			double shadowMsPerComment,
+			long shadowFailures,
+			long comparedComments,
+			double agreement) {}
+
+	//요청 단위 결과 모음 (큐에서 여러 배치로 쪼개질 수 있음)
+	private static final class Ticket {
+		final CompletableFuture<BatchReply> future = new CompletableFuture<>();
+		final AtomicInteger openParts = new AtomicInteger(1);
+		final Set<String> keptIds = new HashSet<>();
+		final Map<String, Integer> predictions = new HashMap<>();
+		final Map<String, Map<String, Integer>> keywords = new HashMap<>();
+		final Set<String> retryableIds = new HashSet<>();
+		final Set<String> rejectedIds = new HashSet<>();
+		int failed4xx;
+		int failedOther;
+
+		void partDone() {
+			if (openParts.decrementAndGet() == 0) {
+				synchronized (this) {
+					future.complete(new BatchReply(keptIds, predictions, keywords, failed4xx, failedOther,
+							retryableIds, rejectedIds));
+				}
+			}
+		}
+	}
+
+	private static final class Part {
+		final Ticket ticket;
+		final List<CommentDto> comments;
+		final List<Map<String, Integer>> groups; // comments와 같은 순서, 그룹 → 대표 댓글이 대신하는 댓글 수
+		final long enqueuedNs;
+
+		Part(Ticket ticket, List<CommentDto> comments, List<Map<String, Integer>> groups, long enqueuedNs) {
+			this.ticket = ticket;
+			this.comments = comments;
+			this.groups = groups;
+			this.enqueuedNs = enqueuedNs;
+		}
+
+		//앞 n개는 이번 배치에, 나머지는 같은 요청의 새 조각으로 큐 앞에 되돌림
+		Part splitAfter(int n) {
+			ticket.openParts.incrementAndGet();
+			return new Part(ticket, comments.subList(n, comments.size()), groups.subList(n, groups.size()), enqueuedNs);
+		}
+
+		Part head(int n) {
+			return new Part(ticket, comments.subList(0, n), groups.subList(0, n), enqueuedNs);
+		}
+	}
+
+	@PostConstruct
+	void start() {
+		if ("onnx".equalsIgnoreCase(backendName)) {
+			primary = onnxBackend;
+			shadow = fastApiBackend;
+		}
+		else if ("fastapi".equalsIgnoreCase(backendName)) {
+			primary = fastApiBackend;
+			shadow = onnxBackend;
+		}
+		else {
+			throw new IllegalStateException("ai.backend는 fastapi | onnx: " + backendName);
+		}
+		if (compareSampleRate <= 0)
+			shadow = null;
+		if (primary == onnxBackend)
+			log.warn("ai.backend=onnx: 봇 판별/키워드 추출 없이 감정만 추론 (모든 댓글을 사람으로 보고 키워드는 비움)");
+		log.info("AI 추론 백엔드 primary={} compare={} sampleRate={}", primary.name(),
+				shadow == null ? "-" : shadow.name(), compareSampleRate);
+		running = true;
+		flusher = new Thread(this::flushLoop, "ai-batch-flusher");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	@PreDestroy
+	void stop() {
+		running = false;
+		if (flusher != null)
+			flusher.interrupt();
+		senders.shutdown();
+	}
+
+	public CompletableFuture<BatchReply> submit(List<CommentDto> comments) {
+		return submit(comments, null);
+	}
+
+	//groups: 댓글별 그룹 → 그 그룹에서 대신하는 중복 댓글 수 (null이면 모두 {"": 1})
+	//키워드는 그룹별로 따로 세어 BatchReply.keywords에 그룹 키로 돌려줌, 가중치 합은 전체 키워드 빈도 가중치
+	public CompletableFuture<BatchReply> submit(List<CommentDto> comments, List<Map<String, Integer>> groups) {
+		Ticket ticket = new Ticket();
+		if (comments == null || comments.isEmpty()) {
+			ticket.partDone();
+			return ticket.future;
+		}
+		if (groups != null && groups.size() != comments.size())
+			throw new IllegalArgumentException("groups 길이가 댓글 수와 다름: " + groups.size() + " != " + comments.size());
+		List<Map<String, Integer>> g = new ArrayList<>(comments.size());
+		for (int i = 0; i < comments.size(); i++)
+			g.add(groups == null || groups.get(i) == null || groups.get(i).isEmpty() ? Map.of("", 1) : Map.copyOf(groups.get(i)));
+		submissions.incrementAndGet();
+		queuedComments.addAndGet(comments.size());
+		queue.offer(new Part(ticket, List.copyOf(comments), g, System.nanoTime()));
+		return ticket.future;
+	}
+
+	public BatchingStats stats() {
+		long n = batches.get();
+		int cap = Math.max(1, maxBatch);
+		return new BatchingStats(
+				n,
+				fullBatches.get(),
+				lingerFlushes.get(),
+				submissions.get(),
+				n == 0 ? 0.0 : (double) sentComments.get() / (n * cap),
+				n == 0 ? 0.0 : lingerNsTotal.get() / 1e6 / n,
+				lingerNsMax.get() / 1e6,
+				queuedComments.get(),
+				lingerMs,
+				cap,
+				primary == null ? backendName : primary.name(),
+				new BackendComparison(
+						primary == null ? backendName : primary.name(),
+						shadow == null ? null : shadow.name(),
+						shadow == null ? 0.0 : compareSampleRate,
+						primaryComments.get(),
+						msPer(primaryNs.get(), primaryComments.get()),
+						shadowComments.get(),
+						msPer(shadowNs.get(), shadowComments.get()),
+						shadowFailures.get(),
+						comparedComments.get(),
+						comparedComments.get() == 0 ? 0.0 : (double) agreedComments.get() / comparedComments.get()));
+	}
+
+	private static double msPer(long ns, long comments) {
+		return comments == 0 ? 0.0 : ns / 1e6 / comments;
+	}
+
+	private void flushLoop() {
+		while (running) {
+			try {
+				Part first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+				int cap = Math.max(1, maxBatch);
+				long deadline = first.enqueuedNs + TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMs));
+				List<Part> parts = new ArrayList<>();
+				int size = add(parts, first, 0, cap);
+				while (size < cap) {
+					long wait = deadline - System.nanoTime();
+					Part next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+					if (next == null)
+						break;
+					size = add(parts, next, size, cap);
+				}
+				flush(parts, size, cap);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (Exception e) {
+				log.error("AI 배치 flush 루프 오류", e);
+			}
+		}
+	}
+
+	private int add(List<Part> parts, Part p, int size, int cap) {
+		int room = cap - size;
+		if (p.comments.size() > room) {
+			queue.offerFirst(p.splitAfter(room));
+			p = p.head(room);
+		}
+		parts.add(p);
+		queuedComments.addAndGet(-p.comments.size());
+		return size + p.comments.size();
+	}
+
+	private void flush(List<Part> parts, int size, int cap) {
+		long lingerNs = System.nanoTime() - parts.get(0).enqueuedNs;
+		batches.incrementAndGet();
+		if (size >= cap)
+			fullBatches.incrementAndGet();
+		else
+			lingerFlushes.incrementAndGet();
+		sentComments.addAndGet(size);
+		lingerNsTotal.addAndGet(lingerNs);
+		lingerNsMax.accumulateAndGet(lingerNs, Math::max);
+
+		//전송은 별도 스레드에서 (동시 배치 수는 ai 격벽이 제한), flusher는 바로 다음 배치 조립
+		senders.execute(() -> send(parts, size, lingerNs));
+	}
+
+	private void send(List<Part> parts, int size, long lingerNs) {
+		List<CommentDto> batch = new ArrayList<>(size);
+		for (Part p : parts)
+			batch.addAll(p.comments);
+
+		String requestId = UUID.randomUUID().toString();
+		String etag = AiSender.sha256For(batch);
+		//조각 번호를 그룹 키 앞에 붙여 요청끼리 그룹 이름이 겹쳐도 따로 세게 함
+		List<AiSentimentRequest.Comment> reqComments = new ArrayList<>(size);
+		Set<String> wireGroups = new HashSet<>();
+		for (int i = 0; i < parts.size(); i++) {
+			Part p = parts.get(i);
+			for (int k = 0; k < p.comments.size(); k++) {
+				CommentDto c = p.comments.get(k);
+				Map<String, Integer> groups = new HashMap<>();
+				int weight = 0;
+				for (var e : p.groups.get(k).entrySet()) {
+					int w = Math.max(1, e.getValue() == null ? 1 : e.getValue());
+					groups.put(wireGroup(i, e.getKey()), w);
+					weight += w;
+				}
+				wireGroups.addAll(groups.keySet());
+				reqComments.add(new AiSentimentRequest.Comment(c.getCommentId(), c.getAuthor(), c.getText(), c.getLikeCount(), c.getPublishedAt(), c.getPrediction(), weight, groups));
+			}
+		}
+		var req = new AiSentimentRequest(reqComments, new AiSentimentRequest.Trace(requestId, etag));
+
+		boolean clientError = false;
+		AiSentimentResponse body = null;
+		boolean ok = false;
+		try {
+			log.info("AI 추론 전송 backend={} reqId={} size={} parts={} linger={}ms etag={}",
+					primary.name(), requestId, size, parts.size(), String.format("%.1f", lingerNs / 1e6), etag);
+
+			//동시 배치 수는 ai 격벽으로 제한 (HTTP 연결 수 / ONNX 동시 실행 수)
+			long start = System.nanoTime();
+			body = bulkheads.ai().call(() -> primary.analyze(req));
+			primaryNs.addAndGet(System.nanoTime() - start);
+			primaryComments.addAndGet(size);
+			ok = true;
+		}
+		catch (InferenceBackend.Rejected e) {
+			clientError = true;
+			log.warn("AI 추론 거절 backend={} etag={} batchSize={}: {}", primary.name(), etag, size, e.getMessage());
+		}
+		catch (Exception e) {
+			log.error("AI 추론 실패 backend={} etag={} batchSize={}", primary.name(), etag, size, e);
+		}
+
+		Set<String> keepIds = new HashSet<>();
+		Map<String, Integer> id2pred = new HashMap<>();
+		if (body != null && body.comments() != null) {
+			for (CommentDto c : body.comments()) {
+				if (c == null || c.getCommentId() == null)
+					continue;
+				keepIds.add(c.getCommentId());
+				if (c.getPrediction() != null)
+					id2pred.put(c.getCommentId(), c.getPrediction());
+			}
+		}
+
+		Map<String, List<KeywordCount>> keywordsByGroup = ok ? keywordsByGroup(body, wireGroups) : Map.of();
+		for (int i = 0; i < parts.size(); i++) {
+			Part p = parts.get(i);
+			Ticket t = p.ticket;
+			synchronized (t) {
+				if (!ok) {
+					if (clientError)
+						t.failed4xx += p.comments.size();
+					else
+						t.failedOther += p.comments.size();
+					Set<String> failedIds = clientError ? t.rejectedIds : t.retryableIds;
+					for (CommentDto c : p.comments)
+						if (c.getCommentId() != null)
+							failedIds.add(c.getCommentId());
+				}
+				else {
+					for (CommentDto c : p.comments) {
+						String id = c.getCommentId();
+						if (id != null && keepIds.contains(id)) {
+							t.keptIds.add(id);
+							Integer pred = id2pred.get(id);
+							if (pred != null)
+								t.predictions.put(id, pred);
+						}
+					}
+					Set<String> callerGroups = new HashSet<>();
+					for (Map<String, Integer> g : p.groups)
+						callerGroups.addAll(g.keySet());
+					for (String group : callerGroups) {
+						List<KeywordCount> kws = keywordsByGroup.get(wireGroup(i, group));
+						if (kws == null)
+							continue;
+						Map<String, Integer> into = t.keywords.computeIfAbsent(group, k -> new HashMap<>());
+						for (KeywordCount kc : kws)
+							if (kc != null && kc.keyword() != null && kc.count() > 0)
+								into.merge(kc.keyword().trim(), kc.count(), Integer::sum);
+					}
+				}
+			}
+			t.partDone();
+		}
+
+		//비교는 결과를 돌려준 뒤에 (요청 지연에 더해지지 않게)
+		if (ok && shadow != null && ThreadLocalRandom.current().nextDouble() < compareSampleRate)
+			compare(req, body);
+	}
+
+	private static String wireGroup(int part, String group) {
+		return part + ":" + group;
+	}
+
+	//서버가 그룹별 키워드를 주지 않으면(구버전 서버/키워드 없는 백엔드) 그룹이 하나일 때만 전체 키워드를 그 그룹 몫으로
+	//그룹이 여럿이면 나눌 근거가 없으므로 버림 (비율로 나누면 다른 요청/영상의 키워드가 섞임)
+	private Map<String, List<KeywordCount>> keywordsByGroup(AiSentimentResponse body, Set<String> wireGroups) {
+		if (body == null)
+			return Map.of();
+		if (body.topKeywordByGroup() != null)
+			return body.topKeywordByGroup();
+		if (body.topKeyword() == null || body.topKeyword().isEmpty())
+			return Map.of();
+		if (wireGroups.size() == 1)
+			return Map.of(wireGroups.iterator().next(), body.topKeyword());
+		if (warnedNoGroupKeywords.compareAndSet(false, true))
+			log.warn("추론 서버가 topKeywordByGroup을 주지 않아 여러 그룹이 섞인 배치의 키워드는 버림 backend={}", primary.name());
+		return Map.of();
+	}
+
+	//같은 요청을 다른 백엔드로도 추론해 속도/라벨 일치 기록 (봇으로 걸러진 댓글은 비교 제외)
+	private void compare(AiSentimentRequest req, AiSentimentResponse primaryBody) {
+		AiSentimentResponse other;
+		long start = System.nanoTime();
+		try {
+			other = bulkheads.ai().call(() -> shadow.analyze(req));
+		}
+		catch (TooManyRequestsException e) {
+			return; // 격벽이 차 있으면 비교는 건너뜀
+		}
+		catch (Exception e) {
+			shadowFailures.incrementAndGet();
+			log.warn("비교 추론 실패 backend={}: {}", shadow.name(), e.getMessage());
+			return;
+		}
+		shadowNs.addAndGet(System.nanoTime() - start);
+		shadowComments.addAndGet(req.comments().size());
+
+		Map<String, Integer> mine = predictions(primaryBody);
+		Map<String, Integer> theirs = predictions(other);
+		int compared = 0, agreed = 0;
+		for (var e : mine.entrySet()) {
+			Integer p = theirs.get(e.getKey());
+			if (p == null)
+				continue;
+			compared++;
+			if (p.equals(e.getValue()))
+				agreed++;
+		}
+		comparedComments.addAndGet(compared);
+		agreedComments.addAndGet(agreed);
+		if (agreed < compared)
+			log.info("백엔드 라벨 불일치 {}/{} ({} vs {})", compared - agreed, compared, primary.name(), shadow.name());
+	}
+
+	private static Map<String, Integer> predictions(AiSentimentResponse body) {
+		Map<String, Integer> out = new HashMap<>();
+		if (body != null && body.comments() != null)
+			for (CommentDto c : body.comments())
+				if (c != null && c.getCommentId() != null && c.getPrediction() != null)
+					out.put(c.getCommentId(), c.getPrediction());
+		return out;
+	}
+}
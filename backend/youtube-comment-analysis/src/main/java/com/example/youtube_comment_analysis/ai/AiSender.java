@@ -2,24 +2,25 @@ package com.example.youtube_comment_analysis.ai;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import com.example.youtube_comment_analysis.video.CommentBatch;
 import com.example.youtube_comment_analysis.video.CommentDto;
 
 import lombok.extern.slf4j.Slf4j;
@@ -27,178 +28,356 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @Slf4j
 public class AiSender {
-	private final WebClient fastApiWebClient;
+	private final AiBatchDispatcher dispatcher;
+	private final LexicalPreClassifier preClassifier;
 	
-	public AiSender(@Qualifier("fastApiWebClient") WebClient fastApiWebClient) {
-        this.fastApiWebClient = fastApiWebClient;
+	public AiSender(AiBatchDispatcher dispatcher, LexicalPreClassifier preClassifier) {
+        this.dispatcher = dispatcher;
+        this.preClassifier = preClassifier;
     }
 	
-	@Value("${fastapi.comment-analysis-path:/analyze/comments}")
-    private String path;
-	
-	@Value("${fastapi.timeout-ms:20000}")
-    private long timeoutMs;
-	
 	@Value("${fastapi.max-batch:500}")
     private int maxBatch;
 	
-	//ai서버에 댓글 전송 함수
+	private static final String SINGLE = "";
+	
+	//요청 1건이 동시에 큐에 올려 두는 최대 배치 수 (요청 DTO는 이 배치들만큼만 메모리에 만들어짐)
+	@Value("${fastapi.max-inflight-batches:8}")
+	private int maxInflightBatches;
+	
+	//근사 중복(변형 스팸) 묶기: 추정 Jaccard 문턱 / 대상 최소 글자 수 / 응답에 보고할 최소 묶음 크기
+	@Value("${app.near-dup.enabled:true}")
+	private boolean nearDupEnabled;
+	
+	@Value("${app.near-dup.threshold:0.7}")
+	private double nearDupThreshold;
+	
+	@Value("${app.near-dup.min-chars:20}")
+	private int nearDupMinChars;
+	
+	@Value("${app.near-dup.min-cluster-size:5}")
+	private int spamMinClusterSize;
+	
+	//DTO 목록 전송 (표본 모드/재시도): 결과 감정은 각 DTO의 prediction에 기록, 봇/실패는 null
 	public SendResult send(List<CommentDto> allComments) {
 		if (allComments == null || allComments.isEmpty()) {
-            return new SendResult(List.of(), List.of(), 0,0,0);
+            return new SendResult(List.of(), List.of(), 0,0,0, DedupSummary.empty(), 0, 0, List.of(), List.of());
         }
-			
-		List<List<CommentDto>> batches = chunk(allComments, Math.max(1, maxBatch));
+		List<CommentDto> list = allComments.stream().filter(Objects::nonNull).toList();
+		try (CommentBatch batch = CommentBatch.inMemory()) {
+			for (CommentDto c : list)
+				batch.add(c.getCommentId(), c.getAuthor(), c.getText(),
+						c.getLikeCount() == null ? 0 : c.getLikeCount(), CommentBatch.parseEpoch(c.getPublishedAt()));
+			SendResult r = send(batch);
+			for (int i = 0; i < list.size(); i++)
+				list.get(i).setPrediction(batch.isLabeled(i) ? batch.label(i) : null);
+			return r;
+		}
+	}
+	
+	//ai서버에 댓글 전송 함수: 결과 감정은 배치의 라벨 열에 기록
+	public SendResult send(CommentBatch comments) {
+		return sendGrouped(Map.of(SINGLE, comments)).get(SINGLE);
+	}
+	
+	//여러 영상의 댓글을 한 번에 꽉 찬 배치로 보내고 결과를 그룹(영상)별로 다시 나눔
+	//키워드는 댓글마다 영상별 중복 수를 같이 보내 서버가 영상별로 따로 센 값을 그대로 씀
+	//전역 행 번호 = 그룹 순서대로 이어 붙인 위치, 중복/결과 매칭은 모두 int 배열로
+	public Map<String, SendResult> sendGrouped(Map<String, CommentBatch> groups) {
+		List<String> names = new ArrayList<>(groups.keySet());
+		int[] base = new int[names.size() + 1];
+		for (int p = 0; p < names.size(); p++)
+			base[p + 1] = base[p] + groups.get(names.get(p)).size();
+		int total = base[names.size()];
+		int[] partOf = new int[total];
+		for (int p = 0; p < names.size(); p++)
+			Arrays.fill(partOf, base[p], base[p + 1], p);
+		
+		//같은 텍스트는 대표 1개만 전송하고 결과를 중복 댓글에 다시 펼침 (대표 → 다음 중복 연결 리스트)
+		//처음 나온 텍스트는 근사 중복 색인에도 넣어, 앞서 나온 변형과 비슷하면 그 묶음에 합침 (전송 안 함)
+		//repOf: 묶음 대표(전송 대상), exactOf: 완전히 같은 텍스트의 첫 댓글
+		int[] repOf = new int[total];
+		int[] exactOf = new int[total];
+		int[] nextDup = new int[total];
+		int[] tail = new int[total];
+		Arrays.fill(nextDup, -1);
+		List<Integer> reps = new ArrayList<>();
+		Map<Long, Integer> byHash = new HashMap<>(Math.max(16, total * 2));
+		NearDuplicateIndex near = nearDupEnabled ? new NearDuplicateIndex(total, nearDupThreshold, nearDupMinChars) : null;
+		int exactDistinct = 0, nearFolded = 0;
+		for (int g = 0; g < total; g++) {
+			CommentBatch b = groups.get(names.get(partOf[g]));
+			String norm = CommentDeduplicator.normalize(b.text(g - base[partOf[g]]));
+			Integer rep = (norm == null || norm.isEmpty()) ? null : byHash.putIfAbsent(CommentDeduplicator.hash64(norm), g);
+			int root;
+			if (rep == null) {
+				exactOf[g] = g;
+				exactDistinct++;
+				int similar = near == null ? -1 : near.offer(g, norm);
+				if (similar < 0) {
+					reps.add(g);
+					repOf[g] = g;
+					tail[g] = g;
+					continue;
+				}
+				root = repOf[similar];
+				nearFolded++;
+			}
+			else {
+				exactOf[g] = rep;
+				root = repOf[rep];
+			}
+			repOf[g] = root;
+			nextDup[tail[root]] = g;
+			tail[root] = g;
+		}
+		byHash = null;
+		near = null;
+		DedupSummary allDedup = DedupSummary.of(total, exactDistinct);
 		
-	    Map<String, Integer> globalKeyword=new HashMap<>(256);
-	    Set<String> seenIds=new HashSet<>();
-	    List<CommentDto> keptAll=new ArrayList<>();
+		//어휘 규칙으로 확실한 묶음은 여기서 라벨 (모델 전송 제외), 감사 표본은 모델에도 보내 일치율 기록
+		Map<Integer, LexicalPreClassifier.Verdict> audits = new HashMap<>();
+		Map<LexicalPreClassifier.Rule, Integer> localByRule = new EnumMap<>(LexicalPreClassifier.Rule.class);
+		int localLabeled = 0;
+		if (preClassifier.enabled()) {
+			List<Integer> toModel = new ArrayList<>(reps.size());
+			for (int g : reps) {
+				LexicalPreClassifier.Verdict v = preClassifier.classify(row(groups, names, base, partOf, g).text(g - base[partOf[g]]));
+				if (v == null) {
+					toModel.add(g);
+					continue;
+				}
+				if (preClassifier.sampleAudit()) {
+					audits.put(g, v);
+					toModel.add(g);
+					continue;
+				}
+				for (int m = g; m >= 0; m = nextDup[m]) {
+					row(groups, names, base, partOf, m).setLabel(m - base[partOf[m]], v.label());
+					localByRule.merge(v.rule(), 1, Integer::sum);
+					localLabeled++;
+				}
+			}
+			reps = toModel;
+			preClassifier.recordLabeled(total, localByRule);
+		}
+		
+		int batchSize = Math.max(1, maxBatch);
+		int batchCount = (reps.size() + batchSize - 1) / batchSize;
+		
+	    List<Map<String, Integer>> keywordByPart = new ArrayList<>();
+	    int[] rejectedByPart = new int[names.size()];
+	    List<List<CommentDto>> retryByPart = new ArrayList<>();
+	    for (int p = 0; p < names.size(); p++) {
+	    	keywordByPart.add(new HashMap<>(256));
+	    	retryByPart.add(new ArrayList<>());
+	    }
 		
 		String requestId = UUID.randomUUID().toString();
+		log.info("중복 접기 reqId={} total={} distinct={} collapseRatio={} nearFolded={} local={} sent={}",
+				requestId, allDedup.totalComments(), allDedup.distinctTexts(),
+				String.format("%.3f", allDedup.collapseRatio()), nearFolded, localLabeled, reps.size());
 		
 		int ok = 0, fail4xx = 0, failOther = 0;
 		
-		for(int b = 0;b<batches.size();b++) {
-			List<CommentDto> batch = batches.get(b);
-			int batchNo = b + 1;
-			int totalBatches = batches.size();
-			String etag=sha256For(batch);
-			
-			var req=new AiSentimentRequest(batch.stream()
-					.map(c->new AiSentimentRequest.Comment(c.getCommentId(), c.getAuthor(),c.getText(), c.getLikeCount(), c.getPublishedAt(),c.getPrediction()))
-					.toList(), 
-					new AiSentimentRequest.Trace(requestId, etag));
-			
-			long startNs = System.nanoTime();
-			
+		//배치는 공용 디스패처 큐에 넣고(다른 요청 댓글과 합쳐 전송) 순서대로 결과 대기
+		//동시에 올려 두는 배치 수를 제한해 요청 DTO가 전체 댓글 수만큼 만들어지지 않게 함
+		int window = Math.max(1, maxInflightBatches);
+		List<List<CommentDto>> requests = new ArrayList<>(batchCount);
+		List<CompletableFuture<AiBatchDispatcher.BatchReply>> pending = new ArrayList<>(batchCount);
+		for (int b = 0; b < Math.min(window, batchCount); b++)
+			submit(b, reps, batchSize, groups, names, base, partOf, nextDup, requests, pending);
+		
+		for(int b = 0;b<batchCount;b++) {
+			List<CommentDto> batch = requests.get(b);
+			if (b + window < batchCount)
+				submit(b + window, reps, batchSize, groups, names, base, partOf, nextDup, requests, pending);
+			int from = b * batchSize;
+			AiBatchDispatcher.BatchReply reply;
 			try {
-				log.info("AI서버로 전송 reqId={} batchNo={}/{} size={} etag={}",
-	                    requestId, batchNo, totalBatches, batch.size(), etag);
-				
-				ResponseEntity<AiSentimentResponse> resp = fastApiWebClient.post()
-		                .uri(path)
-		                .bodyValue(req)
-		                .retrieve()
-		                .toEntity(AiSentimentResponse.class)
-		                //.timeout(Duration.ofMillis(timeoutMs))
-		                .block();
-				
-				int code=resp!=null ? resp.getStatusCode().value() : -1;
-				
-				if(code>=200 && code<300) {
-					ok+=batch.size();
-					log.info("AI서버로 전송 성공: batchSize={} etag={}", batch.size(), etag);
-					
-					if (resp == null || resp.getBody() == null) 
-						continue;
-					
-	                AiSentimentResponse body = resp.getBody();
-	                
-	                if (body.topKeyword() != null) {
-	                    for (KeywordCount kc : body.topKeyword()) {
-	                        if (kc == null || kc.keyword() == null) 
-	                        	continue;
-	                        String key = kc.keyword().trim();
-	                        int add = Math.max(0, kc.count());
-	                        globalKeyword.merge(key, add, Integer::sum);
-	                    }
-	                }
-	                
-	                List<CommentDto> analyzed = (body.comments() != null) ? body.comments() : List.of();  
-	                Set<String> keepIds = new HashSet<>(Math.max(16, analyzed.size() * 2));
-	                Map<String, Integer> id2pred = new HashMap<>(Math.max(16, analyzed.size() * 2));
-	                
-	                for (CommentDto c : analyzed) {
-	                    if (c == null) 
-	                    	continue;
-	                    String id = c.getCommentId();
-	                    if (id != null) {
-	                        keepIds.add(id);
-	                        if (c.getPrediction() != null) 
-	                        	id2pred.put(id, c.getPrediction());
-	                    }
-	                }
-	                
-	                int updated = 0, unmatched = 0, missingId = 0;
-	                for (CommentDto orig : batch) {
-	                    if (orig == null) 
-	                    	continue;
-	                    String id = orig.getCommentId();
-	                    if (id == null) {
-	                    	missingId++; 
-	                    	continue;
-	                    }
-	                    if (keepIds.contains(id) && seenIds.add(id)) {
-	                        Integer p = id2pred.get(id);
-	                        if (p != null) {
-	                        	orig.setPrediction(p);
-	                        	updated++;
-	                        }
-	                        	
-	                        keptAll.add(orig);
-	                    }
-	                    else {
-	                    	unmatched++;
-	                    }
-	                }
-	                log.info("AI apply: updated={}, unmatched(no-returned)={}, missingId={}",
-                            updated, unmatched, missingId);
+				reply = pending.get(b).join();
+			}
+			catch(Exception e) {
+				failOther += batch.size();
+				log.error("AI 배치 결과 대기 실패 reqId={} batchNo={}/{}", requestId, b + 1, batchCount, e);
+				for (int k = 0; k < batch.size(); k++)
+					for (int m = reps.get(from + k); m >= 0; m = nextDup[m])
+						retryByPart.get(partOf[m]).add(row(groups, names, base, partOf, m).toDto(m - base[partOf[m]]));
+				release(requests, pending, b);
+				continue;
+			}
+			fail4xx += reply.failed4xx();
+			failOther += reply.failedOther();
+			
+			int updated = 0, unmatched = 0, missingId = 0, unpredicted = 0;
+			for (int k = 0; k < batch.size(); k++) {
+				String id = batch.get(k).getCommentId();
+				int rep = reps.get(from + k);
+				if (id == null) {
+					missingId++;
+					continue;
+				}
+				if (reply.keptIds().contains(id)) {
+					Integer p = reply.predictions().get(id);
+					LexicalPreClassifier.Verdict audit = audits.get(rep);
+					if (audit != null && p != null)
+						preClassifier.recordAudit(batch.get(k).getText(), audit, p);
+					//대표의 봇 판정/감정 결과를 같은 텍스트의 댓글 전체에 적용
+					//사람으로 남았지만 감정 결과가 없는 댓글은 미분류 그대로 (감정 집계/대표 댓글에서 빠짐)
+					for (int m = rep; m >= 0; m = nextDup[m]) {
+						if (p != null) {
+							row(groups, names, base, partOf, m).setLabel(m - base[partOf[m]], p);
+							updated++;
+						}
+						else {
+							unpredicted++;
+						}
+					}
 				}
-				else if(code >= 400 && code < 500) {
-					fail4xx += batch.size();
-					log.warn("FastAPI 클라이언트 오류 {} etag={} batchSize={}", code, etag, batch.size());
+				else if (reply.retryableIds().contains(id)) {
+					for (int m = rep; m >= 0; m = nextDup[m])
+						retryByPart.get(partOf[m]).add(row(groups, names, base, partOf, m).toDto(m - base[partOf[m]]));
+				}
+				else if (reply.rejectedIds().contains(id)) {
+					for (int m = rep; m >= 0; m = nextDup[m])
+						rejectedByPart[partOf[m]]++;
 				}
 				else {
-					failOther += batch.size();
-					log.error("FastAPI non-2xx {} etag={} batchSize={}", code, etag, batch.size());
+					//결과에 없는 댓글 = AI 서버가 봇으로 걸러낸 댓글 (같은 묶음 전체)
+					unmatched++;
+					for (int m = rep; m >= 0; m = nextDup[m])
+						row(groups, names, base, partOf, m).markBot(m - base[partOf[m]]);
 				}
 			}
-			catch(WebClientResponseException e) {
-				fail4xx += batch.size();
-				log.error("FastAPI HTTP {} {} body={}", e.getRawStatusCode(), e.getStatusText(), e.getResponseBodyAsString(), e);
-			}
-			catch(Exception e) {
-				failOther += batch.size();
-				log.error("FastAPI send failed etag={} batchSize={}", etag, batch.size(), e);
+			ok += updated;
+			
+			//키워드는 영상(그룹)별로 따로 센 값 그대로 → 다른 영상 댓글의 키워드가 섞이지 않음
+			for (int p = 0; p < names.size(); p++) {
+				Map<String, Integer> kws = reply.keywords().get(names.get(p));
+				if (kws == null)
+					continue;
+				Map<String, Integer> into = keywordByPart.get(p);
+				kws.forEach((k, c) -> into.merge(k, c, Integer::sum));
 			}
+			log.info("AI apply: updated={}, unpredicted={}, unmatched(no-returned)={}, missingId={}",
+					updated, unpredicted, unmatched, missingId);
+			release(requests, pending, b);
 		}
 		
-		long predicted = allComments.stream().filter(c -> c.getPrediction()!=null).count();
-		log.info("분류 완료 reqId={} total={} predicted={} ok={} 4xx={} other={}",
-	            requestId, allComments.size(), predicted, ok, fail4xx, failOther);
-		
-		//댓글 집계
-		List<CommentDto> topLikedFlattened=getGlobalComments(keptAll);
+		log.info("분류 완료 reqId={} total={} ok={} local={} 4xx={} other={}",
+	            requestId, total, ok, localLabeled, fail4xx, failOther);
 		
-		//키워드 집계
-	    List<KeywordCount> topKeywordGlobal=getGlobalKeyword(globalKeyword, 3);
-	    
-	    //감정 비율 집개
-	    int pos = 0, neu = 0, neg = 0;
-	    for (CommentDto c : keptAll) {
-	        Integer p = c.getPrediction();
-	        if (p == null) 
-	        	continue;
-	        if (p == 2) 
-	        	pos++;
-	        else if (p == 1) 
-	        	neu++;
-	        else if (p == 0) 
-	        	neg++;
-	    }
+		Map<String, SendResult> results = new HashMap<>();
+		for (int p = 0; p < names.size(); p++) {
+			CommentBatch b = groups.get(names.get(p));
+			
+			//댓글 집계 (감정별 좋아요 상위만 DTO로)
+			List<CommentDto> topLikedFlattened = getGlobalComments(b);
+			
+			//키워드 집계
+		    List<KeywordCount> topKeywordGlobal=getGlobalKeyword(keywordByPart.get(p), 3);
+		    
+		    //감정 비율 집개
+		    int pos = 0, neu = 0, neg = 0;
+		    for (int r = 0; r < b.size(); r++) {
+		        int label = b.label(r);
+		        if (label == 2) 
+		        	pos++;
+		        else if (label == 1) 
+		        	neu++;
+		        else if (label == 0) 
+		        	neg++;
+		    }
+		    
+		    DedupSummary dedup;
+		    if (names.size() == 1) {
+		    	dedup = allDedup;
+		    }
+		    else {
+		    	Set<Integer> distinct = new HashSet<>();
+		    	for (int g = base[p]; g < base[p + 1]; g++)
+		    		distinct.add(exactOf[g]);
+		    	dedup = DedupSummary.of(b.size(), distinct.size());
+		    }
+		    results.put(names.get(p), new SendResult(topLikedFlattened, topKeywordGlobal, pos, neu, neg, dedup,
+		    		b.size(), rejectedByPart[p], retryByPart.get(p),
+		    		spamClusters(b, base[p], partOf, p, repOf, exactOf, nextDup)));
+		}
+	    return results;
+	}
+	
+	//b번째 배치의 대표 댓글만 DTO로 만들어 디스패처에 제출
+	private void submit(int b, List<Integer> reps, int batchSize, Map<String, CommentBatch> groups, List<String> names,
+			int[] base, int[] partOf, int[] nextDup, List<List<CommentDto>> requests,
+			List<CompletableFuture<AiBatchDispatcher.BatchReply>> pending) {
+		int from = b * batchSize, to = Math.min(reps.size(), from + batchSize);
+		List<CommentDto> batch = new ArrayList<>(to - from);
+		List<Map<String, Integer>> groupCounts = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			int g = reps.get(i);
+			CommentDto dto = row(groups, names, base, partOf, g).toDto(g - base[partOf[g]]);
+			dto.setPrediction(0); // 기존 요청 형식 유지
+			batch.add(dto);
+			//대표가 대신하는 댓글 수를 영상(그룹)별로 보냄 → 키워드 빈도를 영상마다 따로 셈
+			Map<String, Integer> counts = new HashMap<>();
+			for (int m = g; m >= 0; m = nextDup[m])
+				counts.merge(names.get(partOf[m]), 1, Integer::sum);
+			groupCounts.add(counts);
+		}
+		requests.add(batch);
+		pending.add(dispatcher.submit(batch, groupCounts));
+	}
+	
+	//결과를 반영한 배치의 요청 DTO는 바로 놓아줌
+	private static void release(List<List<CommentDto>> requests, List<CompletableFuture<AiBatchDispatcher.BatchReply>> pending, int b) {
+		requests.set(b, List.of());
+		pending.set(b, null);
+	}
+	
+	private static CommentBatch row(Map<String, CommentBatch> groups, List<String> names, int[] base, int[] partOf, int g) {
+		return groups.get(names.get(partOf[g]));
+	}
+	
+	//그룹 p 안에서 크기가 spamMinClusterSize 이상인 묶음 (큰 순), 예시는 서로 다른 텍스트만
+	private List<SpamCluster> spamClusters(CommentBatch b, int from, int[] partOf, int p, int[] repOf, int[] exactOf,
+			int[] nextDup) {
+		Map<Integer, Integer> sizes = new HashMap<>();
+		for (int r = 0; r < b.size(); r++)
+			sizes.merge(repOf[from + r], 1, Integer::sum);
+		List<Integer> roots = sizes.entrySet().stream()
+				.filter(e -> e.getValue() >= Math.max(2, spamMinClusterSize))
+				.sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+						.thenComparing(Map.Entry::getKey))
+				.limit(SpamCluster.REPORT_LIMIT)
+				.map(Map.Entry::getKey)
+				.toList();
 		
-	    return new SendResult(topLikedFlattened, topKeywordGlobal, pos, neu, neg);
+		List<SpamCluster> clusters = new ArrayList<>(roots.size());
+		for (int root : roots) {
+			Set<Integer> variants = new HashSet<>();
+			List<String> samples = new ArrayList<>(SpamCluster.SAMPLE_TEXTS);
+			Integer prediction = null;
+			boolean first = true;
+			for (int m = root; m >= 0; m = nextDup[m]) {
+				if (partOf[m] != p)
+					continue;
+				if (first) {
+					prediction = b.isLabeled(m - from) ? b.label(m - from) : null;
+					first = false;
+				}
+				if (variants.add(exactOf[m]) && samples.size() < SpamCluster.SAMPLE_TEXTS) {
+					String text = b.text(m - from);
+					samples.add(text == null || text.length() <= SpamCluster.SAMPLE_CHARS
+							? text : text.substring(0, SpamCluster.SAMPLE_CHARS) + "…");
+				}
+			}
+			clusters.add(new SpamCluster(sizes.get(root), variants.size(), prediction, samples));
+		}
+		return clusters;
 	}
+
 	 
-	 private static List<List<CommentDto>> chunk(List<CommentDto> list, int size) {
-	        List<List<CommentDto>> out = new ArrayList<>();
-	        for (int i = 0; i < list.size(); i += size) {
-	            out.add(list.subList(i, Math.min(i + size, list.size())));
-	        }
-	        return out;
-	    }
-	 
-	 private static String sha256For(List<CommentDto> comments) {
+	 static String sha256For(List<CommentDto> comments) {
 	        try {
 	            MessageDigest md = MessageDigest.getInstance("SHA-256");
 	            String payload = comments.stream()
@@ -251,4 +430,33 @@ public class AiSender {
 		 
 		 return topLikedFlattened;
 	 }
+	 
+	 //댓글 집계 (배치): 라벨별 좋아요 상위 10개만 크기 10 힙으로 골라 DTO로 만듦, 정렬 기준은 위와 같음
+	 public static List<CommentDto> getGlobalComments(CommentBatch comments){
+		 Comparator<Integer> better =
+				 Comparator.comparingLong((Integer r) -> comments.likes(r))
+				 	.reversed()
+				 	.thenComparing(Comparator.comparingLong((Integer r) -> comments.epochSecond(r)).reversed())
+				 	.thenComparing(comments::commentId, Comparator.nullsLast(Comparator.naturalOrder()));
+		 List<PriorityQueue<Integer>> tops = new ArrayList<>(3);
+		 for (int p = 0; p < 3; p++)
+			 tops.add(new PriorityQueue<>(11, better.reversed()));
+		 for (int r = 0; r < comments.size(); r++) {
+			 int label = comments.label(r);
+			 if (label < 0 || label > 2)
+				 continue;
+			 PriorityQueue<Integer> top = tops.get(label);
+			 top.add(r);
+			 if (top.size() > 10)
+				 top.poll();
+		 }
+		 List<CommentDto> topLikedFlattened = new ArrayList<>(30);
+		 for (PriorityQueue<Integer> top : tops) {
+			 List<Integer> rows = new ArrayList<>(top);
+			 rows.sort(better);
+			 for (int r : rows)
+				 topLikedFlattened.add(comments.toDto(r));
+		 }
+		 return topLikedFlattened;
+	 }
 }
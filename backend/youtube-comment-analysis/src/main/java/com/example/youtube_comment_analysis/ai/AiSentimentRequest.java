@@ -1,8 +1,11 @@
 package com.example.youtube_comment_analysis.ai;
 
 import java.util.List;
+import java.util.Map;
 
 public record AiSentimentRequest(List<Comment>comments, Trace trace) {
-	public record Comment(String id, String author,String text, Long likeCount, String publishedAt,Integer prediction) {}
+	//groups: 그룹(요청 조각/영상) → 이 댓글이 그 그룹에서 대신하는 댓글 수, 있으면 서버가 그룹별 키워드를 따로 셈
+	public record Comment(String id, String author,String text, Long likeCount, String publishedAt,Integer prediction, int weight,
+			Map<String, Integer> groups) {}
 	public record Trace(String requestId, String analysisETag) {}
 }
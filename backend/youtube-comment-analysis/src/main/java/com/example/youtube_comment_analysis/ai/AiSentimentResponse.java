@@ -1,6 +1,7 @@
 package com.example.youtube_comment_analysis.ai;
 
 import java.util.List;
+import java.util.Map;
 
 import com.example.youtube_comment_analysis.video.CommentDto;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -9,6 +10,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 public record AiSentimentResponse(
 		List<CommentDto> comments, 
         Integer detectedBotCount, 
-        List<KeywordCount> topKeyword) {
+        List<KeywordCount> topKeyword,
+        Map<String, List<KeywordCount>> topKeywordByGroup) { // 요청에 groups가 있을 때만, 그룹별로 따로 센 키워드
 
 }
@@ -0,0 +1,37 @@
+package com.example.youtube_comment_analysis.ai;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+//AI 전송 전 완전 중복 텍스트 접기: 정규화된 텍스트 해시가 같은 댓글은 대표 1개만 전송 (AiSender가 행 번호로 묶음)
+public final class CommentDeduplicator {
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private CommentDeduplicator() {}
+
+	//NFKC 정규화 + 공백 정리 + 소문자
+	static String normalize(String text) {
+		if (text == null)
+			return null;
+		String n = Normalizer.normalize(text, Normalizer.Form.NFKC);
+		n = WHITESPACE.matcher(n.strip()).replaceAll(" ");
+		return n.toLowerCase(Locale.ROOT);
+	}
+
+	//긴 스팸 본문을 키로 들고 있지 않도록 SHA-256 앞 8바이트만 키로 사용
+	static long hash64(String norm) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(norm.getBytes(StandardCharsets.UTF_8));
+			return ByteBuffer.wrap(digest).getLong();
+		}
+		catch (NoSuchAlgorithmException e) {
+			return norm.hashCode();
+		}
+	}
+}
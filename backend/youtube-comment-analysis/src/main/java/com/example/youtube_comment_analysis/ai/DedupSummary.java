@@ -0,0 +1,17 @@
+package com.example.youtube_comment_analysis.ai;
+
+//중복 접기 결과: collapseRatio = 1 - distinctTexts/totalComments
+public record DedupSummary(
+		int totalComments,
+		int distinctTexts,
+		double collapseRatio) {
+
+	public static DedupSummary of(int total, int distinct) {
+		double ratio = total == 0 ? 0.0 : 1.0 - ((double) distinct / total);
+		return new DedupSummary(total, distinct, ratio);
+	}
+
+	public static DedupSummary empty() {
+		return new DedupSummary(0, 0, 0.0);
+	}
+}
@@ -0,0 +1,56 @@
+package com.example.youtube_comment_analysis.ai;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import lombok.extern.slf4j.Slf4j;
+
+//FastAPI 서버 추론 (봇 판별 + 감정 + 키워드), 기본 백엔드
+@Component
+@Slf4j
+public class FastApiBackend implements InferenceBackend {
+
+	private final WebClient fastApiWebClient;
+
+	@Value("${fastapi.comment-analysis-path:/analyze/comments}")
+	private String path;
+
+	public FastApiBackend(@Qualifier("fastApiWebClient") WebClient fastApiWebClient) {
+		this.fastApiWebClient = fastApiWebClient;
+	}
+
+	@Override
+	public String name() {
+		return "fastapi";
+	}
+
+	@Override
+	public AiSentimentResponse analyze(AiSentimentRequest request) {
+		ResponseEntity<AiSentimentResponse> resp;
+		try {
+			resp = fastApiWebClient.post()
+					.uri(path)
+					.bodyValue(request)
+					.retrieve()
+					.toEntity(AiSentimentResponse.class)
+					.block();
+		}
+		catch (WebClientResponseException e) {
+			log.error("FastAPI HTTP {} {} body={}", e.getRawStatusCode(), e.getStatusText(), e.getResponseBodyAsString());
+			if (e.getStatusCode().is4xxClientError())
+				throw new Rejected("FastAPI " + e.getRawStatusCode(), e);
+			throw e;
+		}
+
+		int code = resp != null ? resp.getStatusCode().value() : -1;
+		if (code >= 200 && code < 300)
+			return resp.getBody();
+		if (code >= 400 && code < 500)
+			throw new Rejected("FastAPI 클라이언트 오류 " + code, null);
+		throw new IllegalStateException("FastAPI non-2xx " + code);
+	}
+}
@@ -0,0 +1,17 @@
+package com.example.youtube_comment_analysis.ai;
+
+//AI 배치 1개를 추론하는 경로 (FastAPI HTTP / JVM 안 ONNX), 디스패처가 ai 격벽 안에서 호출
+//응답 형식은 FastAPI와 같음: 봇이 아닌 댓글만 comments에(prediction 채움) + 배치 단위 키워드(요청에 groups가 있으면 그룹별로도)
+//다시 보내도 같은 결과인 실패(4xx 등)는 Rejected, 나머지 예외는 재시도 대상
+public interface InferenceBackend {
+
+	String name();
+
+	AiSentimentResponse analyze(AiSentimentRequest request);
+
+	class Rejected extends RuntimeException {
+		public Rejected(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+}
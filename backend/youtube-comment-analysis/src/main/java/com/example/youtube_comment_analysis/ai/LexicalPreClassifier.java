@@ -0,0 +1,250 @@
+package com.example.youtube_comment_analysis.ai;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AI 전송 전 어휘 규칙 분류: 이모지만/웃음(ㅋㅋ, ㅎㅎ)/짧은 상투 문구처럼 뻔한 댓글은 모델 없이 라벨을 붙임.
+ * - 댓글 전체가 아는 단위(이모지, 웃음 반복, 사전 문구)와 공백/문장부호로만 이뤄져야 함 → 모르는 글자가 하나라도 있으면 모델로
+ * - 단위마다 (감정, 확신도), 감정이 섞이면 모델로, 같으면 확신도 = 1 - Π(1 - c) → threshold 이상만 로컬 라벨
+ * - 감사(audit): 로컬로 확신한 댓글 중 audit-rate 비율은 그래도 모델에 보내 라벨 일치율을 기록 (결과는 모델 라벨)
+ * 로컬 라벨 댓글은 봇 판별도 거치지 않음 (짧은 이모지/웃음은 봇 탐지 대상이 아님)
+ */
+@Component
+@Slf4j
+public class LexicalPreClassifier {
+
+	public enum Rule { EMOJI, LAUGHTER, LEXICON, MIXED }
+
+	//label: 0=부정, 1=중립, 2=긍정
+	public record Verdict(int label, double confidence, Rule rule) {}
+
+	public record AuditSample(String text, Rule rule, int localLabel, int modelLabel) {}
+
+	public record RuleStats(long labeled, long audited, long agreed, double agreement) {}
+
+	public record PreClassifierStats(
+			boolean enabled,
+			double threshold,
+			double auditRate,
+			long comments,
+			long locallyLabeled,
+			double localShare,
+			long audited,
+			long agreed,
+			double agreement,
+			Map<Rule, RuleStats> byRule,
+			List<AuditSample> recentDisagreements) {}
+
+	@Value("${app.pre-classifier.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.pre-classifier.threshold:0.9}")
+	private double threshold;
+
+	@Value("${app.pre-classifier.audit-rate:0.05}")
+	private double auditRate;
+
+	//이보다 긴 댓글은 규칙 대상 아님 (문맥이 생기면 상투 문구도 뜻이 달라짐)
+	@Value("${app.pre-classifier.max-chars:30}")
+	private int maxChars;
+
+	private static final int NEG = 0, NEU = 1, POS = 2;
+	private static final double LAUGHTER_CONFIDENCE = 0.9;
+	private static final int RECENT_DISAGREEMENTS = 50;
+	private static final int SAMPLE_CHARS = 80;
+
+	private record Unit(int label, double confidence) {}
+
+	private static final Map<Integer, Unit> EMOJI = new HashMap<>();
+	private static final Map<String, Unit> LEXICON = new HashMap<>();
+	private static final int MAX_PHRASE;
+
+	static {
+		for (String e : new String[] { "😀", "😁", "😂", "🤣", "😃", "😄", "😆", "😊", "☺", "😍", "🥰", "😘", "😻",
+				"🤗", "👍", "👏", "🙌", "💯", "🔥", "🎉", "✨", "❤", "💕", "💖", "💗", "💓", "💞", "💘", "💙", "💚",
+				"💛", "💜", "🧡", "🤍", "🖤", "🥳", "😎", "🤩", "👌", "💪", "🙏", "♡", "♥" })
+			EMOJI.put(e.codePointAt(0), new Unit(POS, 0.9));
+		for (String e : new String[] { "😡", "😠", "🤬", "😤", "👎", "💢", "🤮", "🤢", "😒", "🙄", "💩" })
+			EMOJI.put(e.codePointAt(0), new Unit(NEG, 0.9));
+		for (String e : new String[] { "🤔", "😐", "😶", "👀" })
+			EMOJI.put(e.codePointAt(0), new Unit(NEU, 0.8));
+
+		//공백 없이 비교 (댓글도 단위 사이 공백은 건너뜀)
+		for (String p : new String[] { "최고", "최고다", "최고네", "최고에요", "최고예요", "최고입니다", "최고최고", "짱", "짱이다",
+				"짱이에요", "대박", "대박이다", "대박이네", "대박이에요", "굿", "굳", "good", "best", "nice", "love", "wow",
+				"좋아요", "좋네요", "좋다", "좋아", "너무좋아요", "너무좋다", "감사합니다", "감사해요", "고마워요", "고맙습니다",
+				"사랑해요", "사랑해", "사랑합니다", "멋져요", "멋지다", "멋있다", "멋있어요", "귀여워", "귀여워요", "귀엽다",
+				"재밌다", "재밌어요", "재미있어요", "개웃기네", "웃기다", "웃겨요", "잘봤습니다", "잘봤어요", "잘보고갑니다",
+				"응원합니다", "응원해요", "화이팅", "파이팅", "힐링", "힐링됩니다", "존경합니다", "레전드", "천재", "명곡" })
+			LEXICON.put(p, new Unit(POS, 0.95));
+		for (String p : new String[] { "별로", "별로다", "별로네요", "노잼", "재미없다", "재미없어요", "노답", "실망", "실망이다",
+				"실망입니다", "최악", "최악이다", "쓰레기", "싫어요", "싫다", "짜증", "짜증나", "짜증나네", "구리다", "구려",
+				"역겹다", "비추", "극혐", "bad", "worst", "boring" })
+			LEXICON.put(p, new Unit(NEG, 0.95));
+		for (String p : new String[] { "1등", "2등", "3등", "첫댓", "첫댓글", "ㅇㅇ", "ㅇㅋ", "오케이", "ok", "first" })
+			LEXICON.put(p, new Unit(NEU, 0.9));
+		MAX_PHRASE = LEXICON.keySet().stream().mapToInt(String::length).max().orElse(1);
+	}
+
+	private final AtomicLong comments = new AtomicLong();
+	private final AtomicLong locallyLabeled = new AtomicLong();
+	private final Map<Rule, AtomicLong[]> byRule = new EnumMap<>(Rule.class);
+	private final ArrayDeque<AuditSample> recentDisagreements = new ArrayDeque<>();
+
+	public LexicalPreClassifier() {
+		for (Rule r : Rule.values())
+			byRule.put(r, new AtomicLong[] { new AtomicLong(), new AtomicLong(), new AtomicLong() });
+	}
+
+	public boolean enabled() {
+		return enabled;
+	}
+
+	//확신도가 threshold 이상인 판정만, 아니면 null (모델로)
+	public Verdict classify(String text) {
+		if (!enabled || text == null)
+			return null;
+		String t = Normalizer.normalize(text.strip(), Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+		if (t.isEmpty() || t.codePointCount(0, t.length()) > maxChars)
+			return null;
+
+		int label = -1;
+		double miss = 1.0;
+		Rule rule = null;
+		for (int i = 0; i < t.length(); ) {
+			int cp = t.codePointAt(i);
+			if (Character.isWhitespace(cp) || isPunctuation(cp) || isEmojiModifier(cp)) {
+				i += Character.charCount(cp);
+				continue;
+			}
+			Unit unit;
+			Rule kind;
+			int next;
+			if (isLaughter(cp)) {
+				next = i + 1;
+				while (next < t.length() && isLaughter(t.charAt(next)))
+					next++;
+				unit = new Unit(POS, LAUGHTER_CONFIDENCE);
+				kind = Rule.LAUGHTER;
+			}
+			else if ((unit = EMOJI.get(cp)) != null) {
+				next = i + Character.charCount(cp);
+				kind = Rule.EMOJI;
+			}
+			else {
+				next = -1;
+				for (int len = Math.min(MAX_PHRASE, t.length() - i); len > 0; len--) {
+					Unit u = LEXICON.get(t.substring(i, i + len));
+					//영문 문구는 단어 중간에서 끝나면 안 됨 (goodbye → good)
+					if (u != null && (i + len == t.length() || !Character.isLetterOrDigit(t.charAt(i + len))
+							|| !isLatin(t.charAt(i + len - 1)))) {
+						unit = u;
+						next = i + len;
+						break;
+					}
+				}
+				if (next < 0)
+					return null; // 모르는 글자
+				kind = Rule.LEXICON;
+			}
+			if (label >= 0 && label != unit.label())
+				return null; // 감정이 섞임
+			label = unit.label();
+			miss *= 1 - unit.confidence();
+			rule = (rule == null || rule == kind) ? kind : Rule.MIXED;
+			i = next;
+		}
+		if (label < 0)
+			return null; // 부호/공백만
+		double confidence = 1 - miss;
+		return confidence >= threshold ? new Verdict(label, confidence, rule) : null;
+	}
+
+	//이번 로컬 라벨을 감사 표본으로 모델에도 보낼지
+	public boolean sampleAudit() {
+		return auditRate > 0 && ThreadLocalRandom.current().nextDouble() < auditRate;
+	}
+
+	//전송 1회 집계: 전체 댓글 수 / 로컬 라벨 댓글 수 (규칙별)
+	public void recordLabeled(int total, Map<Rule, Integer> local) {
+		comments.addAndGet(total);
+		for (var e : local.entrySet()) {
+			locallyLabeled.addAndGet(e.getValue());
+			byRule.get(e.getKey())[0].addAndGet(e.getValue());
+		}
+	}
+
+	public void recordAudit(String text, Verdict v, int modelLabel) {
+		AtomicLong[] c = byRule.get(v.rule());
+		c[1].incrementAndGet();
+		if (v.label() == modelLabel) {
+			c[2].incrementAndGet();
+			return;
+		}
+		String sample = text.length() > SAMPLE_CHARS ? text.substring(0, SAMPLE_CHARS) : text;
+		log.debug("어휘 분류 불일치 rule={} local={} model={} text={}", v.rule(), v.label(), modelLabel, sample);
+		synchronized (recentDisagreements) {
+			if (recentDisagreements.size() >= RECENT_DISAGREEMENTS)
+				recentDisagreements.pollFirst();
+			recentDisagreements.addLast(new AuditSample(sample, v.rule(), v.label(), modelLabel));
+		}
+	}
+
+	public PreClassifierStats stats() {
+		long audited = 0, agreed = 0;
+		Map<Rule, RuleStats> rules = new EnumMap<>(Rule.class);
+		for (var e : byRule.entrySet()) {
+			AtomicLong[] c = e.getValue();
+			long a = c[1].get(), ok = c[2].get();
+			audited += a;
+			agreed += ok;
+			rules.put(e.getKey(), new RuleStats(c[0].get(), a, ok, a == 0 ? 0.0 : (double) ok / a));
+		}
+		List<AuditSample> recent;
+		synchronized (recentDisagreements) {
+			recent = new ArrayList<>(recentDisagreements);
+		}
+		long total = comments.get(), local = locallyLabeled.get();
+		return new PreClassifierStats(enabled, threshold, auditRate, total, local,
+				total == 0 ? 0.0 : (double) local / total, audited, agreed,
+				audited == 0 ? 0.0 : (double) agreed / audited, rules, recent);
+	}
+
+	//ㅋ ㅎ (호환 자모 + 초성 자모)
+	private static boolean isLaughter(int cp) {
+		return cp == 'ㅋ' || cp == 'ㅎ' || cp == 'ᄏ' || cp == 'ᄒ';
+	}
+
+	//이모지 변형 선택자 / ZWJ / 피부색 수식자
+	private static boolean isEmojiModifier(int cp) {
+		return cp == 0xFE0F || cp == 0xFE0E || cp == 0x200D || (cp >= 0x1F3FB && cp <= 0x1F3FF);
+	}
+
+	private static boolean isPunctuation(int cp) {
+		if (cp == '~' || cp == '^')
+			return true;
+		int t = Character.getType(cp);
+		return t == Character.OTHER_PUNCTUATION || t == Character.DASH_PUNCTUATION
+				|| t == Character.START_PUNCTUATION || t == Character.END_PUNCTUATION
+				|| t == Character.CONNECTOR_PUNCTUATION || t == Character.INITIAL_QUOTE_PUNCTUATION
+				|| t == Character.FINAL_QUOTE_PUNCTUATION;
+	}
+
+	private static boolean isLatin(char c) {
+		return c < 128 && Character.isLetter(c);
+	}
+}
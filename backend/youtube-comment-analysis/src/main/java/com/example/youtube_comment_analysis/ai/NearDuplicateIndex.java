@@ -0,0 +1,136 @@
+package com.example.youtube_comment_analysis.ai;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 근사 중복 텍스트 찾기 (MinHash + LSH 밴딩): 댓글을 순서대로 한 번씩 넣으며 앞서 들어온 비슷한 댓글을 찾음.
+ * - 정규화 텍스트의 3글자 shingle → 해시 32개 MinHash 서명 (8밴드 × 4행, 후보가 되는 Jaccard 문턱 ≈ 0.59)
+ * - 밴드별 버킷에는 처음 들어온 문서 1개만 두고 그것과만 비교 → 문서당 비교 최대 BANDS번 (선형 시간)
+ * - 비교는 서명 하위 8비트(b-bit MinHash) 일치율로 Jaccard 추정, threshold 이상이면 같은 묶음
+ * 메모리: 문서당 서명 32바이트 + 버킷 테이블(대상 문서 × 밴드). 짧은 텍스트는 shingle이 적어 오탐이 많아 minChars 미만은 제외.
+ * 스레드 안전하지 않음 (요청 1건 안에서만 사용).
+ */
+final class NearDuplicateIndex {
+
+	private static final int SHINGLE = 3;
+	private static final int BANDS = 8;
+	private static final int ROWS = 4;
+	private static final int K = BANDS * ROWS;
+	private static final long[] MUL = new long[K];
+	private static final long[] ADD = new long[K];
+
+	static {
+		//고정 시드: 인스턴스/재시작과 무관하게 같은 텍스트는 같은 서명
+		SplittableRandom rnd = new SplittableRandom(0x5eed_c0de_2024L);
+		for (int k = 0; k < K; k++) {
+			MUL[k] = rnd.nextLong() | 1L;
+			ADD[k] = rnd.nextLong();
+		}
+	}
+
+	private final double threshold;
+	private final int minChars;
+	private final byte[] signatures;
+
+	// 버킷 테이블 (open addressing): 밴드 키 → 처음 들어온 문서, 키 0은 빈 칸
+	private long[] keys = new long[1024];
+	private int[] docs = new int[1024];
+	private int used;
+
+	NearDuplicateIndex(int maxDocs, double threshold, int minChars) {
+		this.threshold = threshold;
+		this.minChars = Math.max(SHINGLE, minChars);
+		this.signatures = new byte[maxDocs * K];
+	}
+
+	/**
+	 * doc(0 ~ maxDocs-1)을 넣고, 앞서 넣은 문서 중 비슷한 것이 있으면 그 문서 번호, 없으면 -1.
+	 * 비슷한 문서를 찾아도 비어 있는 버킷에는 doc을 넣어 둠 → 뒤에 올 변형이 doc을 통해서도 이어짐
+	 */
+	int offer(int doc, String norm) {
+		if (norm == null || norm.length() < minChars)
+			return -1;
+
+		int[] mins = new int[K];
+		Arrays.fill(mins, Integer.MAX_VALUE);
+		for (int i = 0; i + SHINGLE <= norm.length(); i++) {
+			long x = fmix64(((long) norm.charAt(i) << 32) ^ ((long) norm.charAt(i + 1) << 16) ^ norm.charAt(i + 2));
+			for (int k = 0; k < K; k++) {
+				int h = (int) ((x * MUL[k] + ADD[k]) >>> 33);
+				if (h < mins[k])
+					mins[k] = h;
+			}
+		}
+		int off = doc * K;
+		for (int k = 0; k < K; k++)
+			signatures[off + k] = (byte) mins[k];
+
+		int match = -1;
+		for (int band = 0; band < BANDS; band++) {
+			long key = band + 1;
+			for (int r = 0; r < ROWS; r++)
+				key = key * 0x9E3779B97F4A7C15L + mins[band * ROWS + r];
+			key = fmix64(key);
+			if (key == 0)
+				key = 1;
+			int first = putIfAbsent(key, doc);
+			if (match < 0 && first >= 0 && similar(doc, first))
+				match = first;
+		}
+		return match;
+	}
+
+	//8비트 일치율 m에서 우연 일치(1/256)를 빼 Jaccard 추정
+	private boolean similar(int a, int b) {
+		int same = 0;
+		for (int k = 0; k < K; k++)
+			if (signatures[a * K + k] == signatures[b * K + k])
+				same++;
+		double chance = 1.0 / 256;
+		return ((double) same / K - chance) / (1 - chance) >= threshold;
+	}
+
+	//이미 있으면 기존 문서, 없으면 넣고 -1
+	private int putIfAbsent(long key, int doc) {
+		if ((used + 1) * 2 > keys.length)
+			grow();
+		int mask = keys.length - 1;
+		for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+			if (keys[i] == 0) {
+				keys[i] = key;
+				docs[i] = doc;
+				used++;
+				return -1;
+			}
+			if (keys[i] == key)
+				return docs[i];
+		}
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		int[] oldDocs = docs;
+		keys = new long[oldKeys.length * 2];
+		docs = new int[oldKeys.length * 2];
+		int mask = keys.length - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] == 0)
+				continue;
+			int i = (int) oldKeys[j] & mask;
+			while (keys[i] != 0)
+				i = (i + 1) & mask;
+			keys[i] = oldKeys[j];
+			docs[i] = oldDocs[j];
+		}
+	}
+
+	private static long fmix64(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
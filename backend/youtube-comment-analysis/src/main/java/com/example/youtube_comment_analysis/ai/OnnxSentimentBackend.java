@@ -0,0 +1,182 @@
+package com.example.youtube_comment_analysis.ai;
+
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.video.CommentDto;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JVM 안에서 감정 모델(AI/model/sentiment_model의 ONNX 내보내기)을 CPU로 실행 (HTTP/JSON 왕복 없음).
+ * - 토큰화는 같은 tokenizer.json으로 (WordPieceTokenizer), logits argmax라 서버와 같은 라벨
+ * - 배치는 토큰 길이순으로 정렬해 batch-size개씩 가장 긴 문장 길이로만 패딩 (attention mask로 결과는 패딩과 무관)
+ * - 봇 판별/키워드 추출은 FastAPI 전용 모델이라 여기선 하지 않음: 모든 댓글을 사람으로 보고 키워드는 비움
+ * ai.backend=onnx 이거나 비교 샘플링(ai.compare.sample-rate > 0)일 때만 모델을 읽음
+ */
+@Component
+@Slf4j
+public class OnnxSentimentBackend implements InferenceBackend {
+
+	@Value("${ai.backend:fastapi}")
+	private String backend;
+
+	@Value("${ai.compare.sample-rate:0}")
+	private double compareSampleRate;
+
+	@Value("${ai.onnx.model-path:}")
+	private String modelPath;
+
+	@Value("${ai.onnx.tokenizer-path:}")
+	private String tokenizerPath;
+
+	@Value("${ai.onnx.intra-op-threads:4}")
+	private int intraOpThreads;
+
+	@Value("${ai.onnx.batch-size:32}")
+	private int batchSize;
+
+	@Value("${ai.onnx.max-length:512}")
+	private int maxLength;
+
+	private OrtEnvironment env;
+	private OrtSession session;
+	private WordPieceTokenizer tokenizer;
+	private Set<String> inputNames;
+
+	@PostConstruct
+	void load() throws Exception {
+		if (!"onnx".equalsIgnoreCase(backend) && compareSampleRate <= 0)
+			return;
+		if (modelPath.isBlank() || tokenizerPath.isBlank())
+			throw new IllegalStateException("ai.onnx.model-path / ai.onnx.tokenizer-path 설정 필요");
+
+		tokenizer = WordPieceTokenizer.load(Path.of(tokenizerPath), maxLength);
+		env = OrtEnvironment.getEnvironment();
+		try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+			options.setIntraOpNumThreads(Math.max(1, intraOpThreads));
+			options.setInterOpNumThreads(1);
+			options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+			session = env.createSession(modelPath, options);
+		}
+		inputNames = session.getInputNames();
+		log.info("ONNX 감정 모델 로드 path={} inputs={} intraOpThreads={} batchSize={}",
+				modelPath, inputNames, intraOpThreads, batchSize);
+	}
+
+	@PreDestroy
+	void close() throws OrtException {
+		if (session != null)
+			session.close();
+	}
+
+	public boolean loaded() {
+		return session != null;
+	}
+
+	@Override
+	public String name() {
+		return "onnx";
+	}
+
+	@Override
+	public AiSentimentResponse analyze(AiSentimentRequest request) {
+		if (session == null)
+			throw new IllegalStateException("ONNX 모델이 로드되지 않음 (ai.backend=onnx 또는 ai.compare.sample-rate 확인)");
+		List<AiSentimentRequest.Comment> comments = request.comments();
+		int[] labels = predict(comments.stream().map(AiSentimentRequest.Comment::text).toList());
+
+		List<CommentDto> out = new ArrayList<>(comments.size());
+		for (int i = 0; i < comments.size(); i++) {
+			AiSentimentRequest.Comment c = comments.get(i);
+			out.add(new CommentDto(c.id(), c.author(), c.text(), c.likeCount(), c.publishedAt(), labels[i]));
+		}
+		return new AiSentimentResponse(out, 0, List.of(), null);
+	}
+
+	//텍스트별 라벨 (0=부정, 1=중립, 2=긍정), 입력 순서 그대로
+	int[] predict(List<String> texts) {
+		int n = texts.size();
+		int[][] encoded = new int[n][];
+		for (int i = 0; i < n; i++)
+			encoded[i] = tokenizer.encode(texts.get(i) == null ? "" : texts.get(i));
+		int[] order = IntStream.range(0, n).boxed()
+				.sorted(Comparator.comparingInt(i -> encoded[i].length))
+				.mapToInt(Integer::intValue)
+				.toArray();
+
+		int[] labels = new int[n];
+		int step = Math.max(1, batchSize);
+		for (int from = 0; from < n; from += step) {
+			int to = Math.min(n, from + step);
+			try {
+				runChunk(encoded, order, from, to, labels);
+			}
+			catch (OrtException e) {
+				throw new IllegalStateException("ONNX 추론 실패: " + e.getMessage(), e);
+			}
+		}
+		return labels;
+	}
+
+	private void runChunk(int[][] encoded, int[] order, int from, int to, int[] labels) throws OrtException {
+		int rows = to - from;
+		int width = encoded[order[to - 1]].length; // 길이순이라 마지막이 가장 김
+		long[] ids = new long[rows * width];
+		long[] mask = new long[rows * width];
+		long[] types = new long[rows * width];
+		for (int r = 0; r < rows; r++) {
+			int[] e = encoded[order[from + r]];
+			int off = r * width;
+			for (int k = 0; k < width; k++) {
+				ids[off + k] = k < e.length ? e[k] : tokenizer.padId();
+				mask[off + k] = k < e.length ? 1 : 0;
+			}
+		}
+
+		long[] shape = { rows, width };
+		Map<String, OnnxTensor> inputs = new HashMap<>();
+		try {
+			inputs.put("input_ids", OnnxTensor.createTensor(env, LongBuffer.wrap(ids), shape));
+			if (inputNames.contains("attention_mask"))
+				inputs.put("attention_mask", OnnxTensor.createTensor(env, LongBuffer.wrap(mask), shape));
+			if (inputNames.contains("token_type_ids"))
+				inputs.put("token_type_ids", OnnxTensor.createTensor(env, LongBuffer.wrap(types), shape));
+			try (OrtSession.Result result = session.run(inputs)) {
+				OnnxValue out = result.get(0);
+				float[][] logits = (float[][]) out.getValue();
+				for (int r = 0; r < rows; r++)
+					labels[order[from + r]] = argmax(logits[r]);
+			}
+		}
+		finally {
+			inputs.values().forEach(OnnxTensor::close);
+		}
+	}
+
+	//동점이면 앞 라벨 (torch argmax와 같음)
+	private static int argmax(float[] v) {
+		int best = 0;
+		for (int i = 1; i < v.length; i++)
+			if (v[i] > v[best])
+				best = i;
+		return best;
+	}
+}
@@ -1,6 +1,10 @@
 package com.example.youtube_comment_analysis.ai;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.example.youtube_comment_analysis.video.CommentDto;
 
@@ -9,6 +13,48 @@ public record SendResult(
 	    List<KeywordCount> topKeywordGlobal,
 	    int POSITIVE,                        
 	    int NEUTRAL,
-	    int NEGATIVE) {
+	    int NEGATIVE,
+	    DedupSummary dedup,                  // 중복 텍스트 접기 통계
+	    int totalComments,                   // 보낸 댓글 수 (중복 펼친 수 포함)
+	    int rejectedComments,                // 4xx로 버려진 댓글 수 (재시도 안 함)
+	    List<CommentDto> retryable,          // 5xx/네트워크 실패 배치의 댓글 → 재시도 대기열로
+	    List<SpamCluster> spamClusters) {    // 같은/거의 같은 텍스트 반복 묶음 (큰 순)
 	
+	//여러 번 나눠 보낸 결과 합치기 (대표 댓글/키워드는 부분 상위 목록에서 다시 상위 추출)
+	//스팸 묶음은 나눠 보낸 단위별로 따로 만들어져 합치지 않고 크기순 상위만
+	public static SendResult merge(List<SendResult> parts, int topKeyword) {
+		List<CommentDto> tops = new ArrayList<>();
+		Map<String, Integer> keywords = new HashMap<>(256);
+		int pos = 0, neu = 0, neg = 0, total = 0, distinct = 0, sent = 0, rejected = 0;
+		List<CommentDto> retryable = new ArrayList<>();
+		List<SpamCluster> clusters = new ArrayList<>();
+		for (SendResult r : parts) {
+			if (r == null)
+				continue;
+			tops.addAll(r.comments());
+			for (KeywordCount kc : r.topKeywordGlobal()) {
+				if (kc != null && kc.keyword() != null)
+					keywords.merge(kc.keyword().trim(), Math.max(0, kc.count()), Integer::sum);
+			}
+			pos += r.POSITIVE();
+			neu += r.NEUTRAL();
+			neg += r.NEGATIVE();
+			if (r.dedup() != null) {
+				total += r.dedup().totalComments();
+				distinct += r.dedup().distinctTexts();
+			}
+			sent += r.totalComments();
+			rejected += r.rejectedComments();
+			retryable.addAll(r.retryable());
+			clusters.addAll(r.spamClusters());
+		}
+		clusters.sort(Comparator.comparingInt(SpamCluster::size).reversed());
+		return new SendResult(
+				AiSender.getGlobalComments(tops),
+				AiSender.getGlobalKeyword(keywords, topKeyword),
+				pos, neu, neg,
+				DedupSummary.of(total, distinct),
+				sent, rejected, retryable,
+				List.copyOf(clusters.subList(0, Math.min(SpamCluster.REPORT_LIMIT, clusters.size()))));
+	}
 }
@@ -0,0 +1,17 @@
+package com.example.youtube_comment_analysis.ai;
+
+import java.util.List;
+
+//같은/거의 같은 텍스트가 반복된 댓글 묶음 (영상 기준)
+//size: 묶음 댓글 수, variants: 서로 다른 텍스트 수(1이면 완전 복붙), prediction: 대표 댓글 AI 결과(봇 제외/실패면 null)
+public record SpamCluster(
+		int size,
+		int variants,
+		Integer prediction,
+		List<String> sampleTexts) {
+
+	//응답에 싣는 최대 묶음 수 / 묶음당 예시 텍스트 수, 길이
+	public static final int REPORT_LIMIT = 10;
+	static final int SAMPLE_TEXTS = 3;
+	static final int SAMPLE_CHARS = 120;
+}
@@ -0,0 +1,210 @@
+package com.example.youtube_comment_analysis.ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * HuggingFace tokenizer.json(BertNormalizer + BertPreTokenizer + WordPiece)을 그대로 따르는 토크나이저.
+ * - 정규화: 제어문자/U+FFFD 제거, 공백류 → 공백, 한자는 한 글자씩 분리, lowercase/strip_accents는 파일 설정대로
+ * - 사전 분리: 공백 기준 + 문장부호(ASCII 부호, 유니코드 P*)는 한 글자 토큰
+ * - WordPiece: 최장 일치, 이어지는 조각은 "##", 한 조각이라도 없으면 단어 전체가 [UNK]
+ * - 후처리: [CLS] 문장 [SEP], max_length를 넘으면 뒤를 자름 (학습/서버와 같은 truncation)
+ * 스레드 안전 (읽기 전용 사전)
+ */
+final class WordPieceTokenizer {
+
+	private final Map<String, Integer> vocab;
+	private final int unkId;
+	private final int clsId;
+	private final int sepId;
+	private final int padId;
+	private final String prefix;
+	private final int maxCharsPerWord;
+	private final int maxLength;
+	private final boolean cleanText;
+	private final boolean chineseChars;
+	private final boolean lowercase;
+	private final boolean stripAccents;
+
+	private WordPieceTokenizer(JsonNode root, int maxLength) {
+		JsonNode model = root.path("model");
+		if (!"WordPiece".equals(model.path("type").asText()))
+			throw new IllegalArgumentException("WordPiece 모델이 아님: " + model.path("type").asText());
+		JsonNode v = model.path("vocab");
+		this.vocab = new HashMap<>(v.size() * 2);
+		v.fields().forEachRemaining(e -> vocab.put(e.getKey(), e.getValue().asInt()));
+		this.unkId = idOf(model.path("unk_token").asText("[UNK]"));
+		this.clsId = idOf("[CLS]");
+		this.sepId = idOf("[SEP]");
+		this.padId = root.path("padding").path("pad_id").asInt(0);
+		this.prefix = model.path("continuing_subword_prefix").asText("##");
+		this.maxCharsPerWord = model.path("max_input_chars_per_word").asInt(100);
+
+		int fileMax = root.path("truncation").path("max_length").asInt(512);
+		this.maxLength = maxLength > 0 ? Math.min(maxLength, fileMax) : fileMax;
+
+		JsonNode norm = root.path("normalizer");
+		this.cleanText = norm.path("clean_text").asBoolean(true);
+		this.chineseChars = norm.path("handle_chinese_chars").asBoolean(true);
+		this.lowercase = norm.path("lowercase").asBoolean(false);
+		//strip_accents가 null이면 lowercase를 따름
+		this.stripAccents = norm.path("strip_accents").isBoolean() ? norm.path("strip_accents").asBoolean() : lowercase;
+	}
+
+	static WordPieceTokenizer load(Path tokenizerJson, int maxLength) throws IOException {
+		return new WordPieceTokenizer(new ObjectMapper().readTree(tokenizerJson.toFile()), maxLength);
+	}
+
+	int padId() {
+		return padId;
+	}
+
+	//[CLS] + 토큰 + [SEP], 길이 최대 maxLength
+	int[] encode(String text) {
+		Ids ids = new Ids(Math.min(maxLength, 16 + (text == null ? 0 : text.length())), maxLength - 1); // 끝은 [SEP] 자리
+		ids.add(clsId);
+		if (text != null) {
+			StringBuilder word = new StringBuilder();
+			for (int i = 0; i < text.length() && !ids.full(); ) {
+				int cp = text.codePointAt(i);
+				i += Character.charCount(cp);
+				if (cleanText && (cp == 0 || cp == 0xFFFD || isControl(cp)))
+					continue;
+				if (isWhitespace(cp)) {
+					flush(word, ids);
+					continue;
+				}
+				if (isPunctuation(cp) || (chineseChars && isChinese(cp))) {
+					flush(word, ids);
+					word.appendCodePoint(cp);
+					flush(word, ids);
+					continue;
+				}
+				word.appendCodePoint(cp);
+			}
+			flush(word, ids);
+		}
+		ids.limit++;
+		ids.add(sepId);
+		return ids.toArray();
+	}
+
+	//토큰 id 버퍼, limit을 넘는 토큰은 버림 (뒤쪽 truncation)
+	private static final class Ids {
+		int[] buf;
+		int n;
+		int limit;
+
+		Ids(int capacity, int limit) {
+			this.buf = new int[Math.max(2, capacity)];
+			this.limit = limit;
+		}
+
+		boolean full() {
+			return n >= limit;
+		}
+
+		void add(int id) {
+			if (full())
+				return;
+			if (n == buf.length)
+				buf = Arrays.copyOf(buf, buf.length * 2);
+			buf[n++] = id;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(buf, n);
+		}
+	}
+
+	//모아 둔 단어 1개를 WordPiece로 나눠 추가
+	private void flush(StringBuilder word, Ids ids) {
+		if (word.length() == 0)
+			return;
+		String w = word.toString();
+		word.setLength(0);
+		if (lowercase)
+			w = w.toLowerCase(Locale.ROOT);
+		if (stripAccents)
+			w = Normalizer.normalize(w, Normalizer.Form.NFD).replaceAll("\\p{Mn}", "");
+		if (w.isEmpty())
+			return;
+
+		int[] cps = w.codePoints().toArray();
+		if (cps.length > maxCharsPerWord) {
+			ids.add(unkId);
+			return;
+		}
+		int[] pieces = new int[cps.length];
+		int count = 0;
+		int start = 0;
+		while (start < cps.length) {
+			int end = cps.length;
+			Integer cur = null;
+			while (start < end) {
+				String sub = new String(cps, start, end - start);
+				cur = vocab.get(start > 0 ? prefix + sub : sub);
+				if (cur != null)
+					break;
+				end--;
+			}
+			if (cur == null) {
+				ids.add(unkId);
+				return;
+			}
+			pieces[count++] = cur;
+			start = end;
+		}
+		for (int k = 0; k < count; k++)
+			ids.add(pieces[k]);
+	}
+
+	private int idOf(String token) {
+		Integer id = vocab.get(token);
+		if (id == null)
+			throw new IllegalArgumentException("사전에 없는 특수 토큰: " + token);
+		return id;
+	}
+
+	//\t \n \r은 공백으로, 나머지 C* 범주는 제어문자
+	private static boolean isControl(int cp) {
+		if (cp == '\t' || cp == '\n' || cp == '\r')
+			return false;
+		int t = Character.getType(cp);
+		return t == Character.CONTROL || t == Character.FORMAT || t == Character.PRIVATE_USE
+				|| t == Character.SURROGATE || t == Character.UNASSIGNED;
+	}
+
+	//유니코드 White_Space (제어문자는 앞에서 이미 빠짐)
+	private static boolean isWhitespace(int cp) {
+		return cp == ' ' || cp == '\t' || cp == '\n' || cp == '\r'
+				|| Character.getType(cp) == Character.SPACE_SEPARATOR
+				|| cp == 0x2028 || cp == 0x2029;
+	}
+
+	private static boolean isPunctuation(int cp) {
+		if ((cp >= 33 && cp <= 47) || (cp >= 58 && cp <= 64) || (cp >= 91 && cp <= 96) || (cp >= 123 && cp <= 126))
+			return true;
+		int t = Character.getType(cp);
+		return t == Character.CONNECTOR_PUNCTUATION || t == Character.DASH_PUNCTUATION
+				|| t == Character.START_PUNCTUATION || t == Character.END_PUNCTUATION
+				|| t == Character.INITIAL_QUOTE_PUNCTUATION || t == Character.FINAL_QUOTE_PUNCTUATION
+				|| t == Character.OTHER_PUNCTUATION;
+	}
+
+	//CJK 통합 한자 블록 (한글/가나는 해당 없음)
+	private static boolean isChinese(int cp) {
+		return (cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3400 && cp <= 0x4DBF)
+				|| (cp >= 0x20000 && cp <= 0x2A6DF) || (cp >= 0x2A700 && cp <= 0x2B73F)
+				|| (cp >= 0x2B740 && cp <= 0x2B81F) || (cp >= 0x2B820 && cp <= 0x2CEAF)
+				|| (cp >= 0xF900 && cp <= 0xFAFF) || (cp >= 0x2F800 && cp <= 0x2FA1F);
+	}
+}
@@ -0,0 +1,407 @@
+package com.example.youtube_comment_analysis.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.channel.ChannelAnalysisResponse;
+import com.example.youtube_comment_analysis.channel.ChannelService;
+import com.example.youtube_comment_analysis.error.ChannelNotFoundException;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+import com.example.youtube_comment_analysis.video.VideoBatchAnalyzer;
+import com.example.youtube_comment_analysis.video.VideoBatchResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 명령행 일괄 분석 (웹 서버 없이): --app.batch-runner.input=ids.txt 로 실행하면 파일의 영상/채널을 모두 분석하고 종료.
+ * - 입력: 한 줄에 하나, 영상은 id 또는 video:<id> / 채널은 @handle 또는 channel:<handle>, 빈 줄과 # 주석은 건너뜀
+ * - 영상은 group-size개씩 VideoBatchAnalyzer.analyze로 (캐시 MGET 1회, /videos 묶음 조회, AI는 영상을 섞어 꽉 찬 배치),
+ *   그룹은 concurrency개 병렬 → 격벽(cold-analysis/youtube/ai) 포화로 429가 나면 Retry-After만큼 쉬었다가 다시
+ * - YouTube 쿼터는 PrefetchScheduler와 같은 추정 단위로 quota-units 예산을 넘기 전에 멈춤 (캐시 히트분은 돌려받음)
+ * - 결과: output-dir/results-<시작 시각>.ndjson.gz (한 줄 = 항목 1건, status = ok | not_found | failed)
+ *   그룹마다 sync flush 후 끝난 항목을 checkpoint.txt에 기록 → 다시 실행하면 남은 항목(실패 포함)만 처리
+ *   실행마다 새 파일 (중간에 죽어 잘린 gzip 뒤에 이어 쓰지 않게)
+ * - 끝나면 처리량(영상/초, 댓글/초) 기록, 종료 코드 0 = 모두 처리 / 3 = 남은 항목 있음 (실패, 쿼터 예산 소진)
+ */
+@Component
+@ConditionalOnProperty(name = "app.batch-runner.input")
+@Slf4j
+public class BatchAnalysisRunner implements ApplicationRunner, ExitCodeGenerator {
+
+	private final VideoBatchAnalyzer videoBatchAnalyzer;
+	private final ChannelService channelService;
+	private final ObjectMapper objectMapper;
+
+	@Value("${app.batch-runner.input}")
+	private String input;
+
+	@Value("${app.batch-runner.output-dir:batch-out}")
+	private String outputDir;
+
+	//영상당 댓글 스레드 수 (기본은 GET /video/{id}와 같은 깊이 → 결과가 그대로 캐시 히트로 재사용됨)
+	@Value("${app.batch-runner.limit:${app.youtube.fetch-count:1000}}")
+	private int limit;
+
+	@Value("${app.batch-runner.group-size:50}")
+	private int groupSize;
+
+	@Value("${app.batch.max-videos:50}")
+	private int batchMaxVideos;
+
+	@Value("${app.batch-runner.concurrency:2}")
+	private int concurrency;
+
+	//이번 실행에서 쓸 YouTube 쿼터 추정 단위 (0 이하 = 제한 없음)
+	@Value("${app.batch-runner.quota-units:10000}")
+	private long quotaUnits;
+
+	@Value("${app.batch-runner.max-attempts:8}")
+	private int maxAttempts;
+
+	private static final String CHECKPOINT = "checkpoint.txt";
+	private static final long MAX_BACKOFF_MS = 60_000L;
+	// 채널 1건: channels 1 + playlistItems 1 + 영상 5개 x (videos 1 + 댓글 2페이지)
+	private static final long CHANNEL_UNITS = 2 + 5 * 3;
+
+	private record Item(String kind, String id) {
+
+		String key() {
+			return kind + ":" + id;
+		}
+	}
+
+	//결과 파일 한 줄
+	private record ResultLine(String kind, String id, String status, String error, Object result) {}
+
+	private final AtomicLong quotaUsed = new AtomicLong();
+	private final AtomicLong ok = new AtomicLong();
+	private final AtomicLong notFound = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong analyzed = new AtomicLong();
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong comments = new AtomicLong();
+	private final AtomicLong throttled = new AtomicLong();
+	private volatile boolean budgetExhausted;
+	private volatile int exitCode;
+
+	public BatchAnalysisRunner(VideoBatchAnalyzer videoBatchAnalyzer, ChannelService channelService, ObjectMapper objectMapper) {
+		this.videoBatchAnalyzer = videoBatchAnalyzer;
+		this.channelService = channelService;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public int getExitCode() {
+		return exitCode;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		Path dir = Path.of(outputDir);
+		Files.createDirectories(dir);
+		Path checkpoint = dir.resolve(CHECKPOINT);
+		Set<String> done = readCheckpoint(checkpoint);
+		List<Item> items = readInput(Path.of(input)).stream()
+				.filter(i -> !done.contains(i.key()))
+				.toList();
+		if (items.isEmpty()) {
+			log.info("일괄 분석: 남은 항목 없음 input={} checkpoint={} (완료 {}건)", input, checkpoint, done.size());
+			return;
+		}
+
+		List<List<Item>> groups = group(items);
+		Path out = dir.resolve("results-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+				+ ".ndjson.gz");
+		log.info("일괄 분석 시작 items={} (완료 건너뜀 {}) groups={} concurrency={} limit={} output={}",
+				items.size(), done.size(), groups.size(), concurrency, limit, out);
+
+		long startNs = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+			Thread t = new Thread(r, "batch-runner");
+			t.setDaemon(true);
+			return t;
+		});
+		try (ResultSink sink = new ResultSink(out, checkpoint)) {
+			List<Future<?>> running = new ArrayList<>(groups.size());
+			for (List<Item> g : groups)
+				running.add(pool.submit(() -> process(g, sink)));
+			for (Future<?> f : running) {
+				try {
+					f.get();
+				}
+				catch (ExecutionException e) {
+					log.error("일괄 분석 그룹 오류", e.getCause());
+				}
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		report(items.size(), System.nanoTime() - startNs, out);
+	}
+
+	//그룹 1개: 예산 확인 → 분석 → 결과/체크포인트 기록, 예외는 그룹 항목 모두 실패로 (다음 실행에서 다시)
+	private void process(List<Item> group, ResultSink sink) {
+		if (budgetExhausted || !reserve(unitsOf(group))) {
+			skipped.addAndGet(group.size());
+			return;
+		}
+		Item first = group.get(0);
+		try {
+			if ("channel".equals(first.kind()))
+				runChannel(first, sink);
+			else
+				runVideos(group, sink);
+		}
+		catch (Exception e) {
+			failed.addAndGet(group.size());
+			log.warn("일괄 분석 실패 {}건 (첫 항목 {}): {}", group.size(), first.key(), e.getMessage());
+			List<byte[]> lines = new ArrayList<>();
+			for (Item i : group)
+				lines.add(line(i, "failed", e.getMessage(), null));
+			try {
+				sink.write(lines, List.of());
+			}
+			catch (IOException io) {
+				log.error("결과 파일 쓰기 실패", io);
+			}
+		}
+	}
+
+	private void runVideos(List<Item> group, ResultSink sink) throws IOException {
+		List<String> ids = group.stream().map(Item::id).toList();
+		VideoBatchResponse r = withRetry(() -> videoBatchAnalyzer.analyze(ids, limit));
+		//캐시 히트는 YouTube를 부르지 않음
+		if (quotaUnits > 0)
+			quotaUsed.addAndGet(-r.cacheHits() * pagesPerVideo());
+		analyzed.addAndGet(r.analyzed());
+		cacheHits.addAndGet(r.cacheHits());
+
+		List<byte[]> lines = new ArrayList<>(group.size());
+		List<String> finished = new ArrayList<>(group.size());
+		for (Item i : group) {
+			VideoAnalysisResponse v = r.videos().get(i.id());
+			if (v != null) {
+				ok.incrementAndGet();
+				comments.addAndGet(v.commentCountBeforeBot());
+				lines.add(line(i, "ok", null, v));
+				finished.add(i.key());
+			}
+			else if (r.notFound().contains(i.id())) {
+				notFound.incrementAndGet();
+				lines.add(line(i, "not_found", null, null));
+				finished.add(i.key());
+			}
+			else {
+				//댓글 비활성화 등 영상별 실패는 체크포인트에 넣지 않음 (다음 실행에서 다시)
+				failed.incrementAndGet();
+				lines.add(line(i, "failed", r.failed().get(i.id()), null));
+			}
+		}
+		sink.write(lines, finished);
+	}
+
+	private void runChannel(Item item, ResultSink sink) throws IOException {
+		try {
+			ChannelAnalysisResponse r = withRetry(() -> channelService.getChannelData(item.id()));
+			ok.incrementAndGet();
+			comments.addAndGet(r.commentCountBeforeBot());
+			sink.write(List.of(line(item, "ok", null, r)), List.of(item.key()));
+		}
+		catch (ChannelNotFoundException e) {
+			notFound.incrementAndGet();
+			sink.write(List.of(line(item, "not_found", e.getMessage(), null)), List.of(item.key()));
+		}
+	}
+
+	//격벽 포화(429)는 Retry-After 이상, 시도마다 늘려 가며 다시 (사용자 트래픽과 같은 인스턴스여도 양보)
+	private <T> T withRetry(Supplier<T> work) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return work.get();
+			}
+			catch (TooManyRequestsException e) {
+				if (attempt >= Math.max(1, maxAttempts))
+					throw e;
+				throttled.incrementAndGet();
+				long waitMs = Math.min(MAX_BACKOFF_MS, Math.max(1, e.getRetryAfterSeconds()) * 1000L * attempt);
+				try {
+					Thread.sleep(waitMs);
+				}
+				catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			}
+		}
+	}
+
+	//영상: videos(50개 묶음) + 영상마다 댓글 페이지 수 (답글 확장/표본 모드 페이지는 추정에 없음)
+	private long unitsOf(List<Item> group) {
+		if ("channel".equals(group.get(0).kind()))
+			return CHANNEL_UNITS;
+		return (group.size() + 49) / 50 + group.size() * pagesPerVideo();
+	}
+
+	private long pagesPerVideo() {
+		return (Math.max(1, limit) + 99) / 100;
+	}
+
+	private boolean reserve(long units) {
+		if (quotaUnits <= 0)
+			return true;
+		long used = quotaUsed.addAndGet(units);
+		if (used <= quotaUnits)
+			return true;
+		quotaUsed.addAndGet(-units);
+		if (!budgetExhausted) {
+			budgetExhausted = true;
+			log.warn("YouTube 쿼터 예산 소진 ({}/{} 단위): 남은 항목은 다음 실행에서", used - units, quotaUnits);
+		}
+		return false;
+	}
+
+	private byte[] line(Item item, String status, String error, Object result) {
+		try {
+			return objectMapper.writeValueAsBytes(new ResultLine(item.kind(), item.id(), status, error, result));
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("결과 직렬화 실패: " + item.key(), e);
+		}
+	}
+
+	//영상은 group-size개씩 (POST /video/batch 상한 이하), 채널은 1건씩, 입력 순서 유지
+	private List<List<Item>> group(List<Item> items) {
+		int size = Math.max(1, Math.min(groupSize, batchMaxVideos));
+		List<List<Item>> groups = new ArrayList<>();
+		List<Item> videos = new ArrayList<>();
+		for (Item i : items) {
+			if ("channel".equals(i.kind())) {
+				groups.add(List.of(i));
+				continue;
+			}
+			videos.add(i);
+			if (videos.size() >= size) {
+				groups.add(videos);
+				videos = new ArrayList<>();
+			}
+		}
+		if (!videos.isEmpty())
+			groups.add(videos);
+		return groups;
+	}
+
+	private void report(int total, long elapsedNs, Path out) {
+		double seconds = Math.max(1e-3, elapsedNs / 1e9);
+		long videos = analyzed.get() + cacheHits.get();
+		long remaining = failed.get() + skipped.get();
+		exitCode = remaining > 0 ? 3 : 0;
+		log.info("일괄 분석 종료 items={} ok={} notFound={} failed={} skipped={} | 영상 분석={} 캐시히트={} 댓글={} | "
+				+ "{}s, {} 영상/s, {} 댓글/s | 429 재시도={} 쿼터 추정 {}/{} | output={}",
+				total, ok.get(), notFound.get(), failed.get(), skipped.get(), analyzed.get(), cacheHits.get(),
+				comments.get(), String.format("%.1f", seconds), String.format("%.2f", videos / seconds),
+				String.format("%.1f", comments.get() / seconds), throttled.get(), quotaUsed.get(),
+				quotaUnits > 0 ? quotaUnits : "무제한", out);
+		if (remaining > 0)
+			log.info("남은 항목 {}건: 같은 설정으로 다시 실행하면 이어서 처리", remaining);
+	}
+
+	private static Set<String> readCheckpoint(Path checkpoint) throws IOException {
+		Set<String> done = new HashSet<>();
+		if (Files.exists(checkpoint)) {
+			for (String l : Files.readAllLines(checkpoint, StandardCharsets.UTF_8)) {
+				if (!l.isBlank())
+					done.add(l.strip());
+			}
+		}
+		return done;
+	}
+
+	//중복 id는 한 번만
+	private static List<Item> readInput(Path file) throws IOException {
+		Set<Item> items = new LinkedHashSet<>();
+		for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			String l = raw.strip();
+			if (l.isEmpty() || l.startsWith("#"))
+				continue;
+			if (l.startsWith("channel:"))
+				items.add(new Item("channel", l.substring("channel:".length()).strip()));
+			else if (l.startsWith("@"))
+				items.add(new Item("channel", l));
+			else if (l.startsWith("video:"))
+				items.add(new Item("video", l.substring("video:".length()).strip()));
+			else
+				items.add(new Item("video", l));
+		}
+		return new ArrayList<>(items);
+	}
+
+	//결과 gzip + 체크포인트: 결과를 sync flush한 뒤에 체크포인트를 남김 (체크포인트에 있으면 결과 파일에도 있음)
+	private static final class ResultSink implements Closeable {
+
+		private final OutputStream out;
+		private final Writer checkpoint;
+
+		ResultSink(Path output, Path checkpointFile) throws IOException {
+			this.out = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(output), 64 * 1024, true),
+					64 * 1024);
+			this.checkpoint = Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+
+		synchronized void write(List<byte[]> lines, List<String> finished) throws IOException {
+			for (byte[] l : lines) {
+				out.write(l);
+				out.write('\n');
+			}
+			out.flush();
+			for (String key : finished) {
+				checkpoint.write(key);
+				checkpoint.write('\n');
+			}
+			checkpoint.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				out.close();
+			}
+			finally {
+				checkpoint.close();
+			}
+		}
+	}
+}
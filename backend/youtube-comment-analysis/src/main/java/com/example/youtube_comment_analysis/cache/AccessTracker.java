@@ -0,0 +1,128 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+//영상/채널 키별 접근 빈도 (반감기 지수 감쇠 카운터)
+//캐시 히트/미스 구분 없이 요청마다 1씩 더하고, 시간이 지나면 halfLife마다 절반으로 줄어듦
+@Component
+public class AccessTracker {
+
+	public enum Kind { VIDEO, CHANNEL }
+
+	public record HotKey(Kind kind, String id, double score, int limit, boolean pinned) {}
+
+	private static final class Counter {
+		double score;
+		long updatedAt;
+		int limit;
+		boolean pinned;
+	}
+
+	private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+	private final double halfLifeMs;
+	private final int maxTrackedKeys;
+	//테스트에서 시간 경과를 흉내내기 위한 시계 (ms)
+	LongSupplier clock = System::currentTimeMillis;
+
+	public AccessTracker(
+			@Value("${app.prefetch.half-life-minutes:30}") long halfLifeMinutes,
+			@Value("${app.prefetch.max-tracked-keys:10000}") int maxTrackedKeys) {
+		this.halfLifeMs = Math.max(1, halfLifeMinutes) * 60_000.0;
+		this.maxTrackedKeys = maxTrackedKeys;
+	}
+
+	public void record(Kind kind, String id, int limit) {
+		bump(kind, id, limit, 1.0, null);
+	}
+
+	//운영자 수동 지정: weight만큼 점수를 올리고 pinned면 점수와 무관하게 계속 갱신 대상
+	public void seed(Kind kind, String id, int limit, double weight, boolean pin) {
+		bump(kind, id, limit, weight, pin ? Boolean.TRUE : null);
+	}
+
+	public boolean unpin(Kind kind, String id) {
+		Counter c = counters.get(key(kind, id));
+		if (c == null)
+			return false;
+		synchronized (c) {
+			c.pinned = false;
+		}
+		return true;
+	}
+
+	//현재 점수 기준 상위 n개 + 고정 키 전부
+	public List<HotKey> hottest(int n) {
+		long now = clock.getAsLong();
+		List<HotKey> all = snapshot(now);
+		List<HotKey> top = all.stream()
+				.sorted(Comparator.comparingDouble(HotKey::score).reversed())
+				.limit(Math.max(0, n))
+				.toList();
+		List<HotKey> pinned = all.stream().filter(h -> h.pinned() && !top.contains(h)).toList();
+		return Stream.concat(top.stream(), pinned.stream()).toList();
+	}
+
+	//점수가 거의 0이 된 키 정리, 그래도 많으면 하위부터 제거
+	public void prune() {
+		long now = clock.getAsLong();
+		counters.entrySet().removeIf(e -> {
+			Counter c = e.getValue();
+			synchronized (c) {
+				return !c.pinned && decayed(c, now) < 0.01;
+			}
+		});
+		int excess = counters.size() - maxTrackedKeys;
+		if (excess > 0) {
+			snapshot(now).stream()
+					.filter(h -> !h.pinned())
+					.sorted(Comparator.comparingDouble(HotKey::score))
+					.limit(excess)
+					.forEach(h -> counters.remove(key(h.kind(), h.id())));
+		}
+	}
+
+	private void bump(Kind kind, String id, int limit, double weight, Boolean pin) {
+		if (id == null)
+			return;
+		long now = clock.getAsLong();
+		Counter c = counters.computeIfAbsent(key(kind, id), k -> {
+			Counter fresh = new Counter();
+			fresh.updatedAt = now;
+			return fresh;
+		});
+		synchronized (c) {
+			c.score = decayed(c, now) + weight;
+			c.updatedAt = now;
+			c.limit = Math.max(c.limit, limit);
+			if (pin != null)
+				c.pinned = pin;
+		}
+	}
+
+	private List<HotKey> snapshot(long now) {
+		return counters.entrySet().stream().map(e -> {
+			Counter c = e.getValue();
+			String[] parts = e.getKey().split(":", 2);
+			synchronized (c) {
+				return new HotKey(Kind.valueOf(parts[0]), parts[1], decayed(c, now), c.limit, c.pinned);
+			}
+		}).toList();
+	}
+
+	private double decayed(Counter c, long now) {
+		long dt = Math.max(0, now - c.updatedAt);
+		return c.score * Math.pow(0.5, dt / halfLifeMs);
+	}
+
+	private static String key(Kind kind, String id) {
+		return kind.name() + ":" + id;
+	}
+}
@@ -0,0 +1,27 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import reactor.core.publisher.Mono;
+
+//영상 계산 락 1회 획득: 값은 획득마다 새 토큰
+//해제는 토큰이 같을 때만 지움 (TTL로 만료된 뒤 다른 인스턴스가 다시 잡은 락을 지우지 않게)
+record CacheLock(String key, byte[] token) {
+
+	private static final RedisScript<Long> RELEASE = RedisScript.of(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+			Long.class);
+
+	static CacheLock newToken(String key) {
+		return new CacheLock(key, UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	Mono<Long> release(ReactiveRedisTemplate<String, byte[]> tpl) {
+		return tpl.execute(RELEASE, List.of(key), List.of(token)).next().defaultIfEmpty(0L);
+	}
+}
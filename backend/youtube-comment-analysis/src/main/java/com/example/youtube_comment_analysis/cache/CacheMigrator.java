@@ -0,0 +1,161 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//캐시 스키마 지연 이전: 옛 스키마 값은 읽을 때 변환해 바로 쓰고, 백그라운드에서 현재 스키마로 다시 씀
+//- 다시 쓸 때 원래 키의 남은 TTL을 그대로 (이전 때문에 오래된 결과가 더 오래 살지 않게)
+//- 변환할 수 없는 값만 재계산, 재계산은 토큰 버킷(초당 recompute-per-second, 최대 recompute-burst)으로 제한
+//  → 배포 직후 옛 값이 한꺼번에 비호환이 되어도 분석이 몰리지 않음, 한도를 넘으면 429 (Retry-After)
+@Component
+@Slf4j
+public class CacheMigrator {
+
+	private final ReactiveRedisTemplate<String, byte[]> bytesTpl;
+	private final CacheWriteBehind writeBehind;
+	private final Bulkheads bulkheads;
+
+	@Value("${app.cache.migration.recompute-per-second:2}")
+	private double recomputePerSecond;
+
+	@Value("${app.cache.migration.recompute-burst:10}")
+	private int recomputeBurst;
+
+	public record MigrationStats(int schema, long current, long upgraded, long newer, long incompatible,
+			long rewritten, long rewriteSkipped, long recomputeAdmitted, long recomputeThrottled) {}
+
+	private final Set<String> rewriting = ConcurrentHashMap.newKeySet();
+	private final ExecutorService rewriter = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "cache-migration");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final AtomicLong current = new AtomicLong();
+	private final AtomicLong upgraded = new AtomicLong();
+	private final AtomicLong newer = new AtomicLong();
+	private final AtomicLong incompatible = new AtomicLong();
+	private final AtomicLong rewritten = new AtomicLong();
+	private final AtomicLong rewriteSkipped = new AtomicLong();
+	private final AtomicLong recomputeAdmitted = new AtomicLong();
+	private final AtomicLong recomputeThrottled = new AtomicLong();
+
+	private double tokens = -1; // 첫 사용 때 burst로 채움
+	private long refilledNs;
+
+	public CacheMigrator(ReactiveRedisTemplate<String, byte[]> bytesTpl, CacheWriteBehind writeBehind,
+			Bulkheads bulkheads) {
+		this.bytesTpl = bytesTpl;
+		this.writeBehind = writeBehind;
+		this.bulkheads = bulkheads;
+	}
+
+	@PreDestroy
+	void stop() {
+		rewriter.shutdownNow();
+	}
+
+	//읽은 값 1건 처리: 변환된 값은 다시 쓰기 예약, 값(없으면 null) 반환
+	public VideoAnalysisResponse accept(String videoId, String sourceKey, String targetKey, VideoCacheCodec.Decoded d) {
+		switch (d.outcome()) {
+			case CURRENT -> current.incrementAndGet();
+			case NEWER -> newer.incrementAndGet();
+			case INCOMPATIBLE -> {
+				incompatible.incrementAndGet();
+				log.info("캐시 스키마 비호환 videoId={} schema={} key={}", videoId, d.schema(), sourceKey);
+			}
+			case UPGRADED -> {
+				upgraded.incrementAndGet();
+				scheduleRewrite(videoId, sourceKey, targetKey, d.value());
+			}
+		}
+		return d.value();
+	}
+
+	//비호환 값의 재계산 허가, 한도를 넘으면 429
+	public void admitRecompute(String videoId) {
+		if (takeToken()) {
+			recomputeAdmitted.incrementAndGet();
+			return;
+		}
+		recomputeThrottled.incrementAndGet();
+		long retryAfter = recomputePerSecond > 0 ? Math.max(1, (long) Math.ceil(1 / recomputePerSecond)) : 1;
+		throw new TooManyRequestsException("캐시 이전 중: 재계산 한도 초과 (videoId=" + videoId + ")", retryAfter);
+	}
+
+	public MigrationStats stats() {
+		return new MigrationStats(VideoCacheCodec.SCHEMA, current.get(), upgraded.get(), newer.get(),
+				incompatible.get(), rewritten.get(), rewriteSkipped.get(), recomputeAdmitted.get(),
+				recomputeThrottled.get());
+	}
+
+	//recompute-per-second <= 0 이면 제한 없음
+	private synchronized boolean takeToken() {
+		if (recomputePerSecond <= 0)
+			return true;
+		long now = System.nanoTime();
+		double burst = Math.max(1, recomputeBurst);
+		tokens = tokens < 0 ? burst : Math.min(burst, tokens + (now - refilledNs) / 1e9 * recomputePerSecond);
+		refilledNs = now;
+		if (tokens < 1)
+			return false;
+		tokens -= 1;
+		return true;
+	}
+
+	//같은 영상은 한 번만 (동시에 여러 요청이 같은 옛 값을 읽어도)
+	private void scheduleRewrite(String videoId, String sourceKey, String targetKey, VideoAnalysisResponse value) {
+		if (!rewriting.add(videoId))
+			return;
+		try {
+			rewriter.execute(() -> {
+				try {
+					rewrite(videoId, sourceKey, targetKey, value);
+				}
+				finally {
+					rewriting.remove(videoId);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			rewriting.remove(videoId);
+		}
+	}
+
+	private void rewrite(String videoId, String sourceKey, String targetKey, VideoAnalysisResponse value) {
+		try {
+			//그 사이 새로 계산된 값이 쓰기 대기 중이면 그게 우선
+			if (writeBehind.peek(videoId) != null) {
+				rewriteSkipped.incrementAndGet();
+				return;
+			}
+			Duration ttl = bulkheads.redis().call(() -> bytesTpl.getExpire(sourceKey).block());
+			if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+				rewriteSkipped.incrementAndGet(); // 이미 만료 (또는 만료 없는 키: 이전 대상 아님)
+				return;
+			}
+			writeBehind.enqueue(videoId, targetKey, value, ttl, null);
+			rewritten.incrementAndGet();
+		}
+		catch (RuntimeException e) {
+			rewriteSkipped.incrementAndGet();
+			log.warn("캐시 스키마 이전 쓰기 실패 videoId={}: {}", videoId, e.getMessage());
+		}
+	}
+}
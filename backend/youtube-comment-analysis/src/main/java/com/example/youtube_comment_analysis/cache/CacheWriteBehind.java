@@ -0,0 +1,183 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//캐시 쓰기 지연(write-behind): 응답은 계산 직후 바로 반환하고 redis 쓰기는 백그라운드에서 파이프라인으로 묶어 처리
+//- 같은 영상의 대기 중 쓰기는 최신 값으로 합침
+//- 값 SET(스키마 봉투, VideoCacheCodec) + 본문 바이트 SET 을 배치 전체에 동시에 발행 → lettuce 공유 연결에서 파이프라인 (클러스터면 노드별로)
+//- 계산 락 DEL 은 그 영상의 값이 써진 뒤에 (먼저 풀리면 다른 인스턴스가 재계산)
+//- 플러시 전까지는 peek()으로 같은 JVM 안에서 바로 읽힘
+@Component
+@Slf4j
+public class CacheWriteBehind {
+
+	private final ReactiveRedisTemplate<String, byte[]> bodyTpl;
+	private final VideoCacheCodec codec;
+	private final ResponseBodyCache bodyCache;
+	private final Bulkheads bulkheads;
+
+	@Value("${app.cache.write-behind.interval-ms:10}")
+	private long intervalMs;
+
+	@Value("${app.cache.write-behind.max-batch:64}")
+	private int maxBatch;
+
+	//응답 본문 캐시는 GET /video/{id} (기본 fetch-count 깊이) 응답
+	@Value("${app.youtube.fetch-count:1000}")
+	private int bodyDepth;
+
+	private record Pending(String videoId, String key, VideoAnalysisResponse value, Duration ttl, List<CacheLock> locks, long enqueuedNs) {}
+
+	public record WriteBehindStats(long enqueued, long coalesced, long flushes, long written, long failed,
+			int pending, double maxLagMs) {}
+
+	private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "cache-write-behind");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final AtomicLong enqueued = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong flushes = new AtomicLong();
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong maxLagNs = new AtomicLong();
+
+	public CacheWriteBehind(ReactiveRedisTemplate<String, byte[]> bodyTpl, VideoCacheCodec codec,
+			ResponseBodyCache bodyCache, Bulkheads bulkheads) {
+		this.bodyTpl = bodyTpl;
+		this.codec = codec;
+		this.bodyCache = bodyCache;
+		this.bulkheads = bulkheads;
+	}
+
+	@PostConstruct
+	void start() {
+		long interval = Math.max(1, intervalMs);
+		flusher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void stop() {
+		flusher.shutdown();
+		flushSafely(); // 종료 전 남은 쓰기 반영
+	}
+
+	//lock이 있으면 값이 써진 같은 파이프라인에서 락 해제 (토큰이 같을 때만 → 그 사이 만료돼 남이 잡은 락은 그대로)
+	//합쳐진 쓰기는 양쪽 락을 모두 해제
+	void enqueue(String videoId, String key, VideoAnalysisResponse value, Duration ttl, CacheLock lock) {
+		enqueued.incrementAndGet();
+		List<CacheLock> locks = lock == null ? List.of() : List.of(lock);
+		pending.merge(videoId, new Pending(videoId, key, value, ttl, locks, System.nanoTime()), (old, fresh) -> {
+			coalesced.incrementAndGet();
+			List<CacheLock> merged = new ArrayList<>(old.locks());
+			merged.addAll(fresh.locks());
+			return new Pending(videoId, key, value, ttl, List.copyOf(merged), old.enqueuedNs());
+		});
+	}
+
+	public VideoAnalysisResponse peek(String videoId) {
+		Pending p = pending.get(videoId);
+		return p == null ? null : p.value();
+	}
+
+	public void discard(String videoId) {
+		pending.remove(videoId);
+	}
+
+	public WriteBehindStats stats() {
+		return new WriteBehindStats(enqueued.get(), coalesced.get(), flushes.get(), written.get(), failed.get(),
+				pending.size(), maxLagNs.get() / 1e6);
+	}
+
+	private void flushSafely() {
+		try {
+			while (flush() >= Math.max(1, maxBatch)) {
+				// 가득 찬 배치였으면 바로 다음 배치
+			}
+		}
+		catch (Exception e) {
+			log.error("write-behind flush 오류", e);
+		}
+	}
+
+	private int flush() {
+		if (pending.isEmpty())
+			return 0;
+		List<Pending> batch = new ArrayList<>();
+		for (Pending p : pending.values()) {
+			batch.add(p);
+			if (batch.size() >= Math.max(1, maxBatch))
+				break;
+		}
+
+		//값/응답 본문 직렬화(JSON + gzip)도 요청 경로 밖에서
+		List<Mono<Void>> writes = new ArrayList<>(batch.size());
+		for (Pending p : batch) {
+			//값이 그 깊이를 덮지 못하면(더 얕게 분석) 예전 본문도 지움
+			String bodyKey = ResponseBodyCache.key(ResponseBodyCache.Kind.VIDEO, p.videoId());
+			Mono<?> bodyWrite = p.value().covers(bodyDepth)
+					? bodyTpl.opsForValue().set(bodyKey, bodyCache.render(p.value().atDepth(bodyDepth)).encode(), p.ttl())
+					: bodyTpl.delete(bodyKey);
+			Mono<Void> write = Mono.when(
+					bodyTpl.opsForValue().set(p.key(), codec.encode(p.value()), p.ttl()),
+					bodyWrite);
+			for (CacheLock lock : p.locks())
+				write = write.then(lock.release(bodyTpl)).then();
+			writes.add(write);
+		}
+
+		try {
+			bulkheads.redis().run(() -> Flux.merge(writes).then().block());
+			written.addAndGet(batch.size());
+		}
+		catch (RuntimeException e) {
+			failed.addAndGet(batch.size());
+			log.warn("write-behind 실패 size={}: {}", batch.size(), e.getMessage());
+			//값은 못 썼어도 락은 풀어 다른 요청이 다시 계산할 수 있게
+			releaseLocks(batch);
+		}
+		flushes.incrementAndGet();
+
+		long now = System.nanoTime();
+		for (Pending p : batch) {
+			maxLagNs.accumulateAndGet(now - p.enqueuedNs(), Math::max);
+			pending.remove(p.videoId(), p); // 그 사이 새 값이 들어왔으면 남겨 둠
+		}
+		return batch.size();
+	}
+
+	private void releaseLocks(List<Pending> batch) {
+		try {
+			List<CacheLock> locks = batch.stream().flatMap(p -> p.locks().stream()).toList();
+			if (!locks.isEmpty())
+				bulkheads.redis().run(() -> Flux.fromIterable(locks).flatMap(l -> l.release(bodyTpl)).then().block());
+		}
+		catch (RuntimeException e) {
+			log.warn("write-behind 락 해제 실패: {}", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+//직렬화가 끝난 응답 본문 (JSON 원본 + 선택적 gzip본) 과 내용 기반 강한 ETag
+//redis에는 [ver][etag][len][json][len|-1][gzip] 한 덩어리로 저장 → GET 1회로 바로 소켓에 씀
+public record CachedBody(String etag, byte[] json, byte[] gzip) {
+
+	private static final byte FORMAT_VERSION = 1;
+
+	public boolean hasGzip() {
+		return gzip != null;
+	}
+
+	byte[] encode() {
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(json.length + (gzip == null ? 0 : gzip.length) + 64);
+			DataOutputStream out = new DataOutputStream(bos);
+			out.writeByte(FORMAT_VERSION);
+			out.writeUTF(etag);
+			out.writeInt(json.length);
+			out.write(json);
+			out.writeInt(gzip == null ? -1 : gzip.length);
+			if (gzip != null)
+				out.write(gzip);
+			out.flush();
+			return bos.toByteArray();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static CachedBody decode(byte[] raw) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+			if (in.readByte() != FORMAT_VERSION)
+				return null;
+			String etag = in.readUTF();
+			byte[] json = new byte[in.readInt()];
+			in.readFully(json);
+			int gzLen = in.readInt();
+			byte[] gzip = null;
+			if (gzLen >= 0) {
+				gzip = new byte[gzLen];
+				in.readFully(gzip);
+			}
+			return new CachedBody(etag, json, gzip);
+		}
+		catch (IOException e) {
+			return null; // 깨진 항목은 미스로 취급
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.youtube_comment_analysis.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+
+//운영자용: 트래픽 예정 키를 미리 올리거나(seed) 고정(pin)
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin/prefetch")
+public class PrefetchController {
+
+	private final AccessTracker accessTracker;
+	private final PrefetchScheduler prefetchScheduler;
+
+	@Value("${app.youtube.fetch-count:1000}")
+	private int fetchCount;
+
+	@GetMapping
+	public ResponseEntity<?> getStatus() {
+		return ResponseEntity.ok(prefetchScheduler.status());
+	}
+
+	@PostMapping("/video/{videoId}")
+	public ResponseEntity<?> seedVideo(@PathVariable("videoId") String videoId,
+			@RequestParam(name = "weight", defaultValue = "10") double weight,
+			@RequestParam(name = "pin", defaultValue = "false") boolean pin) {
+		accessTracker.seed(AccessTracker.Kind.VIDEO, videoId, fetchCount, weight, pin);
+		return ResponseEntity.accepted().build();
+	}
+
+	@PostMapping("/channel/{channelId}")
+	public ResponseEntity<?> seedChannel(@PathVariable("channelId") String channelId,
+			@RequestParam(name = "weight", defaultValue = "10") double weight,
+			@RequestParam(name = "pin", defaultValue = "false") boolean pin) {
+		accessTracker.seed(AccessTracker.Kind.CHANNEL, channelId, 0, weight, pin);
+		return ResponseEntity.accepted().build();
+	}
+
+	@DeleteMapping("/video/{videoId}")
+	public ResponseEntity<?> unpinVideo(@PathVariable("videoId") String videoId) {
+		return accessTracker.unpin(AccessTracker.Kind.VIDEO, videoId)
+				? ResponseEntity.noContent().build()
+				: ResponseEntity.notFound().build();
+	}
+
+	@DeleteMapping("/channel/{channelId}")
+	public ResponseEntity<?> unpinChannel(@PathVariable("channelId") String channelId) {
+		return accessTracker.unpin(AccessTracker.Kind.CHANNEL, channelId)
+				? ResponseEntity.noContent().build()
+				: ResponseEntity.notFound().build();
+	}
+}
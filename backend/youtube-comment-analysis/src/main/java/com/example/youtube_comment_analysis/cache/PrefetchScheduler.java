@@ -0,0 +1,184 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.cache.AccessTracker.HotKey;
+import com.example.youtube_comment_analysis.channel.ChannelAnalysisResponse;
+import com.example.youtube_comment_analysis.channel.ChannelService;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+import com.example.youtube_comment_analysis.video.VideoMeta;
+import com.example.youtube_comment_analysis.video.VideoService;
+
+import lombok.extern.slf4j.Slf4j;
+
+//인기 키 선제 갱신: 상위 N개(+고정 키)의 캐시 TTL이 곧 끝나면 미리 다시 분석
+//YouTube 쿼터/AI 처리량은 시간당 예산으로 제한, 사용자 요청과 같은 cold-analysis 격벽을 거쳐 포화 시 양보
+@Component
+@Slf4j
+public class PrefetchScheduler {
+
+	private final AccessTracker tracker;
+	private final VideoCache videoCache;
+	private final VideoService videoService;
+	private final ChannelService channelService;
+
+	@Value("${app.prefetch.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.prefetch.top-n:20}")
+	private int topN;
+
+	@Value("${app.prefetch.refresh-ahead-seconds:60}")
+	private long refreshAheadSeconds;
+
+	@Value("${app.prefetch.min-score:3.0}")
+	private double minScore;
+
+	@Value("${app.prefetch.max-per-run:5}")
+	private int maxPerRun;
+
+	@Value("${app.prefetch.quota-units-per-hour:2000}")
+	private long quotaUnitsPerHour;
+
+	@Value("${app.prefetch.ai-comments-per-hour:50000}")
+	private long aiCommentsPerHour;
+
+	private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+	private final AtomicLong quotaUsed = new AtomicLong();
+	private final AtomicLong aiCommentsUsed = new AtomicLong();
+	private final AtomicLong refreshed = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	// 채널 → 마지막 분석 때의 영상 id (TTL 확인용, 1시간마다 채널 분석으로 목록 갱신)
+	private final Map<String, ChannelVideos> channelVideos = new ConcurrentHashMap<>();
+	private static final long CHANNEL_LIST_TTL_MS = 3_600_000L;
+	private static final int CHANNEL_VIDEO_LIMIT = 200;
+
+	private record ChannelVideos(List<String> videoIds, long fetchedAt) {}
+
+	public PrefetchScheduler(AccessTracker tracker, VideoCache videoCache, VideoService videoService,
+			ChannelService channelService) {
+		this.tracker = tracker;
+		this.videoCache = videoCache;
+		this.videoService = videoService;
+		this.channelService = channelService;
+	}
+
+	public record PrefetchStatus(
+			List<HotKey> hotKeys,
+			long quotaUsed,
+			long quotaUnitsPerHour,
+			long aiCommentsUsed,
+			long aiCommentsPerHour,
+			long refreshed,
+			long skipped) {}
+
+	@Scheduled(fixedDelayString = "${app.prefetch.interval-ms:15000}",
+			initialDelayString = "${app.prefetch.interval-ms:15000}")
+	public void run() {
+		if (!enabled)
+			return;
+		resetWindowIfExpired();
+		tracker.prune();
+
+		int done = 0;
+		for (HotKey hot : tracker.hottest(topN)) {
+			if (done >= maxPerRun)
+				break;
+			if (!hot.pinned() && hot.score() < minScore)
+				continue;
+			try {
+				if (hot.kind() == AccessTracker.Kind.VIDEO ? refreshVideo(hot) : refreshChannel(hot))
+					done++;
+			}
+			catch (TooManyRequestsException e) {
+				//사용자 트래픽 우선: 포화면 이번 회차 중단
+				log.info("선제 갱신 중단(격벽 포화): {}", e.getMessage());
+				break;
+			}
+			catch (Exception e) {
+				skipped.incrementAndGet();
+				log.warn("선제 갱신 실패: kind={} id={}", hot.kind(), hot.id(), e);
+			}
+		}
+	}
+
+	public PrefetchStatus status() {
+		resetWindowIfExpired();
+		return new PrefetchStatus(tracker.hottest(topN), quotaUsed.get(), quotaUnitsPerHour,
+				aiCommentsUsed.get(), aiCommentsPerHour, refreshed.get(), skipped.get());
+	}
+
+	private boolean refreshVideo(HotKey hot) {
+		long ttl = videoCache.remainingTtlSeconds(hot.id());
+		// 아직 충분히 남았으면 건너뜀 (-2: 없음 → 인기 키면 미리 채움)
+		if (ttl == -1 || ttl > refreshAheadSeconds)
+			return false;
+		int limit = hot.limit() > 0 ? hot.limit() : 200;
+		// videos 1 + commentThreads 페이지 수
+		long units = 1 + (limit + 99) / 100;
+		if (!reserve(units, limit))
+			return false;
+		boolean ok = videoService.refreshVideoData(hot.id(), limit);
+		if (ok) {
+			refreshed.incrementAndGet();
+			log.info("선제 갱신 videoId={} score={} ttl={}s", hot.id(), String.format("%.1f", hot.score()), ttl);
+		}
+		return ok;
+	}
+
+	//채널은 영상 캐시를 재사용하므로 소속 영상 중 곧 만료되는 것만 영상 단위로 갱신
+	private boolean refreshChannel(HotKey hot) {
+		ChannelVideos known = channelVideos.get(hot.id());
+		if (known == null || System.currentTimeMillis() - known.fetchedAt() > CHANNEL_LIST_TTL_MS) {
+			// channels 1 + playlistItems 1 + 영상 5개 x (videos 1 + 댓글 2페이지)
+			if (!reserve(2 + 5 * 3, 5L * CHANNEL_VIDEO_LIMIT))
+				return false;
+			ChannelAnalysisResponse r = channelService.getChannelData(hot.id());
+			channelVideos.put(hot.id(), new ChannelVideos(
+					r.videoMetas().stream().map(VideoMeta::id).toList(), System.currentTimeMillis()));
+			refreshed.incrementAndGet();
+			log.info("선제 갱신 channel={} score={}", hot.id(), String.format("%.1f", hot.score()));
+			return true;
+		}
+
+		boolean any = false;
+		for (String videoId : known.videoIds()) {
+			long ttl = videoCache.remainingTtlSeconds(videoId);
+			if (ttl == -1 || ttl > refreshAheadSeconds)
+				continue;
+			if (!reserve(1 + (CHANNEL_VIDEO_LIMIT + 99) / 100, CHANNEL_VIDEO_LIMIT))
+				break;
+			if (videoService.refreshVideoData(videoId, CHANNEL_VIDEO_LIMIT)) {
+				refreshed.incrementAndGet();
+				any = true;
+			}
+		}
+		return any;
+	}
+
+	private boolean reserve(long units, long comments) {
+		if (quotaUsed.get() + units > quotaUnitsPerHour || aiCommentsUsed.get() + comments > aiCommentsPerHour) {
+			skipped.incrementAndGet();
+			return false;
+		}
+		quotaUsed.addAndGet(units);
+		aiCommentsUsed.addAndGet(comments);
+		return true;
+	}
+
+	private void resetWindowIfExpired() {
+		long now = System.currentTimeMillis();
+		long start = windowStart.get();
+		if (now - start >= 3_600_000L && windowStart.compareAndSet(start, now)) {
+			quotaUsed.set(0);
+			aiCommentsUsed.set(0);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+//응답 본문 바이트 캐시: 캐시 히트 시 객체 역직렬화/재직렬화 없이 저장된 바이트를 그대로 응답
+//ETag는 JSON 바이트의 SHA-256 → If-None-Match 일치 시 304
+@Service
+public class ResponseBodyCache {
+
+	public enum Kind { VIDEO, CHANNEL }
+
+	private final ReactiveRedisTemplate<String, byte[]> bodyTpl;
+	private final Bulkheads bulkheads;
+	private final ObjectMapper objectMapper;
+
+	// 이보다 작은 본문은 gzip 이득이 작아 원본만 저장
+	@Value("${app.cache.gzip-min-bytes:1024}")
+	private int gzipMinBytes;
+
+	//본문은 VideoAnalysisResponse를 직렬화한 것이라 값 스키마가 바뀌면 옛 본문도 함께 무효가 되도록 스키마 번호를 키에 넣음
+	private static final String VERSION = "v" + VideoCacheCodec.SCHEMA;
+
+	public ResponseBodyCache(ReactiveRedisTemplate<String, byte[]> bodyTpl, Bulkheads bulkheads, ObjectMapper objectMapper) {
+		this.bodyTpl = bodyTpl;
+		this.bulkheads = bulkheads;
+		this.objectMapper = objectMapper;
+	}
+
+	//{id} 해시태그: 클러스터에서 영상 값 키(l2:video:{id})와 같은 슬롯
+	static String key(Kind kind, String id) {
+		return "l2:body:%s:{%s}:%s".formatted(kind.name().toLowerCase(), id, VERSION);
+	}
+
+	public CachedBody get(Kind kind, String id) {
+		byte[] raw = bulkheads.redis().call(() -> bodyTpl.opsForValue().get(key(kind, id)).block());
+		return raw == null ? null : CachedBody.decode(raw);
+	}
+
+	public CachedBody put(Kind kind, String id, Object response, Duration ttl) {
+		CachedBody body = render(response);
+		bulkheads.redis().run(() -> bodyTpl.opsForValue().set(key(kind, id), body.encode(), ttl).block());
+		return body;
+	}
+
+	public void invalidate(Kind kind, String id) {
+		bulkheads.redis().run(() -> bodyTpl.delete(key(kind, id)).block());
+	}
+
+	//MVC와 같은 ObjectMapper로 직렬화 → 캐시 응답과 일반 응답의 JSON이 동일
+	public CachedBody render(Object response) {
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(response);
+			byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+			return new CachedBody(etagOf(json), json, gzip);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("응답 직렬화 실패", e);
+		}
+	}
+
+	//If-None-Match 일치 → 304, gzip 수용 + gzip본 있음 → 압축 바이트, 그 외 원본 바이트
+	public static ResponseEntity<byte[]> respond(CachedBody body, String ifNoneMatch, String acceptEncoding) {
+		if (matches(ifNoneMatch, body.etag())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.eTag(body.etag())
+					.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+					.build();
+		}
+		boolean gzip = body.hasGzip() && acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+				.eTag(body.etag())
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip) {
+			return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+					.contentLength(body.gzip().length)
+					.body(body.gzip());
+		}
+		return builder.contentLength(body.json().length).body(body.json());
+	}
+
+	private static boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null || ifNoneMatch.isBlank())
+			return false;
+		for (String candidate : ifNoneMatch.split(",")) {
+			String c = candidate.trim();
+			if (c.equals("*"))
+				return true;
+			if (c.startsWith("W/"))
+				c = c.substring(2);
+			if (c.equals(etag))
+				return true;
+		}
+		return false;
+	}
+
+	private static String etagOf(byte[] json) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+			return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] gzip(byte[] json) {
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+			try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+				gz.write(json);
+			}
+			return bos.toByteArray();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
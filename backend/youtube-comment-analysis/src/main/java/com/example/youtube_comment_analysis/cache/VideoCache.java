@@ -1,12 +1,22 @@
 package com.example.youtube_comment_analysis.cache;
 
 import java.time.Duration;
-import java.util.function.Supplier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import com.example.youtube_comment_analysis.ai.AiSender;
+import com.example.youtube_comment_analysis.load.Bulkheads;
 import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
 
 import lombok.RequiredArgsConstructor;
@@ -16,50 +26,84 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class VideoCache {
-	private final RedisTemplate<String, VideoAnalysisResponse> videoTpl;
+	private final ReactiveRedisTemplate<String, byte[]> bytesTpl;
+	private final Bulkheads bulkheads;
+	private final ResponseBodyCache bodyCache;
+	private final CacheWriteBehind writeBehind;
+	private final VideoCacheCodec codec;
+	private final CacheMigrator migrator;
 	
-	private static final String VERSION = "v1";
+	private static final ThreadLocal<int[]> TRIP_SCOPE = new ThreadLocal<>();
+	private final AtomicLong roundTrips = new AtomicLong();
+	private final AtomicLong channelRequests = new AtomicLong();
+	private final AtomicLong channelTrips = new AtomicLong();
 	
+	//{videoId} 해시태그: 클러스터에서 값/락/본문 키가 같은 슬롯 → 영상별 키는 한 노드에, 영상끼리는 슬롯으로 분산
+	//스키마 버전은 키가 아니라 값 안에 (VideoCacheCodec) → 버전이 올라도 옛 값을 읽어 이전할 수 있음
 	private static String key(String videoId) {
-		return "l2:video:%s:%s".formatted(videoId,VERSION);
+		return "l2:video:{%s}".formatted(videoId);
+	}
+	//봉투 도입 전(스키마 1) 키: 이전 버전이 RedisTemplate + GenericJackson2Json으로 쓰던 형식 그대로 (해시태그 없음)
+	//남은 값은 읽을 때 이전
+	private static String legacyKey(String videoId) {
+		return "l2:video:%s:v1".formatted(videoId);
 	}
 	private static String lockKey(String videoId) {
 		return key(videoId) + ":lock";
 	}
 	
+	//스키마 1 키도 같은 MGET으로 조회, 옛 값이 모두 만료된 뒤(최대 TTL 경과 후)에는 꺼도 됨
+	//단일 노드에서는 왕복 1회, 클러스터에서는 스키마 1 키가 현재 키와 다른 슬롯이라
+	//클라이언트가 슬롯별로 나눠 조회 (영상 여러 개를 묶은 MGET과 같은 처리) → 끄면 그 추가 조회가 없어짐
+	@Value("${app.cache.migration.read-legacy:true}")
+	private boolean readLegacy;
+	
 	private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
     private static final Duration LOCK_TTL = Duration.ofSeconds(80);
     
+    //AI 재시도 대기 중인 부분 결과는 짧게 (재시도가 끝나면 patchPartial로 덮어씀)
+    @Value("${app.cache.partial-ttl-seconds:120}")
+    private long partialTtlSeconds;
+    
     private static final long WAIT_SLICE_MS = 120;   
     private static final long WAIT_MAX_MS   = 20000; 
 	
-    public VideoAnalysisResponse getOrLoadVideoData(String videoId, Supplier<VideoAnalysisResponse> loader) {
-    	final String k=key(videoId);
-    	//저장된 캐시가 있으면 결과 반환
-    	VideoAnalysisResponse hit=videoTpl.opsForValue().get(k);
-    	if(hit!=null)
-    		return hit;
+    //limit개 스레드 요청: 그만큼 이상 분석된 값만 히트 (limit 깊이의 결과로 잘라서)
+    //더 얕게 분석된 값이 있으면 loader에 넘겨 이어서 분석하게 함 (없으면 null)
+    public VideoAnalysisResponse getOrLoadVideoData(String videoId, int limit,
+    		Function<VideoAnalysisResponse, VideoAnalysisResponse> loader) {
+    	//저장된 캐시가 있으면 결과 반환 (아직 redis에 안 써진 write-behind 값 포함, 옛 스키마는 변환해서)
+    	Lookup first=lookupEntry(videoId);
+    	VideoAnalysisResponse covering=covering(first.value(), limit);
+    	if(covering!=null)
+    		return covering;
+    	//변환할 수 없는 옛 값 → 재계산 한도 안에서만
+    	if(first.incompatible())
+    		migrator.admitRecompute(videoId);
+    	VideoAnalysisResponse hit;
     	//캐시 없으면 일단 redis에 생성하고 lock걸어서 처리 시작(중복 연산 방지)
     	final String lk=lockKey(videoId);
-    	Boolean acquired=videoTpl.opsForValue()	.setIfAbsent(
-    			lk,
-    			new VideoAnalysisResponse(null,null,null,null,0,0,0,0,0),
-    			LOCK_TTL);	
+    	CacheLock acquired=tryLock(lk);	
     	
-    	if(Boolean.TRUE.equals(acquired)) {
+    	if(acquired!=null) {
+    		boolean handedOff = false;
     		try {
-    			hit=videoTpl.opsForValue().get(k);
+    			VideoAnalysisResponse current=lookup(videoId);
+    			hit=covering(current, limit);
     			if(hit!=null)
     				return hit;
     			
     			log.info("캐싱 미스");
-    			VideoAnalysisResponse fresh=loader.get();
+    			VideoAnalysisResponse fresh=loader.apply(current);
     			
-    			videoTpl.opsForValue().set(k, fresh,DEFAULT_TTL);
-    			return fresh;
+    			//락은 write-behind가 값을 쓰는 파이프라인에서 같이 해제
+    			putAndRelease(videoId, fresh, acquired);
+    			handedOff = true;
+    			return fresh.atDepth(limit);
     		}
     		finally {
-    			videoTpl.delete(lk);
+    			if (!handedOff)
+    				release(acquired);
     		}
     	}
     	else {
@@ -73,43 +117,296 @@ public class VideoCache {
                 waited += WAIT_SLICE_MS;
 
                 // 캐시 채워졌는지 먼저 확인
-                hit = videoTpl.opsForValue().get(k);
+                hit = covering(lookup(videoId), limit);
                 if (hit != null) 
                 	return hit;
 
                 // 락이 사라졌으면 내가 다시 시도
-                if (Boolean.FALSE.equals(videoTpl.hasKey(lk))) {
-                    Boolean reacquired = videoTpl.opsForValue().setIfAbsent(
-                            lk,
-                            new VideoAnalysisResponse(null, null, null, null, 0, 0, 0, 0, 0),
-                            LOCK_TTL);
-                    if (Boolean.TRUE.equals(reacquired)) {
+                if (Boolean.FALSE.equals(exists(lk))) {
+                    CacheLock reacquired = tryLock(lk);
+                    if (reacquired != null) {
+                        boolean handedOff = false;
                         try {
-                            hit = videoTpl.opsForValue().get(k);
+                            VideoAnalysisResponse current = lookup(videoId);
+                            hit = covering(current, limit);
                             if (hit != null) 
                             	return hit;
 
-                            VideoAnalysisResponse fresh = loader.get();
-                            videoTpl.opsForValue().set(k, fresh, DEFAULT_TTL);
-                            return fresh;
+                            VideoAnalysisResponse fresh = loader.apply(current);
+                            putAndRelease(videoId, fresh, reacquired);
+                            handedOff = true;
+                            return fresh.atDepth(limit);
                         } 
                         finally {
-                            videoTpl.delete(lk);
+                            if (!handedOff)
+                                release(reacquired);
                         }
                     }
                 }
             }
-    		hit=videoTpl.opsForValue().get(k);
+    		VideoAnalysisResponse current=lookup(videoId);
+    		hit=covering(current, limit);
     		if(hit!=null)
     			return hit;
     		
-    		VideoAnalysisResponse fresh = loader.get();
-            videoTpl.opsForValue().set(k, fresh, DEFAULT_TTL);
-            return fresh;
+    		VideoAnalysisResponse fresh = loader.apply(current);
+            put(videoId, fresh);
+            return fresh.atDepth(limit);
+    	}
+    }
+    
+    //남은 TTL(초): 키가 없으면 -2, 만료 없음 -1 (Redis TTL 규칙)
+    public long remainingTtlSeconds(String videoId) {
+    	VideoAnalysisResponse local = writeBehind.peek(videoId);
+    	if (local != null)
+    		return ttlFor(local).toSeconds(); // 쓰기 대기 중 = 방금 계산됨
+    	trip();
+    	Duration ttl = bulkheads.redis().call(() -> bytesTpl.getExpire(key(videoId)).block());
+    	if (ttl == null)
+    		return -2;
+    	return ttl.isZero() ? -1 : ttl.toSeconds();
+    }
+    
+    //만료 전 선제 갱신: 다른 곳에서 이미 계산 중(락 보유)이면 건너뜀
+    //이미 더 깊게 분석된 값이면 그 깊이로 다시 분석 (갱신 때문에 깊은 값이 얕아지지 않게)
+    public boolean refresh(String videoId, int limit, IntFunction<VideoAnalysisResponse> loader) {
+    	CacheLock lock = tryLock(lockKey(videoId));
+    	if (lock == null)
+    		return false;
+    	boolean handedOff = false;
+    	try {
+    		VideoAnalysisResponse current = lookup(videoId);
+    		int depth = limit;
+    		if (current != null && current.depth() != null && !current.depth().exhausted())
+    			depth = Math.max(limit, current.depth().threads());
+    		putAndRelease(videoId, loader.apply(depth), lock);
+    		handedOff = true;
+    		return true;
+    	}
+    	finally {
+    		if (!handedOff)
+    			release(lock);
+    	}
+    }
+    
+    //여러 영상 한 번에 조회 (MGET 1회, 클러스터면 lettuce가 슬롯별로 나눠 병렬 전송), limit을 덮는 히트만 담아 반환
+    //더 얕게 분석된 값은 shallower에 (null이면 버림) → 호출자가 이어서 분석
+    public Map<String, VideoAnalysisResponse> getAll(Collection<String> videoIds, int limit,
+    		Map<String, VideoAnalysisResponse> shallower) {
+    	List<String> ids = List.copyOf(videoIds);
+    	Map<String, VideoAnalysisResponse> hits = new LinkedHashMap<>();
+    	if (ids.isEmpty())
+    		return hits;
+    	List<String> remote = new ArrayList<>();
+    	for (String id : ids) {
+    		VideoAnalysisResponse local = writeBehind.peek(id);
+    		if (local != null)
+    			hits.put(id, local);
+    		else
+    			remote.add(id);
+    	}
+    	if (remote.isEmpty())
+    		return hits;
+    	int stride = readLegacy ? 2 : 1;
+    	List<String> keys = new ArrayList<>(remote.size() * stride);
+    	for (String id : remote) {
+    		keys.add(key(id));
+    		if (readLegacy)
+    			keys.add(legacyKey(id));
+    	}
+    	trip();
+    	List<byte[]> values = bulkheads.redis().call(() -> bytesTpl.opsForValue().multiGet(keys).block());
+    	if (values == null)
+    		return hits;
+    	for (int i = 0; i < remote.size(); i++) {
+    		Lookup l = decode(remote.get(i), values, i * stride);
+    		if (l.value() != null)
+    			hits.put(remote.get(i), l.value());
+    		else if (l.incompatible())
+    			migrator.admitRecompute(remote.get(i)); // 호출자가 미스로 재계산
+    	}
+    	//요청 순서대로
+    	Map<String, VideoAnalysisResponse> ordered = new LinkedHashMap<>();
+    	for (String id : ids) {
+    		VideoAnalysisResponse hit = hits.get(id);
+    		if (hit == null)
+    			continue;
+    		if (hit.covers(limit))
+    			ordered.put(id, hit.atDepth(limit));
+    		else if (shallower != null)
+    			shallower.put(id, hit);
+    	}
+    	return ordered;
+    }
+    
+    public void putAll(Map<String, VideoAnalysisResponse> results) {
+    	results.forEach(this::put);
+    }
+    
+    //재시도로 보완된 결과 반영: 그 사이 다른 요청이 완전한 결과를 새로 계산해 두었으면 덮어쓰지 않음
+    //확인과 쓰기는 영상 계산 락 안에서 (락 보유자는 쓰기가 끝난 뒤에야 해제하므로 확인한 값이 곧 최신 값)
+    //락이 이미 잡혀 있으면 누군가 새로 계산 중 → 그 결과가 우선이므로 반영하지 않음
+    public boolean patchPartial(String videoId, VideoAnalysisResponse patched) {
+    	CacheLock lock = tryLock(lockKey(videoId));
+    	if (lock == null)
+    		return false;
+    	boolean handedOff = false;
+    	try {
+    		VideoAnalysisResponse current = lookup(videoId);
+    		if (current != null && !isPartial(current))
+    			return false;
+    		putAndRelease(videoId, patched, lock);
+    		handedOff = true;
+    		return true;
+    	}
+    	finally {
+    		if (!handedOff)
+    			release(lock);
     	}
     }
     
     public void invalidate(String videoId) {
-        videoTpl.delete(key(videoId));
+        writeBehind.discard(videoId);
+        del(key(videoId));
+        if (readLegacy)
+        	del(legacyKey(videoId));
+        bodyCache.invalidate(ResponseBodyCache.Kind.VIDEO, videoId);
+    }
+    
+    //현재 스레드의 redis 왕복 횟수 측정 (채널 요청 1건 등), 중첩 가능
+    public TripScope openTripScope() {
+    	return new TripScope();
+    }
+    
+    public static final class TripScope implements AutoCloseable {
+    	private final int[] previous = TRIP_SCOPE.get();
+    	private final int[] counter = new int[1];
+    	
+    	private TripScope() {
+    		TRIP_SCOPE.set(counter);
+    	}
+    	
+    	public int count() {
+    		return counter[0];
+    	}
+    	
+    	@Override
+    	public void close() {
+    		if (previous == null) {
+    			TRIP_SCOPE.remove();
+    		}
+    		else {
+    			previous[0] += counter[0];
+    			TRIP_SCOPE.set(previous);
+    		}
+    	}
+    }
+    
+    //채널 요청 1건이 영상 캐시에 쓴 왕복 수 기록
+    public void recordChannelTrips(int trips) {
+    	channelRequests.incrementAndGet();
+    	channelTrips.addAndGet(trips);
+    }
+    
+    public CacheStats stats() {
+    	long requests = channelRequests.get();
+    	return new CacheStats(roundTrips.get(), requests,
+    			requests == 0 ? 0.0 : (double) channelTrips.get() / requests,
+    			writeBehind.stats(), migrator.stats());
+    }
+    
+    public record CacheStats(long roundTrips, long channelRequests, double avgRoundTripsPerChannelRequest,
+    		CacheWriteBehind.WriteBehindStats writeBehind, CacheMigrator.MigrationStats migration) {}
+    
+    private void trip() {
+    	roundTrips.incrementAndGet();
+    	int[] scope = TRIP_SCOPE.get();
+    	if (scope != null)
+    		scope[0]++;
+    }
+    
+    //value가 null이고 incompatible이면 값은 있었지만 현재 스키마로 변환할 수 없음
+    private record Lookup(VideoAnalysisResponse value, boolean incompatible) {}
+    
+    private static final Lookup MISS = new Lookup(null, false);
+    
+    private VideoAnalysisResponse lookup(String videoId) {
+    	return lookupEntry(videoId).value();
+    }
+    
+    private static VideoAnalysisResponse covering(VideoAnalysisResponse v, int limit) {
+    	return v != null && v.covers(limit) ? v.atDepth(limit) : null;
+    }
+    
+    private Lookup lookupEntry(String videoId) {
+    	VideoAnalysisResponse local = writeBehind.peek(videoId);
+    	return local != null ? new Lookup(local, false) : get(videoId);
+    }
+    
+    //redis 호출은 모두 redis 격벽을 거침 (reactive 명령을 격벽 스레드에서 block)
+    //조회(GET/MGET/EXISTS/TTL)는 read-from 설정에 따라 레플리카로 갈 수 있음, 락 판정은 마스터의 SETNX가 최종
+    private Lookup get(String videoId) {
+    	trip();
+    	if (!readLegacy) {
+    		byte[] raw = bulkheads.redis().call(() -> bytesTpl.opsForValue().get(key(videoId)).block());
+    		return decode(videoId, Collections.singletonList(raw), 0);
+    	}
+    	List<String> keys = List.of(key(videoId), legacyKey(videoId));
+    	List<byte[]> values = bulkheads.redis().call(() -> bytesTpl.opsForValue().multiGet(keys).block());
+    	return values == null ? MISS : decode(videoId, values, 0);
+    }
+    
+    //values[at] = 현재 키, values[at+1] = 스키마 1 키 (readLegacy일 때), 현재 키가 있으면 그것만 봄
+    private Lookup decode(String videoId, List<byte[]> values, int at) {
+    	byte[] current = at < values.size() ? values.get(at) : null;
+    	if (current != null) {
+    		VideoCacheCodec.Decoded d = codec.decode(current);
+    		return new Lookup(migrator.accept(videoId, key(videoId), key(videoId), d), d.value() == null);
+    	}
+    	byte[] legacy = readLegacy && at + 1 < values.size() ? values.get(at + 1) : null;
+    	if (legacy == null)
+    		return MISS;
+    	VideoCacheCodec.Decoded d = codec.decodeLegacy(legacy);
+    	return new Lookup(migrator.accept(videoId, legacyKey(videoId), key(videoId), d), d.value() == null);
+    }
+    
+    //객체 캐시와 응답 본문 바이트(ETag/gzip)는 write-behind로 같은 TTL에 저장
+    private void put(String videoId, VideoAnalysisResponse v) {
+    	writeBehind.enqueue(videoId, key(videoId), v, ttlFor(v), null);
+    }
+    
+    private void putAndRelease(String videoId, VideoAnalysisResponse v, CacheLock lock) {
+    	writeBehind.enqueue(videoId, key(videoId), v, ttlFor(v), lock);
+    }
+    
+    private Duration ttlFor(VideoAnalysisResponse v) {
+    	return isPartial(v) ? Duration.ofSeconds(Math.max(1, partialTtlSeconds)) : DEFAULT_TTL;
+    }
+    
+    private static boolean isPartial(VideoAnalysisResponse v) {
+    	return v.completeness() != null && v.completeness().hasPending();
+    }
+    
+    //획득하면 이번 획득의 토큰, 이미 잡혀 있으면 null
+    private CacheLock tryLock(String lk) {
+    	trip();
+    	CacheLock lock = CacheLock.newToken(lk);
+    	Boolean ok = bulkheads.redis().call(() -> bytesTpl.opsForValue().setIfAbsent(lk, lock.token(), LOCK_TTL).block());
+    	return Boolean.TRUE.equals(ok) ? lock : null;
+    }
+    
+    private void release(CacheLock lock) {
+    	trip();
+    	bulkheads.redis().run(() -> lock.release(bytesTpl).block());
+    }
+    
+    private Boolean exists(String k) {
+    	trip();
+    	return bulkheads.redis().call(() -> bytesTpl.hasKey(k).block());
+    }
+    
+    private void del(String k) {
+    	trip();
+    	bulkheads.redis().run(() -> bytesTpl.delete(k).block());
     }
 }
@@ -0,0 +1,103 @@
+package com.example.youtube_comment_analysis.cache;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * 영상 캐시 값의 저장 형식(스키마 버전)과 읽을 때의 변환.
+ * - 저장: {"schema":N,"data":{VideoAnalysisResponse}} (타입 정보 없는 일반 JSON)
+ * - 스키마 1: 버전 봉투 도입 전 값 (GenericJackson2JsonRedisSerializer, @class 타입 정보, 키 접미사 :v1)
+ * - 옛 스키마는 UPGRADES로 한 단계씩 올린 뒤 읽음, 모르는 필드는 버리고 없는 필드는 null(값 없음)
+ *   → 읽는 쪽은 null을 값 없음으로 처리 (예: AuthorStats.merge는 null 건너뜀, 히스토그램 null은 빈 히스토그램)
+ *   캐시 값에는 감정별 대표 댓글만 있어 댓글 전체가 필요한 값은 다시 만들 수 없음
+ * - 더 새 스키마(롤링 배포 중 새 인스턴스가 쓴 값)는 아는 필드만 읽고 다시 쓰지 않음 (버전이 내려가지 않게)
+ * 변환할 수 없으면 INCOMPATIBLE → 캐시 미스로 재계산
+ */
+@Component
+public class VideoCacheCodec {
+
+	public static final int SCHEMA = 2;
+
+	public enum Outcome { CURRENT, UPGRADED, NEWER, INCOMPATIBLE }
+
+	public record Decoded(VideoAnalysisResponse value, int schema, Outcome outcome) {
+
+		static Decoded incompatible(int schema) {
+			return new Decoded(null, schema, Outcome.INCOMPATIBLE);
+		}
+	}
+
+	private record Envelope(int schema, VideoAnalysisResponse data) {}
+
+	//schema → schema+1 data 트리 변환, 필드 추가/삭제만 있는 버전은 등록할 필요 없음
+	//(필드 이름/의미가 바뀔 때만 등록, 빠진 단계가 있으면 그 이전 값은 비호환)
+	private static final Map<Integer, UnaryOperator<ObjectNode>> UPGRADES = Map.of();
+
+	private final ObjectMapper mapper = JsonMapper.builder()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+			.build();
+	private final GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+
+	public byte[] encode(VideoAnalysisResponse value) {
+		try {
+			return mapper.writeValueAsBytes(new Envelope(SCHEMA, value));
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("캐시 값 직렬화 실패", e);
+		}
+	}
+
+	public Decoded decode(byte[] raw) {
+		int schema = 0;
+		try {
+			JsonNode root = mapper.readTree(raw);
+			schema = root.path("schema").asInt(0);
+			JsonNode data = root.get("data");
+			if (schema < 2 || data == null || !data.isObject())
+				return Decoded.incompatible(schema);
+
+			ObjectNode tree = (ObjectNode) data;
+			for (int s = schema; s < SCHEMA; s++) {
+				UnaryOperator<ObjectNode> step = UPGRADES.get(s);
+				if (step == null)
+					return Decoded.incompatible(schema);
+				tree = step.apply(tree);
+			}
+			VideoAnalysisResponse v = mapper.treeToValue(tree, VideoAnalysisResponse.class);
+			if (v.video() == null)
+				return Decoded.incompatible(schema);
+			if (schema > SCHEMA)
+				return new Decoded(v, schema, Outcome.NEWER);
+			return schema == SCHEMA
+					? new Decoded(v, schema, Outcome.CURRENT)
+					: new Decoded(v, schema, Outcome.UPGRADED);
+		}
+		catch (Exception e) {
+			return Decoded.incompatible(schema);
+		}
+	}
+
+	//스키마 1 (:v1 키): 예전 직렬화기로 읽어 현재 레코드로, 클래스 구조가 달라져 못 읽으면 비호환
+	public Decoded decodeLegacy(byte[] raw) {
+		try {
+			Object o = legacy.deserialize(raw);
+			if (o instanceof VideoAnalysisResponse v && v.video() != null)
+				return new Decoded(v, 1, Outcome.UPGRADED);
+		}
+		catch (Exception e) {
+			// 아래에서 비호환 처리
+		}
+		return Decoded.incompatible(1);
+	}
+}
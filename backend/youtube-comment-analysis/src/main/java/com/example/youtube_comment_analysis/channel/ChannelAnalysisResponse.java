@@ -3,6 +3,7 @@ package com.example.youtube_comment_analysis.channel;
 import java.util.List;
 
 import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.video.AuthorStats;
 import com.example.youtube_comment_analysis.video.CommentDto;
 import com.example.youtube_comment_analysis.video.StatsDto;
 import com.example.youtube_comment_analysis.video.VideoMeta;
@@ -15,5 +16,6 @@ public record ChannelAnalysisResponse(
 	    int commentCountAfterBot,
 	    int POSITIVE,
         int NEUTRAL,
-        int NEGATIVE) {
+        int NEGATIVE,
+        AuthorStats authors) {
 }
@@ -1,11 +1,25 @@
 package com.example.youtube_comment_analysis.channel;
 
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.youtube_comment_analysis.cache.AccessTracker;
+import com.example.youtube_comment_analysis.cache.CachedBody;
+import com.example.youtube_comment_analysis.cache.ResponseBodyCache;
+import com.example.youtube_comment_analysis.history.SnapshotStore;
+import com.example.youtube_comment_analysis.history.SnapshotTarget;
+import com.example.youtube_comment_analysis.video.CommentExportWriter;
+
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -14,9 +28,44 @@ import lombok.RequiredArgsConstructor;
 public class ChannelController {
 	
 	private final ChannelService channelService;
+	private final SnapshotStore snapshotStore;
+	private final AccessTracker accessTracker;
+	private final ResponseBodyCache bodyCache;
+	
+	// 채널 응답은 영상 캐시 5개를 합친 결과라 본문 캐시는 짧게 유지
+	@Value("${app.cache.channel-body-ttl-seconds:60}")
+	private long channelBodyTtlSeconds;
 
 	@GetMapping("/{channelId}")
-	public ResponseEntity<?> getChannelData(@PathVariable("channelId")String channelId){
-		return ResponseEntity.ok(channelService.getChannelData(channelId));
+	public ResponseEntity<?> getChannelData(@PathVariable("channelId")String channelId,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+		accessTracker.record(AccessTracker.Kind.CHANNEL, channelId, 0);
+		String handle = channelId.startsWith("@") ? channelId : "@" + channelId;
+		CachedBody body = bodyCache.get(ResponseBodyCache.Kind.CHANNEL, handle);
+		if (body == null)
+			body = bodyCache.put(ResponseBodyCache.Kind.CHANNEL, handle, channelService.getChannelData(channelId),
+					Duration.ofSeconds(channelBodyTtlSeconds));
+		return ResponseBodyCache.respond(body, ifNoneMatch, acceptEncoding);
+	}
+	
+	//채널 최신 영상들의 분류된 댓글 내보내기 (format: ndjson | csv), 영상 목록은 응답 시작 전에 확인하고 영상별 분석은 쓰면서 진행
+	@GetMapping("/{channelId}/export")
+	public ResponseEntity<?> exportChannelComments(@PathVariable("channelId") String channelId,
+			@RequestParam(name = "format", defaultValue = "ndjson") String format,
+			@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		CommentExportWriter.Format f = CommentExportWriter.Format.parse(format);
+		List<String> videoIds = channelService.latestVideoIds(channelId);
+		String name = "comments-" + (channelId.startsWith("@") ? channelId.substring(1) : channelId);
+		return CommentExportWriter.respond(name, f, acceptEncoding, writer -> channelService.exportComments(videoIds, writer));
+	}
+	
+	//채널 감정 추이 (분석 시와 같은 핸들 기준)
+	@GetMapping("/{channelId}/trend")
+	public ResponseEntity<?> getChannelTrend(@PathVariable("channelId") String channelId,
+			@RequestParam(name = "from", required = false) String from,
+			@RequestParam(name = "to", required = false) String to) {
+		String handle = channelId.startsWith("@") ? channelId : "@" + channelId;
+		return ResponseEntity.ok(snapshotStore.trend(SnapshotTarget.CHANNEL, handle, from, to));
 	}
 }
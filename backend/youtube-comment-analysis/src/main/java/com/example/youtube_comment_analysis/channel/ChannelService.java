@@ -1,5 +1,6 @@
 package com.example.youtube_comment_analysis.channel;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -15,18 +16,25 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 
 import com.example.youtube_comment_analysis.ai.AiSender;
 import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.cache.VideoCache;
 import com.example.youtube_comment_analysis.error.ChannelAnalysisException;
 import com.example.youtube_comment_analysis.error.ChannelNotFoundException;
 import com.example.youtube_comment_analysis.error.CommentsDisabledException;
 import com.example.youtube_comment_analysis.error.ExternalServiceException;
 import com.example.youtube_comment_analysis.error.PlaylistEmptyException;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
 import com.example.youtube_comment_analysis.error.VideoAnalysisException;
+import com.example.youtube_comment_analysis.history.AnalysisSnapshot;
+import com.example.youtube_comment_analysis.history.SnapshotStore;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.example.youtube_comment_analysis.video.AuthorStats;
+import com.example.youtube_comment_analysis.video.CommentExportWriter;
+import com.example.youtube_comment_analysis.video.CommentIndex;
 import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
 import com.example.youtube_comment_analysis.video.VideoMeta;
 import com.example.youtube_comment_analysis.video.VideoService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,11 +45,18 @@ public class ChannelService {
 	private final VideoService videoService;
 	private final AiSender aiSender;
 	private final WebClient yt;
+	private final SnapshotStore snapshotStore;
+	private final Bulkheads bulkheads;
+	private final VideoCache videoCache;
 	
-	public ChannelService(@Qualifier("youtubeWebClient") WebClient yt, AiSender aiSender, VideoService videoService) {
+	public ChannelService(@Qualifier("youtubeWebClient") WebClient yt, AiSender aiSender, VideoService videoService,
+			SnapshotStore snapshotStore, Bulkheads bulkheads, VideoCache videoCache) {
         this.yt = yt;
         this.aiSender=aiSender;
         this.videoService = videoService;
+        this.snapshotStore = snapshotStore;
+        this.bulkheads = bulkheads;
+        this.videoCache = videoCache;
     }
 	
 	@Value("${youtube.api.key}")
@@ -53,88 +68,45 @@ public class ChannelService {
 		String handle=channelId.startsWith("@") ? channelId : "@" + channelId;
 		
 		try {
-			//채널의 메타 데이터(id, 이름, 설명, 개설일, 썸네일) 받기 
-			String channelJson=yt.get()
-					.uri(b->b.path("/channels")
-							.queryParam("part", "snippet,contentDetails,statistics")
-							.queryParam("forHandle", handle)
-							.queryParam("key", apikey)
-							.build())
-					.retrieve()
-					 .onStatus(HttpStatusCode::is4xxClientError, res -> res.bodyToMono(String.class)
-				                .map(body -> new ExternalServiceException("YouTube 4xx: " + body, null)))
-				            .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class)
-				                .map(body -> new ExternalServiceException("YouTube 5xx: " + body, null)))
-		            .bodyToMono(String.class)
-		            .block();
-			
-			JsonNode root = mapper.readTree(channelJson);
-			var itemsNode = root.path("items");
-			if (!itemsNode.isArray() || itemsNode.size() == 0) {
-			    throw new IllegalStateException("채널을 찾지 못했음: " + handle);
-			}
-			JsonNode ch = itemsNode.get(0);
-			
-			ChannelMeta meta=parseChannelMeta(channelJson);
-			
-			String PlaylistId=ch.path("contentDetails")
-					.path("relatedPlaylists")
-					.path("uploads")
-					.asText();
-			
-			if (PlaylistId == null || PlaylistId.isBlank()) {
-	            throw new PlaylistEmptyException("업로드 플레이리스트를 찾지 못함: channelId=" + meta.id());
-	        }
-			
-			//채널의 최신 영상 5개
-			String playlistJson=yt.get()
-					.uri(b->b.path("/playlistItems")
-							.queryParam("part", "contentDetails")
-							.queryParam("playlistId", PlaylistId)
-							.queryParam("maxResults", 5)
-							.queryParam("key", apikey)
-							.build())
-					.retrieve()
-					.onStatus(HttpStatusCode::is4xxClientError, res -> res.bodyToMono(String.class)
-							.map(body -> new ExternalServiceException("YouTube 4xx: " + body, null)))
-			        .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class)
-			                .map(body -> new ExternalServiceException("YouTube 5xx: " + body, null)))
-		            .bodyToMono(String.class)
-		            .block();
-			var pRoot = mapper.readTree(playlistJson);
-	        var pItems = pRoot.path("items");
-	        if (!pItems.isArray() || pItems.size() == 0) {
-	            throw new PlaylistEmptyException("업로드 영상이 비어있음: channelId=" + meta.id());
-	        }
-			
+			Uploads uploads=fetchUploads(handle);
+			ChannelMeta meta=uploads.meta();
+			List<String> videoIds=uploads.videoIds();
 			
 			List<VideoAnalysisResponse> videos=new ArrayList<>();
 			List<VideoMeta> vMeta=new ArrayList<>();
-			ArrayNode items=(ArrayNode)mapper.readTree(playlistJson).path("items");
 			int pos=0, neu=0, neg=0;
 			
-			//videoservice의 영상 분석 함수 재활용
-			for(JsonNode it : items) {
-				String videoId=it.path("contentDetails").path("videoId").asText();
-				if(videoId==null || videoId.isBlank())
-					continue;
-				try {
-					var vr=this.videoService.getVideoData(videoId, 200);
-					videos.add(vr);
-					vMeta.add(vr.video());
-					pos+=vr.POSITIVE();
-					neu+=vr.NEUTRAL();
-					neg+=vr.NEGATIVE();
-				}
-				catch(CommentsDisabledException e) {
-			        log.info("댓글 비활성화 영상 건너뜀: videoId={}", videoId);
-			        continue;  // 다음 영상으로
-			    }
-				catch(Exception e) {
-					log.warn("video analysis failed: videoId={}", videoId, e);
-					throw new VideoAnalysisException("영상 분석 실패",e);
+			//캐시는 MGET 1회로 먼저 확인하고 미스만 영상별 분석 경로로, 이 요청의 redis 왕복 수를 기록
+			int redisTrips;
+			try (VideoCache.TripScope trips=videoCache.openTripScope()) {
+				Map<String, VideoAnalysisResponse> cached=videoCache.getAll(videoIds, 200, null);
+				
+				//videoservice의 영상 분석 함수 재활용
+				for(String videoId : videoIds) {
+					try {
+						var vr=cached.containsKey(videoId) ? cached.get(videoId) : this.videoService.getVideoData(videoId, 200);
+						videos.add(vr);
+						vMeta.add(vr.video());
+						pos+=vr.POSITIVE();
+						neu+=vr.NEUTRAL();
+						neg+=vr.NEGATIVE();
+					}
+					catch(CommentsDisabledException e) {
+				        log.info("댓글 비활성화 영상 건너뜀: videoId={}", videoId);
+				        continue;  // 다음 영상으로
+				    }
+					catch(TooManyRequestsException e) {
+						throw e;
+					}
+					catch(Exception e) {
+						log.warn("video analysis failed: videoId={}", videoId, e);
+						throw new VideoAnalysisException("영상 분석 실패",e);
+					}
 				}
+				redisTrips=trips.count();
 			}
+			videoCache.recordChannelTrips(redisTrips);
+			log.info("채널 영상 로드 handle={} videos={} redisRoundTrips={}", handle, videoIds.size(), redisTrips);
 			
 			if(videos.isEmpty()) {
 				//채널만 있고 영상이 없음
@@ -163,8 +135,11 @@ public class ChannelService {
 			int beforeSum = videos.stream().mapToInt(VideoAnalysisResponse::commentCountBeforeBot).sum();
 			int afterSum  = videos.stream().mapToInt(VideoAnalysisResponse::commentCountAfterBot).sum();
 			
+			//작성자: 영상별 HLL 레지스터/반복 작성자 목록 병합 (영상 간 같은 작성자는 한 번만)
+			AuthorStats authors = AuthorStats.merge(videos.stream().map(VideoAnalysisResponse::authors).toList());
+			
 
-	        return new ChannelAnalysisResponse(
+	        ChannelAnalysisResponse result = new ChannelAnalysisResponse(
 	        		meta,
 	        		vMeta,
 	        		topKeywordGlobal,
@@ -172,12 +147,103 @@ public class ChannelService {
 	        		afterSum,
 	        		pos,
 	        		neu,
-	        		neg);
+	        		neg,
+	        		authors);
+	        
+	        //추이 조회용 스냅샷 기록 (핸들 기준)
+	        snapshotStore.append(AnalysisSnapshot.ofChannel(handle, result, System.currentTimeMillis()));
+	        return result;
+		}
+		catch(WebClientResponseException | WebClientRequestException e) {
+			throw new ExternalServiceException("YouTube API 호출 실패: " + e.getMessage(), e);
+		}
+		catch (ChannelNotFoundException | PlaylistEmptyException | TooManyRequestsException e) {
+	        throw e;
+		}
+		catch(Exception e) {
+			throw new ChannelAnalysisException("채널 분석 중 내부 오류", e);
+		}
+	}
+	
+	//채널 메타 + 업로드 플레이리스트의 최신 영상 id 5개
+	private record Uploads(ChannelMeta meta, List<String> videoIds) {}
+	
+	private Uploads fetchUploads(String handle) throws IOException {
+		//채널의 메타 데이터(id, 이름, 설명, 개설일, 썸네일) 받기 
+		String channelJson=bulkheads.youtube().call(() -> yt.get()
+				.uri(b->b.path("/channels")
+						.queryParam("part", "snippet,contentDetails,statistics")
+						.queryParam("forHandle", handle)
+						.queryParam("key", apikey)
+						.build())
+				.retrieve()
+				 .onStatus(HttpStatusCode::is4xxClientError, res -> res.bodyToMono(String.class)
+			                .map(body -> new ExternalServiceException("YouTube 4xx: " + body, null)))
+			            .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class)
+			                .map(body -> new ExternalServiceException("YouTube 5xx: " + body, null)))
+	            .bodyToMono(String.class)
+	            .block());
+		
+		JsonNode root = mapper.readTree(channelJson);
+		var itemsNode = root.path("items");
+		if (!itemsNode.isArray() || itemsNode.size() == 0) {
+		    throw new IllegalStateException("채널을 찾지 못했음: " + handle);
+		}
+		JsonNode ch = itemsNode.get(0);
+		
+		ChannelMeta meta=parseChannelMeta(channelJson);
+		
+		String PlaylistId=ch.path("contentDetails")
+				.path("relatedPlaylists")
+				.path("uploads")
+				.asText();
+		
+		if (PlaylistId == null || PlaylistId.isBlank()) {
+            throw new PlaylistEmptyException("업로드 플레이리스트를 찾지 못함: channelId=" + meta.id());
+        }
+		
+		//채널의 최신 영상 5개
+		String playlistJson=bulkheads.youtube().call(() -> yt.get()
+				.uri(b->b.path("/playlistItems")
+						.queryParam("part", "contentDetails")
+						.queryParam("playlistId", PlaylistId)
+						.queryParam("maxResults", 5)
+						.queryParam("key", apikey)
+						.build())
+				.retrieve()
+				.onStatus(HttpStatusCode::is4xxClientError, res -> res.bodyToMono(String.class)
+						.map(body -> new ExternalServiceException("YouTube 4xx: " + body, null)))
+		        .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class)
+		                .map(body -> new ExternalServiceException("YouTube 5xx: " + body, null)))
+	            .bodyToMono(String.class)
+	            .block());
+		var pRoot = mapper.readTree(playlistJson);
+        var pItems = pRoot.path("items");
+        if (!pItems.isArray() || pItems.size() == 0) {
+            throw new PlaylistEmptyException("업로드 영상이 비어있음: channelId=" + meta.id());
+        }
+		
+		List<String> videoIds=new ArrayList<>();
+		for(JsonNode it : pItems) {
+			String videoId=it.path("contentDetails").path("videoId").asText();
+			if(videoId!=null && !videoId.isBlank())
+				videoIds.add(videoId);
+		}
+		return new Uploads(meta, videoIds);
+	}
+	
+	/**
+	 * 내보내기 대상 영상 id (채널 분석과 같은 최신 5개), 오류 변환은 getChannelData와 같음
+	 */
+	public List<String> latestVideoIds(String channelId) {
+		String handle=channelId.startsWith("@") ? channelId : "@" + channelId;
+		try {
+			return fetchUploads(handle).videoIds();
 		}
 		catch(WebClientResponseException | WebClientRequestException e) {
 			throw new ExternalServiceException("YouTube API 호출 실패: " + e.getMessage(), e);
 		}
-		catch (ChannelNotFoundException | PlaylistEmptyException e) {
+		catch (ChannelNotFoundException | PlaylistEmptyException | TooManyRequestsException e) {
 	        throw e;
 		}
 		catch(Exception e) {
@@ -185,6 +251,26 @@ public class ChannelService {
 		}
 	}
 	
+	/**
+	 * 채널 최신 영상들의 분류된 댓글을 영상 순서대로 이어서 씀 (영상당 200개, 채널 분석과 같은 기준)
+	 * 채널 분석이 만든 영상별 댓글 인덱스를 그대로 쓰고, 인덱스가 없는 영상만 분석
+	 * 응답 헤더가 이미 나간 뒤라 실패는 스트림 중단으로만 드러남, 댓글 비활성화 영상은 건너뜀
+	 */
+	public void exportComments(List<String> videoIds, CommentExportWriter writer) throws IOException {
+		for(String videoId : videoIds) {
+			CommentIndex index;
+			try {
+				index=videoService.commentIndex(videoId, 200);
+			}
+			catch(CommentsDisabledException e) {
+				log.info("댓글 비활성화 영상 건너뜀: videoId={}", videoId);
+				continue;
+			}
+			writer.write(videoId, index, 200);
+		}
+		log.info("채널 댓글 내보내기 videos={} rows={}", videoIds.size(), writer.rows());
+	}
+	
 	private ChannelMeta parseChannelMeta(String channelJson) {
         try {
             JsonNode root = mapper.readTree(channelJson);
@@ -0,0 +1,8 @@
+package com.example.youtube_comment_analysis.error;
+
+//요청 값 검증 실패 (잘못된 파라미터/커서/형식) → 400
+//서비스 내부의 IllegalArgumentException은 프로그래밍 오류라 400으로 바꾸지 않음
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String msg) { super(msg); }
+    public BadRequestException(String msg, Throwable cause) { super(msg, cause); }
+}
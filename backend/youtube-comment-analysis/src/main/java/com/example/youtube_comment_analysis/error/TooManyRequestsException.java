@@ -0,0 +1,14 @@
+package com.example.youtube_comment_analysis.error;
+
+public class TooManyRequestsException extends RuntimeException {
+	private final long retryAfterSeconds;
+
+	public TooManyRequestsException(String msg, long retryAfterSeconds) {
+		super(msg);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.youtube_comment_analysis.history;
+
+import java.util.List;
+
+import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.channel.ChannelAnalysisResponse;
+import com.example.youtube_comment_analysis.video.HourlyStat;
+import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+
+//분석 1회분 요약(추이 조회용): 감정 카운트 + 시간대 버킷 + 키워드 + 봇 필터 전후 댓글 수
+public record AnalysisSnapshot(
+		SnapshotTarget target,
+		String targetId,
+		long capturedAt,                  // epoch millis
+		int POSITIVE,
+		int NEUTRAL,
+		int NEGATIVE,
+		int commentCountBeforeBot,
+		int commentCountAfterBot,
+		List<HourlyStat> hourly,
+		List<KeywordCount> topKeywordGlobal) {
+
+	public String key() {
+		return target.key(targetId);
+	}
+
+	public static AnalysisSnapshot ofVideo(String videoId, VideoAnalysisResponse r, long capturedAt) {
+		List<HourlyStat> hourly = (r.stats() != null) ? r.stats().getHourly() : List.of();
+		return new AnalysisSnapshot(SnapshotTarget.VIDEO, videoId, capturedAt,
+				r.POSITIVE(), r.NEUTRAL(), r.NEGATIVE(),
+				r.commentCountBeforeBot(), r.commentCountAfterBot(),
+				hourly,
+				r.topKeywordGlobal() != null ? r.topKeywordGlobal() : List.of());
+	}
+
+	public static AnalysisSnapshot ofChannel(String channelId, ChannelAnalysisResponse r, long capturedAt) {
+		return new AnalysisSnapshot(SnapshotTarget.CHANNEL, channelId, capturedAt,
+				r.POSITIVE(), r.NEUTRAL(), r.NEGATIVE(),
+				r.commentCountBeforeBot(), r.commentCountAfterBot(),
+				List.of(),
+				r.topKeywordGlobal() != null ? r.topKeywordGlobal() : List.of());
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.youtube_comment_analysis.history;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.video.HourlyStat;
+import com.example.youtube_comment_analysis.video.Sentiment;
+
+//스냅샷 바이너리 인코딩 (JSON 대비 수십 바이트 수준)
+final class SnapshotCodec {
+
+	private static final byte FORMAT_VERSION = 1;
+
+	private SnapshotCodec() {}
+
+	static byte[] encode(AnalysisSnapshot s) {
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(128);
+			DataOutputStream out = new DataOutputStream(bos);
+			out.writeByte(FORMAT_VERSION);
+			out.writeByte(s.target().ordinal());
+			out.writeUTF(s.targetId());
+			out.writeLong(s.capturedAt());
+			out.writeInt(s.POSITIVE());
+			out.writeInt(s.NEUTRAL());
+			out.writeInt(s.NEGATIVE());
+			out.writeInt(s.commentCountBeforeBot());
+			out.writeInt(s.commentCountAfterBot());
+
+			List<HourlyStat> hourly = s.hourly() != null ? s.hourly() : List.of();
+			out.writeByte(hourly.size());
+			for (HourlyStat h : hourly) {
+				out.writeByte(h.getHour());
+				for (Sentiment sentiment : Sentiment.values()) {
+					Integer n = h.getCounts() != null ? h.getCounts().get(sentiment) : null;
+					out.writeInt(n == null ? 0 : n);
+				}
+			}
+
+			List<KeywordCount> keywords = s.topKeywordGlobal() != null ? s.topKeywordGlobal() : List.of();
+			out.writeShort(keywords.size());
+			for (KeywordCount kc : keywords) {
+				out.writeUTF(kc.keyword() == null ? "" : kc.keyword());
+				out.writeInt(kc.count());
+			}
+			out.flush();
+			return bos.toByteArray();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	static AnalysisSnapshot decode(byte[] payload) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+			byte version = in.readByte();
+			if (version != FORMAT_VERSION)
+				throw new IOException("unknown snapshot format version: " + version);
+
+			SnapshotTarget target = SnapshotTarget.values()[in.readByte()];
+			String targetId = in.readUTF();
+			long capturedAt = in.readLong();
+			int pos = in.readInt();
+			int neu = in.readInt();
+			int neg = in.readInt();
+			int before = in.readInt();
+			int after = in.readInt();
+
+			int hourlySize = in.readUnsignedByte();
+			List<HourlyStat> hourly = new ArrayList<>(hourlySize);
+			for (int i = 0; i < hourlySize; i++) {
+				HourlyStat h = new HourlyStat(in.readUnsignedByte());
+				Map<Sentiment, Integer> counts = new EnumMap<>(Sentiment.class);
+				for (Sentiment sentiment : Sentiment.values())
+					counts.put(sentiment, in.readInt());
+				h.setCounts(counts);
+				hourly.add(h);
+			}
+
+			int kwSize = in.readUnsignedShort();
+			List<KeywordCount> keywords = new ArrayList<>(kwSize);
+			for (int i = 0; i < kwSize; i++)
+				keywords.add(new KeywordCount(in.readUTF(), in.readInt()));
+
+			return new AnalysisSnapshot(target, targetId, capturedAt, pos, neu, neg, before, after, hourly, keywords);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.example.youtube_comment_analysis.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+//고정 크기 mmap 세그먼트 파일 1개. 레코드: [int len][int crc32][payload]
+//헤더: [int magic][short version][short flags][long reserved]
+final class SnapshotSegment implements Closeable {
+
+	static final int MAGIC = 0x59434153;             // "YCAS"
+	static final short VERSION = 1;
+	static final short FLAG_COMPACTED = 1;
+	static final int HEADER_BYTES = 16;
+	static final int RECORD_OVERHEAD = 8;
+
+	final long id;
+	final Path path;
+	private final FileChannel channel;
+	private final MappedByteBuffer buf;
+	private final int capacity;
+	private final boolean compacted;
+
+	private int writePos;
+	private long minTs = Long.MAX_VALUE;
+	private long maxTs = Long.MIN_VALUE;
+	// 키별 레코드 오프셋 (시간순)
+	private final Map<String, List<Integer>> offsetsByKey = new HashMap<>();
+
+	private SnapshotSegment(long id, Path path, FileChannel channel, int capacity, boolean compacted) throws IOException {
+		this.id = id;
+		this.path = path;
+		this.channel = channel;
+		this.capacity = capacity;
+		this.compacted = compacted;
+		this.buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+	}
+
+	static SnapshotSegment create(Path path, long id, int capacity, boolean compacted) throws IOException {
+		FileChannel ch = FileChannel.open(path,
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		SnapshotSegment seg = new SnapshotSegment(id, path, ch, capacity, compacted);
+		seg.buf.putInt(0, MAGIC);
+		seg.buf.putShort(4, VERSION);
+		seg.buf.putShort(6, compacted ? FLAG_COMPACTED : 0);
+		seg.buf.putLong(8, 0L);
+		seg.writePos = HEADER_BYTES;
+		return seg;
+	}
+
+	//기존 세그먼트 열기: 끝까지 스캔하며 인덱스 복구, 잘린(torn) 레코드 이후는 버림
+	static SnapshotSegment open(Path path, long id) throws IOException {
+		FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long size = ch.size();
+		if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+			ch.close();
+			throw new IOException("invalid segment size: " + path + " (" + size + ")");
+		}
+		MappedByteBuffer probe = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+		if (probe.getInt(0) != MAGIC) {
+			ch.close();
+			throw new IOException("not a snapshot segment: " + path);
+		}
+		boolean compacted = (probe.getShort(6) & FLAG_COMPACTED) != 0;
+
+		SnapshotSegment seg = new SnapshotSegment(id, path, ch, (int) size, compacted);
+		int pos = HEADER_BYTES;
+		while (pos + RECORD_OVERHEAD <= seg.capacity) {
+			int len = seg.buf.getInt(pos);
+			if (len <= 0 || pos + RECORD_OVERHEAD + len > seg.capacity)
+				break;
+			byte[] payload = new byte[len];
+			seg.buf.get(pos + RECORD_OVERHEAD, payload);
+			if (crc(payload) != seg.buf.getInt(pos + 4))
+				break;
+			AnalysisSnapshot s = SnapshotCodec.decode(payload);
+			seg.index(s.key(), s.capturedAt(), pos);
+			pos += RECORD_OVERHEAD + len;
+		}
+		seg.writePos = pos;
+		return seg;
+	}
+
+	//공간 부족 시 false
+	boolean tryAppend(String key, long ts, byte[] payload) {
+		int need = RECORD_OVERHEAD + payload.length;
+		if (writePos + need > capacity)
+			return false;
+		int at = writePos;
+		buf.put(at + RECORD_OVERHEAD, payload);
+		buf.putInt(at + 4, crc(payload));
+		// 길이는 마지막에 기록: 중간에 죽으면 len=0으로 남아 복구 시 무시됨
+		buf.putInt(at, payload.length);
+		writePos = at + need;
+		index(key, ts, at);
+		return true;
+	}
+
+	List<AnalysisSnapshot> read(String key, long from, long to) {
+		List<Integer> offsets = offsetsByKey.get(key);
+		if (offsets == null || maxTs < from || minTs > to)
+			return List.of();
+		List<AnalysisSnapshot> out = new ArrayList<>();
+		for (int off : offsets) {
+			AnalysisSnapshot s = decodeAt(off);
+			if (s.capturedAt() >= from && s.capturedAt() <= to)
+				out.add(s);
+		}
+		return out;
+	}
+
+	void forEach(Consumer<AnalysisSnapshot> consumer) {
+		int pos = HEADER_BYTES;
+		while (pos < writePos) {
+			int len = buf.getInt(pos);
+			consumer.accept(decodeAt(pos));
+			pos += RECORD_OVERHEAD + len;
+		}
+	}
+
+	private AnalysisSnapshot decodeAt(int off) {
+		int len = buf.getInt(off);
+		byte[] payload = new byte[len];
+		buf.get(off + RECORD_OVERHEAD, payload);
+		return SnapshotCodec.decode(payload);
+	}
+
+	private void index(String key, long ts, int offset) {
+		offsetsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(offset);
+		minTs = Math.min(minTs, ts);
+		maxTs = Math.max(maxTs, ts);
+	}
+
+	private static int crc(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		return (int) crc.getValue();
+	}
+
+	boolean isEmpty() { return writePos == HEADER_BYTES; }
+	boolean isCompacted() { return compacted; }
+	long minTs() { return minTs; }
+	long maxTs() { return maxTs; }
+	int usedBytes() { return writePos; }
+
+	void force() {
+		buf.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		force();
+		channel.close();
+	}
+}
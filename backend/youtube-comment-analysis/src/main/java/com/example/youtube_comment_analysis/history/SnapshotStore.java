@@ -0,0 +1,264 @@
+package com.example.youtube_comment_analysis.history;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.youtube_comment_analysis.error.BadRequestException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//분석 결과 스냅샷 append-only 저장소 (로컬 mmap 세그먼트 파일)
+//- 활성 세그먼트 1개에만 append, 가득 차면 봉인 후 새 세그먼트
+//- 봉인된 오래된 세그먼트는 키별 1시간 1건으로 compaction
+//- 보존 기간이 지난 세그먼트는 통째로 삭제
+@Service
+@Slf4j
+public class SnapshotStore {
+
+	private static final Pattern SEGMENT_NAME = Pattern.compile("seg-(\\d{10})\\.dat");
+	private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+	private static final Duration DEFAULT_TREND_RANGE = Duration.ofDays(30);
+
+	@Value("${app.history.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.history.dir:./data/history}")
+	private String dir;
+
+	@Value("${app.history.segment-bytes:8388608}")
+	private int segmentBytes;
+
+	@Value("${app.history.retention-days:90}")
+	private int retentionDays;
+
+	@Value("${app.history.compact-after-hours:24}")
+	private int compactAfterHours;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final NavigableMap<Long, SnapshotSegment> segments = new TreeMap<>();
+	private SnapshotSegment active;
+	private Path root;
+
+	@PostConstruct
+	void init() {
+		if (!enabled)
+			return;
+		try {
+			root = Path.of(dir);
+			Files.createDirectories(root);
+			try (Stream<Path> files = Files.list(root)) {
+				for (Path p : files.sorted().toList()) {
+					Matcher m = SEGMENT_NAME.matcher(p.getFileName().toString());
+					if (!m.matches())
+						continue;
+					long id = Long.parseLong(m.group(1));
+					try {
+						segments.put(id, SnapshotSegment.open(p, id));
+					}
+					catch (IOException e) {
+						log.warn("스냅샷 세그먼트 열기 실패, 건너뜀: {}", p, e);
+					}
+				}
+			}
+			active = segments.isEmpty() || segments.lastEntry().getValue().isCompacted()
+					? roll()
+					: segments.lastEntry().getValue();
+			log.info("스냅샷 저장소 준비: dir={} segments={}", root.toAbsolutePath(), segments.size());
+		}
+		catch (IOException e) {
+			log.error("스냅샷 저장소 초기화 실패 - 이력 저장 비활성화: dir={}", dir, e);
+			enabled = false;
+		}
+	}
+
+	@PreDestroy
+	void close() {
+		lock.writeLock().lock();
+		try {
+			for (SnapshotSegment s : segments.values()) {
+				try { s.close(); } catch (IOException e) { log.warn("세그먼트 닫기 실패: {}", s.path, e); }
+			}
+			segments.clear();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//분석 완료 시 호출: 실패해도 분석 응답에는 영향 없음
+	public void append(AnalysisSnapshot snapshot) {
+		if (!enabled || snapshot == null || snapshot.targetId() == null)
+			return;
+		byte[] payload = SnapshotCodec.encode(snapshot);
+		if (payload.length + SnapshotSegment.RECORD_OVERHEAD > segmentBytes - SnapshotSegment.HEADER_BYTES) {
+			log.warn("스냅샷이 세그먼트보다 큼, 저장 안 함: key={} bytes={}", snapshot.key(), payload.length);
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			if (!active.tryAppend(snapshot.key(), snapshot.capturedAt(), payload)) {
+				active.force();
+				active = roll();
+				active.tryAppend(snapshot.key(), snapshot.capturedAt(), payload);
+			}
+		}
+		catch (IOException e) {
+			log.error("스냅샷 append 실패: key={}", snapshot.key(), e);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	//기간 내 스냅샷 (시간순)
+	public List<AnalysisSnapshot> query(SnapshotTarget target, String id, Instant from, Instant to) {
+		if (!enabled)
+			return List.of();
+		String key = target.key(id);
+		List<AnalysisSnapshot> out = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (SnapshotSegment s : segments.values())
+				out.addAll(s.read(key, from.toEpochMilli(), to.toEpochMilli()));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		out.sort(Comparator.comparingLong(AnalysisSnapshot::capturedAt));
+		return out;
+	}
+
+	//추이 조회: from/to는 ISO-8601 (미지정 시 최근 30일)
+	public TrendResponse trend(SnapshotTarget target, String id, String from, String to) {
+		Instant end = parseInstant(to, Instant.now());
+		Instant start = parseInstant(from, end.minus(DEFAULT_TREND_RANGE));
+		if (start.isAfter(end))
+			throw new BadRequestException("from이 to보다 늦음: from=" + start + " to=" + end);
+		return new TrendResponse(target, id, start, end, query(target, id, start, end));
+	}
+
+	private static Instant parseInstant(String value, Instant fallback) {
+		if (value == null || value.isBlank())
+			return fallback;
+		try {
+			return Instant.parse(value);
+		}
+		catch (DateTimeParseException e) {
+			throw new BadRequestException("잘못된 시각 형식(ISO-8601 필요): " + value, e);
+		}
+	}
+
+	//보존 기간 정리 + compaction + 디스크 flush
+	@Scheduled(fixedDelayString = "${app.history.maintenance-interval-ms:3600000}",
+			initialDelayString = "${app.history.maintenance-interval-ms:3600000}")
+	public void maintain() {
+		if (!enabled)
+			return;
+		long now = System.currentTimeMillis();
+		long retainFrom = now - Duration.ofDays(retentionDays).toMillis();
+		long compactBefore = now - Duration.ofHours(compactAfterHours).toMillis();
+
+		lock.writeLock().lock();
+		try {
+			active.force();
+			for (SnapshotSegment s : new ArrayList<>(segments.values())) {
+				if (s == active)
+					continue;
+				if (s.isEmpty() || s.maxTs() < retainFrom) {
+					drop(s);
+				}
+				else if (!s.isCompacted() && s.maxTs() < compactBefore) {
+					compact(s);
+				}
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void drop(SnapshotSegment s) {
+		try {
+			s.close();
+			Files.deleteIfExists(s.path);
+			segments.remove(s.id);
+			log.info("스냅샷 세그먼트 삭제(보존 기간 경과): {}", s.path.getFileName());
+		}
+		catch (IOException e) {
+			log.warn("스냅샷 세그먼트 삭제 실패: {}", s.path, e);
+		}
+	}
+
+	//키별로 1시간 버킷당 마지막 스냅샷만 남겨 새 파일로 다시 쓴 뒤 원자적으로 교체
+	private void compact(SnapshotSegment s) {
+		Map<String, AnalysisSnapshot> latestPerHour = new LinkedHashMap<>();
+		s.forEach(snap -> latestPerHour.merge(
+				snap.key() + "@" + (snap.capturedAt() / HOUR_MS),
+				snap,
+				(a, b) -> b.capturedAt() >= a.capturedAt() ? b : a));
+
+		List<AnalysisSnapshot> kept = new ArrayList<>(latestPerHour.values());
+		kept.sort(Comparator.comparingLong(AnalysisSnapshot::capturedAt));
+		List<byte[]> payloads = kept.stream().map(SnapshotCodec::encode).toList();
+		int size = SnapshotSegment.HEADER_BYTES
+				+ payloads.stream().mapToInt(p -> p.length + SnapshotSegment.RECORD_OVERHEAD).sum();
+
+		Path tmp = s.path.resolveSibling(s.path.getFileName() + ".compact");
+		boolean closed = false;
+		try {
+			Files.deleteIfExists(tmp);
+			try (SnapshotSegment out = SnapshotSegment.create(tmp, s.id, size, true)) {
+				for (int i = 0; i < kept.size(); i++)
+					out.tryAppend(kept.get(i).key(), kept.get(i).capturedAt(), payloads.get(i));
+			}
+			int before = s.usedBytes();
+			s.close();
+			closed = true;
+			Files.move(tmp, s.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			segments.put(s.id, SnapshotSegment.open(s.path, s.id));
+			log.info("스냅샷 세그먼트 compaction: {} {}B -> {}B", s.path.getFileName(), before, size);
+		}
+		catch (IOException e) {
+			log.warn("스냅샷 세그먼트 compaction 실패: {}", s.path, e);
+			try {
+				Files.deleteIfExists(tmp);
+				if (closed)
+					segments.put(s.id, SnapshotSegment.open(s.path, s.id));
+			}
+			catch (IOException reopen) {
+				log.error("세그먼트 재오픈 실패, 목록에서 제외: {}", s.path, reopen);
+				segments.remove(s.id);
+			}
+		}
+	}
+
+	private SnapshotSegment roll() throws IOException {
+		long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+		Path p = root.resolve("seg-%010d.dat".formatted(id));
+		SnapshotSegment seg = SnapshotSegment.create(p, id, segmentBytes, false);
+		segments.put(id, seg);
+		return seg;
+	}
+}
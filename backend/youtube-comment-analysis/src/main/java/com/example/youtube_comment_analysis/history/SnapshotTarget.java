@@ -0,0 +1,11 @@
+package com.example.youtube_comment_analysis.history;
+
+import java.util.Locale;
+
+public enum SnapshotTarget {
+	VIDEO, CHANNEL;
+
+	public String key(String id) {
+		return name().toLowerCase(Locale.ROOT) + ":" + id;
+	}
+}
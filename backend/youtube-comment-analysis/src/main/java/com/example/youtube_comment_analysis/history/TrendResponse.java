@@ -0,0 +1,13 @@
+package com.example.youtube_comment_analysis.history;
+
+import java.time.Instant;
+import java.util.List;
+
+//추이 조회 응답
+public record TrendResponse(
+		SnapshotTarget target,
+		String id,
+		Instant from,
+		Instant to,
+		List<AnalysisSnapshot> snapshots) {
+}
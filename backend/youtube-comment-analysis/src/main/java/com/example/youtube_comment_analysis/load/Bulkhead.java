@@ -0,0 +1,103 @@
+package com.example.youtube_comment_analysis.load;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+
+//동시 실행 수 제한 격벽: 대기열이 maxQueue를 넘거나 maxWait 안에 자리가 안 나면 즉시 거절
+public class Bulkhead {
+
+	private final String name;
+	private final int maxConcurrent;
+	private final int maxQueue;
+	private final Duration maxWait;
+	private final long retryAfterSeconds;
+
+	private final Semaphore permits;
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final LongAdder admitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	public Bulkhead(String name, int maxConcurrent, int maxQueue, Duration maxWait, long retryAfterSeconds) {
+		this.name = name;
+		this.maxConcurrent = Math.max(1, maxConcurrent);
+		this.maxQueue = Math.max(0, maxQueue);
+		this.maxWait = maxWait;
+		this.retryAfterSeconds = retryAfterSeconds;
+		this.permits = new Semaphore(this.maxConcurrent, true);
+	}
+
+	public <T> T call(Supplier<T> work) {
+		acquire();
+		try {
+			return work.get();
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	public void run(Runnable work) {
+		call(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	private void acquire() {
+		//빈 자리가 있으면 대기열 확인 없이 바로 통과
+		if (permits.tryAcquire()) {
+			admitted.increment();
+			return;
+		}
+		if (waiting.incrementAndGet() > maxQueue) {
+			waiting.decrementAndGet();
+			reject("대기열 초과");
+		}
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+		finally {
+			waiting.decrementAndGet();
+		}
+		if (!acquired)
+			reject("대기 시간 초과");
+		admitted.increment();
+	}
+
+	private void reject(String reason) {
+		rejected.increment();
+		throw new TooManyRequestsException(
+				"요청이 많아 처리할 수 없음(" + name + ": " + reason + "), 잠시 후 다시 시도하세요", retryAfterSeconds);
+	}
+
+	public BulkheadStats stats() {
+		return new BulkheadStats(
+				name,
+				maxConcurrent,
+				maxConcurrent - permits.availablePermits(),
+				waiting.get(),
+				maxQueue,
+				admitted.sum(),
+				rejected.sum());
+	}
+
+	public record BulkheadStats(
+			String name,
+			int maxConcurrent,
+			int active,
+			int queueDepth,
+			int maxQueue,
+			long admitted,
+			long rejected) {}
+}
@@ -0,0 +1,48 @@
+package com.example.youtube_comment_analysis.load;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+//자원별 격벽 모음
+//- coldAnalysis: 캐시 미스 분석 입장 제어 (캐시 히트는 거치지 않음 → 히트 우선)
+//- youtube / ai / redis: 외부 호출별 동시성 상한
+@Component
+public class Bulkheads {
+
+	private final Bulkhead coldAnalysis;
+	private final Bulkhead youtube;
+	private final Bulkhead ai;
+	private final Bulkhead redis;
+
+	public Bulkheads(
+			@Value("${app.load.retry-after-seconds:5}") long retryAfter,
+			@Value("${app.load.cold.max-concurrent:8}") int coldMax,
+			@Value("${app.load.cold.max-queue:16}") int coldQueue,
+			@Value("${app.load.cold.max-wait-ms:200}") long coldWait,
+			@Value("${app.load.youtube.max-concurrent:64}") int ytMax,
+			@Value("${app.load.youtube.max-queue:256}") int ytQueue,
+			@Value("${app.load.youtube.max-wait-ms:3000}") long ytWait,
+			@Value("${app.load.ai.max-concurrent:4}") int aiMax,
+			@Value("${app.load.ai.max-queue:64}") int aiQueue,
+			@Value("${app.load.ai.max-wait-ms:30000}") long aiWait,
+			@Value("${app.load.redis.max-concurrent:32}") int redisMax,
+			@Value("${app.load.redis.max-queue:256}") int redisQueue,
+			@Value("${app.load.redis.max-wait-ms:500}") long redisWait) {
+		this.coldAnalysis = new Bulkhead("cold-analysis", coldMax, coldQueue, Duration.ofMillis(coldWait), retryAfter);
+		this.youtube = new Bulkhead("youtube", ytMax, ytQueue, Duration.ofMillis(ytWait), retryAfter);
+		this.ai = new Bulkhead("ai", aiMax, aiQueue, Duration.ofMillis(aiWait), retryAfter);
+		this.redis = new Bulkhead("redis", redisMax, redisQueue, Duration.ofMillis(redisWait), retryAfter);
+	}
+
+	public Bulkhead coldAnalysis() { return coldAnalysis; }
+	public Bulkhead youtube() { return youtube; }
+	public Bulkhead ai() { return ai; }
+	public Bulkhead redis() { return redis; }
+
+	public List<Bulkhead.BulkheadStats> stats() {
+		return List.of(coldAnalysis.stats(), youtube.stats(), ai.stats(), redis.stats());
+	}
+}
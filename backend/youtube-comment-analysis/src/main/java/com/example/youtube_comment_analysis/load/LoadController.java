@@ -0,0 +1,63 @@
+package com.example.youtube_comment_analysis.load;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.youtube_comment_analysis.ai.AiBatchDispatcher;
+import com.example.youtube_comment_analysis.ai.LexicalPreClassifier;
+import com.example.youtube_comment_analysis.cache.VideoCache;
+import com.example.youtube_comment_analysis.video.AiRetryQueue;
+import com.example.youtube_comment_analysis.video.CommentIndexStore;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/admin")
+public class LoadController {
+
+	private final Bulkheads bulkheads;
+	private final AiBatchDispatcher aiBatchDispatcher;
+	private final VideoCache videoCache;
+	private final AiRetryQueue aiRetryQueue;
+	private final CommentIndexStore commentIndexStore;
+	private final LexicalPreClassifier preClassifier;
+
+	//격벽별 동시 실행/대기열 깊이/거절 수
+	@GetMapping("/load")
+	public ResponseEntity<?> getLoadStats() {
+		return ResponseEntity.ok(bulkheads.stats());
+	}
+	
+	//AI 마이크로 배칭: 배치 채움 비율 / linger 대기 시간 / 큐 적체
+	@GetMapping("/ai-batching")
+	public ResponseEntity<?> getAiBatchingStats() {
+		return ResponseEntity.ok(aiBatchDispatcher.stats());
+	}
+	
+	//어휘 규칙 사전 분류: 로컬 라벨 비율 / 감사 표본의 모델 일치율(규칙별) / 최근 불일치 예시
+	@GetMapping("/pre-classifier")
+	public ResponseEntity<?> getPreClassifierStats() {
+		return ResponseEntity.ok(preClassifier.stats());
+	}
+	
+	//실패 AI 배치 재시도 대기열: 복구된 댓글 수 / 캐시 덮어쓰기 / 포기·버림
+	@GetMapping("/ai-retry")
+	public ResponseEntity<?> getAiRetryStats() {
+		return ResponseEntity.ok(aiRetryQueue.stats());
+	}
+	
+	//영상 캐시 redis 왕복 수(채널 요청당 평균 포함) / write-behind 대기열
+	@GetMapping("/cache")
+	public ResponseEntity<?> getCacheStats() {
+		return ResponseEntity.ok(videoCache.stats());
+	}
+	
+	//댓글 검색 인덱스: 영상 수 / 추정 메모리 / 축출 수
+	@GetMapping("/comment-index")
+	public ResponseEntity<?> getCommentIndexStats() {
+		return ResponseEntity.ok(commentIndexStore.stats());
+	}
+}
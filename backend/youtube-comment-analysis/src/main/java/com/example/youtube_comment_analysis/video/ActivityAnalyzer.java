@@ -0,0 +1,275 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 댓글 활동 스트리밍 분석 (페이지가 도착하는 대로 1건씩 넣음, 메모리 고정).
+ * - 시간대(0~23시) 분포 / 첫·마지막 댓글 / 시간당 평균
+ * - 버스트 탐지: 1분 bin 링 버퍼로 최근 windowMinutes 합을 유지, 주변 활동(EWMA 기준선)의 burstFactor배 이상이면 버스트
+ *   기준선이 창 길이와 반감기 중 긴 쪽만큼의 분을 본 뒤부터 판정 (첫 창은 비교할 기준이 없어 항상 버스트로 보이므로)
+ * - 그 전의 가장 최근 구간은 분별 개수만 따로 들고 있다가 끝에서 판정: 기준선은 바로 그 이전(더 오래된) 같은 길이 구간의 분당 평균
+ *
+ * commentThreads는 최신순으로 오므로 스트림은 시간 역순을 가정.
+ * 창보다 새로운 시각이 늦게 들어오면(답글 등) 분포/기간에는 반영하고 버스트 판정에서만 제외.
+ */
+public final class ActivityAnalyzer {
+
+	//버스트 1건: 구간 시작/끝(UTC), 구간 안 최대 창 합계, 당시 기준선(창당 기대 개수)
+	public record Burst(String start, String end, int peakWindowCount, double baselinePerWindow, double ratio) {}
+
+	private final ZoneId zone;
+	private final ZoneRules zoneRules;
+	private final int windowMinutes;
+	private final double burstFactor;
+	private final int minBurstCount;
+	private final int maxBursts;
+	private final double decayPerMinute;
+	private final long warmupMinutes;
+
+	private final int[] hourly = new int[24];
+	private long count;
+	private long firstEpoch = Long.MAX_VALUE;
+	private long lastEpoch = Long.MIN_VALUE;
+	private long outOfOrder;
+
+	// 링 버퍼: bins[m % windowMinutes] = 분 m의 개수, 창 = [head, head + windowMinutes - 1]
+	private final int[] bins;
+	private long head = Long.MIN_VALUE;
+	private int windowSum;
+	private double baselinePerMinute;
+	private boolean baselineReady;
+	private long baselineMinutes;
+
+	// 진행 중인 버스트
+	private long burstStartMinute = Long.MIN_VALUE;
+	private long burstEndMinute;
+	private int burstPeak;
+	private double burstBaseline;
+	private final List<Burst> bursts = new ArrayList<>();
+
+	// 기준선이 준비되기 전 창들(가장 최근 구간)의 분별 개수: newest[newestTop - 분]
+	// 창 시작이 (첫 창 시작 - warmupMinutes, 첫 창 시작]인 창들이 덮는 분 전체
+	private final int[] newest;
+	private long newestTop = Long.MIN_VALUE;
+	// 그 바로 이전 warmupMinutes분의 개수 → 최근 구간 판정용 기준선
+	private long referenceCount;
+	private boolean newestScored;
+
+	public ActivityAnalyzer(ZoneId zone, int windowMinutes, double burstFactor, int minBurstCount,
+			int maxBursts, int baselineHalfLifeMinutes) {
+		this.zone = zone;
+		this.zoneRules = zone.getRules();
+		this.windowMinutes = Math.max(1, windowMinutes);
+		this.burstFactor = burstFactor;
+		this.minBurstCount = Math.max(1, minBurstCount);
+		this.maxBursts = Math.max(0, maxBursts);
+		this.decayPerMinute = Math.pow(0.5, 1.0 / Math.max(1, baselineHalfLifeMinutes));
+		this.warmupMinutes = Math.max(this.windowMinutes, Math.max(1, baselineHalfLifeMinutes));
+		this.bins = new int[this.windowMinutes];
+		this.newest = new int[(int) (this.warmupMinutes + this.windowMinutes - 1)];
+	}
+
+	public void accept(CommentDto c) {
+		if (c == null || c.getPublishedAt() == null)
+			return;
+		try {
+			accept(OffsetDateTime.parse(c.getPublishedAt()).toEpochSecond());
+		}
+		catch (RuntimeException ignored) {
+			// 시각 형식이 깨진 댓글은 건너뜀
+		}
+	}
+
+	public void accept(long epochSecond) {
+		count++;
+		firstEpoch = Math.min(firstEpoch, epochSecond);
+		lastEpoch = Math.max(lastEpoch, epochSecond);
+		int offset = zoneRules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+		hourly[(int) Math.floorMod(Math.floorDiv(epochSecond + offset, 3600L), 24L)]++;
+
+		long minute = Math.floorDiv(epochSecond, 60);
+		if (head == Long.MIN_VALUE) {
+			head = minute;
+			newestTop = minute + windowMinutes - 1;
+		}
+		else if (minute < head) {
+			slideTo(minute);
+		}
+		else if (minute >= head + windowMinutes) {
+			outOfOrder++;
+			return;
+		}
+		bins[(int) Math.floorMod(minute, (long) windowMinutes)]++;
+		windowSum++;
+		long back = newestTop - minute;
+		if (back < newest.length)
+			newest[(int) back]++;
+		else if (back < newest.length + warmupMinutes)
+			referenceCount++;
+		evaluate();
+	}
+
+	//창을 과거 쪽으로 이동: 창에서 빠지는 분들은 기준선(EWMA)에 반영
+	private void slideTo(long minute) {
+		long steps = head - minute;
+		baselineMinutes += steps;
+		if (steps >= windowMinutes) {
+			for (int i = 0; i < windowMinutes; i++)
+				observeBaseline(bins[i]);
+			decayBaseline(steps - windowMinutes);
+			Arrays.fill(bins, 0);
+			windowSum = 0;
+		}
+		else {
+			for (long m = head + windowMinutes - 1; m > head + windowMinutes - 1 - steps; m--) {
+				int idx = (int) Math.floorMod(m, (long) windowMinutes);
+				observeBaseline(bins[idx]);
+				windowSum -= bins[idx];
+				bins[idx] = 0;
+			}
+		}
+		head = minute;
+		evaluate();
+	}
+
+	private void observeBaseline(int perMinute) {
+		if (!baselineReady) {
+			baselinePerMinute = perMinute;
+			baselineReady = true;
+		}
+		else {
+			baselinePerMinute = baselinePerMinute * decayPerMinute + perMinute * (1 - decayPerMinute);
+		}
+	}
+
+	//빈 분이 k개 이어질 때 한 번에 감쇠
+	private void decayBaseline(long emptyMinutes) {
+		if (baselineReady && emptyMinutes > 0)
+			baselinePerMinute *= Math.pow(decayPerMinute, emptyMinutes);
+	}
+
+	private void evaluate() {
+		boolean warm = baselineReady && baselineMinutes >= warmupMinutes;
+		score(head, windowSum, warm ? expectedPerWindow(baselinePerMinute) : Double.NaN);
+	}
+
+	//기준선 최소값(창당 1/windowMinutes개): 조용하던 구간 뒤에도 배수가 무한대가 되지 않게
+	private double expectedPerWindow(double perMinute) {
+		return Math.max(perMinute * windowMinutes, 1.0 / windowMinutes);
+	}
+
+	//창 시작 windowHead의 합계 판정 (expected가 NaN이면 기준선 없음 → 버스트 아님), 창은 최신 → 과거 순으로 들어옴
+	private void score(long windowHead, int sum, double expected) {
+		boolean hot = !Double.isNaN(expected) && sum >= minBurstCount && sum >= burstFactor * expected;
+		if (hot) {
+			long windowEnd = windowHead + windowMinutes - 1;
+			if (burstStartMinute == Long.MIN_VALUE) {
+				burstEndMinute = windowEnd;
+				burstPeak = 0;
+				burstBaseline = expected;
+			}
+			burstStartMinute = windowHead;
+			burstPeak = Math.max(burstPeak, sum);
+		}
+		else if (burstStartMinute != Long.MIN_VALUE) {
+			closeBurst();
+		}
+	}
+
+	//기준선 준비 전이라 건너뛴 가장 최근 창들을 그 이전 구간의 분당 평균과 비교
+	//이전 구간이 스트림에 없으면(영상이 그보다 짧으면) 비교할 기준이 없으므로 판정하지 않음
+	private void scoreNewest() {
+		if (newestTop == Long.MIN_VALUE || newestScored)
+			return;
+		newestScored = true;
+		long firstHead = newestTop - windowMinutes + 1;
+		long refTo = firstHead - warmupMinutes;
+		long refFrom = Math.max(refTo - warmupMinutes + 1, Math.floorDiv(firstEpoch, 60));
+		if (refTo < refFrom)
+			return;
+		double expected = expectedPerWindow((double) referenceCount / (refTo - refFrom + 1));
+		int sum = 0;
+		for (int i = 0; i < windowMinutes; i++)
+			sum += newest[i];
+		for (long h = firstHead; h > firstHead - warmupMinutes; h--) {
+			score(h, sum, expected);
+			//창을 1분 과거로: 가장 새 분이 빠지고 한 분 더 오래된 분이 들어옴
+			int out = (int) (newestTop - (h + windowMinutes - 1));
+			int in = (int) (newestTop - (h - 1));
+			sum -= newest[out];
+			if (in < newest.length)
+				sum += newest[in];
+		}
+		if (burstStartMinute != Long.MIN_VALUE)
+			closeBurst();
+	}
+
+	private void closeBurst() {
+		double base = burstBaseline;
+		bursts.add(new Burst(
+				Instant.ofEpochSecond(burstStartMinute * 60).toString(),
+				Instant.ofEpochSecond((burstEndMinute + 1) * 60).toString(),
+				burstPeak,
+				base,
+				burstPeak / base));
+		// 보관 개수 상한: 최대 창 합계 기준 상위만 유지
+		if (bursts.size() > maxBursts) {
+			bursts.sort(Comparator.comparingInt(Burst::peakWindowCount).reversed());
+			bursts.subList(maxBursts, bursts.size()).clear();
+		}
+		burstStartMinute = Long.MIN_VALUE;
+	}
+
+	public ActivitySummary summarize() {
+		if (burstStartMinute != Long.MIN_VALUE)
+			closeBurst();
+		scoreNewest();
+
+		int peakHour = 0;
+		for (int h = 1; h < 24; h++)
+			if (hourly[h] > hourly[peakHour])
+				peakHour = h;
+		List<Integer> topActiveHours = new ArrayList<>(3);
+		boolean[] used = new boolean[24];
+		for (int k = 0; k < 3 && count > 0; k++) {
+			int best = -1;
+			for (int h = 0; h < 24; h++)
+				if (!used[h] && (best < 0 || hourly[h] > hourly[best]))
+					best = h;
+			if (hourly[best] == 0)
+				break;
+			used[best] = true;
+			topActiveHours.add(best);
+		}
+
+		List<Integer> hourlyCounts = new ArrayList<>(24);
+		for (int n : hourly)
+			hourlyCounts.add(n);
+
+		long periodSeconds = count > 0 ? lastEpoch - firstEpoch : 0;
+		double hours = periodSeconds / 3600.0;
+		List<Burst> sorted = new ArrayList<>(bursts);
+		sorted.sort(Comparator.comparing(Burst::start));
+
+		return new ActivitySummary(
+				hourlyCounts,
+				zone.getId(),
+				peakHour,
+				topActiveHours,
+				count > 0 ? Instant.ofEpochSecond(firstEpoch).toString() : null,
+				count > 0 ? Instant.ofEpochSecond(lastEpoch).toString() : null,
+				periodSeconds,
+				hours > 0 ? count / hours : 0.0,
+				count,
+				outOfOrder,
+				windowMinutes,
+				sorted);
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.List;
+
+//댓글 활동 분석 결과 (ActivityAnalyzer가 스트리밍으로 계산)
+public record ActivitySummary(
+		List<Integer> hourlyCommentCount,   // 0~23시 (zone 기준)
+		String zone,
+		int peakHour,
+		List<Integer> topActiveHours,       // 활동 많은 상위 3개 시간대
+		String firstCommentAt,
+		String lastCommentAt,
+		long periodSeconds,                 // 첫 댓글 ~ 마지막 댓글
+		double averageCommentsPerHour,
+		long analyzedComments,
+		long outOfOrderComments,            // 버스트 판정에서 제외된 늦게 도착한 댓글 (답글 등)
+		int burstWindowMinutes,
+		List<ActivityAnalyzer.Burst> bursts) {
+
+}
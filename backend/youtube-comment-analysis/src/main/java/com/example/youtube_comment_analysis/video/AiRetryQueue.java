@@ -0,0 +1,249 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.ai.AiSender;
+import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.ai.SendResult;
+import com.example.youtube_comment_analysis.cache.VideoCache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//실패한 AI 배치 재시도: 부분 결과는 짧은 TTL로 캐시해 두고, 실패한 댓글만 지수 백오프로 다시 보내
+//성공한 만큼 캐시 항목을 덮어씀 (이미 분류된 배치는 다시 보내지 않음)
+//- 대기열은 영상 수 기준 상한, 넘치면 버림 → 부분 결과가 만료되면 다음 요청이 전체 재계산
+//- 같은 영상이 다시 분석되면 이전 재시도 작업은 폐기
+@Component
+@Slf4j
+public class AiRetryQueue {
+
+	private final AiSender aiSender;
+	private final VideoCache videoCache;
+	private final CommentIndexStore commentIndexStore;
+
+	@Value("${app.ai.retry.queue-capacity:64}")
+	private int capacity;
+
+	@Value("${app.ai.retry.max-attempts:5}")
+	private int maxAttempts;
+
+	@Value("${app.ai.retry.initial-backoff-ms:1000}")
+	private long initialBackoffMs;
+
+	@Value("${app.ai.retry.max-backoff-ms:30000}")
+	private long maxBackoffMs;
+
+	//base: 지금 캐시에 올라간(또는 올라갈) 응답, comments: 분석에 쓴 댓글 배치 (통계/히스토그램 재계산용)
+	//배치는 schedule이 true를 돌려준 순간부터 대기열 소유 → 작업이 끝나면(성공/포기/폐기) 여기서 닫음
+	private record Job(String videoId, VideoAnalysisResponse base, CommentBatch comments,
+			List<CommentDto> retryable, ZoneId zone, int attempt) {}
+
+	public record RetryStats(int queued, int capacity, long scheduled, long dropped, long attempts,
+			long recoveredComments, long patched, long superseded, long gaveUp) {}
+
+	private final Map<String, Job> active = new ConcurrentHashMap<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "ai-retry");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final AtomicLong scheduled = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong attempts = new AtomicLong();
+	private final AtomicLong recovered = new AtomicLong();
+	private final AtomicLong patched = new AtomicLong();
+	private final AtomicLong superseded = new AtomicLong();
+	private final AtomicLong gaveUp = new AtomicLong();
+
+	public AiRetryQueue(AiSender aiSender, VideoCache videoCache, CommentIndexStore commentIndexStore) {
+		this.aiSender = aiSender;
+		this.videoCache = videoCache;
+		this.commentIndexStore = commentIndexStore;
+	}
+
+	@PreDestroy
+	void stop() {
+		worker.shutdownNow();
+		active.values().forEach(job -> job.comments().close());
+	}
+
+	//result가 부분 결과(재시도 대기 댓글 있음)일 때만 등록, 대기열이 가득 차면 false
+	public boolean schedule(String videoId, VideoAnalysisResponse result, CommentBatch comments,
+			List<CommentDto> retryable, ZoneId zone) {
+		if (retryable == null || retryable.isEmpty())
+			return false;
+		Job job = new Job(videoId, result, comments, List.copyOf(retryable), zone, 1);
+		if (active.containsKey(videoId)) {
+			superseded.incrementAndGet();
+		}
+		else if (queued.get() >= Math.max(1, capacity)) {
+			dropped.incrementAndGet();
+			log.warn("AI 재시도 대기열 가득 참 videoId={} pending={}", videoId, retryable.size());
+			return false;
+		}
+		active.put(videoId, job);
+		enqueue(job);
+		return true;
+	}
+
+	public RetryStats stats() {
+		return new RetryStats(queued.get(), capacity, scheduled.get(), dropped.get(), attempts.get(),
+				recovered.get(), patched.get(), superseded.get(), gaveUp.get());
+	}
+
+	private void enqueue(Job job) {
+		queued.incrementAndGet();
+		scheduled.incrementAndGet();
+		worker.schedule(() -> runSafely(job), backoffMs(job.attempt()), TimeUnit.MILLISECONDS);
+	}
+
+	//initial * 2^(attempt-1), 상한 maxBackoff, ±20% 지터 (여러 인스턴스가 동시에 몰리지 않게)
+	private long backoffMs(int attempt) {
+		double base = Math.min(maxBackoffMs, initialBackoffMs * Math.pow(2, attempt - 1));
+		return (long) (base * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+	}
+
+	private void runSafely(Job job) {
+		queued.decrementAndGet();
+		try {
+			run(job);
+		}
+		catch (Exception e) {
+			log.error("AI 재시도 오류 videoId={}", job.videoId(), e);
+			finish(job);
+		}
+	}
+
+	private void run(Job job) {
+		//그 사이 같은 영상이 새로 분석돼 다른 작업으로 바뀌었으면 폐기
+		if (active.get(job.videoId()) != job) {
+			job.comments().close();
+			return;
+		}
+		attempts.incrementAndGet();
+
+		SendResult r = aiSender.send(job.retryable());
+		//보내는 동안 새 분석으로 작업이 바뀌었으면 결과를 버림 (새 결과를 옛 부분 결과 기준으로 덮지 않게)
+		if (active.get(job.videoId()) != job) {
+			job.comments().close();
+			return;
+		}
+		applyLabels(job.comments(), job.retryable());
+		int recoveredNow = job.retryable().size() - r.retryable().size() - r.rejectedComments();
+		log.info("AI 재시도 videoId={} attempt={} sent={} recovered={} stillFailed={} rejected={}",
+				job.videoId(), job.attempt(), job.retryable().size(), recoveredNow, r.retryable().size(), r.rejectedComments());
+
+		VideoAnalysisResponse base = job.base();
+		if (recoveredNow > 0 || r.rejectedComments() > 0) {
+			recovered.addAndGet(Math.max(0, recoveredNow));
+			base = patch(job.base(), r, job.comments(), job.zone());
+			if (!videoCache.patchPartial(job.videoId(), base)) {
+				//다른 요청이 이미 완전한 결과를 캐시했거나 새로 계산 중
+				finish(job);
+				return;
+			}
+			patched.incrementAndGet();
+			//예측이 새로 채워진 댓글까지 검색 인덱스에 반영
+			commentIndexStore.put(job.videoId(), CommentIndex.build(job.comments(), job.base().depth()));
+		}
+
+		if (r.retryable().isEmpty()) {
+			finish(job);
+			return;
+		}
+		if (job.attempt() >= Math.max(1, maxAttempts)) {
+			//포기: 부분 결과는 짧은 TTL로 만료 → 다음 요청이 전체 재계산
+			gaveUp.incrementAndGet();
+			finish(job);
+			log.warn("AI 재시도 포기 videoId={} pending={}", job.videoId(), r.retryable().size());
+			return;
+		}
+		Job next = new Job(job.videoId(), base, job.comments(), r.retryable(), job.zone(), job.attempt() + 1);
+		if (active.replace(job.videoId(), job, next))
+			enqueue(next);
+		else
+			job.comments().close();
+	}
+
+	private void finish(Job job) {
+		active.remove(job.videoId(), job);
+		job.comments().close();
+	}
+
+	//재시도 DTO에 채워진 예측을 배치 라벨 열로 (id 기준, 봇/실패는 미분류 그대로)
+	private static void applyLabels(CommentBatch comments, List<CommentDto> sent) {
+		Map<String, Integer> predictions = new HashMap<>(sent.size() * 2);
+		for (CommentDto c : sent) {
+			if (c.getPrediction() != null)
+				predictions.put(c.getCommentId(), c.getPrediction());
+		}
+		if (predictions.isEmpty())
+			return;
+		for (int row = 0; row < comments.size(); row++) {
+			Integer p = predictions.get(comments.commentId(row));
+			if (p != null)
+				comments.setLabel(row, p);
+		}
+	}
+
+	//재시도 결과를 기존 응답에 합침
+	//- 대표 댓글: 기존 감정별 top + 새 top 에서 다시 top 추출 (합집합의 top과 같음)
+	//- 키워드: 기존 응답에는 상위 3개만 남아 있어 근사치
+	//- 통계/히스토그램: 예측이 채워진 댓글 전체로 다시 계산
+	static VideoAnalysisResponse patch(VideoAnalysisResponse base, SendResult r, CommentBatch comments,
+			ZoneId zone) {
+		List<CommentDto> tops = new ArrayList<>(base.comments());
+		tops.addAll(r.comments());
+		List<CommentDto> merged = AiSender.getGlobalComments(tops);
+
+		Map<String, Integer> keywords = new HashMap<>();
+		for (List<KeywordCount> list : List.of(base.topKeywordGlobal(), r.topKeywordGlobal())) {
+			for (KeywordCount kc : list) {
+				if (kc != null && kc.keyword() != null)
+					keywords.merge(kc.keyword().trim(), Math.max(0, kc.count()), Integer::sum);
+			}
+		}
+
+		AnalysisCompleteness prev = base.completeness();
+		AnalysisCompleteness next = AnalysisCompleteness.of(
+				prev.totalComments(),
+				r.retryable().size(),
+				prev.rejectedComments() + r.rejectedComments());
+
+		return new VideoAnalysisResponse(
+				base.video(),
+				merged,
+				AiSender.getGlobalKeyword(keywords, 3),
+				VideoService.buildStats(comments, zone),
+				base.commentCountBeforeBot(),
+				merged.size(),
+				base.POSITIVE() + r.POSITIVE(),
+				base.NEUTRAL() + r.NEUTRAL(),
+				base.NEGATIVE() + r.NEGATIVE(),
+				base.dedup(),
+				base.sampling(),
+				TimeHistogram.of(comments),
+				base.activity(),
+				next,
+				base.authors(),
+				base.spamClusters(),
+				base.depth());
+	}
+}
@@ -0,0 +1,21 @@
+package com.example.youtube_comment_analysis.video;
+
+//AI 분류 완료 비율: ratio = classifiedComments / totalComments
+//pendingComments > 0 이면 실패 배치가 재시도 대기 중 → 짧은 TTL로 캐시되고 재시도 성공 시 같은 키에 덮어씀
+public record AnalysisCompleteness(
+		int totalComments,
+		int classifiedComments,
+		int pendingComments,      // 재시도 대기 (5xx/네트워크 실패)
+		int rejectedComments,     // 4xx로 버려짐 (재시도 안 함)
+		double ratio) {
+
+	public static AnalysisCompleteness of(int total, int pending, int rejected) {
+		int classified = Math.max(0, total - pending - rejected);
+		return new AnalysisCompleteness(total, classified, pending, rejected,
+				total == 0 ? 1.0 : (double) classified / total);
+	}
+
+	public boolean hasPending() {
+		return pendingComments > 0;
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.List;
+
+//분석 깊이: 최신순 최상위 댓글 스레드를 몇 개까지 읽었는지 (요청 limit 기준)
+//- exhausted: 댓글을 끝까지 읽음(또는 표본 모드) → 어떤 깊이 요청에도 그대로 씀
+//- nextPageToken: 더 깊은 요청이 처음부터가 아니라 여기서부터 이어서 수집/분석
+//- views: 더 얕은 깊이의 파생 결과 (같은 AI 라벨로 계산, 재분석 없음), 캐시 항목에만 있고 응답에서는 빠짐
+public record AnalysisDepth(
+		int threads,
+		boolean exhausted,
+		String nextPageToken,
+		List<DepthView> views) {
+
+	public static AnalysisDepth of(int threads, String nextPageToken, List<DepthView> views) {
+		return new AnalysisDepth(threads, nextPageToken == null, nextPageToken, views == null ? List.of() : views);
+	}
+
+	//표본 모드: 요청 limit과 무관하게 전체 기간에서 추출
+	public static AnalysisDepth sampled() {
+		return new AnalysisDepth(0, true, null, List.of());
+	}
+
+	//limit개 스레드 요청에 이 결과(또는 파생 결과)를 쓸 수 있는지
+	public boolean covers(int limit) {
+		return exhausted || threads >= limit;
+	}
+
+	//limit까지 이어서 분석할 수 있는지
+	public boolean extendable(int limit) {
+		return !exhausted && nextPageToken != null && threads < limit;
+	}
+
+	//응답용: 파생 결과 목록은 싣지 않음
+	public AnalysisDepth withoutViews() {
+		return views == null || views.isEmpty() ? this : new AnalysisDepth(threads, exhausted, nextPageToken, List.of());
+	}
+}
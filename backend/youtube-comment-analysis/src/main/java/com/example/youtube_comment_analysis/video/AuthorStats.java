@@ -0,0 +1,145 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 작성자 통계 (영상끼리 병합 가능한 요약): 고유 작성자 수 + 반복 작성자 상위 목록.
+ * - 고유 수: HyperLogLog (레지스터 2^11 = 2048바이트, 표준오차 약 2.3%), 채널은 영상별 레지스터를 max로 병합
+ * - 반복 작성자: 댓글 2개 이상 쓴 작성자 중 상위 CAPACITY명 + untrackedMaxCount(목록 밖 작성자의 최대 댓글 수)
+ *   병합 시 어떤 영상 목록에 없던 작성자는 그 영상의 untrackedMaxCount만큼 maxError로 더함
+ * 작성자 문자열은 상위 목록에만 남고, 나머지는 HLL 레지스터로만 반영됨.
+ *
+ * 영상 단건은 배치의 작성자 사전으로 정확히 셈(distinctEstimated=false), 채널 병합 값은 HLL 추정치.
+ * 작성자 기준은 표시 이름(authorDisplayName), 봇 판정 전 댓글 전체.
+ */
+public record AuthorStats(
+		long distinctAuthors,
+		boolean distinctEstimated,
+		List<AuthorCount> topAuthors,
+		long untrackedMaxCount,
+		byte[] hllRegisters) {
+
+	//count: 확실한 최소 댓글 수, maxError: 병합으로 생긴 최대 누락분 (실제 값은 count ~ count + maxError)
+	public record AuthorCount(String author, long count, long maxError) {}
+
+	public static final int CAPACITY = 50;
+	private static final int P = 11;
+	private static final int M = 1 << P;
+	private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+	private static final Comparator<AuthorCount> BY_COUNT =
+			Comparator.comparingLong(AuthorCount::count).reversed()
+				.thenComparing(AuthorCount::author);
+
+	public static AuthorStats of(CommentBatch comments) {
+		int n = comments.distinctAuthorCount();
+		long[] counts = new long[n];
+		for (int r = 0; r < comments.size(); r++) {
+			int a = comments.authorId(r);
+			if (a >= 0)
+				counts[a]++;
+		}
+
+		byte[] registers = new byte[M];
+		for (int a = 0; a < n; a++)
+			offer(registers, hash(comments.authorName(a)));
+
+		//2개 이상 쓴 작성자만 후보, 후보가 CAPACITY를 넘으면 잘린 첫 작성자의 개수가 목록 밖 최대
+		int[] repeat = IntStream.range(0, n)
+				.filter(a -> counts[a] >= 2)
+				.boxed()
+				.sorted(Comparator.<Integer>comparingLong(a -> counts[a]).reversed()
+						.thenComparing(a -> comments.authorName(a)))
+				.mapToInt(Integer::intValue)
+				.toArray();
+		List<AuthorCount> top = new ArrayList<>(Math.min(CAPACITY, repeat.length));
+		for (int i = 0; i < repeat.length && i < CAPACITY; i++)
+			top.add(new AuthorCount(comments.authorName(repeat[i]), counts[repeat[i]], 0));
+		long untracked = repeat.length > CAPACITY ? counts[repeat[CAPACITY]] : (n > repeat.length ? 1 : 0);
+
+		return new AuthorStats(n, false, top, untracked, registers);
+	}
+
+	//null(작성자 통계 도입 전 캐시 항목)은 건너뜀, 병합할 게 없으면 null
+	public static AuthorStats merge(List<AuthorStats> parts) {
+		List<AuthorStats> present = parts.stream()
+				.filter(p -> p != null && p.hllRegisters() != null && p.hllRegisters().length == M)
+				.toList();
+		if (present.isEmpty())
+			return null;
+
+		byte[] registers = new byte[M];
+		long floorSum = 0;
+		//작성자 → {개수 합, 오차 합, 목록에 있던 영상들의 floor 합}
+		Map<String, long[]> acc = new HashMap<>();
+		for (AuthorStats p : present) {
+			byte[] reg = p.hllRegisters();
+			for (int i = 0; i < M; i++)
+				if (reg[i] > registers[i])
+					registers[i] = reg[i];
+			floorSum += p.untrackedMaxCount();
+			for (AuthorCount ac : p.topAuthors()) {
+				long[] v = acc.computeIfAbsent(ac.author(), k -> new long[3]);
+				v[0] += ac.count();
+				v[1] += ac.maxError();
+				v[2] += p.untrackedMaxCount();
+			}
+		}
+
+		List<AuthorCount> all = new ArrayList<>(acc.size());
+		for (var e : acc.entrySet()) {
+			long[] v = e.getValue();
+			//목록에 없던 영상에서는 그 영상의 floor만큼 더 썼을 수 있음
+			all.add(new AuthorCount(e.getKey(), v[0], v[1] + (floorSum - v[2])));
+		}
+		all.sort(BY_COUNT);
+		List<AuthorCount> top = new ArrayList<>(all.subList(0, Math.min(CAPACITY, all.size())));
+		long untracked = floorSum;
+		for (int i = CAPACITY; i < all.size(); i++)
+			untracked = Math.max(untracked, all.get(i).count() + all.get(i).maxError());
+
+		return new AuthorStats(estimate(registers), true, top, untracked, registers);
+	}
+
+	private static void offer(byte[] registers, long h) {
+		int idx = (int) (h >>> (64 - P));
+		int rank = Math.min(Long.numberOfLeadingZeros(h << P), 64 - P) + 1;
+		if (rank > registers[idx])
+			registers[idx] = (byte) rank;
+	}
+
+	//원 논문 추정식 + 작은 구간은 linear counting (64비트 해시라 큰 구간 보정 불필요)
+	static long estimate(byte[] registers) {
+		double sum = 0;
+		int zeros = 0;
+		for (byte r : registers) {
+			sum += Math.scalb(1.0, -r);
+			if (r == 0)
+				zeros++;
+		}
+		double e = ALPHA * M * M / sum;
+		if (e <= 2.5 * M && zeros > 0)
+			e = M * Math.log((double) M / zeros);
+		return Math.round(e);
+	}
+
+	//FNV-1a 64 + murmur3 fmix64 (하위 비트 편중 제거)
+	private static long hash(String s) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
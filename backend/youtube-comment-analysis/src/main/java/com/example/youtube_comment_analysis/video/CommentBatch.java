@@ -0,0 +1,355 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 수집 → AI 전송 → 통계까지 댓글을 열(column) 단위로 들고 다니는 컨테이너 (행 = 댓글 1건, 추가만 가능).
+ * - 좋아요/작성 시각(epoch 초)/감정 라벨은 기본형 배열, 작성자는 사전 인코딩(int id)
+ * - 댓글 id와 본문은 문자열 arena에 이어 붙이고 행마다 (시작, 길이)만 보관
+ * - 본문 arena가 spillThresholdChars를 넘으면 이후 본문은 임시 파일에 기록 → 큰 영상도 작은 힙에서 처리
+ * 라벨: -1 = 미분류(AI 실패/재시도 대기), -2 = 봇(AI 서버가 걸러냄), 0=부정 1=중립 2=긍정 (AI 기준)
+ * 스레드 순번: 최신순 수집에서 몇 번째 최상위 댓글 스레드인지 (답글은 부모와 같은 값, -1 = 모름) → 얕은 깊이 파생 결과용
+ * 스레드 안전하지 않음. 스필 파일은 close()에서 삭제.
+ */
+public final class CommentBatch implements Closeable {
+
+	public static final byte UNLABELED = -1;
+	public static final byte BOT = -2;
+	public static final long NO_TIME = Long.MIN_VALUE;
+
+	private final Arena ids;
+	private final Arena texts;
+	private final Map<String, Integer> authorDict = new HashMap<>();
+	private final List<String> authors = new ArrayList<>();
+
+	private int size;
+	private long[] idStart = new long[64];
+	private int[] idLen = new int[64];
+	private long[] textStart = new long[64];
+	private int[] textLen = new int[64];
+	private int[] authorIds = new int[64];
+	private long[] likes = new long[64];
+	private long[] epochs = new long[64];
+	private byte[] labels = new byte[64];
+	private int[] threads = new int[64];
+
+	public CommentBatch(long spillThresholdChars, Path spillDir) {
+		this.ids = new Arena(Long.MAX_VALUE, null);
+		this.texts = new Arena(spillThresholdChars, spillDir);
+	}
+
+	//메모리 전용 (스필 없음)
+	public static CommentBatch inMemory() {
+		return new CommentBatch(Long.MAX_VALUE, null);
+	}
+
+	//DTO 목록 → 배치 (prediction이 있으면 라벨로)
+	public static CommentBatch of(List<CommentDto> comments) {
+		CommentBatch b = inMemory();
+		for (CommentDto c : comments)
+			if (c != null)
+				b.add(c);
+		return b;
+	}
+
+	public int add(CommentDto c) {
+		int row = add(c.getCommentId(), c.getAuthor(), c.getText(),
+				c.getLikeCount() == null ? 0 : c.getLikeCount(), parseEpoch(c.getPublishedAt()));
+		if (c.getPrediction() != null)
+			labels[row] = c.getPrediction().byteValue();
+		return row;
+	}
+
+	public int add(String commentId, String author, String text, long likeCount, long epochSecond) {
+		ensureCapacity(size + 1);
+		int row = size++;
+		idStart[row] = ids.append(commentId);
+		idLen[row] = commentId == null ? -1 : commentId.length();
+		textStart[row] = texts.append(text);
+		textLen[row] = text == null ? -1 : text.length();
+		authorIds[row] = author == null ? -1 : authorDict.computeIfAbsent(author, a -> {
+			authors.add(a);
+			return authors.size() - 1;
+		});
+		likes[row] = likeCount;
+		epochs[row] = epochSecond;
+		labels[row] = UNLABELED;
+		threads[row] = -1;
+		return row;
+	}
+
+	//다른 배치의 행을 라벨까지 그대로 복사
+	public int addRow(CommentBatch src, int row) {
+		int r = add(src.commentId(row), src.author(row), src.text(row), src.likes(row), src.epochSecond(row));
+		labels[r] = src.labels[row];
+		threads[r] = src.threads[row];
+		return r;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public String commentId(int row) {
+		return ids.read(idStart[row], idLen[row]);
+	}
+
+	public String text(int row) {
+		return texts.read(textStart[row], textLen[row]);
+	}
+
+	public String author(int row) {
+		int a = authorIds[row];
+		return a < 0 ? null : authors.get(a);
+	}
+
+	public int authorId(int row) {
+		return authorIds[row];
+	}
+
+	//작성자 사전 id → 이름 (0 ~ distinctAuthorCount-1)
+	public String authorName(int authorId) {
+		return authors.get(authorId);
+	}
+
+	public int distinctAuthorCount() {
+		return authors.size();
+	}
+
+	public long likes(int row) {
+		return likes[row];
+	}
+
+	//작성 시각이 없거나 형식이 깨졌으면 Long.MIN_VALUE
+	public long epochSecond(int row) {
+		return epochs[row];
+	}
+
+	public boolean hasTime(int row) {
+		return epochs[row] != NO_TIME;
+	}
+
+	public String publishedAt(int row) {
+		return hasTime(row) ? Instant.ofEpochSecond(epochs[row]).toString() : null;
+	}
+
+	public int label(int row) {
+		return labels[row];
+	}
+
+	public boolean isLabeled(int row) {
+		return labels[row] >= 0;
+	}
+
+	public boolean isBot(int row) {
+		return labels[row] == BOT;
+	}
+
+	public void markBot(int row) {
+		labels[row] = BOT;
+	}
+
+	public void setLabel(int row, int label) {
+		labels[row] = (byte) label;
+	}
+
+	public int thread(int row) {
+		return threads[row];
+	}
+
+	public void setThread(int row, int thread) {
+		threads[row] = thread;
+	}
+
+	//필요한 행만 DTO로 (응답 대표 댓글 / AI 요청 1배치 등)
+	public CommentDto toDto(int row) {
+		return new CommentDto(commentId(row), author(row), text(row), likes[row], publishedAt(row),
+				isLabeled(row) ? (Integer) (int) labels[row] : null);
+	}
+
+	public boolean spilled() {
+		return texts.path != null;
+	}
+
+	//대략적인 힙 사용량 (스필된 본문 제외)
+	public long heapBytes() {
+		return (long) idStart.length * (8 + 4 + 8 + 4 + 4 + 8 + 8 + 1 + 4)
+				+ ids.memBytes() + texts.memBytes()
+				+ authors.stream().mapToLong(a -> 40 + 2L * a.length() + 48).sum();
+	}
+
+	@Override
+	public void close() {
+		texts.close();
+	}
+
+	public static long parseEpoch(String publishedAt) {
+		if (publishedAt == null)
+			return NO_TIME;
+		try {
+			return OffsetDateTime.parse(publishedAt).toEpochSecond();
+		}
+		catch (RuntimeException e) {
+			return NO_TIME;
+		}
+	}
+
+	private void ensureCapacity(int n) {
+		if (n <= idStart.length)
+			return;
+		int cap = Math.max(n, idStart.length * 2);
+		idStart = Arrays.copyOf(idStart, cap);
+		idLen = Arrays.copyOf(idLen, cap);
+		textStart = Arrays.copyOf(textStart, cap);
+		textLen = Arrays.copyOf(textLen, cap);
+		authorIds = Arrays.copyOf(authorIds, cap);
+		likes = Arrays.copyOf(likes, cap);
+		epochs = Arrays.copyOf(epochs, cap);
+		labels = Arrays.copyOf(labels, cap);
+		threads = Arrays.copyOf(threads, cap);
+	}
+
+	/**
+	 * 문자열 이어 붙이기 버퍼: 앞부분은 char[]에, memLimit을 넘은 뒤부터는 임시 파일(UTF-16BE)에.
+	 * offset은 전체 문자 위치 (spillBase 이전 = 메모리, 이후 = 파일)
+	 */
+	private static final class Arena implements Closeable {
+		private final long memLimit;
+		private final Path spillDir;
+		private char[] mem = new char[1024];
+		private int memLen;
+
+		private Path path;
+		private FileChannel file;
+		private long spillBase;
+		private long fileChars;
+		private ByteBuffer writeBuf;
+		private long flushedChars;
+
+		Arena(long memLimit, Path spillDir) {
+			this.memLimit = memLimit;
+			this.spillDir = spillDir;
+		}
+
+		long append(String s) {
+			if (s == null || s.isEmpty())
+				return file == null ? memLen : spillBase + fileChars;
+			if (file == null && memLen + (long) s.length() <= memLimit) {
+				if (memLen + s.length() > mem.length)
+					mem = Arrays.copyOf(mem, Math.max(memLen + s.length(), mem.length * 2));
+				s.getChars(0, s.length(), mem, memLen);
+				int off = memLen;
+				memLen += s.length();
+				return off;
+			}
+			if (file == null)
+				openSpill();
+			long off = spillBase + fileChars;
+			for (int i = 0; i < s.length(); i++) {
+				if (writeBuf.remaining() < 2)
+					flush();
+				writeBuf.putChar(s.charAt(i));
+			}
+			fileChars += s.length();
+			return off;
+		}
+
+		String read(long off, int len) {
+			if (len < 0)
+				return null;
+			if (len == 0)
+				return "";
+			if (path != null && file == null)
+				throw new IllegalStateException("닫힌 댓글 배치");
+			if (path == null || off < spillBase)
+				return new String(mem, (int) off, len);
+			long fileOff = off - spillBase;
+			if (fileOff + len > flushedChars)
+				flush();
+			ByteBuffer buf = ByteBuffer.allocate(len * 2);
+			try {
+				long pos = fileOff * 2;
+				while (buf.hasRemaining()) {
+					int n = file.read(buf, pos);
+					if (n < 0)
+						throw new IOException("스필 파일이 예상보다 짧음");
+					pos += n;
+				}
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			buf.flip();
+			return new String(buf.array(), 0, len * 2, StandardCharsets.UTF_16BE);
+		}
+
+		long memBytes() {
+			return 2L * mem.length + (writeBuf == null ? 0 : writeBuf.capacity());
+		}
+
+		private void openSpill() {
+			try {
+				Path dir = spillDir != null ? spillDir : Path.of(System.getProperty("java.io.tmpdir"));
+				Files.createDirectories(dir);
+				path = Files.createTempFile(dir, "comments-", ".spill");
+				file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+						StandardOpenOption.DELETE_ON_CLOSE);
+				spillBase = memLen;
+				//메모리 쪽 여유 공간 반환
+				mem = Arrays.copyOf(mem, memLen);
+				writeBuf = ByteBuffer.allocate(64 * 1024);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("댓글 스필 파일 생성 실패", e);
+			}
+		}
+
+		private void flush() {
+			if (file == null || writeBuf.position() == 0)
+				return;
+			int chars = writeBuf.position() / 2;
+			writeBuf.flip();
+			try {
+				long pos = flushedChars * 2;
+				while (writeBuf.hasRemaining())
+					pos += file.write(writeBuf, pos);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			writeBuf.clear();
+			flushedChars += chars;
+		}
+
+		@Override
+		public void close() {
+			if (file == null)
+				return;
+			try {
+				file.close(); // DELETE_ON_CLOSE
+			}
+			catch (IOException ignored) {
+				// 임시 파일이라 실패해도 진행
+			}
+			finally {
+				file = null;
+				writeBuf = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.youtube_comment_analysis.error.BadRequestException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * 분류된 댓글 전체 내보내기 (NDJSON 한 줄 = 댓글 1건 / CSV).
+ * 분석 때 만든 댓글 인덱스(CommentIndex)의 문서를 그대로 씀 → 재수집/AI 재호출 없음.
+ * 행을 하나씩 바로 써서 추가 힙 사용은 일정, FLUSH_ROWS마다 flush → 클라이언트가 느리면 서블릿 출력 스트림 쓰기에서 대기(역압).
+ * gzip 수용 클라이언트에는 sync flush gzip으로 압축하며 스트리밍.
+ * 열: videoId, commentId, author, text, likes, publishedAt, bot, sentiment (미분류/봇은 빈 값)
+ */
+public final class CommentExportWriter implements Closeable {
+
+	public enum Format {
+		NDJSON("application/x-ndjson", "ndjson"),
+		CSV("text/csv;charset=UTF-8", "csv");
+
+		final String contentType;
+		final String extension;
+
+		Format(String contentType, String extension) {
+			this.contentType = contentType;
+			this.extension = extension;
+		}
+
+		public static Format parse(String format) {
+			try {
+				return Format.valueOf((format == null || format.isBlank() ? "ndjson" : format.trim()).toUpperCase(Locale.ROOT));
+			}
+			catch (IllegalArgumentException e) {
+				throw new BadRequestException("format은 ndjson | csv: " + format);
+			}
+		}
+	}
+
+	//응답 헤더 확정 후 스트림에 쓰는 작업 (분석 실패 같은 오류 상태는 이 전에 결정돼야 함)
+	@FunctionalInterface
+	public interface Export {
+		void writeTo(CommentExportWriter writer) throws IOException;
+	}
+
+	private static final int FLUSH_ROWS = 500;
+	private static final String[] CSV_HEADER =
+			{ "videoId", "commentId", "author", "text", "likes", "publishedAt", "bot", "sentiment" };
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private final Format format;
+	private final OutputStream out;
+	private final JsonGenerator json;
+	private final Writer csv;
+	private long rows;
+
+	public CommentExportWriter(OutputStream out, Format format) throws IOException {
+		this.format = format;
+		this.out = out;
+		if (format == Format.NDJSON) {
+			this.json = JSON.createGenerator(out, JsonEncoding.UTF8);
+			this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			this.json.setRootValueSeparator(null); // 줄 구분은 직접 '\n'
+			this.csv = null;
+		}
+		else {
+			this.json = null;
+			this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+			this.csv.write('﻿'); // 엑셀에서 한글이 깨지지 않도록 BOM
+			writeCsvRow(CSV_HEADER);
+		}
+	}
+
+	/**
+	 * format/gzip에 맞춘 스트리밍 응답. 파일 이름은 name + 확장자(.gz)
+	 */
+	public static ResponseEntity<StreamingResponseBody> respond(String name, Format format, String acceptEncoding,
+			Export export) {
+		boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+		StreamingResponseBody body = raw -> {
+			OutputStream target = gzip ? new GZIPOutputStream(raw, 8192, true) : raw;
+			try (CommentExportWriter writer = new CommentExportWriter(target, format)) {
+				export.writeTo(writer);
+			}
+			if (gzip)
+				((GZIPOutputStream) target).finish();
+		};
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_TYPE, format.contentType)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+						.filename(name + "." + format.extension, StandardCharsets.UTF_8).build().toString())
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip)
+			builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		return builder.body(body);
+	}
+
+	//maxThreads: 인덱스가 더 깊게 만들어졌으면 요청 깊이(최신순 스레드 순번)까지만
+	public void write(String videoId, CommentIndex index, int maxThreads) throws IOException {
+		index.forEachRow(maxThreads, (commentId, author, text, likes, publishedAt, bot, sentiment) ->
+				writeRow(videoId, commentId, author, text, likes, publishedAt, bot, sentiment));
+		flush();
+	}
+
+	public long rows() {
+		return rows;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (json != null)
+			json.close();
+		else
+			csv.flush();
+	}
+
+	private void writeRow(String videoId, String commentId, String author, String text, long likes, String publishedAt,
+			boolean bot, Sentiment sentiment) throws IOException {
+		String label = sentiment == null ? null : sentiment.name();
+		if (format == Format.NDJSON) {
+			json.writeStartObject();
+			json.writeStringField("videoId", videoId);
+			json.writeStringField("commentId", commentId);
+			json.writeStringField("author", author);
+			json.writeStringField("text", text);
+			json.writeNumberField("likes", likes);
+			json.writeStringField("publishedAt", publishedAt);
+			json.writeBooleanField("bot", bot);
+			json.writeStringField("sentiment", label);
+			json.writeEndObject();
+			json.writeRaw('\n');
+		}
+		else
+			writeCsvRow(new String[] { videoId, commentId, author, text, String.valueOf(likes), publishedAt,
+					String.valueOf(bot), label });
+		if (++rows % FLUSH_ROWS == 0)
+			flush();
+	}
+
+	private void writeCsvRow(String[] cells) throws IOException {
+		for (int i = 0; i < cells.length; i++) {
+			if (i > 0)
+				csv.write(',');
+			csv.write(csvCell(cells[i]));
+		}
+		csv.write("\r\n");
+	}
+
+	//RFC 4180 따옴표 처리 + 수식으로 해석될 수 있는 값(= + - @ 시작)은 앞에 ' 를 붙임
+	static String csvCell(String v) {
+		if (v == null || v.isEmpty())
+			return "";
+		char c = v.charAt(0);
+		if (c == '=' || c == '+' || c == '-' || c == '@')
+			v = "'" + v;
+		if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0)
+			return v;
+		return '"' + v.replace("\"", "\"\"") + '"';
+	}
+
+	private void flush() throws IOException {
+		if (json != null)
+			json.flush();
+		else
+			csv.flush();
+		out.flush();
+	}
+}
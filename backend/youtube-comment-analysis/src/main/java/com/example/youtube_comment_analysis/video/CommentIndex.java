@@ -0,0 +1,358 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.youtube_comment_analysis.error.BadRequestException;
+
+/**
+ * 분석된 댓글의 영상별 검색 인덱스, 만든 뒤에는 읽기 전용.
+ * - 문서: 분석한 댓글 전부(봇/미분류 포함, 배치 순서) → 내보내기는 재분석 없이 이 문서들을 그대로 씀
+ *   검색/목록/개수는 감정 예측이 있는 댓글만 (정렬 배열과 역색인에 분류된 댓글만 넣음)
+ * - 텍스트: 글자/숫자 연속 구간을 소문자로 바꿔 2글자(bigram) 역색인 → 한국어처럼 띄어쓰기 없는 부분 검색도 가능
+ *   후보는 bigram 교집합, 마지막에 실제 포함 여부로 확인 (1글자 검색어는 색인 없이 확인만)
+ * - 정렬: 좋아요순 / 최신순 문서 번호 배열을 미리 만들어 두고 커서 위치부터 필터하며 읽음 (오래된순은 최신순 역방향)
+ * - 깊이: 만든 분석의 깊이(AnalysisDepth)와 문서별 스레드 순번을 보관 → 더 얕은 limit 요청은 스레드 순번으로 걸러 그대로 씀
+ *
+ * 커서 = base64url("세대:정렬:위치"), 세대는 댓글 id/감정으로 만든 해시라 같은 분석 결과면 인스턴스가 달라도 유효
+ */
+public final class CommentIndex {
+
+	public enum Sort { LIKES, NEWEST, OLDEST }
+
+	public record Page(List<CommentDto> items, int totalMatches, String nextCursor) {}
+
+	//내보내기용 문서 순회, sentiment는 봇/미분류면 null
+	@FunctionalInterface
+	public interface RowVisitor {
+		void row(String commentId, String author, String text, long likes, String publishedAt, boolean bot,
+				Sentiment sentiment) throws IOException;
+	}
+
+	private final long generation;
+	private final String[] ids;
+	private final String[] authors;
+	private final String[] texts;
+	private final String[] publishedAt;
+	private final long[] likes;
+	private final long[] epochs;
+	private final byte[] sentiments;
+	private final boolean[] bots;
+	private final int labeled;
+	private final Map<String, int[]> postings;
+	private final int[] byLikes;
+	private final int[] byNewest;
+	private final int[] threads;
+	private final AnalysisDepth depth;
+	private final long estimatedBytes;
+
+	private CommentIndex(long generation, String[] ids, String[] authors, String[] texts, String[] publishedAt,
+			long[] likes, long[] epochs, byte[] sentiments, boolean[] bots, int labeled, Map<String, int[]> postings,
+			int[] byLikes, int[] byNewest, int[] threads, AnalysisDepth depth, long estimatedBytes) {
+		this.generation = generation;
+		this.ids = ids;
+		this.authors = authors;
+		this.texts = texts;
+		this.publishedAt = publishedAt;
+		this.likes = likes;
+		this.epochs = epochs;
+		this.sentiments = sentiments;
+		this.bots = bots;
+		this.labeled = labeled;
+		this.postings = postings;
+		this.byLikes = byLikes;
+		this.byNewest = byNewest;
+		this.threads = threads;
+		this.depth = depth;
+		this.estimatedBytes = estimatedBytes;
+	}
+
+	//깊이를 모르는 인덱스는 끝까지 읽은 것으로 봄
+	public static CommentIndex build(CommentBatch comments) {
+		return build(comments, null);
+	}
+
+	public static CommentIndex build(CommentBatch comments, AnalysisDepth depth) {
+		int n = comments.size();
+		String[] ids = new String[n], authors = new String[n], texts = new String[n], published = new String[n];
+		long[] likes = new long[n], epochs = new long[n];
+		int[] threads = new int[n];
+		byte[] sentiments = new byte[n];
+		boolean[] bots = new boolean[n];
+		int[] labeledDocs = new int[n];
+		int labeled = 0;
+		Map<String, IntList> grams = new HashMap<>();
+		long hash = 0xcbf29ce484222325L;
+		long bytes = 64L * n;
+
+		for (int d = 0; d < n; d++) {
+			ids[d] = comments.commentId(d);
+			authors[d] = comments.author(d);
+			texts[d] = comments.text(d);
+			published[d] = comments.publishedAt(d);
+			likes[d] = comments.likes(d);
+			epochs[d] = comments.epochSecond(d);
+			threads[d] = comments.thread(d);
+			bots[d] = comments.isBot(d);
+			bytes += sizeOf(ids[d]) + sizeOf(authors[d]) + sizeOf(texts[d]) + sizeOf(published[d]);
+			if (!comments.isLabeled(d)) {
+				sentiments[d] = -1;
+				continue;
+			}
+			labeledDocs[labeled++] = d;
+			sentiments[d] = (byte) Sentiment.fromPrediction(comments.label(d)).ordinal();
+			for (String run : runs(texts[d])) {
+				for (String g : bigrams(run)) {
+					grams.computeIfAbsent(g, k -> new IntList()).addDoc(d);
+				}
+			}
+			hash = fnv(hash, ids[d]);
+			hash = fnv(hash, String.valueOf(sentiments[d]));
+		}
+
+		Map<String, int[]> postings = new HashMap<>(grams.size() * 2);
+		for (var e : grams.entrySet()) {
+			int[] docsOf = e.getValue().toArray();
+			postings.put(e.getKey(), docsOf);
+			bytes += 64 + 16 + 4L * docsOf.length;
+		}
+
+		Integer[] order = new Integer[labeled];
+		for (int i = 0; i < labeled; i++)
+			order[i] = labeledDocs[i];
+		Comparator<Integer> newest = Comparator.<Integer>comparingLong(d -> epochs[d]).reversed()
+				.thenComparing(d -> ids[d], Comparator.nullsLast(Comparator.naturalOrder()));
+		Integer[] likesOrder = order.clone();
+		Arrays.sort(likesOrder, Comparator.<Integer>comparingLong(d -> likes[d]).reversed().thenComparing(newest));
+		Integer[] newestOrder = order.clone();
+		Arrays.sort(newestOrder, newest);
+		bytes += 8L * labeled + 13L * n;
+
+		return new CommentIndex(hash, ids, authors, texts, published, likes, epochs, sentiments, bots, labeled, postings,
+				Arrays.stream(likesOrder).mapToInt(Integer::intValue).toArray(),
+				Arrays.stream(newestOrder).mapToInt(Integer::intValue).toArray(),
+				threads, depth == null ? new AnalysisDepth(0, true, null, List.of()) : depth.withoutViews(), bytes);
+	}
+
+	//분류된 댓글 수
+	public int size() {
+		return labeled;
+	}
+
+	//스레드 순번이 maxThreads보다 작은(또는 모르는) 분류된 댓글 수
+	public int size(int maxThreads) {
+		int n = 0;
+		for (int d = 0; d < threads.length; d++)
+			if (sentiments[d] >= 0 && threads[d] < maxThreads)
+				n++;
+		return n;
+	}
+
+	public long estimatedBytes() {
+		return estimatedBytes;
+	}
+
+	//limit개 스레드 요청을 이 인덱스로 답할 수 있는지 (더 얕은 요청은 스레드 순번으로 걸러서)
+	public boolean covers(int limit) {
+		return depth.covers(limit);
+	}
+
+	public Page query(String q, Sentiment sentiment, Sort sort, String cursor, int limit) {
+		return query(q, sentiment, sort, cursor, limit, Integer.MAX_VALUE);
+	}
+
+	//sentiment가 null이면 전체, q가 비었으면 텍스트 조건 없음
+	//maxThreads: 최신순 스레드 순번이 이보다 작은 댓글만 (순번을 모르는 댓글은 포함)
+	public Page query(String q, Sentiment sentiment, Sort sort, String cursor, int limit, int maxThreads) {
+		int[] order = sort == Sort.LIKES ? byLikes : byNewest;
+		boolean reverse = sort == Sort.OLDEST;
+		int start = cursor == null || cursor.isBlank() ? 0 : decodeCursor(cursor, sort);
+
+		List<String> terms = runs(q);
+		BitSet candidates = candidates(terms);
+
+		List<CommentDto> items = new ArrayList<>(Math.min(limit, 64));
+		int total = 0;
+		int next = -1;
+		for (int pos = 0; pos < order.length; pos++) {
+			int d = order[reverse ? order.length - 1 - pos : pos];
+			if (threads[d] >= maxThreads || !matches(d, terms, candidates, sentiment))
+				continue;
+			total++;
+			if (pos < start)
+				continue;
+			if (items.size() < limit)
+				items.add(toDto(d));
+			else if (next < 0)
+				next = pos;
+		}
+		return new Page(items, total, next < 0 ? null : encodeCursor(sort, next));
+	}
+
+	//해당 초(epoch second)에 작성된 댓글 id 전부 (봇/미분류 포함)
+	public Set<String> idsAt(long epochSecond) {
+		Set<String> out = new HashSet<>();
+		for (int d = 0; d < ids.length; d++)
+			if (epochs[d] == epochSecond && ids[d] != null)
+				out.add(ids[d]);
+		return out;
+	}
+
+	//봇/미분류를 포함한 전체 문서를 배치 순서대로 (maxThreads 조건은 query와 같음)
+	public void forEachRow(int maxThreads, RowVisitor visitor) throws IOException {
+		Sentiment[] values = Sentiment.values();
+		for (int d = 0; d < ids.length; d++) {
+			if (threads[d] >= maxThreads)
+				continue;
+			visitor.row(ids[d], authors[d], texts[d], likes[d], publishedAt[d], bots[d],
+					sentiments[d] < 0 ? null : values[sentiments[d]]);
+		}
+	}
+
+	private boolean matches(int d, List<String> terms, BitSet candidates, Sentiment sentiment) {
+		if (sentiment != null && sentiments[d] != sentiment.ordinal())
+			return false;
+		if (terms.isEmpty())
+			return true;
+		if (candidates != null && !candidates.get(d))
+			return false;
+		String text = texts[d] == null ? "" : texts[d].toLowerCase(Locale.ROOT);
+		for (String t : terms)
+			if (!text.contains(t))
+				return false;
+		return true;
+	}
+
+	//검색어 bigram의 posting 교집합 (짧은 목록부터), 색인할 bigram이 없으면 null = 전체 후보
+	private BitSet candidates(List<String> terms) {
+		List<int[]> lists = new ArrayList<>();
+		for (String t : terms) {
+			for (String g : bigrams(t)) {
+				int[] p = postings.get(g);
+				if (p == null)
+					return new BitSet();
+				lists.add(p);
+			}
+		}
+		if (lists.isEmpty())
+			return null;
+		lists.sort(Comparator.comparingInt(p -> p.length));
+		BitSet result = toBitSet(lists.get(0));
+		for (int i = 1; i < lists.size() && !result.isEmpty(); i++)
+			result.and(toBitSet(lists.get(i)));
+		return result;
+	}
+
+	private CommentDto toDto(int d) {
+		int s = sentiments[d];
+		int prediction = s == Sentiment.POSITIVE.ordinal() ? 2 : s == Sentiment.NEUTRAL.ordinal() ? 1 : 0;
+		return new CommentDto(ids[d], authors[d], texts[d], likes[d], publishedAt[d], prediction);
+	}
+
+	private String encodeCursor(Sort sort, int pos) {
+		String raw = Long.toHexString(generation) + ":" + sort.name() + ":" + pos;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private int decodeCursor(String cursor, Sort sort) {
+		String[] parts;
+		try {
+			parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8).split(":");
+		}
+		catch (IllegalArgumentException e) {
+			throw new BadRequestException("cursor 형식 오류", e);
+		}
+		if (parts.length != 3 || !parts[1].equals(sort.name()))
+			throw new BadRequestException("cursor가 요청한 정렬과 맞지 않음");
+		if (!parts[0].equals(Long.toHexString(generation)))
+			throw new BadRequestException("cursor 만료: 댓글 분석 결과가 바뀌었으니 처음부터 다시 조회");
+		try {
+			return Math.max(0, Integer.parseInt(parts[2]));
+		}
+		catch (NumberFormatException e) {
+			throw new BadRequestException("cursor 형식 오류", e);
+		}
+	}
+
+	//소문자로 바꾼 글자/숫자 연속 구간
+	private static List<String> runs(String text) {
+		List<String> out = new ArrayList<>();
+		if (text == null)
+			return out;
+		String lower = text.toLowerCase(Locale.ROOT);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < lower.length(); ) {
+			int cp = lower.codePointAt(i);
+			if (Character.isLetterOrDigit(cp)) {
+				sb.appendCodePoint(cp);
+			}
+			else if (sb.length() > 0) {
+				out.add(sb.toString());
+				sb.setLength(0);
+			}
+			i += Character.charCount(cp);
+		}
+		if (sb.length() > 0)
+			out.add(sb.toString());
+		return out;
+	}
+
+	private static List<String> bigrams(String run) {
+		int[] cps = run.codePoints().toArray();
+		List<String> out = new ArrayList<>(Math.max(0, cps.length - 1));
+		for (int i = 0; i + 1 < cps.length; i++)
+			out.add(new String(cps, i, 2));
+		return out;
+	}
+
+	private static BitSet toBitSet(int[] docs) {
+		BitSet b = new BitSet();
+		for (int d : docs)
+			b.set(d);
+		return b;
+	}
+
+	private static long sizeOf(String s) {
+		return s == null ? 0 : 40 + 2L * s.length();
+	}
+
+	private static long fnv(long hash, String s) {
+		if (s != null) {
+			for (int i = 0; i < s.length(); i++) {
+				hash ^= s.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+		}
+		hash ^= 0x1f;
+		return hash * 0x100000001b3L;
+	}
+
+	//문서 번호를 오름차순으로 추가 (같은 문서 중복 추가 방지)
+	private static final class IntList {
+		int[] a = new int[4];
+		int n;
+
+		void addDoc(int d) {
+			if (n > 0 && a[n - 1] == d)
+				return;
+			if (n == a.length)
+				a = Arrays.copyOf(a, n * 2);
+			a[n++] = d;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(a, n);
+		}
+	}
+}
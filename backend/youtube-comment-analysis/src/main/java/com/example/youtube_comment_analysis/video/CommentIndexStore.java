@@ -0,0 +1,61 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+//영상별 댓글 검색 인덱스 (JVM 메모리), 추정 바이트 합계가 상한을 넘으면 가장 오래 안 쓴 영상부터 축출
+@Component
+@Slf4j
+public class CommentIndexStore {
+
+	@Value("${app.comment-index.max-bytes:67108864}")
+	private long maxBytes;
+
+	public record IndexStats(int videos, long estimatedBytes, long maxBytes, long hits, long misses, long evictions) {}
+
+	// access-order LRU
+	private final LinkedHashMap<String, CommentIndex> indexes = new LinkedHashMap<>(64, 0.75f, true);
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public synchronized CommentIndex get(String videoId) {
+		CommentIndex idx = indexes.get(videoId);
+		if (idx == null)
+			misses++;
+		else
+			hits++;
+		return idx;
+	}
+
+	public synchronized void put(String videoId, CommentIndex index) {
+		CommentIndex old = indexes.put(videoId, index);
+		if (old != null)
+			bytes -= old.estimatedBytes();
+		bytes += index.estimatedBytes();
+		evict();
+	}
+
+	public synchronized IndexStats stats() {
+		return new IndexStats(indexes.size(), bytes, maxBytes, hits, misses, evictions);
+	}
+
+	//방금 넣은 인덱스 하나가 상한보다 커도 그것만은 남김
+	private void evict() {
+		Iterator<Map.Entry<String, CommentIndex>> it = indexes.entrySet().iterator();
+		while (bytes > maxBytes && indexes.size() > 1 && it.hasNext()) {
+			Map.Entry<String, CommentIndex> eldest = it.next();
+			bytes -= eldest.getValue().estimatedBytes();
+			it.remove();
+			evictions++;
+			log.debug("댓글 인덱스 축출 videoId={}", eldest.getKey());
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.ai.AiSender;
+import com.example.youtube_comment_analysis.ai.SendResult;
+import com.example.youtube_comment_analysis.error.VideoAnalysisException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+//표본 모드: commentCount가 threshold를 넘는 영상은 전체 대신 표본만 AI로 보내고 감정 비율을 신뢰구간으로 추정
+//- 단건 분석(VideoService.fetchAndAnalyze)에서만 씀, 일괄 분석은 대상 영상을 단건 경로로 돌림
+@Component
+@Slf4j
+public class CommentSampler {
+
+	private final YouTubeFetcher fetcher;
+	private final AiSender aiSender;
+
+	public CommentSampler(YouTubeFetcher fetcher, AiSender aiSender) {
+		this.fetcher = fetcher;
+		this.aiSender = aiSender;
+	}
+
+	@Value("${app.sampling.enabled:true}")
+	private boolean samplingEnabled;
+
+	@Value("${app.sampling.threshold:20000}")
+	private long samplingThreshold;
+
+	@Value("${app.sampling.max-sample:5000}")
+	private int samplingMaxSample;
+
+	@Value("${app.sampling.min-sample:400}")
+	private int samplingMinSample;
+
+	@Value("${app.sampling.max-pages:500}")
+	private int samplingMaxPages;
+
+	@Value("${app.sampling.batch-size:200}")
+	private int samplingBatchSize;
+
+	@Value("${app.sampling.confidence:0.95}")
+	private double samplingConfidence;
+
+	@Value("${app.sampling.margin:0.03}")
+	private double samplingMargin;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	boolean applies(VideoMeta meta) {
+		return samplingEnabled && meta.commentCount() != null && meta.commentCount() > samplingThreshold;
+	}
+
+	record SampledAnalysis(CommentBatch comments, SendResult result, SamplingSummary summary) {}
+
+	/**
+	 * 표본 모드: commentCount로 페이지 예산과 추출 간격(stride)을 정해 전체 기간에 고르게 표본 추출,
+	 * 표본이 배치 크기만큼 모일 때마다 AI로 보내고 감정 비율 신뢰구간이 목표폭에 들어오면 중단.
+	 * YouTube API는 커서 순차 페이징만 지원하므로 페이지 자체는 건너뛸 수 없음 → 페이지 예산으로 상한.
+	 */
+	SampledAnalysis analyze(String videoId, long population, ActivityAnalyzer activity) {
+		int pageBudget = (int) Math.max(1, Math.min(samplingMaxPages, (population + 99) / 100));
+		long coverable = Math.min(population, pageBudget * 100L);
+		long stride = Math.max(1, coverable / Math.max(1, samplingMaxSample));
+		long phase = ThreadLocalRandom.current().nextLong(stride);
+		log.info("표본 모드 videoId={} population={} pageBudget={} stride={}", videoId, population, pageBudget, stride);
+
+		ProportionEstimator estimator = new ProportionEstimator(samplingConfidence);
+		List<CommentDto> sampled = new ArrayList<>();
+		List<CommentDto> pending = new ArrayList<>();
+		List<SendResult> parts = new ArrayList<>();
+		String pageToken = null;
+		long seen = 0;
+		int pages = 0;
+		boolean converged = false;
+		//최신순이라 읽은 구간 = 가장 오래된 읽은 댓글 ~ 가장 최근 댓글
+		long oldest = Long.MAX_VALUE, newest = Long.MIN_VALUE;
+
+		while (pages < pageBudget && sampled.size() + pending.size() < samplingMaxSample) {
+			String ctJson = fetcher.fetchThreadPage(videoId, 100, pageToken);
+			pages++;
+			try {
+				JsonNode croot = mapper.readTree(ctJson);
+				for (JsonNode it : croot.path("items")) {
+					CommentDto c = YouTubeFetcher.toCommentDto(it.path("snippet").path("topLevelComment"));
+					//활동 분석은 표본이 아닌 읽은 페이지 전체 기준
+					activity.accept(c);
+					if (c == null)
+						continue;
+					long at = CommentBatch.parseEpoch(c.getPublishedAt());
+					if (at != CommentBatch.NO_TIME) {
+						oldest = Math.min(oldest, at);
+						newest = Math.max(newest, at);
+					}
+					if ((seen++ % stride) == phase)
+						pending.add(c);
+				}
+				pageToken = croot.path("nextPageToken").asText(null);
+			}
+			catch (IOException e) {
+				throw new VideoAnalysisException("댓글 JSON 파싱 오류", e);
+			}
+
+			if (pending.size() >= samplingBatchSize || pageToken == null) {
+				SendResult part = aiSender.send(pending);
+				parts.add(part);
+				estimator.add(part.POSITIVE(), part.NEUTRAL(), part.NEGATIVE());
+				sampled.addAll(pending);
+				pending = new ArrayList<>();
+				if (estimator.isPrecise(samplingMargin, samplingMinSample)) {
+					converged = true;
+					break;
+				}
+			}
+			if (pageToken == null)
+				break;
+		}
+		if (!pending.isEmpty()) {
+			SendResult part = aiSender.send(pending);
+			parts.add(part);
+			estimator.add(part.POSITIVE(), part.NEUTRAL(), part.NEGATIVE());
+			sampled.addAll(pending);
+		}
+
+		//추정 대상은 실제로 읽은 구간 (조기 종료/페이지 예산으로 끝까지 못 읽으면 최근 댓글만의 추정)
+		boolean coversAll = pageToken == null;
+		SamplingSummary summary = estimator.summarize(seen, population,
+				oldest == Long.MAX_VALUE ? null : Instant.ofEpochSecond(oldest).toString(),
+				newest == Long.MIN_VALUE ? null : Instant.ofEpochSecond(newest).toString(),
+				coversAll, pages, converged);
+		log.info("표본 모드 완료 videoId={} sample={} covered={}/{} pages={} converged={} coversAll={}",
+				videoId, summary.sampleSize(), seen, population, pages, converged, coversAll);
+		//표본은 send에서 prediction이 채워진 DTO → 라벨까지 배치로 옮김
+		return new SampledAnalysis(CommentBatch.of(sampled), SendResult.merge(parts, 3), summary);
+	}
+}
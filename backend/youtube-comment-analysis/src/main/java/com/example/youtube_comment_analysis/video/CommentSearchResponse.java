@@ -0,0 +1,16 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.List;
+
+//댓글 검색/목록 조회 응답 (nextCursor가 null이면 마지막 페이지)
+public record CommentSearchResponse(
+		String videoId,
+		String q,
+		String sentiment,
+		String sort,
+		int indexedComments,      // 인덱스에 든 댓글 수 (감정 예측이 있는 댓글)
+		int totalMatches,
+		List<CommentDto> items,
+		String nextCursor) {
+
+}
@@ -0,0 +1,149 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.example.youtube_comment_analysis.ai.AiSender;
+import com.example.youtube_comment_analysis.ai.DedupSummary;
+import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.ai.SendResult;
+import com.example.youtube_comment_analysis.ai.SpamCluster;
+import com.example.youtube_comment_analysis.error.ExternalServiceException;
+import com.example.youtube_comment_analysis.history.AnalysisSnapshot;
+import com.example.youtube_comment_analysis.history.SnapshotStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+//깊이 확장: 캐시에 더 얕은 결과(AnalysisDepth.nextPageToken)가 있으면 처음부터가 아니라 남은 스레드만 읽어 합침
+//- VideoService.analyzeOrExtend에서만 씀 (캐시 락/cold-analysis 격벽 안), 캐시 저장은 호출한 캐시 로더가 함
+@Component
+@Slf4j
+public class DepthExtender {
+
+	private final YouTubeFetcher fetcher;
+	private final AiSender aiSender;
+	private final SnapshotStore snapshotStore;
+
+	public DepthExtender(YouTubeFetcher fetcher, AiSender aiSender, SnapshotStore snapshotStore) {
+		this.fetcher = fetcher;
+		this.aiSender = aiSender;
+		this.snapshotStore = snapshotStore;
+	}
+
+	/**
+	 * 더 얕은 캐시 결과를 limit까지 이어서 분석: 저장해 둔 다음 페이지부터 남은 스레드만 수집/AI 전송 후 합침.
+	 * - 기존 결과는 그 깊이의 파생 결과로 남김 (다시 얕은 요청이 오면 그대로)
+	 * - 활동 분석/댓글 검색 인덱스는 새로 읽은 댓글만으로 다시 만들 수 없어 기존 것 유지
+	 * - AI 실패분은 재시도 대기열(배치 전체로 통계를 다시 계산) 대신 부분 결과(짧은 TTL)로 두고 만료 후 처음부터 분석
+	 * - 페이지 토큰이 만료되는 등 이어서 수집하지 못하면 null → 호출자가 처음부터 분석
+	 */
+	VideoAnalysisResponse extend(String videoId, VideoAnalysisResponse base, int limit, ZoneId zone) {
+		AnalysisDepth from = base.depth();
+		YouTubeFetcher.Fetched more;
+		try {
+			more = fetcher.fetchComments(videoId, limit - from.threads(), null, from.nextPageToken());
+		}
+		catch (ExternalServiceException e) {
+			log.info("이어서 수집 실패, 처음부터 분석 videoId={}: {}", videoId, e.getMessage());
+			return null;
+		}
+		catch (WebClientRequestException e) {
+			throw new ExternalServiceException("YouTube 네트워크 오류: " + e.getMessage(), e);
+		}
+
+		try (CommentBatch comments = more.comments()) {
+			SendResult sent = aiSender.send(comments);
+			List<DepthView> views = new ArrayList<>(from.views());
+			views.add(DepthView.of(base));
+			VideoAnalysisResponse merged = mergeDeeper(base, comments, sent,
+					AnalysisDepth.of(limit, more.nextPageToken(), views), zone);
+			log.info("이어서 분석 videoId={} depth {}→{} added={}", videoId, from.threads(), limit, comments.size());
+			snapshotStore.append(AnalysisSnapshot.ofVideo(videoId, merged, System.currentTimeMillis()));
+			return merged;
+		}
+	}
+
+	//얕은 결과 + 이어서 읽은 댓글의 결과
+	//- 개수/통계/히스토그램/작성자: 서로 겹치지 않는 댓글 집합이라 그대로 합침
+	//- 대표 댓글/키워드/스팸 묶음: 양쪽 상위 목록에서 다시 상위 (AiRetryQueue.patch와 같은 근사)
+	private static VideoAnalysisResponse mergeDeeper(VideoAnalysisResponse base, CommentBatch more, SendResult r,
+			AnalysisDepth depth, ZoneId zone) {
+		List<CommentDto> tops = new ArrayList<>(base.comments() == null ? List.of() : base.comments());
+		tops.addAll(r.comments());
+		List<CommentDto> merged = AiSender.getGlobalComments(tops);
+
+		Map<String, Integer> keywords = new HashMap<>();
+		for (List<KeywordCount> list : Arrays.asList(base.topKeywordGlobal(), r.topKeywordGlobal())) {
+			if (list == null)
+				continue;
+			for (KeywordCount kc : list) {
+				if (kc != null && kc.keyword() != null)
+					keywords.merge(kc.keyword().trim(), Math.max(0, kc.count()), Integer::sum);
+			}
+		}
+
+		DedupSummary dedup = base.dedup() == null || r.dedup() == null ? r.dedup()
+				: DedupSummary.of(base.dedup().totalComments() + r.dedup().totalComments(),
+						base.dedup().distinctTexts() + r.dedup().distinctTexts());
+
+		List<SpamCluster> clusters = new ArrayList<>(base.spamClusters() == null ? List.of() : base.spamClusters());
+		clusters.addAll(r.spamClusters());
+		clusters.sort(Comparator.comparingInt(SpamCluster::size).reversed());
+
+		AnalysisCompleteness prev = base.completeness() != null ? base.completeness() : AnalysisCompleteness.of(0, 0, 0);
+		AnalysisCompleteness next = AnalysisCompleteness.of(
+				prev.totalComments() + r.totalComments(),
+				prev.pendingComments() + r.retryable().size(),
+				prev.rejectedComments() + r.rejectedComments());
+
+		return new VideoAnalysisResponse(
+			base.video(),
+			merged,
+			AiSender.getGlobalKeyword(keywords, 3),
+			mergeStats(base.stats(), VideoService.buildStats(more, zone)),
+			base.commentCountBeforeBot() + more.size(),
+			merged.size(),
+			base.POSITIVE() + r.POSITIVE(),
+			base.NEUTRAL() + r.NEUTRAL(),
+			base.NEGATIVE() + r.NEGATIVE(),
+			dedup,
+			null,
+			TimeHistogram.merge(base.histogram(), TimeHistogram.of(more)),
+			base.activity(),
+			next,
+			AuthorStats.merge(Arrays.asList(base.authors(), AuthorStats.of(more))),
+			List.copyOf(clusters.subList(0, Math.min(SpamCluster.REPORT_LIMIT, clusters.size()))),
+			depth
+		);
+	}
+
+	//감정별/시간대별 개수는 더하고, 감정별 최다 좋아요 댓글은 좋아요가 많은 쪽
+	static StatsDto mergeStats(StatsDto a, StatsDto b) {
+		if (a == null)
+			return b;
+		StatsDto out = new StatsDto();
+		out.setZone(b.getZone() != null ? b.getZone() : a.getZone());
+		for (StatsDto s : List.of(a, b)) {
+			s.getTotalBySentiment().forEach((k, v) -> out.getTotalBySentiment().merge(k, v, Integer::sum));
+			for (int i = 0; i < out.getHourly().size() && i < s.getHourly().size(); i++) {
+				HourlyStat into = out.getHourly().get(i);
+				s.getHourly().get(i).getCounts().forEach((k, v) -> into.getCounts().merge(k, v, Integer::sum));
+			}
+			s.getTopLikedBySentiment().forEach((k, c) -> out.getTopLikedBySentiment().merge(k, c,
+					(x, y) -> likesOf(y) > likesOf(x) ? y : x));
+		}
+		return out;
+	}
+
+	private static long likesOf(CommentDto c) {
+		return c.getLikeCount() == null ? 0 : c.getLikeCount();
+	}
+}
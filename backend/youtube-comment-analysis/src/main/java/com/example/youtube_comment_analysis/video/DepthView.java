@@ -0,0 +1,60 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.time.ZoneId;
+import java.util.List;
+
+import com.example.youtube_comment_analysis.ai.AiSender;
+
+//더 얕은 깊이(threads)의 파생 결과: 깊이에 따라 달라지는 값만 보관
+//키워드/중복 통계/스팸 묶음/활동 분석은 AI 배치·수집 단위로 만들어져 나눌 수 없어 깊은 분석 값을 그대로 씀
+public record DepthView(
+		int threads,
+		List<CommentDto> comments,
+		StatsDto stats,
+		int commentCountBeforeBot,
+		int commentCountAfterBot,
+		int POSITIVE,
+		int NEUTRAL,
+		int NEGATIVE,
+		TimeHistogram histogram,
+		AnalysisCompleteness completeness,
+		AuthorStats authors) {
+
+	//라벨이 채워진 전체 배치에서 스레드 순번 < threads 인 행만으로 계산
+	public static DepthView of(CommentBatch comments, int threads, ZoneId zone) {
+		try (CommentBatch prefix = CommentBatch.inMemory()) {
+			int pos = 0, neu = 0, neg = 0, unlabeled = 0;
+			for (int r = 0; r < comments.size(); r++) {
+				int t = comments.thread(r);
+				if (t < 0 || t >= threads)
+					continue;
+				prefix.addRow(comments, r);
+				switch (comments.label(r)) {
+					case 0 -> neg++;
+					case 1 -> neu++;
+					case 2 -> pos++;
+					case CommentBatch.UNLABELED -> unlabeled++;
+					default -> { } // 봇
+				}
+			}
+			List<CommentDto> tops = AiSender.getGlobalComments(prefix);
+			return new DepthView(threads, tops, VideoService.buildStats(prefix, zone), prefix.size(), tops.size(),
+					pos, neu, neg, TimeHistogram.of(prefix), AnalysisCompleteness.of(prefix.size(), 0, unlabeled),
+					AuthorStats.of(prefix));
+		}
+	}
+
+	//이어서 분석하기 전의 결과 = 그 깊이의 결과 그대로
+	public static DepthView of(VideoAnalysisResponse r) {
+		return new DepthView(r.depth().threads(), r.comments(), r.stats(), r.commentCountBeforeBot(),
+				r.commentCountAfterBot(), r.POSITIVE(), r.NEUTRAL(), r.NEGATIVE(), r.histogram(), r.completeness(),
+				r.authors());
+	}
+
+	public VideoAnalysisResponse applyTo(VideoAnalysisResponse full) {
+		return new VideoAnalysisResponse(full.video(), comments, full.topKeywordGlobal(), stats,
+				commentCountBeforeBot, commentCountAfterBot, POSITIVE, NEUTRAL, NEGATIVE,
+				full.dedup(), full.sampling(), histogram, full.activity(), completeness, authors,
+				full.spamClusters(), new AnalysisDepth(threads, false, null, List.of()));
+	}
+}
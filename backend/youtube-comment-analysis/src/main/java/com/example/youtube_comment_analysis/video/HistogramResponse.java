@@ -0,0 +1,14 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.List;
+
+//시간 분포 조회 응답 (요청한 zone/bucket으로 재집계한 결과)
+public record HistogramResponse(
+		String videoId,
+		String mode,
+		String zone,
+		String bucket,
+		int resolutionMinutes,    // 저장 해상도 (1 또는 15분), bucket은 이 배수만 가능
+		List<TimeHistogram.Bucket> buckets) {
+
+}
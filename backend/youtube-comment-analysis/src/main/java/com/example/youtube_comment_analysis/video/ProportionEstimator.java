@@ -0,0 +1,89 @@
+package com.example.youtube_comment_analysis.video;
+
+//표본 감정 비율의 Wilson 신뢰구간 계산 + 조기 종료 판정
+public class ProportionEstimator {
+
+	private final double confidence;
+	private final double z;
+
+	private long positive;
+	private long neutral;
+	private long negative;
+
+	public ProportionEstimator(double confidence) {
+		if (!(confidence > 0 && confidence < 1))
+			throw new IllegalArgumentException("confidence는 (0,1) 범위여야 함: " + confidence);
+		this.confidence = confidence;
+		this.z = zScore(confidence);
+	}
+
+	public void add(int pos, int neu, int neg) {
+		positive += pos;
+		neutral += neu;
+		negative += neg;
+	}
+
+	public long total() {
+		return positive + neutral + negative;
+	}
+
+	//세 감정 모두 구간 반폭이 margin 이하이고 최소 표본을 넘었으면 true
+	public boolean isPrecise(double margin, int minSample) {
+		long n = total();
+		if (n < Math.max(1, minSample))
+			return false;
+		return halfWidth(positive, n) <= margin
+				&& halfWidth(neutral, n) <= margin
+				&& halfWidth(negative, n) <= margin;
+	}
+
+	//population = 표본을 뽑은 틀(읽은 구간)의 크기, 나머지는 그 구간 정보
+	public SamplingSummary summarize(long population, long totalComments, String coveredFrom, String coveredTo,
+			boolean coversAll, int pagesFetched, boolean converged) {
+		long n = total();
+		return new SamplingSummary(
+				n,
+				population,
+				totalComments,
+				coveredFrom,
+				coveredTo,
+				coversAll,
+				pagesFetched,
+				confidence,
+				converged,
+				bound(positive, n),
+				bound(neutral, n),
+				bound(negative, n));
+	}
+
+	private SamplingSummary.Bound bound(long k, long n) {
+		if (n == 0)
+			return new SamplingSummary.Bound(0.0, 0.0, 1.0);
+		double p = (double) k / n;
+		double center = wilsonCenter(k, n);
+		double half = halfWidth(k, n);
+		return new SamplingSummary.Bound(p, Math.max(0.0, center - half), Math.min(1.0, center + half));
+	}
+
+	private double wilsonCenter(long k, long n) {
+		double p = (double) k / n;
+		double z2 = z * z;
+		return (p + z2 / (2.0 * n)) / (1 + z2 / n);
+	}
+
+	private double halfWidth(long k, long n) {
+		if (n == 0)
+			return 1.0;
+		double p = (double) k / n;
+		double z2 = z * z;
+		return z * Math.sqrt(p * (1 - p) / n + z2 / (4.0 * n * n)) / (1 + z2 / n);
+	}
+
+	//양측 신뢰수준 → z (Abramowitz-Stegun 26.2.23, 오차 4.5e-4 이하)
+	static double zScore(double confidence) {
+		double q = (1 - confidence) / 2;
+		double t = Math.sqrt(-2.0 * Math.log(q));
+		return t - (2.515517 + 0.802853 * t + 0.010328 * t * t)
+				/ (1 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t);
+	}
+}
@@ -0,0 +1,21 @@
+package com.example.youtube_comment_analysis.video;
+
+//표본 모드 분석 정보 (전수 분석 시 응답에서 null)
+//댓글은 최신순 페이지로만 읽을 수 있어 조기 종료하면 최근 구간만 읽힘
+//→ 비율/신뢰구간은 읽은 구간(coveredFrom ~ coveredTo, population개)의 추정, coversAll이 false면 영상 전체 댓글의 추정이 아님
+public record SamplingSummary(
+		long sampleSize,
+		long population,          // 표본 틀: 읽은 페이지의 최상위 댓글 수
+		long totalComments,       // VideoMeta.commentCount (영상 전체)
+		String coveredFrom,       // 읽은 구간의 가장 오래된 댓글 시각
+		String coveredTo,         // 가장 최근 댓글 시각
+		boolean coversAll,        // 마지막 페이지까지 읽었는지
+		int pagesFetched,
+		double confidence,
+		boolean converged,        // 목표 구간폭에 도달해 조기 종료했는지
+		Bound POSITIVE,
+		Bound NEUTRAL,
+		Bound NEGATIVE) {
+
+	public record Bound(double proportion, double lower, double upper) {}
+}
@@ -6,6 +6,7 @@ public class StatsDto {
     private final Map<Sentiment, Integer> totalBySentiment = new EnumMap<>(Sentiment.class);
     private final List<HourlyStat> hourly = new ArrayList<>();
     private final Map<Sentiment, CommentDto> topLikedBySentiment = new EnumMap<>(Sentiment.class);
+    private String zone; // hourly를 나눈 시간대
 
     public StatsDto() {
         for (Sentiment s : Sentiment.values()) totalBySentiment.put(s, 0);
@@ -15,6 +16,8 @@ public class StatsDto {
     public Map<Sentiment, Integer> getTotalBySentiment() { return totalBySentiment; }
     public List<HourlyStat> getHourly() { return hourly; }
     public Map<Sentiment, CommentDto> getTopLikedBySentiment() { return topLikedBySentiment; }
+    public String getZone() { return zone; }
+    public void setZone(String zone) { this.zone = zone; }
 
     public void incTotal(Sentiment s) { totalBySentiment.put(s, totalBySentiment.get(s) + 1); }
 }
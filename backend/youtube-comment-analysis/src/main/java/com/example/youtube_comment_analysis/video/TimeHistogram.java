@@ -0,0 +1,193 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+
+import com.example.youtube_comment_analysis.error.BadRequestException;
+
+/**
+ * 감정별 댓글 작성 시각 히스토그램 (UTC 기준, 희소 배열).
+ * 분석 1회에 한 번만 만들어 캐시에 두고, 조회 시 원하는 시간대(ZoneId)/구간 폭으로 다시 묶음.
+ * 댓글 기간이 7일 이내면 1분 단위, 넘으면 15분 단위로 저장 → 버킷 수는 댓글 수를 넘지 않음.
+ * 현행 시간대의 UTC 오프셋은 모두 15분의 배수(예: Asia/Kolkata +05:30, Asia/Kathmandu +05:45)라
+ * 15분 단위로 저장해도 어느 시간대로든 현지 구간 경계에 맞게 다시 묶을 수 있음.
+ *
+ * offsets[i]: originEpochMinute부터 몇 번째 버킷인지 (오름차순), POSITIVE/NEUTRAL/NEGATIVE[i]: 그 버킷의 개수
+ */
+public record TimeHistogram(
+		long originEpochMinute,
+		int resolutionMinutes,
+		int[] offsets,
+		int[] POSITIVE,
+		int[] NEUTRAL,
+		int[] NEGATIVE) {
+
+	private static final long MINUTE_RESOLUTION_MAX_SPAN = 7L * 24 * 60;
+	private static final int LONG_SPAN_RESOLUTION = 15;
+	// 0으로 채운 연속 구간 응답의 최대 버킷 수
+	private static final int MAX_OUTPUT_BUCKETS = 10_000;
+
+	//조회 결과 1구간: label은 구간 시작 (timeline: 현지 시각, timeOfDay: HH:mm, sincePublish: 게시 후 경과 ISO 기간)
+	public record Bucket(String label, int POSITIVE, int NEUTRAL, int NEGATIVE) {}
+
+	public static TimeHistogram empty() {
+		return new TimeHistogram(0, 1, new int[0], new int[0], new int[0], new int[0]);
+	}
+
+	//분류된(라벨 있는) 댓글 중 작성 시각이 있는 것만
+	public static TimeHistogram of(CommentBatch comments) {
+		int n = 0;
+		long[] minutes = new long[comments.size()];
+		Sentiment[] sentiments = new Sentiment[comments.size()];
+		long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+		for (int r = 0; r < comments.size(); r++) {
+			if (!comments.isLabeled(r) || !comments.hasTime(r))
+				continue;
+			long m = Math.floorDiv(comments.epochSecond(r), 60);
+			minutes[n] = m;
+			sentiments[n] = Sentiment.fromPrediction(comments.label(r));
+			n++;
+			min = Math.min(min, m);
+			max = Math.max(max, m);
+		}
+		if (n == 0)
+			return empty();
+
+		int res = (max - min <= MINUTE_RESOLUTION_MAX_SPAN) ? 1 : LONG_SPAN_RESOLUTION;
+		long origin = Math.floorDiv(min, res) * res;
+		TreeMap<Integer, int[]> buckets = new TreeMap<>();
+		for (int i = 0; i < n; i++) {
+			int off = (int) ((minutes[i] - origin) / res);
+			buckets.computeIfAbsent(off, k -> new int[3])[sentiments[i].ordinal()]++;
+		}
+		return fromBuckets(origin, res, buckets);
+	}
+
+	//서로 다른 댓글 집합의 히스토그램 합치기 (더 깊게 이어서 분석한 결과 합칠 때)
+	//합친 기간이 7일을 넘으면 15분 단위로, 한쪽이 더 굵은 단위면 그 단위로 다시 묶음 (더 잘게는 못 나눔)
+	public static TimeHistogram merge(TimeHistogram a, TimeHistogram b) {
+		if (a == null || a.offsets.length == 0)
+			return b == null ? empty() : b;
+		if (b == null || b.offsets.length == 0)
+			return a;
+		long min = Math.min(a.startMinute(0), b.startMinute(0));
+		long max = Math.max(a.startMinute(a.offsets.length - 1), b.startMinute(b.offsets.length - 1));
+		int res = Math.max(Math.max(a.resolutionMinutes, b.resolutionMinutes),
+				max - min <= MINUTE_RESOLUTION_MAX_SPAN ? 1 : LONG_SPAN_RESOLUTION);
+		long origin = Math.floorDiv(min, res) * res;
+		TreeMap<Integer, int[]> buckets = new TreeMap<>();
+		for (TimeHistogram h : List.of(a, b)) {
+			for (int i = 0; i < h.offsets.length; i++) {
+				int[] c = buckets.computeIfAbsent((int) ((h.startMinute(i) - origin) / res), k -> new int[3]);
+				c[Sentiment.POSITIVE.ordinal()] += h.POSITIVE[i];
+				c[Sentiment.NEUTRAL.ordinal()] += h.NEUTRAL[i];
+				c[Sentiment.NEGATIVE.ordinal()] += h.NEGATIVE[i];
+			}
+		}
+		return fromBuckets(origin, res, buckets);
+	}
+
+	//버킷 번호 → 감정별 개수 (Sentiment 순서)
+	private static TimeHistogram fromBuckets(long origin, int res, TreeMap<Integer, int[]> buckets) {
+		int size = buckets.size();
+		int[] offsets = new int[size], pos = new int[size], neu = new int[size], neg = new int[size];
+		int i = 0;
+		for (var e : buckets.entrySet()) {
+			offsets[i] = e.getKey();
+			pos[i] = e.getValue()[Sentiment.POSITIVE.ordinal()];
+			neu[i] = e.getValue()[Sentiment.NEUTRAL.ordinal()];
+			neg[i] = e.getValue()[Sentiment.NEGATIVE.ordinal()];
+			i++;
+		}
+		return new TimeHistogram(origin, res, offsets, pos, neu, neg);
+	}
+
+	//현지 시각 타임라인: zone의 벽시계 기준 width 단위 구간 (빈 구간은 0)
+	public List<Bucket> timeline(ZoneId zone, Duration width) {
+		long w = widthMinutes(width);
+		ZoneRules rules = zone.getRules();
+		TreeMap<Long, int[]> acc = new TreeMap<>();
+		for (int i = 0; i < offsets.length; i++) {
+			long localMin = localMinute(rules, startMinute(i));
+			add(acc, Math.floorDiv(localMin, w) * w, i);
+		}
+		return fill(acc, w, key -> LocalDateTime.ofEpochSecond(key * 60, 0, ZoneOffset.UTC).toString());
+	}
+
+	//하루 중 시간대 분포: zone 기준 [00:00, 24:00)을 width로 나눔 (width는 24시간의 약수)
+	public List<Bucket> timeOfDay(ZoneId zone, Duration width) {
+		long w = widthMinutes(width);
+		if (1440 % w != 0)
+			throw new BadRequestException("시간대 분포 구간은 24시간의 약수여야 함: " + width);
+		ZoneRules rules = zone.getRules();
+		TreeMap<Long, int[]> acc = new TreeMap<>();
+		for (long key = 0; key < 1440; key += w)
+			acc.put(key, new int[3]);
+		for (int i = 0; i < offsets.length; i++) {
+			long localMin = localMinute(rules, startMinute(i));
+			add(acc, Math.floorDiv(Math.floorMod(localMin, 1440L), w) * w, i);
+		}
+		return fill(acc, w, key -> "%02d:%02d".formatted(key / 60, key % 60));
+	}
+
+	//게시 후 경과 시간 분포 (게시 전 시각은 0번 구간으로)
+	public List<Bucket> sincePublish(Instant publishedAt, Duration width) {
+		long w = widthMinutes(width);
+		long publishMin = Math.floorDiv(publishedAt.getEpochSecond(), 60);
+		TreeMap<Long, int[]> acc = new TreeMap<>();
+		acc.put(0L, new int[3]);
+		for (int i = 0; i < offsets.length; i++) {
+			long since = Math.max(0, startMinute(i) - publishMin);
+			add(acc, Math.floorDiv(since, w) * w, i);
+		}
+		return fill(acc, w, key -> Duration.ofMinutes(key).toString());
+	}
+
+	//UTC 분 → zone 현지 분
+	private static long localMinute(ZoneRules rules, long utcMin) {
+		return utcMin + Math.floorDiv(rules.getOffset(Instant.ofEpochSecond(utcMin * 60)).getTotalSeconds(), 60);
+	}
+
+	private long startMinute(int i) {
+		return originEpochMinute + (long) offsets[i] * resolutionMinutes;
+	}
+
+	//저장 해상도보다 잘게는 못 나눔, 해상도의 배수만 허용
+	private long widthMinutes(Duration width) {
+		if (width == null || width.isNegative() || width.isZero() || width.getSeconds() % 60 != 0 || width.getNano() != 0)
+			throw new BadRequestException("구간 폭은 1분 단위의 양수여야 함: " + width);
+		long w = width.toMinutes();
+		if (w % resolutionMinutes != 0)
+			throw new BadRequestException("구간 폭은 저장 해상도(" + resolutionMinutes + "분)의 배수여야 함: " + width);
+		return w;
+	}
+
+	private void add(TreeMap<Long, int[]> acc, long key, int i) {
+		int[] c = acc.computeIfAbsent(key, k -> new int[3]);
+		c[0] += POSITIVE[i];
+		c[1] += NEUTRAL[i];
+		c[2] += NEGATIVE[i];
+	}
+
+	private static List<Bucket> fill(TreeMap<Long, int[]> acc, long w, LongFunction<String> label) {
+		List<Bucket> out = new ArrayList<>();
+		if (acc.isEmpty())
+			return out;
+		long first = acc.firstKey(), last = acc.lastKey();
+		if ((last - first) / w + 1 > MAX_OUTPUT_BUCKETS)
+			throw new BadRequestException("구간이 너무 잘게 나뉨 (최대 " + MAX_OUTPUT_BUCKETS + "개): 구간 폭을 늘려 주세요");
+		for (long key = first; key <= last; key += w) {
+			int[] c = acc.get(key);
+			out.add(c == null ? new Bucket(label.apply(key), 0, 0, 0) : new Bucket(label.apply(key), c[0], c[1], c[2]));
+		}
+		return out;
+	}
+}
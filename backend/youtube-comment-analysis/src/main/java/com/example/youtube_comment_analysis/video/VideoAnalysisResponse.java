@@ -2,7 +2,9 @@ package com.example.youtube_comment_analysis.video;
 
 import java.util.List;
 
+import com.example.youtube_comment_analysis.ai.DedupSummary;
 import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.ai.SpamCluster;
 //프론트 반환 json
 public record VideoAnalysisResponse(
 		VideoMeta video, 								
@@ -13,6 +15,34 @@ public record VideoAnalysisResponse(
         int commentCountAfterBot,
         int POSITIVE,
         int NEUTRAL,
-        int NEGATIVE) {
+        int NEGATIVE,
+        DedupSummary dedup,
+        SamplingSummary sampling,
+        TimeHistogram histogram,
+        ActivitySummary activity,
+        AnalysisCompleteness completeness,
+        AuthorStats authors,
+        List<SpamCluster> spamClusters,
+        AnalysisDepth depth) {
 
+	//limit개 스레드 요청에 쓸 수 있는지 (깊이 기록 전 캐시 항목은 예전처럼 그대로 씀)
+	public boolean covers(int limit) {
+		return depth == null || depth.covers(limit);
+	}
+
+	//limit 요청에 맞는 결과: limit 이상인 파생 결과 중 가장 얕은 것, 없으면 전체 (파생 결과 목록은 빼고)
+	public VideoAnalysisResponse atDepth(int limit) {
+		if (depth == null || depth.views().isEmpty())
+			return this;
+		DepthView best = null;
+		for (DepthView v : depth.views()) {
+			if (v.threads() >= limit && (best == null || v.threads() < best.threads()))
+				best = v;
+		}
+		if (best != null)
+			return best.applyTo(this);
+		return new VideoAnalysisResponse(video, comments, topKeywordGlobal, stats, commentCountBeforeBot,
+				commentCountAfterBot, POSITIVE, NEUTRAL, NEGATIVE, dedup, sampling, histogram, activity,
+				completeness, authors, spamClusters, depth.withoutViews());
+	}
 }
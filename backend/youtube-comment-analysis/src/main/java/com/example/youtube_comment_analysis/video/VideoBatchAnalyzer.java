@@ -0,0 +1,213 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.youtube_comment_analysis.ai.AiSender;
+import com.example.youtube_comment_analysis.ai.SendResult;
+import com.example.youtube_comment_analysis.cache.VideoCache;
+import com.example.youtube_comment_analysis.error.BadRequestException;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+import com.example.youtube_comment_analysis.history.AnalysisSnapshot;
+import com.example.youtube_comment_analysis.history.SnapshotStore;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+//여러 영상 일괄 분석 (POST /video/batch, 배치 러너): 캐시 미스 영상만 묶어서 수집하고 AI 배치를 영상끼리 나눠 씀
+//- 응답 생성/통계/파생 결과는 단건 분석(VideoService)과 같은 코드 → 결과가 그대로 캐시/인덱스/스냅샷으로
+@Component
+@Slf4j
+public class VideoBatchAnalyzer {
+
+	private final VideoService videoService;
+	private final YouTubeFetcher fetcher;
+	private final CommentSampler sampler;
+	private final AiSender aiSender;
+	private final VideoCache videoCache;
+	private final SnapshotStore snapshotStore;
+	private final Bulkheads bulkheads;
+	private final AiRetryQueue aiRetryQueue;
+	private final CommentIndexStore commentIndexStore;
+
+	public VideoBatchAnalyzer(VideoService videoService, YouTubeFetcher fetcher, CommentSampler sampler,
+			AiSender aiSender, VideoCache videoCache, SnapshotStore snapshotStore, Bulkheads bulkheads,
+			AiRetryQueue aiRetryQueue, CommentIndexStore commentIndexStore) {
+		this.videoService = videoService;
+		this.fetcher = fetcher;
+		this.sampler = sampler;
+		this.aiSender = aiSender;
+		this.videoCache = videoCache;
+		this.snapshotStore = snapshotStore;
+		this.bulkheads = bulkheads;
+		this.aiRetryQueue = aiRetryQueue;
+		this.commentIndexStore = commentIndexStore;
+	}
+
+	// 요청당 최대 영상 수 / 영상별 댓글 수집 병렬도
+	@Value("${app.batch.max-videos:50}")
+	private int batchMaxVideos;
+
+	@Value("${app.batch.fetch-concurrency:4}")
+	private int batchFetchConcurrency;
+
+	/**
+	 * 여러 영상 일괄 분석: 캐시는 MGET 1회로 확인, 미스 영상만 /videos 를 50개씩 묶어 조회하고
+	 * 댓글은 영상별로 병렬 수집, AI에는 여러 영상의 댓글을 섞어 꽉 찬 배치로 보낸 뒤 영상별로 다시 나눔.
+	 * 표본 모드 대상/더 얕은 캐시가 있는 영상은 단건 경로(VideoService)로 처리.
+	 */
+	public VideoBatchResponse analyze(List<String> videoIds, int limit) {
+		List<String> ids = videoIds == null ? List.of() : videoIds.stream()
+				.filter(id -> id != null && !id.isBlank())
+				.map(String::trim)
+				.collect(Collectors.toCollection(LinkedHashSet::new))
+				.stream().toList();
+		if (ids.isEmpty())
+			throw new BadRequestException("videoIds가 비어 있음");
+		if (ids.size() > batchMaxVideos)
+			throw new BadRequestException("videoIds는 최대 " + batchMaxVideos + "개까지 가능: " + ids.size());
+
+		Map<String, VideoAnalysisResponse> shallower = new HashMap<>();
+		Map<String, VideoAnalysisResponse> cached = videoCache.getAll(ids, limit, shallower);
+		List<String> misses = ids.stream().filter(id -> !cached.containsKey(id)).toList();
+
+		Map<String, VideoAnalysisResponse> fresh = new HashMap<>();
+		List<String> notFound = new ArrayList<>();
+		Map<String, String> failed = new LinkedHashMap<>();
+		if (!misses.isEmpty()) {
+			bulkheads.coldAnalysis().run(() -> analyzeBatch(misses, limit, shallower, fresh, notFound, failed));
+		}
+
+		Map<String, VideoAnalysisResponse> videos = new LinkedHashMap<>();
+		for (String id : ids) {
+			VideoAnalysisResponse r = cached.containsKey(id) ? cached.get(id) : fresh.get(id);
+			if (r != null)
+				videos.put(id, r);
+		}
+		log.info("일괄 분석 요청={} 캐시히트={} 분석={} 없음={} 실패={}",
+				ids.size(), cached.size(), fresh.size(), notFound.size(), failed.size());
+		return new VideoBatchResponse(videos, notFound, failed, cached.size(), fresh.size());
+	}
+
+	private void analyzeBatch(List<String> misses, int limit, Map<String, VideoAnalysisResponse> shallower,
+			Map<String, VideoAnalysisResponse> out, List<String> notFound, Map<String, String> failed) {
+		//더 얕은 캐시가 있는 영상은 단건 경로로 이어서 분석 (이미 cold-analysis 격벽 안)
+		List<String> fresh = new ArrayList<>();
+		for (String id : misses) {
+			if (!shallower.containsKey(id)) {
+				fresh.add(id);
+				continue;
+			}
+			try {
+				out.put(id, videoCache.getOrLoadVideoData(id, limit, s -> videoService.analyzeOrExtend(id, s, limit)));
+			}
+			catch (RuntimeException e) {
+				failed.put(id, e.getMessage());
+			}
+		}
+		if (fresh.isEmpty())
+			return;
+
+		Map<String, VideoMeta> metas = fetcher.fetchVideoMetas(fresh);
+		List<String> full = new ArrayList<>();
+		for (String id : fresh) {
+			VideoMeta meta = metas.get(id);
+			if (meta == null) {
+				notFound.add(id);
+			}
+			else if (sampler.applies(meta)) {
+				//표본 모드는 영상별 조기 종료 흐름이 달라 단건 경로로 (이미 cold-analysis 격벽 안)
+				try {
+					out.put(id, videoCache.getOrLoadVideoData(id, limit, s -> videoService.analyzeOrExtend(id, s, limit)));
+				}
+				catch (RuntimeException e) {
+					failed.put(id, e.getMessage());
+				}
+			}
+			else {
+				full.add(id);
+			}
+		}
+		if (full.isEmpty())
+			return;
+
+		//댓글 수집: 영상별 페이징은 순차지만 영상끼리는 병렬
+		//배치는 재시도 대기열로 넘긴 것 외에는 끝나면(실패 포함) 닫음 → 스필 파일 정리
+		Map<String, CommentBatch> fetched = new ConcurrentHashMap<>();
+		Map<String, String> nextPageTokens = new ConcurrentHashMap<>();
+		Set<String> handedOff = new HashSet<>();
+		Map<String, ActivityAnalyzer> activities = new ConcurrentHashMap<>();
+		try {
+			Flux.fromIterable(full)
+					.flatMap(id -> Mono.fromCallable(() -> {
+								ActivityAnalyzer activity = videoService.newActivityAnalyzer();
+								activities.put(id, activity);
+								YouTubeFetcher.Fetched f = fetcher.fetchComments(id, limit, activity, null);
+								fetched.put(id, f.comments());
+								if (f.nextPageToken() != null)
+									nextPageTokens.put(id, f.nextPageToken());
+								return id;
+							})
+							.subscribeOn(Schedulers.boundedElastic())
+							.onErrorResume(e -> {
+								if (e instanceof TooManyRequestsException tmr)
+									return Mono.error(tmr);
+								synchronized (failed) {
+									failed.put(id, e.getMessage());
+								}
+								return Mono.empty();
+							}), Math.max(1, batchFetchConcurrency))
+					.then()
+					.block();
+
+			Map<String, CommentBatch> commentsById = new LinkedHashMap<>();
+			for (String id : full) {
+				if (fetched.containsKey(id))
+					commentsById.put(id, fetched.get(id));
+			}
+
+			//AI 호출: 영상 경계 없이 배치를 채우고 결과만 영상별로 분리
+			Map<String, SendResult> results = aiSender.sendGrouped(commentsById);
+
+			ZoneId zone = videoService.statsZone();
+			long now = System.currentTimeMillis();
+			Map<String, VideoAnalysisResponse> analyzed = new LinkedHashMap<>();
+			for (var e : commentsById.entrySet()) {
+				String id = e.getKey();
+				SendResult sent = results.get(id);
+				AnalysisDepth depth = AnalysisDepth.of(limit, nextPageTokens.get(id),
+						sent.retryable().isEmpty() ? videoService.depthViews(e.getValue(), limit, zone) : List.of());
+				VideoAnalysisResponse r = videoService.toResponse(metas.get(id), e.getValue(), sent, null,
+						activities.get(id).summarize(), depth, zone);
+				analyzed.put(id, r);
+				commentIndexStore.put(id, CommentIndex.build(e.getValue(), depth));
+				if (aiRetryQueue.schedule(id, r, e.getValue(), results.get(id).retryable(), zone))
+					handedOff.add(id);
+				snapshotStore.append(AnalysisSnapshot.ofVideo(id, r, now));
+			}
+			videoCache.putAll(analyzed);
+			analyzed.forEach((id, r) -> out.put(id, r.atDepth(limit)));
+		}
+		finally {
+			fetched.forEach((id, batch) -> {
+				if (!handedOff.contains(id))
+					batch.close();
+			});
+		}
+	}
+}
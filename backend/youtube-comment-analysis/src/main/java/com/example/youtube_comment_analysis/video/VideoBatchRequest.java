@@ -0,0 +1,7 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.List;
+
+public record VideoBatchRequest(List<String> videoIds) {
+
+}
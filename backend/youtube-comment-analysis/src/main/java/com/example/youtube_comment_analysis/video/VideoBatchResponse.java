@@ -0,0 +1,14 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.util.List;
+import java.util.Map;
+
+//여러 영상 일괄 분석 결과 (요청 순서 유지)
+public record VideoBatchResponse(
+		Map<String, VideoAnalysisResponse> videos,
+		List<String> notFound,            // /videos 조회에 없던 id
+		Map<String, String> failed,       // 영상별 오류 메시지 (댓글 비활성화 등)
+		int cacheHits,
+		int analyzed) {
+
+}
@@ -1,12 +1,25 @@
 package com.example.youtube_comment_analysis.video;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.youtube_comment_analysis.cache.AccessTracker;
+import com.example.youtube_comment_analysis.cache.CachedBody;
+import com.example.youtube_comment_analysis.cache.ResponseBodyCache;
+import com.example.youtube_comment_analysis.history.SnapshotStore;
+import com.example.youtube_comment_analysis.history.SnapshotTarget;
 
 import lombok.RequiredArgsConstructor;
 
@@ -16,6 +29,11 @@ import lombok.RequiredArgsConstructor;
 public class VideoController {
 
 	private final VideoService videoService;
+	private final VideoBatchAnalyzer videoBatchAnalyzer;
+	private final SnapshotStore snapshotStore;
+	private final AccessTracker accessTracker;
+	private final ResponseBodyCache bodyCache;
+	private final WatchlistService watchlistService;
 
 	// dev 쪽에서 추가된 환경설정 기반 기본 fetch 개수 (미설정 시 1000)
 	@Value("${app.youtube.fetch-count:1000}")
@@ -23,7 +41,84 @@ public class VideoController {
 
 	
 	@GetMapping("/{videoId}")
-	public ResponseEntity<?> getVideoData(@PathVariable("videoId") String videoId ) {
-		return ResponseEntity.ok(videoService.getVideoData(videoId, fetchCount));
+	public ResponseEntity<?> getVideoData(@PathVariable("videoId") String videoId,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		accessTracker.record(AccessTracker.Kind.VIDEO, videoId, fetchCount);
+		//캐시 히트면 저장된 본문 바이트를 그대로 응답 (객체 변환 없음), 미스면 분석 후 직렬화
+		CachedBody body = bodyCache.get(ResponseBodyCache.Kind.VIDEO, videoId);
+		if (body == null)
+			body = bodyCache.render(videoService.getVideoData(videoId, fetchCount));
+		return ResponseBodyCache.respond(body, ifNoneMatch, acceptEncoding);
+	}
+	
+	//여러 영상 일괄 분석 (캐시 히트는 그대로, 미스만 묶어서 분석)
+	@PostMapping("/batch")
+	public ResponseEntity<?> getVideoDataBatch(@RequestBody VideoBatchRequest request) {
+		if (request.videoIds() != null)
+			request.videoIds().forEach(id -> accessTracker.record(AccessTracker.Kind.VIDEO, id, fetchCount));
+		return ResponseEntity.ok(videoBatchAnalyzer.analyze(request.videoIds(), fetchCount));
+	}
+	
+	//댓글 작성 시각 분포: 저장된 UTC 히스토그램을 zone/bucket(ISO-8601 기간)으로 재집계
+	@GetMapping("/{videoId}/histogram")
+	public ResponseEntity<?> getVideoHistogram(@PathVariable("videoId") String videoId,
+			@RequestParam(name = "mode", defaultValue = "timeline") String mode,
+			@RequestParam(name = "zone", required = false) String zone,
+			@RequestParam(name = "bucket", required = false) String bucket) {
+		return ResponseEntity.ok(videoService.getHistogram(videoId, fetchCount, mode, zone, bucket));
+	}
+	
+	//분석된 댓글 검색/목록: q(부분 일치), sentiment(positive|neutral|negative), sort(likes|newest|oldest), 커서 페이지
+	@GetMapping("/{videoId}/comments")
+	public ResponseEntity<?> getVideoComments(@PathVariable("videoId") String videoId,
+			@RequestParam(name = "q", required = false) String q,
+			@RequestParam(name = "sentiment", required = false) String sentiment,
+			@RequestParam(name = "sort", defaultValue = "likes") String sort,
+			@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "size", defaultValue = "20") int size) {
+		return ResponseEntity.ok(videoService.searchComments(videoId, fetchCount, q, sentiment, sort, cursor, size));
+	}
+	
+	//분류된 댓글 전체 내보내기 (format: ndjson | csv, gzip 수용 시 압축), 댓글 인덱스에서 바로 씀
+	//인덱스가 없을 때의 분석은 응답 시작 전에 끝내 오류 상태를 그대로 돌려줌
+	@GetMapping("/{videoId}/export")
+	public ResponseEntity<?> exportVideoComments(@PathVariable("videoId") String videoId,
+			@RequestParam(name = "format", defaultValue = "ndjson") String format,
+			@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		CommentExportWriter.Format f = CommentExportWriter.Format.parse(format);
+		CommentIndex index = videoService.commentIndex(videoId, fetchCount);
+		return CommentExportWriter.respond("comments-" + videoId, f, acceptEncoding,
+				writer -> writer.write(videoId, index, fetchCount));
+	}
+	
+	//감시 목록: 등록하면 주기적으로 새 댓글만 분석해 누적 집계에 더함
+	@PostMapping("/{videoId}/watch")
+	public ResponseEntity<?> watchVideo(@PathVariable("videoId") String videoId) {
+		return ResponseEntity.ok(watchlistService.watch(videoId, fetchCount));
+	}
+	
+	@DeleteMapping("/{videoId}/watch")
+	public ResponseEntity<?> unwatchVideo(@PathVariable("videoId") String videoId) {
+		return watchlistService.unwatch(videoId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+	}
+	
+	@GetMapping("/watchlist")
+	public ResponseEntity<?> getWatchlist() {
+		return ResponseEntity.ok(watchlistService.list());
+	}
+	
+	//감시 영상 구독 (SSE): 연결 시 snapshot 1회, 이후 새 댓글이 반영될 때마다 update 이벤트
+	@GetMapping(path = "/{videoId}/watch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamWatch(@PathVariable("videoId") String videoId) {
+		return watchlistService.subscribe(videoId, fetchCount);
+	}
+	
+	//감정 추이: 과거 분석 스냅샷을 시간순으로 반환
+	@GetMapping("/{videoId}/trend")
+	public ResponseEntity<?> getVideoTrend(@PathVariable("videoId") String videoId,
+			@RequestParam(name = "from", required = false) String from,
+			@RequestParam(name = "to", required = false) String to) {
+		return ResponseEntity.ok(snapshotStore.trend(SnapshotTarget.VIDEO, videoId, from, to));
 	}
 }
\ No newline at end of file
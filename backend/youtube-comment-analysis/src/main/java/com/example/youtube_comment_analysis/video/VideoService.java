@@ -1,117 +1,237 @@
 package com.example.youtube_comment_analysis.video;
 
-import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.EnumMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.example.youtube_comment_analysis.ai.AiSender;
 import com.example.youtube_comment_analysis.ai.SendResult;
 import com.example.youtube_comment_analysis.cache.VideoCache;
+import com.example.youtube_comment_analysis.error.BadRequestException;
 import com.example.youtube_comment_analysis.error.CommentsDisabledException;
 import com.example.youtube_comment_analysis.error.ExternalServiceException;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
 import com.example.youtube_comment_analysis.error.VideoAnalysisException;
 import com.example.youtube_comment_analysis.error.VideoNotFoundException;
+import com.example.youtube_comment_analysis.history.AnalysisSnapshot;
+import com.example.youtube_comment_analysis.history.SnapshotStore;
+import com.example.youtube_comment_analysis.load.Bulkheads;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.netty.handler.timeout.TimeoutException;
 import lombok.extern.slf4j.Slf4j;
-import reactor.core.publisher.Mono;
 
 @Service
 @Slf4j
 public class VideoService {
 
-    private final WebClient yt;
+    private final YouTubeFetcher fetcher;
+    private final CommentSampler sampler;
+    private final DepthExtender depthExtender;
     private final AiSender aiSender;
     private final VideoCache videoCache;
-
-    public VideoService(@Qualifier("youtubeWebClient") WebClient yt, AiSender aiSender, VideoCache videoCache) {
-        this.yt = yt;
+    private final SnapshotStore snapshotStore;
+    private final Bulkheads bulkheads;
+    private final AiRetryQueue aiRetryQueue;
+    private final CommentIndexStore commentIndexStore;
+
+    public VideoService(YouTubeFetcher fetcher, CommentSampler sampler, DepthExtender depthExtender, AiSender aiSender,
+    		VideoCache videoCache, SnapshotStore snapshotStore, Bulkheads bulkheads, AiRetryQueue aiRetryQueue,
+    		CommentIndexStore commentIndexStore) {
+        this.fetcher = fetcher;
+        this.sampler = sampler;
+        this.depthExtender = depthExtender;
         this.aiSender = aiSender;
         this.videoCache=videoCache;
+        this.snapshotStore=snapshotStore;
+        this.bulkheads=bulkheads;
+        this.aiRetryQueue=aiRetryQueue;
+        this.commentIndexStore=commentIndexStore;
     }
 
-    @Value("${youtube.api.key}")
-    private String apikey;
+    // 활동 분석: 버스트 판정 창(분) / 기준선 대비 배수 / 최소 댓글 수 / 보관 버스트 수 / 기준선 반감기(분)
+    @Value("${app.activity.window-minutes:10}")
+    private int activityWindowMinutes;
+
+    @Value("${app.activity.burst-factor:4.0}")
+    private double activityBurstFactor;
+
+    @Value("${app.activity.min-burst-count:15}")
+    private int activityMinBurstCount;
+
+    @Value("${app.activity.max-bursts:5}")
+    private int activityMaxBursts;
+
+    @Value("${app.activity.baseline-half-life-minutes:360}")
+    private int activityBaselineHalfLifeMinutes;
+
+    // 시간대별 통계/활동 분석과 히스토그램 조회 기본값의 기준 시간대
+    @Value("${app.stats.zone:Asia/Seoul}")
+    private ZoneId statsZone;
+
+    // 더 깊게 분석할 때 같이 만들어 둘 얕은 깊이의 파생 결과 (채널 분석 200 등)
+    @Value("${app.cache.depth.views:200}")
+    private int[] depthViews;
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final int COMMENT_PAGE_MAX = 100;
     
-    // 캐시 우선 → 미스 시 로더 실행
+    // 캐시 우선 → 미스 시 로더 실행 (캐시 미스 분석만 입장 제어, 히트는 바로 반환)
+    // 캐시가 limit보다 얕으면 처음부터가 아니라 그 결과에 이어서 분석
     public VideoAnalysisResponse getVideoData(String videoId, int limit) {
-        return videoCache.getOrLoadVideoData(videoId, () -> fetchAndAnalyze(videoId, limit));
+        return videoCache.getOrLoadVideoData(videoId, limit,
+                shallower -> bulkheads.coldAnalysis().call(() -> analyzeOrExtend(videoId, shallower, limit)));
     }
     
+    // 선제 갱신(PrefetchScheduler): 캐시 히트 여부와 무관하게 다시 분석해 덮어씀 (캐시가 더 깊으면 그 깊이로)
+    public boolean refreshVideoData(String videoId, int limit) {
+        return videoCache.refresh(videoId, limit,
+                depth -> bulkheads.coldAnalysis().call(() -> fetchAndAnalyze(videoId, depth)));
+    }
+    
+    VideoAnalysisResponse analyzeOrExtend(String videoId, VideoAnalysisResponse shallower, int limit) {
+        if (shallower != null && shallower.depth() != null && shallower.depth().extendable(limit)) {
+            VideoAnalysisResponse extended = depthExtender.extend(videoId, shallower, limit, statsZone);
+            if (extended != null)
+                return extended;
+        }
+        return fetchAndAnalyze(videoId, limit);
+    }
+    
+    /**
+     * 저장된 UTC 히스토그램을 조회 시점에 원하는 시간대/구간 폭으로 다시 묶음 (재분석 없음)
+     * mode: timeline(현지 시각 타임라인) | time-of-day(하루 중 시간대) | since-publish(게시 후 경과)
+     */
+    public HistogramResponse getHistogram(String videoId, int limit, String mode, String zone, String bucket) {
+        String m = (mode == null || mode.isBlank()) ? "timeline" : mode.trim().toLowerCase();
+        ZoneId zoneId;
+        Duration width;
+        try {
+            zoneId = zone == null || zone.isBlank() ? statsZone : ZoneId.of(zone.trim());
+            width = (bucket == null || bucket.isBlank())
+                    ? switch (m) {
+                        case "time-of-day" -> Duration.ofHours(2);
+                        case "since-publish" -> Duration.ofDays(1);
+                        default -> Duration.ofHours(1);
+                    }
+                    : Duration.parse(bucket.trim());
+        }
+        catch (DateTimeException e) {
+            throw new BadRequestException("zone/bucket 형식 오류: " + e.getMessage(), e);
+        }
+
+        VideoAnalysisResponse analysis = getVideoData(videoId, limit);
+        TimeHistogram h = analysis.histogram() != null ? analysis.histogram() : TimeHistogram.empty();
+        List<TimeHistogram.Bucket> buckets = switch (m) {
+            case "timeline" -> h.timeline(zoneId, width);
+            case "time-of-day" -> h.timeOfDay(zoneId, width);
+            case "since-publish" -> {
+                String published = analysis.video() != null ? analysis.video().publishedAt() : null;
+                if (published == null)
+                    throw new BadRequestException("영상 게시 시각이 없어 since-publish 불가: " + videoId);
+                yield h.sincePublish(OffsetDateTime.parse(published).toInstant(), width);
+            }
+            default -> throw new BadRequestException("mode는 timeline | time-of-day | since-publish: " + mode);
+        };
+        return new HistogramResponse(videoId, m, zoneId.getId(), width.toString(), h.resolutionMinutes(), buckets);
+    }
+
+    /**
+     * 분석된 댓글 검색/목록: 영상별 인덱스에서 필터 + 정렬 + 커서 페이지 (재분석 없음)
+     * 이 인스턴스에 인덱스가 없을 때(축출/다른 인스턴스에서 분석)만 한 번 다시 분석해 만듦
+     */
+    public CommentSearchResponse searchComments(String videoId, int limit, String q, String sentiment,
+            String sort, String cursor, int size) {
+        Sentiment s;
+        CommentIndex.Sort order;
+        try {
+            s = (sentiment == null || sentiment.isBlank()) ? null : Sentiment.valueOf(sentiment.trim().toUpperCase());
+            order = (sort == null || sort.isBlank()) ? CommentIndex.Sort.LIKES : CommentIndex.Sort.valueOf(sort.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e) {
+            throw new BadRequestException("sentiment는 positive | neutral | negative, sort는 likes | newest | oldest");
+        }
+        int pageSize = Math.max(1, Math.min(COMMENT_PAGE_MAX, size));
+
+        CommentIndex index = commentIndex(videoId, limit);
+        CommentIndex.Page page = index.query(q, s, order, cursor, pageSize, limit);
+        return new CommentSearchResponse(videoId, q, s == null ? null : s.name(), order.name(),
+                index.size(limit), page.totalMatches(), page.items(), page.nextCursor());
+    }
+
+    /**
+     * limit개 스레드 요청에 답할 수 있는 댓글 인덱스 (검색/내보내기 공용, 인덱스는 읽기 전용이라 축출돼도 그대로 씀)
+     * 인덱스가 없거나 요청보다 얕게 만든 것이면 limit 깊이로 다시 분석 (더 깊은 인덱스는 스레드 순번으로 걸러 씀)
+     * 표본 모드 영상은 표본으로 만든 인덱스, AI 재시도 대기 중이면 미분류 댓글이 섞인 인덱스
+     */
+    public CommentIndex commentIndex(String videoId, int limit) {
+        CommentIndex index = commentIndexStore.get(videoId);
+        if (index == null || !index.covers(limit)) {
+            if (!refreshVideoData(videoId, limit))
+                bulkheads.coldAnalysis().call(() -> fetchAndAnalyze(videoId, limit)); // 다른 곳에서 계산 중(락)
+            index = commentIndexStore.get(videoId);
+            if (index == null || !index.covers(limit))
+                throw new VideoAnalysisException("댓글 인덱스를 만들지 못함: videoId=" + videoId);
+        }
+        return index;
+    }
+
     //L2 미스일 때만 수행: YouTube 메타/댓글 수집 → AI 호출 → 통계 계산 → 대표 댓글 포함 응답 생성 
     private VideoAnalysisResponse fetchAndAnalyze(String videoId, int fetchCount) {
+        CommentBatch comments = null;
+        boolean retrying = false;
         try {
             //영상 메타 데이터 조회
-            String videoJson = yt.get()
-                .uri(b -> b.path("/videos")
-                    .queryParam("part", "id,snippet,statistics")
-                    .queryParam("id", videoId)
-                    .queryParam("key", apikey)
-                    .build())
-                .retrieve()
-                .onStatus(HttpStatusCode::is4xxClientError, res ->
-                    res.bodyToMono(String.class).map(body ->
-                        new ExternalServiceException("YouTube 4xx on /videos: " + body, null)))
-                .onStatus(HttpStatusCode::is5xxServerError, res ->
-                    res.bodyToMono(String.class).map(body ->
-                        new ExternalServiceException("YouTube 5xx on /videos: " + body, null)))
-                .bodyToMono(String.class)
-                .block();
-
-            JsonNode vroot = mapper.readTree(videoJson);
-            JsonNode vitems = vroot.path("items");
-            if (!vitems.isArray() || vitems.size() == 0) {
-                throw new VideoNotFoundException("비디오를 찾지 못함: videoId=" + videoId);
+            VideoMeta meta = fetcher.fetchVideoMeta(videoId);
+
+            SendResult sendResult;
+            SamplingSummary sampling = null;
+            String nextPageToken = null;
+            //활동 분석은 페이지를 읽는 동안 같이 계산
+            ActivityAnalyzer activity = newActivityAnalyzer();
+            if (sampler.applies(meta)) {
+                //댓글이 매우 많은 영상: 전체 기간에 걸친 표본만 AI로 보내고 신뢰구간 도달 시 조기 종료
+                CommentSampler.SampledAnalysis sampled = sampler.analyze(videoId, meta.commentCount(), activity);
+                comments = sampled.comments();
+                sendResult = sampled.result();
+                sampling = sampled.summary();
             }
-            VideoMeta meta = parseVideoMeta(videoJson);
-
-            //댓글 수집 (최대 fetchCount)
-            List<CommentDto> comments = fetchComments(videoId, fetchCount);
-            int beforeBot = comments.size();
-
-            //AI 호출 (AiSender가 감정별 top-10만 comments로 돌려줌)
-            SendResult sendResult = aiSender.send(comments);
-
-            // 통계
-            ZoneId zone = ZoneId.of("Asia/Seoul");
-            StatsDto stats = buildStats(comments, zone);
-            int afterBot = sendResult.comments().size();
-
-            return new VideoAnalysisResponse(
-                meta,
-                sendResult.comments(),
-                sendResult.topKeywordGlobal(),
-                stats,
-                beforeBot,
-                afterBot,
-                sendResult.POSITIVE(),
-                sendResult.NEUTRAL(),
-                sendResult.NEGATIVE()
-            );
+            else {
+                //댓글 수집 (최대 fetchCount)
+                YouTubeFetcher.Fetched fetched = fetcher.fetchComments(videoId, fetchCount, activity, null);
+                comments = fetched.comments();
+                nextPageToken = fetched.nextPageToken();
+
+                //AI 호출 (감정 결과는 배치 라벨 열에, 응답용으로는 감정별 top-10만 DTO로 돌려줌)
+                sendResult = aiSender.send(comments);
+            }
+            ZoneId zone = statsZone;
+            //얕은 깊이 파생 결과는 AI 분류가 끝난 결과에서만 (재시도 대기 중이면 짧은 TTL이라 생략)
+            AnalysisDepth depth = sampling != null ? AnalysisDepth.sampled()
+                    : AnalysisDepth.of(fetchCount, nextPageToken,
+                            sendResult.retryable().isEmpty() ? depthViews(comments, fetchCount, zone) : List.of());
+            VideoAnalysisResponse result = toResponse(meta, comments, sendResult, sampling, activity.summarize(), depth, zone);
+
+            //댓글 검색/페이지 조회용 인덱스 (응답에는 감정별 top 10만 실림)
+            commentIndexStore.put(videoId, CommentIndex.build(comments, depth));
+
+            //실패한 AI 배치가 있으면 부분 결과로 캐시(짧은 TTL)하고 실패분만 백그라운드 재시도
+            retrying = aiRetryQueue.schedule(videoId, result, comments, sendResult.retryable(), zone);
+
+            //추이 조회용 스냅샷 기록
+            snapshotStore.append(AnalysisSnapshot.ofVideo(videoId, result, System.currentTimeMillis()));
+            return result;
         }
         catch (WebClientResponseException e) { // HTTP status 있는 오류
             throw new ExternalServiceException("YouTube 응답 오류: " + e.getRawStatusCode() + " " + e.getStatusText(), e);
@@ -131,187 +251,95 @@ public class VideoService {
         catch (CommentsDisabledException e) {
             throw e; //댓글이 막힌 영상 403에러로
         }
+        catch (TooManyRequestsException e) {
+            throw e; //격벽 포화 429로
+        }
         catch (Exception e) {
             // 파싱/로직 등 나머지 내부 오류
             throw new VideoAnalysisException("영상 분석 중 내부 오류", e);
         }
-    }
-
-    /** YouTube commentThreads 페이징 수집 */
-    private List<CommentDto> fetchComments(String videoId, int maxCount) {
-        List<CommentDto> comments = new ArrayList<>();
-        String pageToken = null;
-        int remain = Math.max(0, maxCount);
-
-        while (remain > 0) {
-            int pageSize = Math.min(100, remain);
-            final String token = pageToken;
-
-            String ctJson = yt.get()
-                .uri(b -> b.path("/commentThreads")
-                    .queryParam("part", "snippet,replies")
-                    .queryParam("textFormat", "plainText")
-                    .queryParam("order", "time")
-                    .queryParam("maxResults", pageSize)
-                    .queryParam("videoId", videoId)
-                    .queryParam("key", apikey)
-                    .queryParamIfPresent("pageToken", Optional.ofNullable(token))
-                    .build())
-                .retrieve()
-                .onStatus(status -> status.value() == 403, res ->
-                    Mono.error(new CommentsDisabledException("댓글 비활성화 영상: " + videoId)))
-                .onStatus(HttpStatusCode::is4xxClientError, res ->
-                    res.bodyToMono(String.class).map(body ->
-                        new ExternalServiceException("YouTube 4xx on /commentThreads: " + body, null)))
-                .onStatus(HttpStatusCode::is5xxServerError, res ->
-                    res.bodyToMono(String.class).map(body ->
-                        new ExternalServiceException("YouTube 5xx on /commentThreads: " + body, null)))
-                .bodyToMono(String.class)
-                .block();
-
-            try {
-                JsonNode croot = mapper.readTree(ctJson);
-                JsonNode citems = croot.path("items");
-
-                if (citems.isArray()) {
-                    for (JsonNode it : citems) {
-                        JsonNode top = it.path("snippet").path("topLevelComment");
-                        String commentId = top.path("id").asText();
-                        JsonNode cs = top.path("snippet");
-                        String author = cs.path("authorDisplayName").asText(null);
-                        String text = cs.path("textDisplay").asText(null);
-                        long likeCount = cs.path("likeCount").asLong(0);
-                        String publishedAt = cs.path("publishedAt").asText(null);
-                        Integer prediction = 0;
-
-                        if (commentId != null) {
-                            comments.add(new CommentDto(commentId, author, text, likeCount, publishedAt, prediction));
-                        }
-                    }
-                }
-
-                pageToken = croot.path("nextPageToken").isMissingNode() ? null : croot.path("nextPageToken").asText(null);
-            } catch (IOException e) {
-                throw new VideoAnalysisException("댓글 JSON 파싱 오류", e);
-            }
-
-            remain -= pageSize;
-            if (pageToken == null) break;
+        finally {
+            //재시도 대기열로 넘긴 배치는 대기열이 닫음
+            if (comments != null && !retrying)
+                comments.close();
         }
-        return comments;
     }
 
-   
-    
-    private VideoMeta parseVideoMeta(String videoJson) {
-        try {
-            JsonNode root = mapper.readTree(videoJson);
-            JsonNode item = (root.path("items").isArray() && root.path("items").size() > 0)
-                    ? root.path("items").get(0) : mapper.createObjectNode();
-
-            JsonNode snippet = item.path("snippet");
-            JsonNode stats   = item.path("statistics");
-            
-            String id=item.path("id").asText(null);
-
-            String title        = snippet.path("title").asText(null);
-            String channelId    = snippet.path("channelId").asText(null);
-            String channelTitle = snippet.path("channelTitle").asText(null);
-            String publishedAt  = snippet.path("publishedAt").asText(null);
-            String thumbnails = snippet.path("thumbnails").path("high").path("url").asText(null);
-            String description=snippet.path("description").asText(null);
-
-            Long viewCount    = stats.path("viewCount").isMissingNode() ? null : stats.path("viewCount").asLong();
-            Long likeCount    = stats.path("likeCount").isMissingNode() ? null : stats.path("likeCount").asLong();
-            Long commentCount = stats.path("commentCount").isMissingNode() ? null : stats.path("commentCount").asLong();
-
-            return new VideoMeta(id,title, channelId, channelTitle, publishedAt, viewCount, likeCount, commentCount,thumbnails,description);
-        } catch (Exception e) {
-            log.error("video meta parse error", e);
-            return new VideoMeta(null ,null, null, null, null, null, null, null,null,null);
-        }
+    VideoAnalysisResponse toResponse(VideoMeta meta, CommentBatch comments, SendResult sendResult,
+            SamplingSummary sampling, ActivitySummary activity, AnalysisDepth depth, ZoneId zone) {
+        int beforeBot = comments.size();
+
+        // 통계
+        StatsDto stats = buildStats(comments, zone);
+        int afterBot = sendResult.comments().size();
+
+        return new VideoAnalysisResponse(
+            meta,
+            sendResult.comments(),
+            sendResult.topKeywordGlobal(),
+            stats,
+            beforeBot,
+            afterBot,
+            sendResult.POSITIVE(),
+            sendResult.NEUTRAL(),
+            sendResult.NEGATIVE(),
+            sendResult.dedup(),
+            sampling,
+            TimeHistogram.of(comments),
+            activity,
+            AnalysisCompleteness.of(sendResult.totalComments(), sendResult.retryable().size(),
+                    sendResult.rejectedComments()),
+            AuthorStats.of(comments),
+            sendResult.spamClusters(),
+            depth
+        );
     }
 
-    //댓글 활동 분석
-    public AnalysisDto analyzeCommentsActivity(List<CommentDto> comments) {
-        
-        if (comments == null || comments.isEmpty()) {
-            return AnalysisDto.builder()
-                    .hourlyCommentCount(List.of(new Integer[24])) // 24시간 0으로 초기화
-                    .peakHour(0)
-                    .topActiveHours(new ArrayList<>())
-                    .totalCommentPeriod("데이터 없음")
-                    .averageCommentsPerHour(0.0)
-                    .build();
+    //설정된 얕은 깊이(app.cache.depth.views)별 파생 결과, 실제로 그보다 많은 스레드를 읽은 경우만
+    List<DepthView> depthViews(CommentBatch comments, int limit, ZoneId zone) {
+        int threads = 0;
+        for (int r = 0; r < comments.size(); r++)
+            threads = Math.max(threads, comments.thread(r) + 1);
+        List<DepthView> views = new ArrayList<>();
+        for (int d : Arrays.stream(depthViews).distinct().sorted().toArray()) {
+            if (d > 0 && d < limit && d < threads)
+                views.add(DepthView.of(comments, d, zone));
         }
+        return views;
+    }
 
-        int[] hourlyCounts = new int[24];
-        LocalDateTime firstCommentTime = null;
-        LocalDateTime lastCommentTime = null;
-
-        for (CommentDto comment : comments) {
-            LocalDateTime publishedAt = LocalDateTime.parse(comment.getPublishedAt(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            int hour = publishedAt.getHour();
-            hourlyCounts[hour]++;
-
-            if (firstCommentTime == null || publishedAt.isBefore(firstCommentTime)) {
-                firstCommentTime = publishedAt;
-            }
-            if (lastCommentTime == null || publishedAt.isAfter(lastCommentTime)) {
-                lastCommentTime = publishedAt;
-            }
-        }
+    ZoneId statsZone() {
+        return statsZone;
+    }
 
-        // 최다 댓글 시간
-        int peakHour = IntStream.range(0, 24)
-                .boxed()
-                .max(Comparator.comparingInt(h -> hourlyCounts[h]))
-                .orElse(0);
-
-        // 활동 많은 상위 3개 시간대
-        List<Integer> topActiveHours = IntStream.range(0, 24)
-                .boxed()
-                .sorted((h1, h2) -> Integer.compare(hourlyCounts[h2], hourlyCounts[h1]))
-                .limit(3)
-                .collect(Collectors.toList());
-
-        // 댓글 작성 기간
-        Duration duration = Duration.between(firstCommentTime, lastCommentTime);
-        String totalCommentPeriod = String.format("%d일 %d시간", duration.toDays(), duration.toHours() % 24);
-
-        // 시간당 평균 댓글 수
-        double totalHours = duration.toSeconds() / 3600.0;
-        double averageCommentsPerHour = (totalHours > 0) ? (double) comments.size() / totalHours : 0;
-
-        return AnalysisDto.builder()
-                .hourlyCommentCount(IntStream.of(hourlyCounts).boxed().collect(Collectors.toList()))
-                .peakHour(peakHour)
-                .topActiveHours(topActiveHours)
-                .totalCommentPeriod(totalCommentPeriod)
-                .averageCommentsPerHour(averageCommentsPerHour)
-                .build();
+    ActivityAnalyzer newActivityAnalyzer() {
+        return new ActivityAnalyzer(statsZone, activityWindowMinutes, activityBurstFactor,
+                activityMinBurstCount, activityMaxBursts, activityBaselineHalfLifeMinutes);
     }
 
-    public static StatsDto buildStats(List<CommentDto> comments, ZoneId zone) {
+    public static StatsDto buildStats(CommentBatch comments, ZoneId zone) {
         StatsDto stats = new StatsDto();
-
-        // 감정별 TOP 좋아요 추적용
-        Map<Sentiment, Integer> topLikes = new EnumMap<>(Sentiment.class);
-        for (Sentiment s : Sentiment.values()) topLikes.put(s, Integer.MIN_VALUE);
-
-        for (CommentDto c : comments) {
-        	Integer p = c.getPrediction();
-            if (p == null) continue;
+        stats.setZone(zone.getId());
+        ZoneRules rules = zone.getRules();
+
+        // 감정별 TOP 좋아요 추적용 (행 번호만 들고 있다가 마지막에 DTO 1개씩)
+        long[] topLikes = new long[Sentiment.values().length];
+        int[] topRows = new int[Sentiment.values().length];
+        Arrays.fill(topLikes, Long.MIN_VALUE);
+        Arrays.fill(topRows, -1);
+
+        for (int r = 0; r < comments.size(); r++) {
+            // 미분류(봇 제외/AI 실패)는 통계에서 빠짐
+            if (!comments.isLabeled(r)) continue;
             // 1) 감정 매핑 (AI 기준: 0=부정, 1=중립, 2=긍정)
-            Sentiment s = Sentiment.fromPrediction(c.getPrediction());
+            Sentiment s = Sentiment.fromPrediction(comments.label(r));
             stats.incTotal(s);
 
             // 2) 시간대 버킷 (2시간 단위) — “02시 라벨은 00:00~01:59”
-            // publishedAt: UTC ISO-8601 가정
-            if (c.getPublishedAt() != null) {
-                LocalDateTime local = OffsetDateTime.parse(c.getPublishedAt())
-                        .atZoneSameInstant(zone)
-                        .toLocalDateTime();
+            if (comments.hasTime(r)) {
+                long epoch = comments.epochSecond(r);
+                LocalDateTime local = LocalDateTime.ofEpochSecond(epoch, 0,
+                        rules.getOffset(Instant.ofEpochSecond(epoch)));
 
                 int hour = local.getHour();               // 0~23
                 int label = ((hour / 2) + 1) * 2;         // 2,4,...,24
@@ -322,12 +350,16 @@ public class VideoService {
             }
 
             // 3) 감정별 좋아요 최댓값 댓글
-            int likes = (c.getLikeCount() == null) ? 0 : c.getLikeCount().intValue();
-            if (likes > topLikes.get(s)) {
-                topLikes.put(s, likes);
-                stats.getTopLikedBySentiment().put(s, c);
+            long likes = comments.likes(r);
+            if (likes > topLikes[s.ordinal()]) {
+                topLikes[s.ordinal()] = likes;
+                topRows[s.ordinal()] = r;
             }
         }
+        for (Sentiment s : Sentiment.values()) {
+            if (topRows[s.ordinal()] >= 0)
+                stats.getTopLikedBySentiment().put(s, comments.toDto(topRows[s.ordinal()]));
+        }
         return stats;
     }
 }
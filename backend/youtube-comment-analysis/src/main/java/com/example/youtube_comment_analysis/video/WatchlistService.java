@@ -0,0 +1,353 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.youtube_comment_analysis.ai.AiSender;
+import com.example.youtube_comment_analysis.ai.KeywordCount;
+import com.example.youtube_comment_analysis.ai.SendResult;
+import com.example.youtube_comment_analysis.error.BadRequestException;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+//감시 목록: 등록한 영상은 주기적으로 새 댓글만 가져와(최신순 페이징, 이미 본 댓글에서 중단) AI로 보내고 누적 집계에 더함
+//- 시작 집계는 일반 분석 결과(캐시 우선), 경계는 그 분석의 마지막 댓글 시각과 그 초에 쓰인 댓글 id(댓글 인덱스) → 이후 댓글만 증분
+//- 시작 집계가 표본 모드면 표본 개수 + 실측 증분의 합이라 baseline/estimated로 구분해 알림
+//- 구독자(SSE)에게 새 댓글이 반영될 때마다 누적 집계를 push
+//- 인스턴스 메모리에만 보관 (재시작 시 다시 등록), 영상 캐시/검색 인덱스는 건드리지 않음
+@Component
+@Slf4j
+public class WatchlistService {
+
+	private final VideoService videoService;
+	private final YouTubeFetcher fetcher;
+	private final AiSender aiSender;
+	private final Bulkheads bulkheads;
+
+	@Value("${app.watch.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.watch.max-videos:50}")
+	private int maxVideos;
+
+	@Value("${app.watch.max-new-per-poll:1000}")
+	private int maxNewPerPoll;
+
+	@Value("${app.watch.max-pending-retry:1000}")
+	private int maxPendingRetry;
+
+	@Value("${app.watch.sse-timeout-ms:1800000}")
+	private long sseTimeoutMs;
+
+	private static final int TOP_KEYWORDS = 5;
+	private static final int MAX_TRACKED_KEYWORDS = 1000;
+
+	//감시 시작 시점 집계, sampling이 있으면 영상 전체가 아니라 표본의 개수 (비율/신뢰구간은 sampling)
+	public record Baseline(
+			long comments,
+			long POSITIVE,
+			long NEUTRAL,
+			long NEGATIVE,
+			SamplingSummary sampling) {}
+
+	//누적 집계 (push/조회 공통), truncated: 마지막 회차에 상한에 걸려 경계까지 못 읽음(사이 댓글 누락 가능)
+	//estimated: 누적 개수가 표본 시작 집계 + 실측 증분의 합 (실측 증분만 보려면 누적 - baseline)
+	public record WatchUpdate(
+			String videoId,
+			String watchedSince,
+			String lastPolledAt,
+			String newestCommentAt,
+			String newestCommentId,
+			int polls,
+			int lastNewComments,
+			boolean truncated,
+			long totalComments,
+			long POSITIVE,
+			long NEUTRAL,
+			long NEGATIVE,
+			boolean estimated,
+			Baseline baseline,
+			int pendingComments,
+			List<KeywordCount> topKeywordGlobal,
+			List<CommentDto> comments,
+			int subscribers,
+			String lastError) {}
+
+	//영상 1개 감시 상태, 필드는 this 잠금 안에서만 읽고 씀 (구독자 목록 제외)
+	private static final class Watch {
+		final String videoId;
+		final long watchedSince = System.currentTimeMillis();
+		final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+		long newestEpoch;
+		String newestCommentId;
+		Set<String> idsAtNewest = new HashSet<>();
+
+		long total, pos, neu, neg;
+		Baseline baseline;
+		Map<String, Integer> keywords = new HashMap<>();
+		List<CommentDto> top = List.of();
+		List<CommentDto> pendingRetry = List.of();
+
+		int polls;
+		long lastPolledAt;
+		int lastNew;
+		boolean truncated;
+		String lastError;
+
+		Watch(String videoId) {
+			this.videoId = videoId;
+		}
+	}
+
+	private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+	public WatchlistService(VideoService videoService, YouTubeFetcher fetcher, AiSender aiSender, Bulkheads bulkheads) {
+		this.videoService = videoService;
+		this.fetcher = fetcher;
+		this.aiSender = aiSender;
+		this.bulkheads = bulkheads;
+	}
+
+	@PreDestroy
+	void stop() {
+		watches.values().forEach(w -> w.subscribers.forEach(SseEmitter::complete));
+	}
+
+	//감시 등록 (이미 있으면 현재 상태), 시작 집계는 일반 분석 결과
+	public WatchUpdate watch(String videoId, int limit) {
+		Watch existing = watches.get(videoId);
+		if (existing != null)
+			return snapshot(existing);
+		if (watches.size() >= maxVideos)
+			throw new BadRequestException("감시 목록은 최대 " + maxVideos + "개까지 가능");
+
+		//인덱스를 먼저 (없으면 다시 분석해 캐시도 채움) → 이어지는 조회는 같은 분석 결과
+		CommentIndex index = videoService.commentIndex(videoId, limit);
+		VideoAnalysisResponse base = videoService.getVideoData(videoId, limit);
+		Watch w = new Watch(videoId);
+		synchronized (w) {
+			String last = base.activity() == null ? null : base.activity().lastCommentAt();
+			//댓글이 없던 영상은 처음부터 (회차당 상한까지)
+			w.newestEpoch = last == null ? Long.MIN_VALUE : Instant.parse(last).getEpochSecond();
+			//경계 초에 이미 센 댓글은 첫 회차에서 다시 세지 않도록
+			if (last != null)
+				w.idsAtNewest = index.idsAt(w.newestEpoch);
+			w.total = base.commentCountBeforeBot();
+			w.pos = base.POSITIVE();
+			w.neu = base.NEUTRAL();
+			w.neg = base.NEGATIVE();
+			w.baseline = new Baseline(w.total, w.pos, w.neu, w.neg, base.sampling());
+			w.top = base.comments() == null ? List.of() : base.comments();
+			if (base.topKeywordGlobal() != null)
+				mergeKeywords(w, base.topKeywordGlobal());
+		}
+		Watch prev = watches.putIfAbsent(videoId, w);
+		if (prev != null)
+			return snapshot(prev);
+		if (base.sampling() != null)
+			log.info("감시 등록 videoId={} since={} 시작 집계는 표본 {}개 (전체 {}개)", videoId, w.newestEpoch,
+					base.sampling().sampleSize(), base.sampling().totalComments());
+		else
+			log.info("감시 등록 videoId={} since={}", videoId, w.newestEpoch);
+		return snapshot(w);
+	}
+
+	public boolean unwatch(String videoId) {
+		Watch w = watches.remove(videoId);
+		if (w == null)
+			return false;
+		w.subscribers.forEach(SseEmitter::complete);
+		return true;
+	}
+
+	public List<WatchUpdate> list() {
+		return watches.values().stream().map(this::snapshot).toList();
+	}
+
+	//구독: 감시 중이 아니면 등록부터, 연결 직후 현재 상태를 snapshot 이벤트로 1회 보냄
+	public SseEmitter subscribe(String videoId, int limit) {
+		watch(videoId, limit);
+		Watch w = watches.get(videoId);
+		if (w == null)
+			throw new BadRequestException("감시가 해제된 영상: " + videoId);
+		SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+		emitter.onCompletion(() -> w.subscribers.remove(emitter));
+		emitter.onTimeout(() -> w.subscribers.remove(emitter));
+		emitter.onError(e -> w.subscribers.remove(emitter));
+		w.subscribers.add(emitter);
+		send(w, emitter, "snapshot", snapshot(w));
+		return emitter;
+	}
+
+	@Scheduled(fixedDelayString = "${app.watch.interval-ms:60000}",
+			initialDelayString = "${app.watch.interval-ms:60000}")
+	public void poll() {
+		if (!enabled)
+			return;
+		for (Watch w : watches.values()) {
+			try {
+				//사용자 요청과 같은 cold-analysis 격벽 (포화면 이번 회차 중단)
+				bulkheads.coldAnalysis().run(() -> pollOnce(w));
+			}
+			catch (TooManyRequestsException e) {
+				log.info("감시 갱신 중단(격벽 포화): {}", e.getMessage());
+				break;
+			}
+			catch (Exception e) {
+				synchronized (w) {
+					w.lastError = e.getMessage();
+				}
+				log.warn("감시 갱신 실패 videoId={}", w.videoId, e);
+			}
+		}
+	}
+
+	private void pollOnce(Watch w) {
+		long since;
+		Set<String> seenAtSince;
+		List<CommentDto> retry;
+		synchronized (w) {
+			since = w.newestEpoch;
+			seenAtSince = Set.copyOf(w.idsAtNewest);
+			retry = w.pendingRetry;
+			w.pendingRetry = List.of();
+		}
+
+		try (CommentBatch fresh = fetcher.fetchCommentsSince(w.videoId, since, seenAtSince, maxNewPerPoll)) {
+			int newCount = fresh.size();
+
+			//경계 갱신: 새 댓글 중 가장 최근 시각과 그 초에 쓰인 id들 (최신순이라 처음 나온 최댓값이 최신 댓글)
+			long newest = since;
+			String newestId = null;
+			Set<String> atNewest = new HashSet<>(seenAtSince);
+			for (int r = 0; r < newCount; r++) {
+				long e = fresh.epochSecond(r);
+				if (e > newest) {
+					newest = e;
+					newestId = fresh.commentId(r);
+					atNewest.clear();
+				}
+				if (e == newest)
+					atNewest.add(fresh.commentId(r));
+			}
+
+			//지난 회차에 AI 실패로 남은 댓글도 같이 보냄 (총 댓글 수에는 이미 포함)
+			for (CommentDto c : retry)
+				fresh.add(c);
+			SendResult result = fresh.size() == 0 ? null : aiSender.send(fresh);
+
+			boolean truncated = newCount >= maxNewPerPoll;
+			WatchUpdate update;
+			synchronized (w) {
+				if (!watches.containsKey(w.videoId))
+					return;
+				w.newestEpoch = newest;
+				if (newestId != null)
+					w.newestCommentId = newestId;
+				w.idsAtNewest = atNewest;
+				w.total += newCount;
+				w.polls++;
+				w.lastPolledAt = System.currentTimeMillis();
+				w.lastNew = newCount;
+				w.truncated = truncated;
+				w.lastError = null;
+				if (result != null) {
+					w.pos += result.POSITIVE();
+					w.neu += result.NEUTRAL();
+					w.neg += result.NEGATIVE();
+					mergeKeywords(w, result.topKeywordGlobal());
+					List<CommentDto> tops = new ArrayList<>(w.top);
+					tops.addAll(result.comments());
+					w.top = AiSender.getGlobalComments(tops);
+					List<CommentDto> pending = result.retryable();
+					w.pendingRetry = pending.size() > maxPendingRetry ? List.copyOf(pending.subList(0, maxPendingRetry)) : pending;
+				}
+				update = snapshot(w);
+			}
+			if (truncated)
+				log.warn("감시 갱신 상한 도달 videoId={} new={} (이전 댓글과 사이 누락 가능)", w.videoId, newCount);
+			if (result != null)
+				push(w, update);
+		}
+		catch (RuntimeException e) {
+			//수집/전송 실패면 재시도 대기분을 되돌려 다음 회차에 다시
+			synchronized (w) {
+				if (w.pendingRetry.isEmpty())
+					w.pendingRetry = retry;
+			}
+			throw e;
+		}
+	}
+
+	//회차별 상위 키워드를 누적 (항목 수가 많아지면 상위만 남김)
+	private static void mergeKeywords(Watch w, List<KeywordCount> add) {
+		for (KeywordCount kc : add) {
+			if (kc != null && kc.keyword() != null)
+				w.keywords.merge(kc.keyword().trim(), Math.max(0, kc.count()), Integer::sum);
+		}
+		if (w.keywords.size() > MAX_TRACKED_KEYWORDS) {
+			Map<String, Integer> kept = new HashMap<>();
+			for (KeywordCount kc : AiSender.getGlobalKeyword(w.keywords, MAX_TRACKED_KEYWORDS / 2))
+				kept.put(kc.keyword(), kc.count());
+			w.keywords = kept;
+		}
+	}
+
+	private WatchUpdate snapshot(Watch w) {
+		synchronized (w) {
+			return new WatchUpdate(
+					w.videoId,
+					Instant.ofEpochMilli(w.watchedSince).toString(),
+					w.lastPolledAt == 0 ? null : Instant.ofEpochMilli(w.lastPolledAt).toString(),
+					w.newestEpoch == Long.MIN_VALUE ? null : Instant.ofEpochSecond(w.newestEpoch).toString(),
+					w.newestCommentId,
+					w.polls,
+					w.lastNew,
+					w.truncated,
+					w.total,
+					w.pos,
+					w.neu,
+					w.neg,
+					w.baseline.sampling() != null,
+					w.baseline,
+					w.pendingRetry.size(),
+					AiSender.getGlobalKeyword(w.keywords, TOP_KEYWORDS),
+					w.top,
+					w.subscribers.size(),
+					w.lastError);
+		}
+	}
+
+	private void push(Watch w, WatchUpdate update) {
+		for (SseEmitter emitter : w.subscribers)
+			send(w, emitter, "update", update);
+	}
+
+	//끊긴 구독자는 목록에서 제거
+	private static void send(Watch w, SseEmitter emitter, String event, WatchUpdate update) {
+		try {
+			emitter.send(SseEmitter.event().name(event).data(update));
+		}
+		catch (IOException | IllegalStateException e) {
+			w.subscribers.remove(emitter);
+			emitter.completeWithError(e);
+		}
+	}
+}
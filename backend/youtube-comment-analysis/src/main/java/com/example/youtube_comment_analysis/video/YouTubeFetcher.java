@@ -0,0 +1,447 @@
+package com.example.youtube_comment_analysis.video;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.example.youtube_comment_analysis.error.CommentsDisabledException;
+import com.example.youtube_comment_analysis.error.ExternalServiceException;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+import com.example.youtube_comment_analysis.error.VideoAnalysisException;
+import com.example.youtube_comment_analysis.error.VideoNotFoundException;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+//YouTube Data API 수집: /videos 메타, commentThreads 페이징(답글 확장 포함)을 댓글 배치로
+//- 전수/표본/이어서 분석/일괄 분석/감시 목록이 같이 씀, 모든 호출은 youtube 격벽 안
+//- HTTP 오류는 여기서 도메인 예외로 바꿈 (403 댓글 비활성화, 4xx/5xx는 ExternalServiceException)
+@Component
+@Slf4j
+public class YouTubeFetcher {
+
+	private final WebClient yt;
+	private final Bulkheads bulkheads;
+
+	public YouTubeFetcher(@Qualifier("youtubeWebClient") WebClient yt, Bulkheads bulkheads) {
+		this.yt = yt;
+		this.bulkheads = bulkheads;
+	}
+
+	@Value("${youtube.api.key}")
+	private String apikey;
+
+	// 답글 포함 분석 여부 / 답글 확장 병렬도 / 스레드당 최대 답글 수
+	@Value("${app.youtube.include-replies:false}")
+	private boolean includeReplies;
+
+	@Value("${app.youtube.reply-concurrency:4}")
+	private int replyConcurrency;
+
+	@Value("${app.youtube.max-replies-per-thread:100}")
+	private int maxRepliesPerThread;
+
+	// 댓글 배치: 본문이 이 글자 수를 넘으면 나머지 본문은 임시 파일로
+	@Value("${app.comment-batch.spill-threshold-chars:4194304}")
+	private long batchSpillThresholdChars;
+
+	@Value("${app.comment-batch.spill-dir:${java.io.tmpdir}}")
+	private String batchSpillDir;
+
+	// YouTube /videos 는 id 최대 50개까지 한 번에 조회 가능
+	private static final int VIDEOS_IDS_PER_CALL = 50;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	/** 영상 1개 메타, 없는 영상은 VideoNotFoundException */
+	VideoMeta fetchVideoMeta(String videoId) {
+		String videoJson = bulkheads.youtube().call(() -> yt.get()
+			.uri(b -> b.path("/videos")
+				.queryParam("part", "id,snippet,statistics")
+				.queryParam("id", videoId)
+				.queryParam("key", apikey)
+				.build())
+			.retrieve()
+			.onStatus(HttpStatusCode::is4xxClientError, res ->
+				res.bodyToMono(String.class).map(body ->
+					new ExternalServiceException("YouTube 4xx on /videos: " + body, null)))
+			.onStatus(HttpStatusCode::is5xxServerError, res ->
+				res.bodyToMono(String.class).map(body ->
+					new ExternalServiceException("YouTube 5xx on /videos: " + body, null)))
+			.bodyToMono(String.class)
+			.block());
+
+		JsonNode vitems;
+		try {
+			vitems = mapper.readTree(videoJson).path("items");
+		}
+		catch (IOException e) {
+			throw new VideoAnalysisException("영상 메타 JSON 파싱 오류", e);
+		}
+		if (!vitems.isArray() || vitems.size() == 0) {
+			throw new VideoNotFoundException("비디오를 찾지 못함: videoId=" + videoId);
+		}
+		return parseVideoMeta(videoJson);
+	}
+
+	/** /videos 를 최대 50개 id씩 묶어 조회, 응답에 없는 id는 결과에서 빠짐 */
+	Map<String, VideoMeta> fetchVideoMetas(List<String> videoIds) {
+		Map<String, VideoMeta> metas = new HashMap<>();
+		for (int from = 0; from < videoIds.size(); from += VIDEOS_IDS_PER_CALL) {
+			String joined = String.join(",", videoIds.subList(from, Math.min(videoIds.size(), from + VIDEOS_IDS_PER_CALL)));
+			String videoJson;
+			try {
+				videoJson = bulkheads.youtube().call(() -> yt.get()
+				.uri(b -> b.path("/videos")
+					.queryParam("part", "id,snippet,statistics")
+					.queryParam("id", joined)
+					.queryParam("maxResults", VIDEOS_IDS_PER_CALL)
+					.queryParam("key", apikey)
+					.build())
+				.retrieve()
+				.onStatus(HttpStatusCode::is4xxClientError, res ->
+					res.bodyToMono(String.class).map(body ->
+						new ExternalServiceException("YouTube 4xx on /videos: " + body, null)))
+				.onStatus(HttpStatusCode::is5xxServerError, res ->
+					res.bodyToMono(String.class).map(body ->
+						new ExternalServiceException("YouTube 5xx on /videos: " + body, null)))
+				.bodyToMono(String.class)
+				.block());
+			}
+			catch (WebClientRequestException e) {
+				throw new ExternalServiceException("YouTube 네트워크 오류: " + e.getMessage(), e);
+			}
+			try {
+				JsonNode items = mapper.readTree(videoJson).path("items");
+				if (items.isArray()) {
+					for (JsonNode item : items) {
+						VideoMeta meta = parseVideoItem(item);
+						if (meta.id() != null)
+							metas.put(meta.id(), meta);
+					}
+				}
+			} catch (IOException e) {
+				throw new VideoAnalysisException("영상 메타 JSON 파싱 오류", e);
+			}
+		}
+		return metas;
+	}
+
+	//수집 결과 + 이어서 읽을 다음 페이지 (null = 끝까지 읽음)
+	record Fetched(CommentBatch comments, String nextPageToken) {}
+
+	/**
+	 * YouTube commentThreads 페이징 수집 (옵션: 답글 포함, id 기준 중복 제거), 응답 JSON에서 바로 배치 행으로.
+	 * startPageToken부터 (null이면 처음부터), 행마다 스레드 순번 (답글은 부모 스레드 순번), activity가 null이면 활동 분석 생략
+	 */
+	Fetched fetchComments(String videoId, int maxCount, ActivityAnalyzer activity, String startPageToken) {
+		CommentBatch comments = new CommentBatch(batchSpillThresholdChars, Path.of(batchSpillDir));
+		Set<String> seen = new HashSet<>();
+		Map<String, Integer> threadOf = new HashMap<>();
+		String pageToken = startPageToken;
+		int remain = Math.max(0, maxCount);
+		int thread = 0;
+
+		//답글 확장 대상 스레드는 최상위 페이지를 순서대로 읽는 동안 병렬로 가져옴
+		Sinks.Many<String> replyParents = Sinks.many().unicast().onBackpressureBuffer();
+		CompletableFuture<List<Map.Entry<String, List<CommentDto>>>> expandedReplies = replyParents.asFlux()
+				.flatMap(parent -> fetchReplies(parent).map(list -> Map.entry(parent, list)), Math.max(1, replyConcurrency))
+				.collectList()
+				.toFuture();
+
+		try {
+			while (remain > 0) {
+				int pageSize = Math.min(100, remain);
+				String ctJson = fetchThreadPage(videoId, pageSize, pageToken);
+
+				try {
+					JsonNode croot = mapper.readTree(ctJson);
+					JsonNode citems = croot.path("items");
+
+					if (citems.isArray()) {
+						for (JsonNode it : citems) {
+							JsonNode top = it.path("snippet").path("topLevelComment");
+							String topId = appendComment(comments, seen, top, activity, thread);
+							if (topId == null)
+								continue;
+							int t = thread++;
+
+							if (!includeReplies)
+								continue;
+							//스레드에 포함된 답글(최대 5개)
+							JsonNode inlined = it.path("replies").path("comments");
+							int inlinedCount = 0;
+							if (inlined.isArray()) {
+								for (JsonNode r : inlined) {
+									if (appendComment(comments, seen, r, activity, t) != null)
+										inlinedCount++;
+								}
+							}
+							//답글이 더 있으면 comments.list?parentId= 로 확장 (병렬)
+							int totalReplies = it.path("snippet").path("totalReplyCount").asInt(0);
+							if (totalReplies > inlinedCount) {
+								threadOf.put(topId, t);
+								replyParents.tryEmitNext(topId);
+							}
+						}
+					}
+
+					pageToken = croot.path("nextPageToken").isMissingNode() ? null : croot.path("nextPageToken").asText(null);
+				} catch (IOException e) {
+					throw new VideoAnalysisException("댓글 JSON 파싱 오류", e);
+				}
+
+				remain -= pageSize;
+				if (pageToken == null) break;
+			}
+		}
+		catch (RuntimeException e) {
+			expandedReplies.cancel(true); // 진행 중인 답글 요청 취소
+			comments.close();
+			throw e;
+		}
+		finally {
+			replyParents.tryEmitComplete();
+		}
+
+		if (includeReplies) {
+			int before = comments.size();
+			List<Map.Entry<String, List<CommentDto>>> expanded;
+			try {
+				expanded = expandedReplies.join();
+			}
+			catch (CompletionException e) {
+				comments.close();
+				if (e.getCause() instanceof RuntimeException cause)
+					throw cause;
+				throw e;
+			}
+			for (Map.Entry<String, List<CommentDto>> replies : expanded) {
+				int t = threadOf.getOrDefault(replies.getKey(), -1);
+				for (CommentDto reply : replies.getValue()) {
+					if (!seen.add(reply.getCommentId()))
+						continue;
+					//toCommentDto의 prediction=0은 라벨로 옮기지 않음 (AI 결과 전까지 미분류)
+					int row = comments.add(reply.getCommentId(), reply.getAuthor(), reply.getText(),
+							reply.getLikeCount(), CommentBatch.parseEpoch(reply.getPublishedAt()));
+					comments.setThread(row, t);
+					if (activity != null && comments.hasTime(row))
+						activity.accept(comments.epochSecond(row));
+				}
+			}
+			log.info("답글 확장 videoId={} added={} total={}", videoId, comments.size() - before, comments.size());
+		}
+		return new Fetched(comments, pageToken);
+	}
+
+	//commentThreads.topLevelComment / replies.comments[] 1건을 DTO 없이 배치 행으로 (처음 보는 id만 추가)
+	//반환: 댓글 id, id가 없으면 null
+	private static String appendComment(CommentBatch batch, Set<String> seen, JsonNode comment, ActivityAnalyzer activity,
+			int thread) {
+		String commentId = comment.path("id").asText(null);
+		if (commentId == null || commentId.isEmpty())
+			return null;
+		if (seen.add(commentId)) {
+			JsonNode cs = comment.path("snippet");
+			int row = batch.add(commentId,
+					cs.path("authorDisplayName").asText(null),
+					cs.path("textDisplay").asText(null),
+					cs.path("likeCount").asLong(0),
+					CommentBatch.parseEpoch(cs.path("publishedAt").asText(null)));
+			batch.setThread(row, thread);
+			if (activity != null && batch.hasTime(row))
+				activity.accept(batch.epochSecond(row));
+		}
+		return commentId;
+	}
+
+	/**
+	 * 감시 목록 증분 수집: commentThreads(최신순)를 읽다가 이미 본 댓글이 나오면 그 페이지에서 중단.
+	 * 이미 본 댓글 = sinceEpoch보다 이전이거나, 같은 초에 작성됐고 seenAtSince에 있는 id
+	 * 최상위 댓글만 (스레드 순서가 최상위 댓글 기준이라 답글은 경계를 판정할 수 없음), 최대 maxCount건
+	 */
+	public CommentBatch fetchCommentsSince(String videoId, long sinceEpoch, Set<String> seenAtSince, int maxCount) {
+		CommentBatch comments = new CommentBatch(batchSpillThresholdChars, Path.of(batchSpillDir));
+		Set<String> seen = new HashSet<>();
+		String pageToken = null;
+		boolean reached = false;
+		try {
+			while (!reached && comments.size() < maxCount) {
+				String ctJson = fetchThreadPage(videoId, 100, pageToken);
+				JsonNode croot = mapper.readTree(ctJson);
+				for (JsonNode it : croot.path("items")) {
+					JsonNode top = it.path("snippet").path("topLevelComment");
+					long epoch = CommentBatch.parseEpoch(top.path("snippet").path("publishedAt").asText(null));
+					String id = top.path("id").asText(null);
+					//작성 시각이 깨진 댓글은 경계 판정 없이 건너뜀
+					if (epoch == Long.MIN_VALUE)
+						continue;
+					if (epoch < sinceEpoch || (epoch == sinceEpoch && seenAtSince.contains(id))) {
+						reached = true;
+						break;
+					}
+					if (comments.size() >= maxCount)
+						break;
+					appendComment(comments, seen, top, null, -1);
+				}
+				pageToken = croot.path("nextPageToken").asText(null);
+				if (pageToken == null)
+					break;
+			}
+		}
+		catch (IOException e) {
+			comments.close();
+			throw new VideoAnalysisException("댓글 JSON 파싱 오류", e);
+		}
+		catch (RuntimeException e) {
+			comments.close();
+			throw e;
+		}
+		return comments;
+	}
+
+	/** commentThreads 1페이지 (최신순) */
+	String fetchThreadPage(String videoId, int pageSize, String pageToken) {
+		return bulkheads.youtube().call(() -> yt.get()
+			.uri(b -> b.path("/commentThreads")
+				.queryParam("part", "snippet,replies")
+				.queryParam("textFormat", "plainText")
+				.queryParam("order", "time")
+				.queryParam("maxResults", pageSize)
+				.queryParam("videoId", videoId)
+				.queryParam("key", apikey)
+				.queryParamIfPresent("pageToken", Optional.ofNullable(pageToken))
+				.build())
+			.retrieve()
+			.onStatus(status -> status.value() == 403, res ->
+				Mono.error(new CommentsDisabledException("댓글 비활성화 영상: " + videoId)))
+			.onStatus(HttpStatusCode::is4xxClientError, res ->
+				res.bodyToMono(String.class).map(body ->
+					new ExternalServiceException("YouTube 4xx on /commentThreads: " + body, null)))
+			.onStatus(HttpStatusCode::is5xxServerError, res ->
+				res.bodyToMono(String.class).map(body ->
+					new ExternalServiceException("YouTube 5xx on /commentThreads: " + body, null)))
+			.bodyToMono(String.class)
+			.block());
+	}
+
+	/** 한 스레드의 답글 전체 페이징 (실패 시 해당 스레드 답글만 생략) */
+	private Mono<List<CommentDto>> fetchReplies(String parentId) {
+		return fetchReplyPage(parentId, null)
+				.expand(page -> page.nextPageToken() == null
+						? Mono.empty()
+						: fetchReplyPage(parentId, page.nextPageToken()))
+				.flatMapIterable(ReplyPage::comments)
+				.take(Math.max(0, maxRepliesPerThread))
+				.collectList()
+				//격벽 포화(429)는 삼키지 않고 요청까지 올림 (나머지 오류는 해당 스레드 답글만 생략)
+				.onErrorResume(e -> !(e instanceof TooManyRequestsException), e -> {
+					log.warn("답글 수집 실패 parentId={}: {}", parentId, e.toString());
+					return Mono.just(List.of());
+				});
+	}
+
+	//다른 YouTube 호출과 같은 youtube 격벽 (격벽이 블로킹이라 boundedElastic에서 실행)
+	private Mono<ReplyPage> fetchReplyPage(String parentId, String pageToken) {
+		return Mono.fromCallable(() -> bulkheads.youtube().call(() -> yt.get()
+				.uri(b -> b.path("/comments")
+					.queryParam("part", "snippet")
+					.queryParam("textFormat", "plainText")
+					.queryParam("maxResults", 100)
+					.queryParam("parentId", parentId)
+					.queryParam("key", apikey)
+					.queryParamIfPresent("pageToken", Optional.ofNullable(pageToken))
+					.build())
+				.retrieve()
+				.onStatus(HttpStatusCode::isError, res ->
+					res.bodyToMono(String.class).map(body ->
+						new ExternalServiceException("YouTube error on /comments: " + body, null)))
+				.bodyToMono(String.class)
+				.block()))
+				.subscribeOn(Schedulers.boundedElastic())
+				.map(json -> {
+					try {
+						JsonNode root = mapper.readTree(json);
+						List<CommentDto> replies = new ArrayList<>();
+						for (JsonNode r : root.path("items")) {
+							CommentDto reply = toCommentDto(r);
+							if (reply != null)
+								replies.add(reply);
+						}
+						String next = root.path("nextPageToken").asText(null);
+						return new ReplyPage(replies, next);
+					}
+					catch (IOException e) {
+						throw new VideoAnalysisException("답글 JSON 파싱 오류", e);
+					}
+				});
+	}
+
+	private record ReplyPage(List<CommentDto> comments, String nextPageToken) {}
+
+	//commentThreads.topLevelComment / replies.comments[] / comments.list items 공통 형식
+	static CommentDto toCommentDto(JsonNode comment) {
+		String commentId = comment.path("id").asText(null);
+		if (commentId == null || commentId.isEmpty())
+			return null;
+		JsonNode cs = comment.path("snippet");
+		String author = cs.path("authorDisplayName").asText(null);
+		String text = cs.path("textDisplay").asText(null);
+		long likeCount = cs.path("likeCount").asLong(0);
+		String publishedAt = cs.path("publishedAt").asText(null);
+		Integer prediction = 0;
+		return new CommentDto(commentId, author, text, likeCount, publishedAt, prediction);
+	}
+
+	private VideoMeta parseVideoMeta(String videoJson) {
+		try {
+			JsonNode root = mapper.readTree(videoJson);
+			JsonNode item = (root.path("items").isArray() && root.path("items").size() > 0)
+					? root.path("items").get(0) : mapper.createObjectNode();
+			return parseVideoItem(item);
+		} catch (Exception e) {
+			log.error("video meta parse error", e);
+			return new VideoMeta(null ,null, null, null, null, null, null, null,null,null);
+		}
+	}
+
+	private static VideoMeta parseVideoItem(JsonNode item) {
+		JsonNode snippet = item.path("snippet");
+		JsonNode stats   = item.path("statistics");
+
+		String id=item.path("id").asText(null);
+
+		String title        = snippet.path("title").asText(null);
+		String channelId    = snippet.path("channelId").asText(null);
+		String channelTitle = snippet.path("channelTitle").asText(null);
+		String publishedAt  = snippet.path("publishedAt").asText(null);
+		String thumbnails = snippet.path("thumbnails").path("high").path("url").asText(null);
+		String description=snippet.path("description").asText(null);
+
+		Long viewCount    = stats.path("viewCount").isMissingNode() ? null : stats.path("viewCount").asLong();
+		Long likeCount    = stats.path("likeCount").isMissingNode() ? null : stats.path("likeCount").asLong();
+		Long commentCount = stats.path("commentCount").isMissingNode() ? null : stats.path("commentCount").asLong();
+
+		return new VideoMeta(id,title, channelId, channelTitle, publishedAt, viewCount, likeCount, commentCount,thumbnails,description);
+	}
+}
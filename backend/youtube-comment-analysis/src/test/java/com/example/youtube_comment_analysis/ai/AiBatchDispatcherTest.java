@@ -0,0 +1,117 @@
+package com.example.youtube_comment_analysis.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.youtube_comment_analysis.load.Bulkhead;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.example.youtube_comment_analysis.video.CommentDto;
+
+class AiBatchDispatcherTest {
+
+	private AiBatchDispatcher dispatcher;
+
+	@AfterEach
+	void tearDown() {
+		if (dispatcher != null)
+			dispatcher.stop();
+	}
+
+	@Test
+	void keywordsStayWithTheirOwnRequestAndGroup() throws Exception {
+		//서버 흉내: 모든 댓글 통과, 본문을 키워드로 보고 그룹별 가중치로 셈
+		start(true);
+		CompletableFuture<AiBatchDispatcher.BatchReply> a = dispatcher.submit(
+				List.of(comment("a0", "사과"), comment("a1", "포도")),
+				List.of(Map.of("v1", 3), Map.of("v1", 1, "v2", 2)));
+		CompletableFuture<AiBatchDispatcher.BatchReply> b = dispatcher.submit(
+				List.of(comment("b0", "사과")),
+				null);
+
+		AiBatchDispatcher.BatchReply ra = a.get(5, TimeUnit.SECONDS);
+		AiBatchDispatcher.BatchReply rb = b.get(5, TimeUnit.SECONDS);
+
+		//두 요청이 한 배치로 합쳐졌어도 키워드는 요청/그룹별로 따로
+		assertEquals(1, dispatcher.stats().batches());
+		assertEquals(Map.of("v1", Map.of("사과", 3, "포도", 1), "v2", Map.of("포도", 2)), ra.keywords());
+		assertEquals(Map.of("", Map.of("사과", 1)), rb.keywords());
+		assertEquals(2, ra.predictions().size());
+	}
+
+	@Test
+	void mergedBatchWithoutGroupKeywordsDropsKeywords() throws Exception {
+		//구버전 서버: 배치 전체 키워드만 → 여러 요청이 섞였으면 나눌 근거가 없어 버림
+		start(false);
+		CompletableFuture<AiBatchDispatcher.BatchReply> a = dispatcher.submit(List.of(comment("a0", "사과")));
+		CompletableFuture<AiBatchDispatcher.BatchReply> b = dispatcher.submit(List.of(comment("b0", "포도")));
+
+		assertTrue(a.get(5, TimeUnit.SECONDS).keywords().isEmpty());
+		assertTrue(b.get(5, TimeUnit.SECONDS).keywords().isEmpty());
+		assertEquals(1, a.get().keptIds().size());
+	}
+
+	@Test
+	void singleGroupBatchFallsBackToBatchKeywords() throws Exception {
+		start(false);
+		AiBatchDispatcher.BatchReply r = dispatcher.submit(List.of(comment("a0", "사과"), comment("a1", "사과")))
+				.get(5, TimeUnit.SECONDS);
+
+		assertEquals(Map.of("", Map.of("사과", 2)), r.keywords());
+	}
+
+	private void start(boolean groupKeywords) {
+		FastApiBackend fastApi = mock(FastApiBackend.class);
+		doReturn("fastapi").when(fastApi).name();
+		doAnswer(inv -> respond(inv.getArgument(0), groupKeywords)).when(fastApi).analyze(any());
+		Bulkheads bulkheads = mock(Bulkheads.class);
+		doReturn(new Bulkhead("ai", 4, 4, Duration.ofSeconds(1), 1)).when(bulkheads).ai();
+
+		dispatcher = new AiBatchDispatcher(fastApi, mock(OnnxSentimentBackend.class), bulkheads);
+		ReflectionTestUtils.setField(dispatcher, "backendName", "fastapi");
+		ReflectionTestUtils.setField(dispatcher, "maxBatch", 100);
+		//두 번째 제출까지 한 배치로 모이도록 넉넉하게
+		ReflectionTestUtils.setField(dispatcher, "lingerMs", 300L);
+		dispatcher.start();
+	}
+
+	private static AiSentimentResponse respond(AiSentimentRequest req, boolean groupKeywords) {
+		List<CommentDto> kept = new ArrayList<>();
+		Map<String, Map<String, Integer>> byGroup = new HashMap<>();
+		Map<String, Integer> all = new HashMap<>();
+		for (AiSentimentRequest.Comment c : req.comments()) {
+			kept.add(new CommentDto(c.id(), c.author(), c.text(), c.likeCount(), c.publishedAt(), 1));
+			all.merge(c.text(), c.weight(), Integer::sum);
+			for (var g : c.groups().entrySet())
+				byGroup.computeIfAbsent(g.getKey(), k -> new HashMap<>()).merge(c.text(), g.getValue(), Integer::sum);
+		}
+		Map<String, List<KeywordCount>> topByGroup = new HashMap<>();
+		byGroup.forEach((g, counts) -> topByGroup.put(g, keywords(counts)));
+		return new AiSentimentResponse(kept, 0, keywords(all), groupKeywords ? topByGroup : null);
+	}
+
+	private static List<KeywordCount> keywords(Map<String, Integer> counts) {
+		List<KeywordCount> out = new ArrayList<>();
+		counts.forEach((k, v) -> out.add(new KeywordCount(k, v)));
+		return out;
+	}
+
+	private static CommentDto comment(String id, String text) {
+		return new CommentDto(id, "author-" + id, text, 0L, "2024-05-01T00:00:00Z", 0);
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.youtube_comment_analysis.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class CommentDeduplicatorTest {
+
+	@Test
+	void normalizeFoldsWidthCaseAndWhitespace() {
+		assertEquals("first! 영상 최고", CommentDeduplicator.normalize("  ＦＩＲＳＴ！\t영상\n\n최고 "));
+		assertEquals("", CommentDeduplicator.normalize(" \n "));
+		assertNull(CommentDeduplicator.normalize(null));
+	}
+
+	@Test
+	void sameNormalizedTextHashesTheSame() {
+		long a = CommentDeduplicator.hash64(CommentDeduplicator.normalize("구독 좋아요  눌러주세요"));
+		long b = CommentDeduplicator.hash64(CommentDeduplicator.normalize("구독 좋아요 눌러주세요\n"));
+		assertEquals(a, b);
+	}
+
+	@Test
+	void differentTextHashesDiffer() {
+		//문장 부호 하나 차이도 완전 중복은 아님 (근사 중복은 NearDuplicateIndex 몫)
+		long a = CommentDeduplicator.hash64(CommentDeduplicator.normalize("좋은 영상 감사합니다"));
+		long b = CommentDeduplicator.hash64(CommentDeduplicator.normalize("좋은 영상 감사합니다!"));
+		assertNotEquals(a, b);
+	}
+}
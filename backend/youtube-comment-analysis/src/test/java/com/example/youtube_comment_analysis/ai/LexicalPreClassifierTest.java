@@ -0,0 +1,95 @@
+package com.example.youtube_comment_analysis.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.youtube_comment_analysis.ai.LexicalPreClassifier.Rule;
+import com.example.youtube_comment_analysis.ai.LexicalPreClassifier.Verdict;
+
+class LexicalPreClassifierTest {
+
+	private LexicalPreClassifier classifier;
+
+	@BeforeEach
+	void setUp() {
+		classifier = new LexicalPreClassifier();
+		ReflectionTestUtils.setField(classifier, "enabled", true);
+		ReflectionTestUtils.setField(classifier, "threshold", 0.9);
+		ReflectionTestUtils.setField(classifier, "auditRate", 0.0);
+		ReflectionTestUtils.setField(classifier, "maxChars", 30);
+	}
+
+	@Test
+	void labelsLaughterEmojiAndLexicon() {
+		assertVerdict(classifier.classify("ㅋㅋㅋㅋㅋ"), 2, Rule.LAUGHTER);
+		assertVerdict(classifier.classify("😡😡"), 0, Rule.EMOJI);
+		assertVerdict(classifier.classify("  최고!!  "), 2, Rule.LEXICON);
+		assertVerdict(classifier.classify("노잼..."), 0, Rule.LEXICON);
+		assertVerdict(classifier.classify("First!"), 1, Rule.LEXICON);
+	}
+
+	@Test
+	void sameSentimentAcrossRulesIsMixed() {
+		assertVerdict(classifier.classify("👍 최고 ㅋㅋ"), 2, Rule.MIXED);
+	}
+
+	@Test
+	void conflictingSentimentsGoToTheModel() {
+		assertNull(classifier.classify("최고 별로"));
+		assertNull(classifier.classify("ㅋㅋ 😡"));
+	}
+
+	@Test
+	void unknownWordsGoToTheModel() {
+		assertNull(classifier.classify("최고 영상"));
+		//영문 문구는 단어 중간에서 끝나면 안 됨
+		assertNull(classifier.classify("goodbye"));
+	}
+
+	@Test
+	void confidenceBelowThresholdGoesToTheModel() {
+		//중립 이모지 하나는 0.8, 둘이면 1 - 0.2² = 0.96
+		assertNull(classifier.classify("🤔"));
+		assertVerdict(classifier.classify("🤔🤔"), 1, Rule.EMOJI);
+	}
+
+	@Test
+	void punctuationOnlyTooLongOrDisabledIsNotLabeled() {
+		assertNull(classifier.classify("?!..."));
+		assertNull(classifier.classify(""));
+		assertNull(classifier.classify(null));
+		assertNull(classifier.classify("ㅋ".repeat(31)));
+		ReflectionTestUtils.setField(classifier, "enabled", false);
+		assertNull(classifier.classify("최고"));
+	}
+
+	@Test
+	void statsCountLocalLabelsAndAuditAgreement() {
+		Verdict v = classifier.classify("최고");
+		classifier.recordLabeled(10, Map.of(Rule.LEXICON, 4));
+		classifier.recordAudit("최고", v, 2);
+		classifier.recordAudit("최고", v, 0);
+
+		var stats = classifier.stats();
+		assertEquals(10, stats.comments());
+		assertEquals(4, stats.locallyLabeled());
+		assertEquals(0.4, stats.localShare(), 1e-9);
+		assertEquals(2, stats.audited());
+		assertEquals(1, stats.agreed());
+		assertEquals(1, stats.recentDisagreements().size());
+		assertEquals(0, stats.recentDisagreements().get(0).modelLabel());
+	}
+
+	private static void assertVerdict(Verdict v, int label, Rule rule) {
+		assertNotNull(v);
+		assertEquals(label, v.label());
+		assertEquals(rule, v.rule());
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.youtube_comment_analysis.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class NearDuplicateIndexTest {
+
+	private static final String SPAM = "지금 바로 프로필 링크 눌러서 무료 쿠폰 받아가세요 선착순 100명 한정";
+
+	@Test
+	void identicalTextMatchesFirstDocument() {
+		NearDuplicateIndex index = new NearDuplicateIndex(4, 0.7, 20);
+		assertEquals(-1, index.offer(0, SPAM));
+		assertEquals(0, index.offer(1, SPAM));
+	}
+
+	@Test
+	void smallEditStillMatches() {
+		NearDuplicateIndex index = new NearDuplicateIndex(4, 0.7, 20);
+		assertEquals(-1, index.offer(0, SPAM));
+		assertEquals(0, index.offer(1, SPAM + "!!"));
+	}
+
+	@Test
+	void unrelatedTextDoesNotMatch() {
+		NearDuplicateIndex index = new NearDuplicateIndex(4, 0.7, 20);
+		assertEquals(-1, index.offer(0, SPAM));
+		assertEquals(-1, index.offer(1, "편집이 깔끔해서 끝까지 재밌게 봤어요 다음 편도 기대할게요"));
+	}
+
+	@Test
+	void shortTextIsNeverFolded() {
+		//짧은 텍스트는 shingle이 적어 오탐이 많으므로 minChars 미만은 비교하지 않음
+		NearDuplicateIndex index = new NearDuplicateIndex(4, 0.7, 20);
+		assertEquals(-1, index.offer(0, "ㅋㅋㅋㅋ 대박"));
+		assertEquals(-1, index.offer(1, "ㅋㅋㅋㅋ 대박"));
+	}
+
+	@Test
+	void manyDocumentsGrowTheBucketTable() {
+		int n = 2_000;
+		SplittableRandom rnd = new SplittableRandom(7);
+		String[] texts = new String[n];
+		NearDuplicateIndex index = new NearDuplicateIndex(n + 1, 0.7, 20);
+		for (int i = 0; i < n; i++) {
+			texts[i] = randomHangul(rnd, 40);
+			assertEquals(-1, index.offer(i, texts[i]));
+		}
+		assertEquals(1234, index.offer(n, texts[1234]));
+	}
+
+	private static String randomHangul(SplittableRandom rnd, int len) {
+		StringBuilder sb = new StringBuilder(len);
+		for (int i = 0; i < len; i++)
+			sb.append((char) ('가' + rnd.nextInt(11_172)));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.youtube_comment_analysis.ai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+//AI 서버 모델과 같은 tokenizer.json으로 HuggingFace tokenizers(Rust, BertNormalizer + BertPreTokenizer + WordPiece)가
+//낸 id와 비교 (truncation=true, padding 없음으로 인코딩한 값)
+class WordPieceTokenizerTest {
+
+	private static final Path TOKENIZER = Path.of("../../AI/model/sentiment_model/tokenizer.json");
+
+	private static WordPieceTokenizer tokenizer;
+
+	@BeforeAll
+	static void load() throws IOException {
+		tokenizer = WordPieceTokenizer.load(TOKENIZER, 512);
+	}
+
+	@Test
+	void hangulSplitsIntoWordPieces() {
+		//이 / 영상 / 정말 / 최고 ##예 ##요 / ! / !
+		assertIds(new int[] { 2, 1504, 4729, 3944, 3841, 2194, 2182, 5, 5, 3 }, "이 영상 정말 최고예요!!");
+		//탭/줄바꿈은 공백, NUL/U+FFFD/제어·서식 문자(U+200B)는 제거
+		assertIds(new int[] { 2, 1567, 1118, 2916, 9430, 2346, 2155, 3141, 3 },
+				"\t줄\n바꿈\u0000 제어\uFFFD문자\u200B끝");
+	}
+
+	@Test
+	void emojiAndJamoFollowVocab() {
+		//ㅋㅋㅋ ##ㅋ / 대박 / 😂 ##👍 (이모지끼리는 한 단어) / 굿 ##굿
+		assertIds(new int[] { 2, 3901, 2074, 8183, 2000, 2148, 623, 2673, 3 }, "ㅋㅋㅋㅋ 대박 😂👍 굿굿");
+	}
+
+	@Test
+	void accentsAreKeptBecauseLowercaseIsOff() {
+		//strip_accents가 null + lowercase=false → 악센트 유지, 사전에 없는 조각이 있는 단어는 통째로 [UNK]
+		assertIds(new int[] { 2, 70, 9292, 2080, 1, 1, 3 }, "café naïve Ångström");
+		assertIds(new int[] { 2, 1, 1, 3 }, "café résumé");
+	}
+
+	@Test
+	void cjkCharsAreSplitButKanaIsNot() {
+		assertIds(new int[] { 2, 420, 314, 1, 220, 373, 3714, 3 }, "漢字テスト 中文입니다");
+	}
+
+	@Test
+	void punctuationAndCase() {
+		assertIds(new int[] { 2, 13472, 10211, 2036, 16, 59, 14851, 2237, 2134, 18, 18, 18, 12, 87, 8119, 13, 7, 24998,
+				2260, 2029, 36, 26099, 3762, 22758, 30, 19, 19, 13089, 2013, 2005, 18, 11356, 19, 91, 35, 89, 33, 21, 3 },
+				"Hello, WORLD... (test) #해시태그 @user https://youtu.be/x?v=1");
+	}
+
+	@Test
+	void overlongWordAndEmptyText() {
+		//max_input_chars_per_word(100)를 넘는 단어는 [UNK] 하나
+		assertIds(new int[] { 2, 1, 3 }, "가".repeat(120));
+		assertIds(new int[] { 2, 3 }, "");
+	}
+
+	@Test
+	void truncatesToMaxLengthKeepingSep() throws IOException {
+		//정말 / 재 ##밌는 / 영상 ##입니다 반복 → [CLS] + 앞에서부터 max-2개 + [SEP]
+		String text = "정말 재밌는 영상입니다 ".repeat(300);
+		assertArrayEquals(repeated(512), tokenizer.encode(text));
+		assertArrayEquals(repeated(16), WordPieceTokenizer.load(TOKENIZER, 16).encode(text));
+		assertEquals(16, WordPieceTokenizer.load(TOKENIZER, 16).encode("Hello, WORLD... (test) #해시태그").length);
+	}
+
+	private static int[] repeated(int length) {
+		int[] cycle = { 3944, 7478, 2259, 4729, 12190 };
+		int[] ids = new int[length];
+		ids[0] = 2;
+		for (int i = 1; i < length - 1; i++)
+			ids[i] = cycle[(i - 1) % cycle.length];
+		ids[length - 1] = 3;
+		return ids;
+	}
+
+	private static void assertIds(int[] expected, String text) {
+		assertArrayEquals(expected, tokenizer.encode(text), text);
+	}
+}
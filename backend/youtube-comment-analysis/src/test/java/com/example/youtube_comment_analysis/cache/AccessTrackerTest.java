@@ -0,0 +1,104 @@
+package com.example.youtube_comment_analysis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.youtube_comment_analysis.cache.AccessTracker.HotKey;
+import com.example.youtube_comment_analysis.cache.AccessTracker.Kind;
+
+class AccessTrackerTest {
+
+	private static final long MINUTE = 60_000;
+
+	private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+	private AccessTracker tracker;
+
+	@BeforeEach
+	void setUp() {
+		//반감기 10분, 최대 3개 키
+		tracker = new AccessTracker(10, 3);
+		tracker.clock = now::get;
+	}
+
+	@Test
+	void scoreHalvesEveryHalfLife() {
+		for (int i = 0; i < 8; i++)
+			tracker.record(Kind.VIDEO, "v", 100);
+
+		assertEquals(8.0, score("v"), 1e-9);
+		now.addAndGet(10 * MINUTE);
+		assertEquals(4.0, score("v"), 1e-9);
+		now.addAndGet(20 * MINUTE);
+		assertEquals(1.0, score("v"), 1e-9);
+
+		//감쇠된 값에 더함
+		tracker.record(Kind.VIDEO, "v", 500);
+		HotKey v = tracker.hottest(1).get(0);
+		assertEquals(2.0, v.score(), 1e-9);
+		assertEquals(500, v.limit());
+	}
+
+	@Test
+	void hottestOrdersByDecayedScore() {
+		tracker.seed(Kind.VIDEO, "old", 100, 10, false);
+		now.addAndGet(40 * MINUTE); // 10 → 0.625
+		tracker.record(Kind.CHANNEL, "new", 100);
+
+		List<HotKey> hot = tracker.hottest(2);
+		assertEquals(List.of("new", "old"), hot.stream().map(HotKey::id).toList());
+		assertEquals(Kind.CHANNEL, hot.get(0).kind());
+	}
+
+	@Test
+	void pruneDropsDecayedKeysButKeepsPinned() {
+		tracker.record(Kind.VIDEO, "cold", 100);
+		tracker.seed(Kind.VIDEO, "pinned", 100, 1, true);
+		now.addAndGet(70 * MINUTE); // 1 → 0.0078
+
+		tracker.prune();
+		assertEquals(List.of("pinned"), ids(tracker.hottest(10)));
+
+		//고정 해제 뒤에는 정리 대상
+		assertTrue(tracker.unpin(Kind.VIDEO, "pinned"));
+		tracker.prune();
+		assertTrue(tracker.hottest(10).isEmpty());
+		assertFalse(tracker.unpin(Kind.VIDEO, "pinned"));
+	}
+
+	@Test
+	void pruneTrimsLowestScoresPastCapacity() {
+		for (int i = 1; i <= 5; i++)
+			tracker.seed(Kind.VIDEO, "v" + i, 100, i, false);
+		tracker.seed(Kind.VIDEO, "p", 100, 0.5, true);
+
+		tracker.prune();
+		//6개 중 3개만 남기되 고정 키는 유지
+		assertEquals(List.of("v5", "v4", "p"), ids(tracker.hottest(2)));
+		assertEquals(3, tracker.hottest(10).size());
+	}
+
+	@Test
+	void hottestAppendsPinnedKeysOutsideTopN() {
+		tracker.seed(Kind.VIDEO, "a", 100, 5, false);
+		tracker.seed(Kind.VIDEO, "b", 100, 3, false);
+		tracker.seed(Kind.CHANNEL, "c", 100, 1, true);
+
+		assertEquals(List.of("a", "c"), ids(tracker.hottest(1)));
+		assertTrue(tracker.hottest(1).get(1).pinned());
+	}
+
+	private double score(String id) {
+		return tracker.hottest(10).stream().filter(h -> h.id().equals(id)).findFirst().orElseThrow().score();
+	}
+
+	private static List<String> ids(List<HotKey> keys) {
+		return keys.stream().map(HotKey::id).toList();
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.youtube_comment_analysis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+
+class CacheMigratorTest {
+
+	private final CacheMigrator migrator = new CacheMigrator(null, null, null);
+
+	@AfterEach
+	void tearDown() {
+		migrator.stop();
+	}
+
+	@Test
+	void recomputeBurstThenRetryAfterIsOneTokenInterval() {
+		//초당 0.25건 → 다음 토큰까지 4초
+		ReflectionTestUtils.setField(migrator, "recomputePerSecond", 0.25);
+		ReflectionTestUtils.setField(migrator, "recomputeBurst", 2);
+
+		migrator.admitRecompute("a");
+		migrator.admitRecompute("b");
+		TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> migrator.admitRecompute("c"));
+		assertEquals(4, e.getRetryAfterSeconds());
+		assertEquals(2, migrator.stats().recomputeAdmitted());
+		assertEquals(1, migrator.stats().recomputeThrottled());
+	}
+
+	@Test
+	void retryAfterIsAtLeastOneSecond() {
+		ReflectionTestUtils.setField(migrator, "recomputePerSecond", 3.0);
+		ReflectionTestUtils.setField(migrator, "recomputeBurst", 1);
+
+		migrator.admitRecompute("a");
+		//1/3초 남았어도 Retry-After는 정수 초
+		assertEquals(1, assertThrows(TooManyRequestsException.class, () -> migrator.admitRecompute("b"))
+				.getRetryAfterSeconds());
+	}
+
+	@Test
+	void nonPositiveRateDisablesThrottling() {
+		ReflectionTestUtils.setField(migrator, "recomputePerSecond", 0.0);
+		for (int i = 0; i < 100; i++)
+			migrator.admitRecompute("v" + i);
+		assertEquals(100, migrator.stats().recomputeAdmitted());
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.youtube_comment_analysis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.youtube_comment_analysis.load.Bulkhead;
+import com.example.youtube_comment_analysis.load.Bulkheads;
+import com.example.youtube_comment_analysis.video.AnalysisDepth;
+import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+import com.example.youtube_comment_analysis.video.VideoMeta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CacheWriteBehindTest {
+
+	private final VideoCacheCodec codec = new VideoCacheCodec();
+	private final Map<String, byte[]> sets = new ConcurrentHashMap<>();
+	private final AtomicInteger setCalls = new AtomicInteger();
+	private final List<String> released = new ArrayList<>();
+	private volatile boolean failSets;
+
+	private CacheWriteBehind writeBehind;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ReactiveRedisTemplate<String, byte[]> tpl = mock(ReactiveRedisTemplate.class);
+		ReactiveValueOperations<String, byte[]> ops = mock(ReactiveValueOperations.class);
+		doReturn(ops).when(tpl).opsForValue();
+		//구독될 때만 쓰기로 셈 (파이프라인에 실제로 발행된 명령 수)
+		doReturn(Mono.empty()).when(tpl).delete(anyString());
+		doAnswer(inv -> Mono.defer(() -> {
+			if (failSets)
+				return Mono.error(new IllegalStateException("redis down"));
+			setCalls.incrementAndGet();
+			sets.put(inv.getArgument(0), inv.getArgument(1));
+			return Mono.just(true);
+		})).when(ops).set(anyString(), any(byte[].class), any(Duration.class));
+		doAnswer(inv -> Flux.defer(() -> {
+			synchronized (released) {
+				released.add(((List<String>) inv.getArgument(1)).get(0));
+			}
+			return Flux.just(1L);
+		})).when(tpl).execute(any(RedisScript.class), anyList(), anyList());
+
+		Bulkheads bulkheads = mock(Bulkheads.class);
+		doReturn(new Bulkhead("redis", 4, 4, Duration.ofSeconds(1), 1)).when(bulkheads).redis();
+		ResponseBodyCache bodyCache = new ResponseBodyCache(tpl, bulkheads, new ObjectMapper());
+
+		writeBehind = new CacheWriteBehind(tpl, codec, bodyCache, bulkheads);
+		ReflectionTestUtils.setField(writeBehind, "maxBatch", 64);
+		ReflectionTestUtils.setField(writeBehind, "bodyDepth", 100);
+	}
+
+	@Test
+	void coalescesPendingWritesToLatestValueAndReleasesEveryLock() {
+		VideoAnalysisResponse first = response("v1", 1);
+		VideoAnalysisResponse second = response("v1", 2);
+		writeBehind.enqueue("v1", "l2:video:{v1}", first, Duration.ofMinutes(5), CacheLock.newToken("lock:a"));
+		writeBehind.enqueue("v1", "l2:video:{v1}", second, Duration.ofMinutes(5), CacheLock.newToken("lock:b"));
+		writeBehind.enqueue("v2", "l2:video:{v2}", response("v2", 3), Duration.ofMinutes(5), null);
+
+		assertSame(second, writeBehind.peek("v1"));
+		CacheWriteBehind.WriteBehindStats before = writeBehind.stats();
+		assertEquals(3, before.enqueued());
+		assertEquals(1, before.coalesced());
+		assertEquals(2, before.pending());
+
+		writeBehind.stop();
+
+		//영상마다 값 1번 + 본문 1번
+		assertEquals(4, setCalls.get());
+		assertArrayEquals(codec.encode(second), sets.get("l2:video:{v1}"));
+		assertEquals(List.of("lock:a", "lock:b"), released.stream().sorted().toList());
+		assertNull(writeBehind.peek("v1"));
+		CacheWriteBehind.WriteBehindStats after = writeBehind.stats();
+		assertEquals(2, after.written());
+		assertEquals(1, after.flushes());
+		assertEquals(0, after.pending());
+	}
+
+	@Test
+	void failedFlushStillReleasesLocks() {
+		failSets = true;
+		writeBehind.enqueue("v1", "l2:video:{v1}", response("v1", 1), Duration.ofMinutes(5), CacheLock.newToken("lock:a"));
+
+		writeBehind.stop();
+
+		assertEquals(0, setCalls.get());
+		assertEquals(List.of("lock:a"), released);
+		assertEquals(1, writeBehind.stats().failed());
+		assertEquals(0, writeBehind.stats().pending());
+	}
+
+	@Test
+	void discardDropsPendingWrite() {
+		writeBehind.enqueue("v1", "l2:video:{v1}", response("v1", 1), Duration.ofMinutes(5), null);
+		writeBehind.discard("v1");
+
+		writeBehind.stop();
+		assertEquals(0, setCalls.get());
+		assertEquals(0, writeBehind.stats().flushes());
+	}
+
+	private static VideoAnalysisResponse response(String videoId, int positive) {
+		VideoMeta meta = new VideoMeta(videoId, "title", "ch", "channel", "2024-05-01T00:00:00Z", 100L, 10L, 20L, null, "");
+		return new VideoAnalysisResponse(meta, List.of(), List.of(), null, 20, 18, positive, 6, 5, null, null, null,
+				null, null, null, List.of(), new AnalysisDepth(200, false, "next", List.of()));
+	}
+}
@@ -0,0 +1,93 @@
+package com.example.youtube_comment_analysis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.example.youtube_comment_analysis.cache.VideoCacheCodec.Decoded;
+import com.example.youtube_comment_analysis.cache.VideoCacheCodec.Outcome;
+import com.example.youtube_comment_analysis.video.AnalysisDepth;
+import com.example.youtube_comment_analysis.video.VideoAnalysisResponse;
+import com.example.youtube_comment_analysis.video.VideoMeta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class VideoCacheCodecTest {
+
+	private final VideoCacheCodec codec = new VideoCacheCodec();
+
+	@Test
+	void roundTripsCurrentSchema() {
+		VideoAnalysisResponse value = response("abc");
+		Decoded d = codec.decode(codec.encode(value));
+
+		assertEquals(Outcome.CURRENT, d.outcome());
+		assertEquals(VideoCacheCodec.SCHEMA, d.schema());
+		assertEquals(value.video(), d.value().video());
+		assertEquals(7, d.value().POSITIVE());
+		assertEquals(value.depth(), d.value().depth());
+	}
+
+	@Test
+	void newerSchemaKeepsKnownFieldsAndDropsUnknown() {
+		String json = """
+				{"schema":%d,"data":{"video":{"id":"abc","title":"t"},"POSITIVE":5,"addedLater":{"x":1}}}
+				""".formatted(VideoCacheCodec.SCHEMA + 1);
+		Decoded d = codec.decode(bytes(json));
+
+		assertEquals(Outcome.NEWER, d.outcome());
+		assertEquals(VideoCacheCodec.SCHEMA + 1, d.schema());
+		assertEquals("abc", d.value().video().id());
+		assertEquals(5, d.value().POSITIVE());
+		//없는 필드는 값 없음
+		assertNull(d.value().histogram());
+	}
+
+	@Test
+	void missingEnvelopeOrVideoIsIncompatible() {
+		//봉투 없는 예전 값 / 알 수 없는 스키마 / 영상 정보 없는 값 / JSON 아님
+		assertEquals(Outcome.INCOMPATIBLE, codec.decode(bytes("{\"video\":{\"id\":\"abc\"}}")).outcome());
+		assertEquals(Outcome.INCOMPATIBLE, codec.decode(bytes("{\"schema\":1,\"data\":{\"video\":{\"id\":\"abc\"}}}")).outcome());
+		assertEquals(Outcome.INCOMPATIBLE, codec.decode(bytes("{\"schema\":2,\"data\":{\"POSITIVE\":1}}")).outcome());
+		assertEquals(Outcome.INCOMPATIBLE, codec.decode(bytes("not json")).outcome());
+	}
+
+	@Test
+	void upgradesValueWrittenByPreviousVersion() throws Exception {
+		//이전 버전: RedisTemplate + GenericJackson2Json, 응답 필드는 video ~ NEGATIVE 9개뿐
+		ObjectMapper mapper = new ObjectMapper();
+		ObjectNode node = (ObjectNode) mapper.readTree(new GenericJackson2JsonRedisSerializer().serialize(response("abc")));
+		node.retain("@class", "video", "comments", "topKeywordGlobal", "stats", "commentCountBeforeBot",
+				"commentCountAfterBot", "POSITIVE", "NEUTRAL", "NEGATIVE");
+		Decoded d = codec.decodeLegacy(mapper.writeValueAsBytes(node));
+
+		assertEquals(Outcome.UPGRADED, d.outcome());
+		assertEquals(1, d.schema());
+		assertEquals("abc", d.value().video().id());
+		assertEquals(7, d.value().POSITIVE());
+		assertNull(d.value().depth());
+	}
+
+	@Test
+	void unreadableLegacyValueIsIncompatible() {
+		Decoded d = codec.decodeLegacy(bytes("{\"@class\":\"com.example.Gone\",\"x\":1}"));
+		assertEquals(Outcome.INCOMPATIBLE, d.outcome());
+		assertEquals(1, d.schema());
+		assertNull(d.value());
+	}
+
+	private static VideoAnalysisResponse response(String videoId) {
+		VideoMeta meta = new VideoMeta(videoId, "title", "ch", "channel", "2024-05-01T00:00:00Z", 100L, 10L, 20L, null, "");
+		return new VideoAnalysisResponse(meta, List.of(), List.of(), null, 20, 18, 7, 6, 5, null, null, null, null,
+				null, null, List.of(), new AnalysisDepth(200, false, "next", List.of()));
+	}
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+}
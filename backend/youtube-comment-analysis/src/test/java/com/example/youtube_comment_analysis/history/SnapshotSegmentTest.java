@@ -0,0 +1,108 @@
+package com.example.youtube_comment_analysis.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.youtube_comment_analysis.ai.KeywordCount;
+
+class SnapshotSegmentTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsByKeyAndTimeRange() throws IOException {
+		try (SnapshotSegment seg = SnapshotSegment.create(dir.resolve("seg.dat"), 1, 4096, false)) {
+			append(seg, snapshot("a", 1_000, 1));
+			append(seg, snapshot("b", 2_000, 2));
+			append(seg, snapshot("a", 3_000, 3));
+
+			List<AnalysisSnapshot> a = seg.read("video:a", 0, Long.MAX_VALUE);
+			assertEquals(List.of(1, 3), a.stream().map(AnalysisSnapshot::POSITIVE).toList());
+			assertEquals(1, seg.read("video:a", 2_000, 3_000).size());
+			assertTrue(seg.read("video:c", 0, Long.MAX_VALUE).isEmpty());
+			assertEquals(1_000, seg.minTs());
+			assertEquals(3_000, seg.maxTs());
+		}
+	}
+
+	@Test
+	void reopenRebuildsIndex() throws IOException {
+		Path p = dir.resolve("seg.dat");
+		try (SnapshotSegment seg = SnapshotSegment.create(p, 1, 4096, false)) {
+			append(seg, snapshot("a", 1_000, 1));
+			append(seg, snapshot("a", 2_000, 2));
+		}
+		try (SnapshotSegment seg = SnapshotSegment.open(p, 1)) {
+			List<AnalysisSnapshot> a = seg.read("video:a", 0, Long.MAX_VALUE);
+			assertEquals(2, a.size());
+			assertEquals(new KeywordCount("키워드", 7), a.get(1).topKeywordGlobal().get(0));
+			//복구 후에도 이어서 append
+			append(seg, snapshot("a", 3_000, 3));
+			assertEquals(3, seg.read("video:a", 0, Long.MAX_VALUE).size());
+		}
+	}
+
+	@Test
+	void reopenStopsAtCorruptRecord() throws IOException {
+		Path p = dir.resolve("seg.dat");
+		int second;
+		try (SnapshotSegment seg = SnapshotSegment.create(p, 1, 4096, false)) {
+			append(seg, snapshot("a", 1_000, 1));
+			second = seg.usedBytes();
+			append(seg, snapshot("a", 2_000, 2));
+			append(seg, snapshot("a", 3_000, 3));
+		}
+		//두 번째 레코드 payload 1바이트 손상 → CRC 불일치, 그 뒤는 버림
+		try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long at = second + SnapshotSegment.RECORD_OVERHEAD + 1;
+			ByteBuffer b = ByteBuffer.allocate(1);
+			ch.read(b, at);
+			b.put(0, (byte) (b.get(0) ^ 0x5A)).rewind();
+			ch.write(b, at);
+		}
+		try (SnapshotSegment seg = SnapshotSegment.open(p, 1)) {
+			assertEquals(1, seg.read("video:a", 0, Long.MAX_VALUE).size());
+			assertEquals(second, seg.usedBytes());
+		}
+	}
+
+	@Test
+	void fullSegmentRejectsAppend() throws IOException {
+		byte[] payload = SnapshotCodec.encode(snapshot("a", 1_000, 1));
+		int capacity = SnapshotSegment.HEADER_BYTES + SnapshotSegment.RECORD_OVERHEAD + payload.length;
+		try (SnapshotSegment seg = SnapshotSegment.create(dir.resolve("seg.dat"), 1, capacity, false)) {
+			assertTrue(seg.tryAppend("video:a", 1_000, payload));
+			assertFalse(seg.tryAppend("video:a", 2_000, payload));
+		}
+	}
+
+	@Test
+	void openRejectsForeignFile() throws IOException {
+		Path p = dir.resolve("other.dat");
+		Files.write(p, new byte[64]);
+		assertThrows(IOException.class, () -> SnapshotSegment.open(p, 1));
+	}
+
+	static AnalysisSnapshot snapshot(String id, long capturedAt, int positive) {
+		return new AnalysisSnapshot(SnapshotTarget.VIDEO, id, capturedAt, positive, 2, 3, 10, 9, List.of(),
+				List.of(new KeywordCount("키워드", 7)));
+	}
+
+	private static void append(SnapshotSegment seg, AnalysisSnapshot s) {
+		assertTrue(seg.tryAppend(s.key(), s.capturedAt(), SnapshotCodec.encode(s)));
+	}
+}
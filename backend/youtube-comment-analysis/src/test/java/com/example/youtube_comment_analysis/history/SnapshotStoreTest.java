@@ -0,0 +1,107 @@
+package com.example.youtube_comment_analysis.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SnapshotStoreTest {
+
+	private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void compactsSealedSegmentToLatestPerKeyAndHour() {
+		long base = (System.currentTimeMillis() - Duration.ofHours(48).toMillis()) / HOUR_MS * HOUR_MS;
+		List<AnalysisSnapshot> old = List.of(
+				SnapshotSegmentTest.snapshot("a", base + minutes(1), 1),
+				SnapshotSegmentTest.snapshot("b", base + minutes(5), 2),
+				SnapshotSegmentTest.snapshot("a", base + minutes(10), 3),
+				SnapshotSegmentTest.snapshot("a", base + minutes(20), 4),
+				SnapshotSegmentTest.snapshot("a", base + HOUR_MS + minutes(1), 5),
+				SnapshotSegmentTest.snapshot("b", base + HOUR_MS + minutes(2), 6));
+		SnapshotStore store = store(segmentBytesFor(old), 90);
+		try {
+			old.forEach(store::append);
+			//첫 세그먼트가 가득 차 봉인되고 이건 새 활성 세그먼트로
+			store.append(SnapshotSegmentTest.snapshot("a", System.currentTimeMillis(), 7));
+
+			store.maintain();
+
+			assertEquals(List.of(4, 5, 7), positives(store.query(SnapshotTarget.VIDEO, "a", Instant.EPOCH, Instant.now())));
+			assertEquals(List.of(2, 6), positives(store.query(SnapshotTarget.VIDEO, "b", Instant.EPOCH, Instant.now())));
+		}
+		finally {
+			store.close();
+		}
+
+		//compaction 결과가 디스크에 남아 다시 열어도 같음
+		SnapshotStore reopened = store(segmentBytesFor(old), 90);
+		try {
+			assertEquals(List.of(4, 5, 7), positives(reopened.query(SnapshotTarget.VIDEO, "a", Instant.EPOCH, Instant.now())));
+		}
+		finally {
+			reopened.close();
+		}
+	}
+
+	@Test
+	void dropsSegmentsPastRetention() {
+		long old = System.currentTimeMillis() - Duration.ofDays(3).toMillis();
+		List<AnalysisSnapshot> expired = List.of(
+				SnapshotSegmentTest.snapshot("a", old, 1),
+				SnapshotSegmentTest.snapshot("a", old + 1, 2));
+		SnapshotStore store = store(segmentBytesFor(expired), 1);
+		try {
+			expired.forEach(store::append);
+			store.append(SnapshotSegmentTest.snapshot("a", System.currentTimeMillis(), 3));
+			assertTrue(Files.exists(dir.resolve("seg-0000000001.dat")));
+
+			store.maintain();
+
+			assertEquals(List.of(3), positives(store.query(SnapshotTarget.VIDEO, "a", Instant.EPOCH, Instant.now())));
+			assertFalse(Files.exists(dir.resolve("seg-0000000001.dat")));
+		}
+		finally {
+			store.close();
+		}
+	}
+
+	private SnapshotStore store(int segmentBytes, int retentionDays) {
+		SnapshotStore store = new SnapshotStore();
+		ReflectionTestUtils.setField(store, "enabled", true);
+		ReflectionTestUtils.setField(store, "dir", dir.toString());
+		ReflectionTestUtils.setField(store, "segmentBytes", segmentBytes);
+		ReflectionTestUtils.setField(store, "retentionDays", retentionDays);
+		ReflectionTestUtils.setField(store, "compactAfterHours", 24);
+		store.init();
+		return store;
+	}
+
+	//주어진 스냅샷이 딱 들어가는 세그먼트 크기
+	private static int segmentBytesFor(List<AnalysisSnapshot> snapshots) {
+		int size = SnapshotSegment.HEADER_BYTES;
+		for (AnalysisSnapshot s : snapshots)
+			size += SnapshotSegment.RECORD_OVERHEAD + SnapshotCodec.encode(s).length;
+		return size;
+	}
+
+	private static long minutes(int m) {
+		return Duration.ofMinutes(m).toMillis();
+	}
+
+	private static List<Integer> positives(List<AnalysisSnapshot> snapshots) {
+		return snapshots.stream().map(AnalysisSnapshot::POSITIVE).toList();
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.youtube_comment_analysis.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.example.youtube_comment_analysis.error.GlobalExceptionHandler;
+import com.example.youtube_comment_analysis.error.TooManyRequestsException;
+
+class BulkheadTest {
+
+	private final ExecutorService pool = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void runsUpToMaxConcurrentAndReleasesPermits() {
+		Bulkhead b = new Bulkhead("test", 2, 0, Duration.ZERO, 5);
+
+		assertEquals(42, b.call(() -> b.call(() -> 42)));
+		Bulkhead.BulkheadStats stats = b.stats();
+		assertEquals(0, stats.active());
+		assertEquals(2, stats.admitted());
+		assertEquals(0, stats.rejected());
+
+		//작업이 실패해도 자리 반환
+		assertThrows(IllegalStateException.class, () -> b.run(() -> {
+			throw new IllegalStateException("boom");
+		}));
+		assertEquals(0, b.stats().active());
+	}
+
+	@Test
+	void rejectsWhenQueueIsFullWithRetryAfter() throws Exception {
+		Bulkhead b = new Bulkhead("test", 1, 0, Duration.ofSeconds(5), 7);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = occupy(b, release);
+
+		TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> b.call(() -> 1));
+		assertEquals(7, e.getRetryAfterSeconds());
+		assertTrue(e.getMessage().contains("대기열 초과"));
+		assertEquals(1, b.stats().active());
+		assertEquals(1, b.stats().rejected());
+
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals(1, b.call(() -> 1));
+	}
+
+	@Test
+	void queuedCallerGivesUpAfterMaxWait() throws Exception {
+		Bulkhead b = new Bulkhead("test", 1, 1, Duration.ofMillis(50), 3);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = occupy(b, release);
+
+		long start = System.nanoTime();
+		TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> b.call(() -> 1));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertTrue(e.getMessage().contains("대기 시간 초과"));
+		assertEquals(0, b.stats().queueDepth());
+
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void queuedCallerRunsWhenPermitFreesInTime() throws Exception {
+		Bulkhead b = new Bulkhead("test", 1, 1, Duration.ofSeconds(5), 3);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = occupy(b, release);
+
+		CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> b.call(() -> 2), pool);
+		while (b.stats().queueDepth() == 0)
+			Thread.onSpinWait();
+		release.countDown();
+
+		assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals(2, b.stats().admitted());
+		assertEquals(0, b.stats().rejected());
+	}
+
+	@Test
+	void rejectionBecomes429WithRetryAfterHeader() {
+		var response = new GlobalExceptionHandler().handleTooManyRequests(
+				new TooManyRequestsException("busy", 9), new MockHttpServletRequest("GET", "/api/video"));
+
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+		assertEquals("9", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	//release가 열릴 때까지 자리 하나를 잡고 있는 작업 (잡은 뒤에 반환)
+	private CompletableFuture<Void> occupy(Bulkhead b, CountDownLatch release) throws InterruptedException {
+		CountDownLatch entered = new CountDownLatch(1);
+		CompletableFuture<Void> f = CompletableFuture.runAsync(() -> b.run(() -> {
+			entered.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}), pool);
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		return f;
+	}
+}
@@ -0,0 +1,126 @@
+package com.example.youtube_comment_analysis.video;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ActivityAnalyzerTest {
+
+	private static final long T0 = Instant.parse("2024-05-01T00:00:00Z").getEpochSecond();
+
+	//창 10분, 기준선의 4배 이상 + 창 합계 15개 이상이면 버스트, 기준선 반감기 60분
+	private static ActivityAnalyzer analyzer() {
+		return new ActivityAnalyzer(ZoneId.of("Asia/Seoul"), 10, 4.0, 15, 5, 60);
+	}
+
+	@Test
+	void steadyActivityHasNoBursts() {
+		ActivityAnalyzer a = analyzer();
+		feedNewestFirst(a, background(600));
+		assertTrue(a.summarize().bursts().isEmpty());
+	}
+
+	@Test
+	void spikeAfterWarmupIsReportedWithFiniteRatio() {
+		List<Long> times = background(600);
+		for (int m = 300; m < 305; m++)
+			for (int k = 0; k < 20; k++)
+				times.add(T0 + m * 60L + k);
+		ActivityAnalyzer a = analyzer();
+		feedNewestFirst(a, times);
+
+		List<ActivityAnalyzer.Burst> bursts = a.summarize().bursts();
+		assertEquals(1, bursts.size());
+		ActivityAnalyzer.Burst b = bursts.get(0);
+		assertTrue(Instant.parse(b.start()).getEpochSecond() <= T0 + 300 * 60L, b.start());
+		assertTrue(Instant.parse(b.end()).getEpochSecond() >= T0 + 305 * 60L, b.end());
+		assertEquals(110, b.peakWindowCount()); // 몰린 100개 + 같은 창의 평소 10개
+		assertTrue(Double.isFinite(b.ratio()));
+		assertTrue(b.ratio() >= 4.0);
+	}
+
+	@Test
+	void spikeInNewestWindowIsScoredAgainstPrecedingActivity() {
+		//최신순 스트림의 첫 부분(가장 최근 댓글)은 스트림 중에는 기준선이 없어 끝에서 그 이전 구간과 비교
+		List<Long> times = background(600);
+		for (int m = 595; m < 600; m++)
+			for (int k = 0; k < 20; k++)
+				times.add(T0 + m * 60L + k);
+		ActivityAnalyzer a = analyzer();
+		feedNewestFirst(a, times);
+
+		List<ActivityAnalyzer.Burst> bursts = a.summarize().bursts();
+		assertEquals(1, bursts.size());
+		ActivityAnalyzer.Burst b = bursts.get(0);
+		assertTrue(Instant.parse(b.start()).getEpochSecond() <= T0 + 595 * 60L, b.start());
+		assertTrue(Instant.parse(b.end()).getEpochSecond() >= T0 + 600 * 60L, b.end());
+		assertEquals(110, b.peakWindowCount());
+		assertEquals(10.0, b.baselinePerWindow(), 1e-9); // 이전 60분 분당 1개
+	}
+
+	@Test
+	void newestWindowWithoutPrecedingActivityIsNotScored() {
+		//영상이 기준선 준비 구간보다 짧으면 비교할 이전 구간이 없음
+		List<Long> times = background(30);
+		for (int k = 0; k < 50; k++)
+			times.add(T0 + 25 * 60L + k);
+		ActivityAnalyzer a = analyzer();
+		feedNewestFirst(a, times);
+		assertTrue(a.summarize().bursts().isEmpty());
+	}
+
+	@Test
+	void burstAfterLongSilenceHasFiniteRatio() {
+		//오래 조용하다가 몰린 댓글: 기준선이 0 근처까지 감쇠해도 배수는 유한
+		List<Long> times = new ArrayList<>();
+		for (int k = 0; k < 30; k++)
+			times.add(T0 + k);
+		times.add(T0 + 2 * 24 * 3600L);
+		ActivityAnalyzer a = analyzer();
+		feedNewestFirst(a, times);
+
+		List<ActivityAnalyzer.Burst> bursts = a.summarize().bursts();
+		assertEquals(1, bursts.size());
+		assertTrue(Double.isFinite(bursts.get(0).ratio()));
+	}
+
+	@Test
+	void hourlyDistributionUsesZoneAndCountsLateArrivals() {
+		ActivityAnalyzer a = analyzer();
+		a.accept(T0 + 3600);          // 10:00 KST
+		a.accept(T0 + 30 * 60);       // 09:30 KST
+		a.accept(T0 + 60);            // 09:01 KST
+		a.accept(T0 + 2 * 3600);      // 창보다 새로운 시각이 늦게 도착 (답글 등)
+
+		ActivitySummary s = a.summarize();
+		assertEquals(9, s.peakHour());
+		assertEquals(2, s.hourlyCommentCount().get(9));
+		assertEquals(1, s.hourlyCommentCount().get(10));
+		assertEquals(1, s.hourlyCommentCount().get(11));
+		assertEquals(4, s.analyzedComments());
+		assertEquals(1, s.outOfOrderComments());
+		assertEquals("2024-05-01T00:01:00Z", s.firstCommentAt());
+		assertEquals(7140, s.periodSeconds());
+	}
+
+	//분당 1개 꼴의 잔잔한 활동
+	private static List<Long> background(int minutes) {
+		List<Long> times = new ArrayList<>();
+		for (int m = 0; m < minutes; m++)
+			times.add(T0 + m * 60L + 30);
+		return times;
+	}
+
+	private static void feedNewestFirst(ActivityAnalyzer a, List<Long> times) {
+		times.sort(Comparator.reverseOrder());
+		for (long t : times)
+			a.accept(t);
+	}
+}
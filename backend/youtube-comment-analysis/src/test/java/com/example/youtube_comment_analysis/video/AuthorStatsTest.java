@@ -0,0 +1,93 @@
+package com.example.youtube_comment_analysis.video;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class AuthorStatsTest {
+
+	@Test
+	void singleVideoCountsExactly() {
+		AuthorStats s = AuthorStats.of(batch("a", "a", "a", "b", "b", "c"));
+
+		assertEquals(3, s.distinctAuthors());
+		assertFalse(s.distinctEstimated());
+		assertEquals(List.of(new AuthorStats.AuthorCount("a", 3, 0), new AuthorStats.AuthorCount("b", 2, 0)),
+				s.topAuthors());
+		//목록 밖 c는 1개
+		assertEquals(1, s.untrackedMaxCount());
+	}
+
+	@Test
+	void mergeAddsOverlappingAuthorsAndBoundsMissingOnes() {
+		//x는 두 영상 모두 목록에, y는 첫 영상 목록에만 (두 번째 영상에선 1개라 목록 밖)
+		AuthorStats first = AuthorStats.of(batch("x", "x", "x", "y", "y", "z"));
+		AuthorStats second = AuthorStats.of(batch("x", "x", "y", "w"));
+
+		AuthorStats merged = AuthorStats.merge(List.of(first, second));
+		Map<String, AuthorStats.AuthorCount> top = byAuthor(merged);
+
+		assertTrue(merged.distinctEstimated());
+		assertEquals(new AuthorStats.AuthorCount("x", 5, 0), top.get("x"));
+		//실제 3개: 확정 2 + 두 번째 영상 floor(1)까지 누락 가능
+		AuthorStats.AuthorCount y = top.get("y");
+		assertEquals(2, y.count());
+		assertEquals(1, y.maxError());
+		assertTrue(y.count() <= 3 && 3 <= y.count() + y.maxError());
+		assertEquals(4, merged.distinctAuthors());
+		assertEquals(2, merged.untrackedMaxCount());
+	}
+
+	@Test
+	void mergeSkipsEntriesWithoutRegisters() {
+		AuthorStats s = AuthorStats.of(batch("a", "a"));
+		AuthorStats legacy = new AuthorStats(10, false, List.of(), 0, null);
+
+		assertNull(AuthorStats.merge(List.of(legacy)));
+		assertEquals(List.of(new AuthorStats.AuthorCount("a", 4, 0)),
+				AuthorStats.merge(Arrays.asList(s, null, legacy, s)).topAuthors());
+	}
+
+	@Test
+	void hllEstimateStaysWithinThreeSigma() {
+		//두 영상이 절반씩 겹치는 작성자 40,000명
+		int n = 40_000;
+		CommentBatch a = CommentBatch.inMemory();
+		CommentBatch b = CommentBatch.inMemory();
+		for (int i = 0; i < n; i++) {
+			CommentBatch target = i < n / 4 ? a : i < 3 * n / 4 ? null : b;
+			if (target == null) {
+				a.add("a" + i, "author-" + i, "t", 0, CommentBatch.NO_TIME);
+				b.add("b" + i, "author-" + i, "t", 0, CommentBatch.NO_TIME);
+			}
+			else {
+				target.add("c" + i, "author-" + i, "t", 0, CommentBatch.NO_TIME);
+			}
+		}
+
+		AuthorStats merged = AuthorStats.merge(List.of(AuthorStats.of(a), AuthorStats.of(b)));
+		double sigma = 1.04 / Math.sqrt(1 << 11);
+		assertEquals(n, merged.distinctAuthors(), 3 * sigma * n);
+	}
+
+	private static CommentBatch batch(String... authors) {
+		CommentBatch b = CommentBatch.inMemory();
+		for (int i = 0; i < authors.length; i++)
+			b.add("c" + i, authors[i], "t", 0, CommentBatch.NO_TIME);
+		return b;
+	}
+
+	private static Map<String, AuthorStats.AuthorCount> byAuthor(AuthorStats s) {
+		return s.topAuthors().stream()
+				.collect(Collectors.toMap(AuthorStats.AuthorCount::author, Function.identity()));
+	}
+}
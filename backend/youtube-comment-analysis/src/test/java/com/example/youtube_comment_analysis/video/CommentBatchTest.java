@@ -0,0 +1,122 @@
+package com.example.youtube_comment_analysis.video;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommentBatchTest {
+
+	@TempDir
+	Path spillDir;
+
+	@Test
+	void keepsColumnsPerRow() {
+		try (CommentBatch b = CommentBatch.inMemory()) {
+			int r0 = b.add("c0", "alice", "첫 댓글", 3, 1_700_000_000L);
+			int r1 = b.add("c1", "bob", null, 0, CommentBatch.NO_TIME);
+			int r2 = b.add("c2", "alice", "", 7, 1_700_000_060L);
+
+			assertEquals(3, b.size());
+			assertEquals("첫 댓글", b.text(r0));
+			assertNull(b.text(r1));
+			assertEquals("", b.text(r2));
+			assertFalse(b.hasTime(r1));
+			assertNull(b.publishedAt(r1));
+			assertEquals("2023-11-14T22:13:20Z", b.publishedAt(r0));
+			//같은 작성자는 사전 id 하나
+			assertEquals(2, b.distinctAuthorCount());
+			assertEquals(b.authorId(r0), b.authorId(r2));
+			assertEquals(CommentBatch.UNLABELED, b.label(r0));
+			assertEquals(-1, b.thread(r0));
+			assertFalse(b.spilled());
+		}
+	}
+
+	@Test
+	void labelsAndBotsAreSeparateFromLabeled() {
+		try (CommentBatch b = CommentBatch.inMemory()) {
+			int r0 = b.add("c0", "a", "x", 0, CommentBatch.NO_TIME);
+			int r1 = b.add("c1", "a", "y", 0, CommentBatch.NO_TIME);
+			b.setLabel(r0, 2);
+			b.markBot(r1);
+
+			assertTrue(b.isLabeled(r0));
+			assertFalse(b.isLabeled(r1));
+			assertTrue(b.isBot(r1));
+			assertEquals(2, b.toDto(r0).getPrediction());
+			//봇/미분류는 DTO에 prediction 없음
+			assertNull(b.toDto(r1).getPrediction());
+		}
+	}
+
+	@Test
+	void spillsTextsPastThresholdAndReadsThemBack() throws IOException {
+		int n = 5_000;
+		try (CommentBatch b = new CommentBatch(1_000, spillDir)) {
+			for (int i = 0; i < n; i++)
+				b.add("id-" + i, "author-" + (i % 17), text(i), i, 1_700_000_000L + i);
+
+			assertTrue(b.spilled());
+			//메모리 구간과 파일 구간 모두, 쓰는 중(버퍼 미반영) 읽기도 원문 그대로
+			for (int i = 0; i < n; i++) {
+				assertEquals(text(i), b.text(i), "row " + i);
+				assertEquals("id-" + i, b.commentId(i));
+				assertEquals(i, b.likes(i));
+			}
+			b.add("late", "x", "스필 뒤 추가 😀", 0, CommentBatch.NO_TIME);
+			assertEquals("스필 뒤 추가 😀", b.text(n));
+		}
+		//닫으면 스필 파일 삭제
+		assertEquals(0, countSpillFiles());
+	}
+
+	@Test
+	void readAfterCloseFailsForSpilledBatch() {
+		CommentBatch b = new CommentBatch(4, spillDir);
+		b.add("c0", "a", "longer than four", 0, CommentBatch.NO_TIME);
+		b.close();
+		assertThrows(IllegalStateException.class, () -> b.text(0));
+	}
+
+	@Test
+	void addRowCopiesLabelAndThread() {
+		try (CommentBatch src = new CommentBatch(8, spillDir); CommentBatch dst = CommentBatch.inMemory()) {
+			int r = src.add("c0", "a", "spilled text", 5, 1_700_000_000L);
+			src.setLabel(r, 0);
+			src.setThread(r, 42);
+
+			int copy = dst.addRow(src, r);
+			assertEquals("spilled text", dst.text(copy));
+			assertEquals(0, dst.label(copy));
+			assertEquals(42, dst.thread(copy));
+			assertEquals(5, dst.likes(copy));
+		}
+	}
+
+	@Test
+	void parseEpochTreatsBrokenTimestampsAsMissing() {
+		assertEquals(1_700_000_000L, CommentBatch.parseEpoch("2023-11-14T22:13:20Z"));
+		assertEquals(CommentBatch.NO_TIME, CommentBatch.parseEpoch("yesterday"));
+		assertEquals(CommentBatch.NO_TIME, CommentBatch.parseEpoch(null));
+	}
+
+	private static String text(int i) {
+		return "댓글 " + i + " " + "가나다".repeat(i % 5);
+	}
+
+	private long countSpillFiles() throws IOException {
+		try (Stream<Path> s = Files.list(spillDir)) {
+			return s.filter(p -> p.getFileName().toString().endsWith(".spill")).count();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.youtube_comment_analysis.video;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class CommentExportWriterTest {
+
+	@Test
+	void csvCellQuotesOnlyWhenNeeded() {
+		assertEquals("", CommentExportWriter.csvCell(null));
+		assertEquals("", CommentExportWriter.csvCell(""));
+		assertEquals("좋아요", CommentExportWriter.csvCell("좋아요"));
+		assertEquals("\"a,b\"", CommentExportWriter.csvCell("a,b"));
+		assertEquals("\"그가 \"\"안녕\"\" 했다\"", CommentExportWriter.csvCell("그가 \"안녕\" 했다"));
+		assertEquals("\"줄\n바꿈\"", CommentExportWriter.csvCell("줄\n바꿈"));
+		assertEquals("\"a\rb\"", CommentExportWriter.csvCell("a\rb"));
+	}
+
+	@Test
+	void csvCellNeutralizesFormulas() {
+		assertEquals("\"'=HYPERLINK(\"\"x\"\")\"", CommentExportWriter.csvCell("=HYPERLINK(\"x\")"));
+		assertEquals("'+1", CommentExportWriter.csvCell("+1"));
+		assertEquals("'-1", CommentExportWriter.csvCell("-1"));
+		assertEquals("'@SUM(A1)", CommentExportWriter.csvCell("@SUM(A1)"));
+		//수식 표시 + 쉼표 → 따옴표로 감싼 안쪽에 '
+		assertEquals("\"'=1,2\"", CommentExportWriter.csvCell("=1,2"));
+		//중간의 = 는 그대로
+		assertEquals("a=b", CommentExportWriter.csvCell("a=b"));
+	}
+
+	@Test
+	void writesCsvRowsWithBomAndHeader() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (CommentExportWriter w = new CommentExportWriter(out, CommentExportWriter.Format.CSV)) {
+			w.write("vid", index(), Integer.MAX_VALUE);
+			assertEquals(2, w.rows());
+		}
+
+		assertEquals("\uFEFFvideoId,commentId,author,text,likes,publishedAt,bot,sentiment\r\n"
+				+ "vid,c0,alice,'=cmd,3,2023-11-14T22:13:20Z,false,POSITIVE\r\n"
+				+ "vid,c1,bot,\"광고, 클릭\",0,,true,\r\n",
+				out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void writesNdjsonOnlyUpToRequestedThreads() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (CommentExportWriter w = new CommentExportWriter(out, CommentExportWriter.Format.NDJSON)) {
+			w.write("vid", index(), 1);
+		}
+
+		assertEquals("{\"videoId\":\"vid\",\"commentId\":\"c1\",\"author\":\"bot\",\"text\":\"광고, 클릭\",\"likes\":0,"
+				+ "\"publishedAt\":null,\"bot\":true,\"sentiment\":null}\n",
+				out.toString(StandardCharsets.UTF_8));
+	}
+
+	//최신순 스레드 순번: c1=0, c0=1
+	private static CommentIndex index() {
+		try (CommentBatch b = CommentBatch.inMemory()) {
+			b.setLabel(b.add("c0", "alice", "=cmd", 3, 1_700_000_000L), 2);
+			b.markBot(b.add("c1", "bot", "광고, 클릭", 0, CommentBatch.NO_TIME));
+			b.setThread(0, 1);
+			b.setThread(1, 0);
+			return CommentIndex.build(b);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.example.youtube_comment_analysis.video;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.youtube_comment_analysis.error.BadRequestException;
+
+class CommentIndexTest {
+
+	@Test
+	void cursorWalksEveryMatchOnceInOrder() {
+		CommentIndex index = CommentIndex.build(batch(25));
+
+		List<String> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			CommentIndex.Page page = index.query("", null, CommentIndex.Sort.NEWEST, cursor, 10);
+			assertEquals(25, page.totalMatches());
+			page.items().forEach(c -> seen.add(c.getCommentId()));
+			cursor = page.nextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(3, pages);
+		List<String> expected = new ArrayList<>();
+		for (int i = 24; i >= 0; i--)
+			expected.add("c" + i);
+		assertEquals(expected, seen);
+	}
+
+	@Test
+	void oldestIsNewestReversed() {
+		CommentIndex index = CommentIndex.build(batch(5));
+
+		CommentIndex.Page first = index.query(null, null, CommentIndex.Sort.OLDEST, null, 3);
+		assertEquals(List.of("c0", "c1", "c2"), ids(first));
+		CommentIndex.Page rest = index.query(null, null, CommentIndex.Sort.OLDEST, first.nextCursor(), 3);
+		assertEquals(List.of("c3", "c4"), ids(rest));
+		assertNull(rest.nextCursor());
+	}
+
+	@Test
+	void cursorFromOtherResultOrSortIsRejected() {
+		CommentIndex index = CommentIndex.build(batch(5));
+		String cursor = index.query("", null, CommentIndex.Sort.NEWEST, null, 2).nextCursor();
+		assertNotNull(cursor);
+
+		//감정이 하나 바뀐 결과 → 세대 불일치
+		CommentBatch changed = batch(5);
+		changed.setLabel(0, 2);
+		CommentIndex rebuilt = CommentIndex.build(changed);
+		assertThrows(BadRequestException.class,
+				() -> rebuilt.query("", null, CommentIndex.Sort.NEWEST, cursor, 2));
+		assertThrows(BadRequestException.class,
+				() -> index.query("", null, CommentIndex.Sort.LIKES, cursor, 2));
+		assertThrows(BadRequestException.class,
+				() -> index.query("", null, CommentIndex.Sort.NEWEST, "%%%", 2));
+	}
+
+	@Test
+	void findsSubstringsIncludingSingleCharacters() {
+		CommentBatch b = CommentBatch.inMemory();
+		b.setLabel(b.add("a", "u1", "노래가 정말 좋네요", 1, 100), 2);
+		b.setLabel(b.add("b", "u2", "좋은 하루", 2, 200), 1);
+		b.setLabel(b.add("c", "u3", "Hello World", 3, 300), 0);
+		CommentIndex index = CommentIndex.build(b);
+
+		//단어 중간 부분 문자열, 여러 단어는 모두 포함해야 함
+		assertEquals(List.of("a"), ids(index.query("래가", null, CommentIndex.Sort.NEWEST, null, 10)));
+		assertEquals(List.of("a"), ids(index.query("정말 좋", null, CommentIndex.Sort.NEWEST, null, 10)));
+		assertEquals(List.of("b", "a"), ids(index.query("좋", null, CommentIndex.Sort.NEWEST, null, 10)));
+		assertEquals(List.of("c"), ids(index.query("o", null, CommentIndex.Sort.NEWEST, null, 10)));
+		assertEquals(List.of("c"), ids(index.query("WORLD", null, CommentIndex.Sort.NEWEST, null, 10)));
+		assertEquals(List.of("b"), ids(index.query("좋", Sentiment.NEUTRAL, CommentIndex.Sort.NEWEST, null, 10)));
+		assertEquals(0, index.query("없는말", null, CommentIndex.Sort.NEWEST, null, 10).totalMatches());
+	}
+
+	@Test
+	void shallowerLimitFiltersByThreadAndDeeperIsNotCovered() {
+		//최신순 스레드 순번: c4=0, c3=1, ... c0=4, 답글 r은 스레드 1
+		CommentBatch b = batch(5);
+		for (int i = 0; i < 5; i++)
+			b.setThread(i, 4 - i);
+		b.setLabel(b.add("r", "u9", "답글", 0, 1_700_000_010L), 1);
+		b.setThread(5, 1);
+		CommentIndex index = CommentIndex.build(b, AnalysisDepth.of(5, "next", List.of()));
+
+		assertTrue(index.covers(2));
+		assertFalse(index.covers(10));
+		CommentIndex.Page page = index.query(null, null, CommentIndex.Sort.NEWEST, null, 10, 2);
+		assertEquals(List.of("r", "c4", "c3"), ids(page));
+		assertEquals(3, index.size(2));
+		assertEquals(6, index.size(5));
+		//깊이를 모르면 끝까지 읽은 것으로
+		assertTrue(CommentIndex.build(b).covers(10_000));
+	}
+
+	@Test
+	void botsAndUnlabeledAreExportedButNotSearched() throws Exception {
+		CommentBatch b = batch(2);
+		b.markBot(b.add("bot", "spam", "댓글 광고", 99, 1_700_000_100L));
+		b.add("raw", "u9", "댓글 대기", 0, 1_700_000_200L);
+		CommentIndex index = CommentIndex.build(b);
+
+		assertEquals(2, index.size());
+		assertEquals(List.of("c1", "c0"), ids(index.query("댓글", null, CommentIndex.Sort.LIKES, null, 10)));
+		List<String> rows = new ArrayList<>();
+		index.forEachRow(Integer.MAX_VALUE, (id, author, text, likes, publishedAt, bot, sentiment) ->
+				rows.add(id + ":" + bot + ":" + sentiment));
+		//배치 순서 그대로, 봇/미분류는 감정 없음
+		assertEquals(List.of("c0:false:NEUTRAL", "c1:false:NEUTRAL", "bot:true:null", "raw:false:null"), rows);
+	}
+
+	@Test
+	void idsAtIncludesEveryRowWrittenInThatSecond() {
+		CommentBatch b = batch(3);
+		b.markBot(b.add("bot", "spam", "광고", 0, 1_700_000_002L));
+		b.add("raw", "u9", "대기", 0, 1_700_000_002L);
+		CommentIndex index = CommentIndex.build(b);
+
+		assertEquals(Set.of("c2", "bot", "raw"), index.idsAt(1_700_000_002L));
+		assertTrue(index.idsAt(1_600_000_000L).isEmpty());
+	}
+
+	//c{i}: i초에 작성, 좋아요 i, 중립
+	private static CommentBatch batch(int n) {
+		CommentBatch b = CommentBatch.inMemory();
+		for (int i = 0; i < n; i++)
+			b.setLabel(b.add("c" + i, "u" + i, "댓글 " + i, i, 1_700_000_000L + i), 1);
+		return b;
+	}
+
+	private static List<String> ids(CommentIndex.Page page) {
+		return page.items().stream().map(CommentDto::getCommentId).toList();
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.youtube_comment_analysis.video;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DepthViewTest {
+
+	@Test
+	void depthCoversShallowerRequestsOrAnyWhenExhausted() {
+		AnalysisDepth partial = AnalysisDepth.of(200, "next", null);
+		assertTrue(partial.covers(100));
+		assertTrue(partial.covers(200));
+		assertFalse(partial.covers(500));
+		assertTrue(partial.extendable(500));
+		assertFalse(partial.extendable(200));
+
+		AnalysisDepth all = AnalysisDepth.of(150, null, null);
+		assertTrue(all.covers(1_000));
+		assertFalse(all.extendable(1_000));
+
+		//깊이 기록 전 캐시 항목은 그대로 씀
+		assertTrue(response(null).covers(1_000));
+	}
+
+	@Test
+	void atDepthPicksShallowestViewAtLeastTheLimit() {
+		DepthView v50 = view(50, 5);
+		DepthView v100 = view(100, 9);
+		VideoAnalysisResponse full = response(new AnalysisDepth(200, false, "next", List.of(v100, v50)));
+
+		VideoAnalysisResponse r = full.atDepth(60);
+		assertEquals(9, r.POSITIVE());
+		assertEquals(100, r.depth().threads());
+		assertTrue(r.depth().views().isEmpty());
+		//깊이에 따라 달라지지 않는 값은 전체 결과 그대로
+		assertSame(full.video(), r.video());
+
+		assertEquals(5, full.atDepth(10).POSITIVE());
+	}
+
+	@Test
+	void atDepthBeyondAllViewsReturnsFullResultWithoutViews() {
+		VideoAnalysisResponse full = response(new AnalysisDepth(200, false, "next", List.of(view(50, 5))));
+		VideoAnalysisResponse r = full.atDepth(200);
+		assertEquals(full.POSITIVE(), r.POSITIVE());
+		assertEquals(200, r.depth().threads());
+		assertTrue(r.depth().views().isEmpty());
+	}
+
+	@Test
+	void viewFromBatchCountsOnlyThreadsBelowDepth() {
+		try (CommentBatch b = CommentBatch.inMemory()) {
+			addRow(b, 0, 2);
+			addRow(b, 0, 2); // 스레드 0의 답글
+			addRow(b, 1, 0);
+			addRow(b, 2, CommentBatch.UNLABELED);
+			addRow(b, 3, 2);
+			addRow(b, -1, 1); // 스레드 모름 → 어떤 깊이에도 안 넣음
+			int bot = addRow(b, 1, 0);
+			b.markBot(bot);
+
+			DepthView v = DepthView.of(b, 3, ZoneId.of("Asia/Seoul"));
+			assertEquals(3, v.threads());
+			assertEquals(5, v.commentCountBeforeBot());
+			assertEquals(2, v.POSITIVE());
+			assertEquals(0, v.NEUTRAL());
+			assertEquals(1, v.NEGATIVE());
+		}
+	}
+
+	private static int addRow(CommentBatch b, int thread, int label) {
+		int r = b.add("c" + b.size(), "a" + b.size(), "text", 0, 1_700_000_000L + b.size() * 60L);
+		b.setThread(r, thread);
+		b.setLabel(r, label);
+		return r;
+	}
+
+	private static DepthView view(int threads, int positive) {
+		return new DepthView(threads, List.of(), null, positive, positive, positive, 0, 0, null, null, null);
+	}
+
+	private static VideoAnalysisResponse response(AnalysisDepth depth) {
+		VideoMeta meta = new VideoMeta("abc", "title", "ch", "channel", null, null, null, null, null, null);
+		return new VideoAnalysisResponse(meta, List.of(), List.of(), null, 30, 30, 20, 6, 4, null, null, null, null,
+				null, null, List.of(), depth);
+	}
+}
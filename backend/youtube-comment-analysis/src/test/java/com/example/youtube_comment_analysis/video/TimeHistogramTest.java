@@ -0,0 +1,73 @@
+package com.example.youtube_comment_analysis.video;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.youtube_comment_analysis.error.BadRequestException;
+
+class TimeHistogramTest {
+
+	private static final long T0 = Instant.parse("2024-05-01T00:00:00Z").getEpochSecond();
+	private static final ZoneId SEOUL = ZoneId.of("Asia/Seoul");
+	private static final ZoneId KOLKATA = ZoneId.of("Asia/Kolkata");
+
+	@Test
+	void shortSpanKeepsMinuteResolution() {
+		TimeHistogram h = histogram(T0 + 10 * 60, T0 + 40 * 60, T0 + 3 * 3600);
+		assertEquals(1, h.resolutionMinutes());
+
+		//05:30 오프셋: 00:10Z, 00:40Z → 05:40, 06:10 (현지 정시 기준으로 나뉨)
+		List<TimeHistogram.Bucket> local = h.timeline(KOLKATA, Duration.ofHours(1));
+		assertEquals("2024-05-01T05:00", local.get(0).label());
+		assertEquals(1, local.get(0).POSITIVE());
+		assertEquals(1, local.get(1).POSITIVE());
+	}
+
+	@Test
+	void longSpanUsesQuarterHoursAndRegroupsForWholeHourZones() {
+		TimeHistogram h = histogram(T0 + 10 * 60, T0 + 40 * 60, T0 + 10 * 24 * 3600);
+		assertEquals(15, h.resolutionMinutes());
+
+		List<TimeHistogram.Bucket> byHour = h.timeOfDay(SEOUL, Duration.ofHours(1));
+		assertEquals(24, byHour.size());
+		assertEquals(3, byHour.get(9).POSITIVE()); // 00:xxZ = 09:xx KST
+	}
+
+	@Test
+	void longSpanRegroupsForHalfAndQuarterHourZones() {
+		//00:10Z, 00:40Z → Kolkata(+05:30) 05:40, 06:10 / Kathmandu(+05:45) 05:55, 06:25
+		TimeHistogram h = histogram(T0 + 10 * 60, T0 + 40 * 60, T0 + 10 * 24 * 3600);
+
+		List<TimeHistogram.Bucket> kolkata = h.timeline(KOLKATA, Duration.ofHours(1));
+		assertEquals("2024-05-01T05:00", kolkata.get(0).label());
+		assertEquals(1, kolkata.get(0).POSITIVE());
+		assertEquals(1, kolkata.get(1).POSITIVE());
+
+		List<TimeHistogram.Bucket> kathmandu = h.timeOfDay(ZoneId.of("Asia/Kathmandu"), Duration.ofHours(1));
+		assertEquals(2, kathmandu.get(5).POSITIVE()); // 05:55 + 10일 뒤 00:00Z(05:45)
+		assertEquals(1, kathmandu.get(6).POSITIVE());
+	}
+
+	@Test
+	void widthMustBeMultipleOfResolution() {
+		TimeHistogram h = histogram(T0, T0 + 10 * 24 * 3600);
+		assertThrows(BadRequestException.class, () -> h.timeline(SEOUL, Duration.ofMinutes(20)));
+		assertThrows(BadRequestException.class, () -> h.timeOfDay(SEOUL, Duration.ofHours(5)));
+	}
+
+	//모두 긍정 라벨
+	private static TimeHistogram histogram(long... epochSeconds) {
+		try (CommentBatch b = CommentBatch.inMemory()) {
+			for (long t : epochSeconds)
+				b.setLabel(b.add("c" + b.size(), "a", "text", 0, t), 2);
+			return TimeHistogram.of(b);
+		}
+	}
+}